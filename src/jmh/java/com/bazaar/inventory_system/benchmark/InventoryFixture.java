@@ -0,0 +1,125 @@
+package com.bazaar.inventory_system.benchmark;
+
+import com.bazaar.inventory_system.InventoryTrackingSystemApplication;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.bazaar.inventory_system.service.ProductSearchIndex;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+The application without the web server, on its own in-memory H2, seeded with a catalog and a year
+of history (fixed random seed, so every run and every fork sees the same data):
+  20 stores, 5,000 products in 12 categories, stock for every product in every store,
+  200,000 stock movements spread over the last 12 months.
+Stores, products and stock go through JPA / plain inserts; movements through JDBC batches,
+taking their ids from the same sequence Hibernate uses.
+ */
+final class InventoryFixture {
+
+    static final int STORES = 20;
+    static final int PRODUCTS = 5_000;
+    static final int MOVEMENTS = 200_000;
+    static final int INITIAL_QUANTITY = 1_000_000_000; // sell/remove benchmarks never run out
+
+    static final String[] CATEGORIES = {"Grocery", "Dairy", "Bakery", "Beverages", "Snacks", "Household",
+            "Personal Care", "Baby", "Frozen", "Electronics", "Stationery", "Pet"};
+    private static final String[] BRANDS = {"Shan", "National", "Nestle", "Olpers", "Dalda", "Tapal",
+            "Lipton", "Surf", "Colgate", "Kolson", "Peek Freans", "Sooper"};
+    private static final String[] ITEMS = {"Rice", "Milk", "Bread", "Tea", "Biscuits", "Cooking Oil",
+            "Detergent", "Toothpaste", "Shampoo", "Ketchup", "Noodles", "Juice", "Yogurt", "Butter",
+            "Chips", "Soap", "Diapers", "Cat Food", "Notebook", "Batteries"};
+    private static final String[] SIZES = {"250g", "500g", "1kg", "5kg", "200ml", "1L", "1.5L", "Pack of 6"};
+    private static final String[] TYPES = {"Stock-In", "Sale", "Sale", "Sale", "Removal"};
+
+    final ConfigurableApplicationContext context;
+    final List<Long> storeIds = new ArrayList<>();
+    final List<Long> productIds = new ArrayList<>();
+
+    private InventoryFixture(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    static InventoryFixture start() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryTrackingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.open-in-view=false",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run();
+        InventoryFixture fixture = new InventoryFixture(context);
+        fixture.seed();
+        return fixture;
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    void close() {
+        context.close();
+    }
+
+    // --- Helper Methods ---
+
+    private void seed() {
+        Random random = new Random(42);
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+
+        List<Store> stores = new ArrayList<>();
+        for (int i = 0; i < STORES; i++) {
+            stores.add(new Store("Bazaar " + (i + 1), "City " + (i % 5 + 1)));
+        }
+        bean(StoreRepository.class).saveAll(stores).forEach(s -> storeIds.add(s.getStoreId()));
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < PRODUCTS; i++) {
+            String name = BRANDS[random.nextInt(BRANDS.length)] + " " + ITEMS[random.nextInt(ITEMS.length)] + " "
+                    + SIZES[random.nextInt(SIZES.length)] + " #" + i;
+            products.add(new Product(null, name, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    BigDecimal.valueOf(50 + random.nextInt(5_000), 1), null));
+        }
+        bean(ProductRepository.class).saveAll(products).forEach(p -> productIds.add(p.getProductId()));
+        bean(ProductSearchIndex.class).rebuild();
+
+        List<Object[]> stock = new ArrayList<>();
+        for (Long storeId : storeIds) {
+            for (Long productId : productIds) {
+                stock.add(new Object[]{storeId, productId, INITIAL_QUANTITY});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO stock (store_id, product_id, quantity) VALUES (?, ?, ?)", stock);
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        long yearSeconds = 365L * 24 * 3600;
+        List<Object[]> movements = new ArrayList<>(10_000);
+        for (int i = 0; i < MOVEMENTS; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            LocalDateTime timestamp = now.minusSeconds((long) (random.nextDouble() * yearSeconds));
+            int quantity = 1 + random.nextInt(type.equals("Stock-In") ? 100 : 5);
+            movements.add(new Object[]{storeIds.get(random.nextInt(STORES)), productIds.get(random.nextInt(PRODUCTS)),
+                    type.equals("Stock-In") ? quantity : -quantity, type, Timestamp.valueOf(timestamp),
+                    StockMovement.monthBucket(timestamp)});
+            if (movements.size() == 10_000 || i == MOVEMENTS - 1) {
+                jdbc.batchUpdate("INSERT INTO stock_movement (stock_movement_id, store_id, product_id, quantity_change, " +
+                        "movement_type, timestamp, movement_month) " +
+                        "VALUES (NEXT VALUE FOR stock_movement_seq, ?, ?, ?, ?, ?, ?)", movements);
+                movements.clear();
+            }
+        }
+    }
+}
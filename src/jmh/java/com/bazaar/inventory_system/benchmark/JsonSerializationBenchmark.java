@@ -0,0 +1,62 @@
+package com.bazaar.inventory_system.benchmark;
+
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Stock;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.Store;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+Response bodies of the list endpoints, without the database. The mapper is built the way Spring
+Boot builds its own (Java time module, ISO dates). Movements carry their Store and Product, as
+they do when loaded through JPA.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Stock> stock;
+    private List<StockMovement> movements;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Store store = new Store("Bazaar 1", "City 1");
+        store.setStoreId(1L);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        stock = new ArrayList<>(size);
+        movements = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = new Product((long) i, "Product " + i, "Grocery", BigDecimal.valueOf(100 + i, 1), null);
+            stock.add(new Stock(1L, (long) i, 100 + i, store, product));
+            movements.add(new StockMovement((long) i, 1L, (long) i, -1, "Sale", now.minusMinutes(i), store, product));
+        }
+    }
+
+    @Benchmark
+    public byte[] stockList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(stock);
+    }
+
+    @Benchmark
+    public byte[] movementList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(movements);
+    }
+}
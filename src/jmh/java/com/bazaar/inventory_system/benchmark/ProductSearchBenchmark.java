@@ -0,0 +1,66 @@
+package com.bazaar.inventory_system.benchmark;
+
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.service.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// ProductRepository's LIKE lookups next to the trigram index that /products/search uses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    private static final String[] TERMS = {"milk", "tea", "oil", "shampoo", "nestle", "1kg", "biscu", "noodle"};
+
+    private InventoryFixture fixture;
+    private ProductRepository productRepository;
+    private ProductSearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = InventoryFixture.start();
+        productRepository = fixture.bean(ProductRepository.class);
+        searchIndex = fixture.bean(ProductSearchIndex.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<Product> repositoryNameLike() {
+        return productRepository.findByNameContainingIgnoreCase(randomTerm());
+    }
+
+    @Benchmark
+    public List<Product> repositoryCategory() {
+        String[] categories = InventoryFixture.CATEGORIES;
+        return productRepository.findByCategory(categories[ThreadLocalRandom.current().nextInt(categories.length)]);
+    }
+
+    @Benchmark
+    public List<Product> repositoryNameLikeAndCategory() {
+        return productRepository.findByNameContainingIgnoreCaseAndCategory(randomTerm(), "Grocery");
+    }
+
+    @Benchmark
+    public List<Long> indexSubstring() {
+        return searchIndex.search(new ProductSearchQuery(randomTerm(), null, ProductSearchQuery.Mode.SUBSTRING, 100));
+    }
+
+    // --- Helper Methods ---
+
+    private static String randomTerm() {
+        return TERMS[ThreadLocalRandom.current().nextInt(TERMS.length)];
+    }
+}
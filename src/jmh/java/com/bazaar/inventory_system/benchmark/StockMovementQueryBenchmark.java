@@ -0,0 +1,68 @@
+package com.bazaar.inventory_system.benchmark;
+
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The StockMovementRepository reads behind GET /stores/{storeId}/stock-movements and /page
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockMovementQueryBenchmark {
+
+    private InventoryFixture fixture;
+    private StockMovementRepository stockMovementRepository;
+    private LocalDateTime now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = InventoryFixture.start();
+        stockMovementRepository = fixture.bean(StockMovementRepository.class);
+        now = LocalDateTime.now();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    // About 10,000 rows per store over the year, so a week is ~200
+    @Benchmark
+    public List<StockMovement> storeLastWeek() {
+        return stockMovementRepository.findByStoreIdAndTimestampBetween(randomStore(), now.minusDays(7), now);
+    }
+
+    @Benchmark
+    public List<StockMovement> storeProductLastQuarter() {
+        return stockMovementRepository.findByStoreIdAndProductIdAndTimestampBetween(randomStore(), randomProduct(),
+                now.minusDays(90), now);
+    }
+
+    @Benchmark
+    public List<StockMovement> storeProductAllTime() {
+        return stockMovementRepository.findByStoreIdAndProductId(randomStore(), randomProduct());
+    }
+
+    @Benchmark
+    public List<StockMovement> storeFirstPage() {
+        return stockMovementRepository.findPage(randomStore(), null, now.minusDays(30), now, null, null, 100);
+    }
+
+    // --- Helper Methods ---
+
+    private Long randomStore() {
+        return fixture.storeIds.get(ThreadLocalRandom.current().nextInt(fixture.storeIds.size()));
+    }
+
+    private Long randomProduct() {
+        return fixture.productIds.get(ThreadLocalRandom.current().nextInt(fixture.productIds.size()));
+    }
+}
@@ -0,0 +1,58 @@
+package com.bazaar.inventory_system.benchmark;
+
+import com.bazaar.inventory_system.controller.StockController;
+import com.bazaar.inventory_system.model.Stock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// POST /stock-in, /sell and /remove-stock as the controller runs them (validation, guarded update, movement)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockOperationsBenchmark {
+
+    private InventoryFixture fixture;
+    private StockController stockController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = InventoryFixture.start();
+        stockController = fixture.bean(StockController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object addStock() {
+        return stockController.addStock(randomStore(), null, request(10));
+    }
+
+    @Benchmark
+    public Object sellProduct() {
+        return stockController.sellProduct(randomStore(), null, request(1));
+    }
+
+    @Benchmark
+    public Object removeStock() {
+        return stockController.removeStock(randomStore(), null, request(1));
+    }
+
+    // --- Helper Methods ---
+
+    private Long randomStore() {
+        return fixture.storeIds.get(ThreadLocalRandom.current().nextInt(fixture.storeIds.size()));
+    }
+
+    private Stock request(int quantity) {
+        Long productId = fixture.productIds.get(ThreadLocalRandom.current().nextInt(fixture.productIds.size()));
+        return new Stock(null, productId, quantity, null, null);
+    }
+}
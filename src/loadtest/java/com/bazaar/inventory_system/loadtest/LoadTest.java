@@ -0,0 +1,303 @@
+package com.bazaar.inventory_system.loadtest;
+
+import com.bazaar.inventory_system.InventoryTrackingSystemApplication;
+import com.bazaar.inventory_system.dto.StockBatchLine;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockOperation;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.bazaar.inventory_system.service.StockLedger;
+import com.bazaar.inventory_system.service.StockMovementJournal;
+import com.bazaar.inventory_system.service.StockService;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Multi-store load test against the real application. Starts the app on a random port, seeds
+--stores x --products (stores and products through the repositories, opening stock through
+StockService batches), then runs --clients closed-loop HTTP clients over the --mix of operations:
+first --warmup seconds unrecorded, then --duration seconds measured. Prints per-operation
+throughput, outcome counts and HdrHistogram p50/p99/p99.9/max, then checks that every seeded
+stock row equals the sum of its movements and that the database moved exactly as many units
+as the clients were told. Exits with 1 when the check fails.
+
+  mvn -Ploadtest test-compile exec:exec
+  mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--stores=2000 --clients=500 --inventory.ledger.enabled=true"
+
+Options (defaults in LoadTestOptions): --stores --products --initial-quantity --clients --warmup
+--duration --mix=op:weight,... (stock-in, sell, remove-stock, stock-read, store-stock, movements,
+movement-page) --hdr-dir=<dir>, plus any --spring.* / --server.* / --inventory.* for the app.
+ */
+public final class LoadTest {
+
+    private final LoadTestOptions options;
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+    private final List<Long> storeIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    // Net units the clients were told got applied (2xx), warmup included
+    private final AtomicLong appliedUnits = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+
+    private LoadTest(LoadTestOptions options, ConfigurableApplicationContext context) {
+        this.options = options;
+        this.context = context;
+        this.baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        this.operations = options.mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN", "--server.tomcat.max-connections=" + Math.max(8192, options.clients * 2)));
+        appArgs.addAll(options.appArgs); // later arguments win
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InventoryTrackingSystemApplication.class)
+                .run(appArgs.toArray(new String[0]));
+        boolean consistent;
+        try {
+            consistent = new LoadTest(options, context).run();
+        } finally {
+            context.close();
+        }
+        System.exit(consistent ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        seed();
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(4, daemon("loadtest-http"));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(callbacks)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(daemon("loadtest-progress"));
+        AtomicLong lastCompleted = new AtomicLong();
+        progress.scheduleAtFixedRate(() -> {
+            long now = completed.get();
+            System.out.printf("  ... %d req/s%n", (now - lastCompleted.getAndSet(now)) / 10);
+        }, 10, 10, TimeUnit.SECONDS);
+        try {
+            if (options.warmupSeconds > 0) {
+                System.out.printf("Warming up: %d clients for %d s%n", options.clients, options.warmupSeconds);
+                drive(client, options.warmupSeconds);
+            }
+            System.out.printf("Measuring: %d clients for %d s%n", options.clients, options.durationSeconds);
+            long start = System.nanoTime();
+            Map<Operation, OperationStats> stats = drive(client, options.durationSeconds);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            report(stats, seconds);
+        } finally {
+            progress.shutdownNow();
+            callbacks.shutdownNow();
+        }
+        return checkConsistency();
+    }
+
+    // --- Seeding ---
+
+    private void seed() {
+        long start = System.nanoTime();
+        String prefix = "load-" + System.currentTimeMillis() + "-";
+        List<Store> stores = new ArrayList<>(options.stores);
+        for (int i = 0; i < options.stores; i++) {
+            stores.add(new Store(prefix + i, "Load test"));
+        }
+        context.getBean(StoreRepository.class).saveAll(stores).forEach(s -> storeIds.add(s.getStoreId()));
+
+        List<Product> products = new ArrayList<>(options.products);
+        for (int i = 0; i < options.products; i++) {
+            products.add(new Product(null, prefix + "product-" + i, "Load test", BigDecimal.TEN, null));
+        }
+        context.getBean(ProductRepository.class).saveAll(products).forEach(p -> productIds.add(p.getProductId()));
+
+        // Opening stock as one stock-in batch per store, so it has movements like everything else
+        StockService stockService = context.getBean(StockService.class);
+        List<StockBatchLine> delivery = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            delivery.add(new StockBatchLine(StockOperation.STOCK_IN, productId, options.initialQuantity));
+        }
+        for (Long storeId : storeIds) {
+            if (!stockService.applyBatch(storeId, delivery).isCommitted()) {
+                throw new IllegalStateException("Opening stock for store " + storeId + " was not committed");
+            }
+        }
+        System.out.printf("Seeded %d stores x %d products in %d ms%n", options.stores, options.products,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // --- Load ---
+
+    private Map<Operation, OperationStats> drive(HttpClient client, int seconds) {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new OperationStats());
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        List<CompletableFuture<Void>> clients = new ArrayList<>(options.clients);
+        for (int i = 0; i < options.clients; i++) {
+            clients.add(loop(client, deadline, stats));
+        }
+        CompletableFuture.allOf(clients.toArray(new CompletableFuture[0])).join();
+        return stats;
+    }
+
+    // One client: send, wait for the answer, send the next, until the deadline
+    private CompletableFuture<Void> loop(HttpClient client, long deadline, Map<Operation, OperationStats> stats) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = pick(random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]));
+        Long storeId = storeIds.get(random.nextInt(storeIds.size()));
+        Long productId = productIds.get(random.nextInt(productIds.size()));
+        int quantity = operation.randomQuantity();
+
+        long sent = System.nanoTime();
+        return client.sendAsync(operation.request(baseUrl, storeId, productId, quantity),
+                        HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    if (stats.get(operation).record(System.nanoTime() - sent, response, failure)
+                            && operation.changesStock()) {
+                        appliedUnits.addAndGet(operation.delta(quantity));
+                    }
+                    completed.incrementAndGet();
+                    return null;
+                })
+                .thenCompose(v -> loop(client, deadline, stats));
+    }
+
+    private Operation pick(int roll) {
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    // --- Report ---
+
+    private void report(Map<Operation, OperationStats> stats, double seconds) throws Exception {
+        System.out.printf("%n%-14s %9s %9s %9s %8s %7s %9s %9s %9s %9s%n", "operation", "requests", "req/s",
+                "ok", "409", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram all = new Histogram(3);
+        long requests = 0;
+        long errors = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats s = entry.getValue();
+            Histogram histogram = s.histogram();
+            all.add(histogram);
+            requests += s.requests();
+            errors += s.errors.sum();
+            printRow(entry.getKey().key, s.requests(), seconds, s.ok.sum(), s.rejected.sum(), s.errors.sum(),
+                    histogram);
+            writeHdr(entry.getKey().key, histogram);
+            if (s.firstError.get() != null) {
+                System.out.printf("  first %s error: %s%n", entry.getKey().key, s.firstError.get());
+            }
+        }
+        printRow("total", requests, seconds, -1, -1, errors, all);
+        writeHdr("total", all);
+        System.out.printf("Error rate: %.3f%%%n%n", requests == 0 ? 0 : 100.0 * errors / requests);
+    }
+
+    private static void printRow(String name, long requests, double seconds, long ok, long rejected, long errors,
+                                 Histogram histogram) {
+        System.out.printf("%-14s %9d %9.0f %9s %8s %7d %9.2f %9.2f %9.2f %9.2f%n", name, requests, requests / seconds,
+                ok < 0 ? "" : Long.toString(ok), rejected < 0 ? "" : Long.toString(rejected), errors,
+                millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private void writeHdr(String name, Histogram histogram) throws Exception {
+        if (options.hdrDir == null) {
+            return;
+        }
+        File dir = new File(options.hdrDir);
+        dir.mkdirs();
+        try (PrintStream out = new PrintStream(new File(dir, name + ".hgrm"))) {
+            histogram.outputPercentileDistribution(out, 1000.0); // values in ms
+        }
+    }
+
+    // --- Consistency ---
+
+    private boolean checkConsistency() throws InterruptedException {
+        // Write-behind modes first have to get everything into the tables
+        StockMovementJournal journal = context.getBeanProvider(StockMovementJournal.class).getIfAvailable();
+        for (int i = 0; journal != null && journal.getQueueDepth() > 0 && i < 300; i++) {
+            Thread.sleep(100);
+        }
+        context.getBeanProvider(StockLedger.class).ifAvailable(StockLedger::flush);
+
+        NamedParameterJdbcTemplate jdbc = context.getBean(NamedParameterJdbcTemplate.class);
+        Map<String, Object> params = Map.of("storeIds", storeIds);
+        List<String> mismatches = jdbc.query(
+                "SELECT s.store_id, s.product_id, s.quantity, COALESCE(SUM(m.quantity_change), 0) AS moved " +
+                        "FROM stock s LEFT JOIN stock_movement m " +
+                        "ON m.store_id = s.store_id AND m.product_id = s.product_id " +
+                        "WHERE s.store_id IN (:storeIds) " +
+                        "GROUP BY s.store_id, s.product_id, s.quantity " +
+                        "HAVING s.quantity <> COALESCE(SUM(m.quantity_change), 0) OR s.quantity < 0",
+                params,
+                (rs, rowNum) -> String.format("store %d product %d: quantity %d, movements sum %d",
+                        rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+        long rows = jdbc.queryForObject("SELECT COUNT(*) FROM stock WHERE store_id IN (:storeIds)", params, Long.class);
+        long total = jdbc.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM stock WHERE store_id IN (:storeIds)",
+                params, Long.class);
+        long expectedTotal = (long) options.initialQuantity * storeIds.size() * productIds.size() + appliedUnits.get();
+
+        boolean consistent = mismatches.isEmpty() && rows == (long) storeIds.size() * productIds.size()
+                && total == expectedTotal;
+        System.out.printf("Consistency: %d stock rows, %d differ from their movements; units in stock %d, " +
+                "expected from client responses %d -> %s%n", rows, mismatches.size(), total, expectedTotal,
+                consistent ? "OK" : "FAILED");
+        mismatches.stream().limit(20).forEach(m -> System.out.println("  " + m));
+        return consistent;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
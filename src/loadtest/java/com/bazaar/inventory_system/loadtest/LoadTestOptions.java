@@ -0,0 +1,82 @@
+package com.bazaar.inventory_system.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+--key=value arguments of LoadTest. Anything starting with --spring., --server., --inventory. or
+--logging. is handed to the application instead, e.g. --inventory.ledger.enabled=true.
+ */
+final class LoadTestOptions {
+
+    int stores = 1000;
+    int products = 50;
+    int initialQuantity = 1000;
+    int clients = 200;
+    int warmupSeconds = 10;
+    int durationSeconds = 60;
+    String hdrDir;  // one .hgrm percentile file per operation, for HdrHistogram's plotter
+    final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    final List<String> appArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        options.parseMix("stock-in:10,sell:35,remove-stock:5,stock-read:35,store-stock:5,movements:5,movement-page:5");
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got '" + arg + "'");
+            }
+            String key = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (key) {
+                case "stores" -> options.stores = positive(key, value);
+                case "products" -> options.products = positive(key, value);
+                case "initial-quantity" -> options.initialQuantity = positive(key, value);
+                case "clients" -> options.clients = positive(key, value);
+                case "warmup" -> options.warmupSeconds = Integer.parseInt(value);
+                case "duration" -> options.durationSeconds = positive(key, value);
+                case "hdr-dir" -> options.hdrDir = value;
+                case "mix" -> options.parseMix(value);
+                default -> {
+                    if (key.startsWith("spring.") || key.startsWith("server.") || key.startsWith("inventory.")
+                            || key.startsWith("logging.")) {
+                        options.appArgs.add(arg);
+                    } else {
+                        throw new IllegalArgumentException("Unknown option --" + key);
+                    }
+                }
+            }
+        }
+        return options;
+    }
+
+    // --- Helper Methods ---
+
+    // operation:weight,... e.g. sell:50,stock-read:50
+    private void parseMix(String value) {
+        mix.clear();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in --mix, got '" + part + "'");
+            }
+            int weight = Integer.parseInt(pair[1]);
+            if (weight > 0) {
+                mix.put(Operation.fromKey(pair[0]), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--mix needs at least one operation with a positive weight");
+        }
+    }
+
+    private static int positive(String key, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException("--" + key + " must be positive");
+        }
+        return parsed;
+    }
+}
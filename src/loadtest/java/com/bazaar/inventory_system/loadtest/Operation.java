@@ -0,0 +1,81 @@
+package com.bazaar.inventory_system.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// What a load-test client can do, named as in --mix
+enum Operation {
+    STOCK_IN("stock-in"),
+    SELL("sell"),
+    REMOVE_STOCK("remove-stock"),
+    STOCK_READ("stock-read"),           // GET /stores/{id}/stock/{productId}
+    STORE_STOCK("store-stock"),         // GET /stores/{id}/stock
+    MOVEMENTS("movements"),             // GET /stores/{id}/stock-movements?productId=
+    MOVEMENT_PAGE("movement-page");     // GET /stores/{id}/stock-movements/page
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "' in --mix");
+    }
+
+    boolean changesStock() {
+        return this == STOCK_IN || this == SELL || this == REMOVE_STOCK;
+    }
+
+    // Units moved by one request; 0 for reads
+    int randomQuantity() {
+        return switch (this) {
+            case STOCK_IN -> 1 + ThreadLocalRandom.current().nextInt(20);
+            case SELL -> 1 + ThreadLocalRandom.current().nextInt(3);
+            case REMOVE_STOCK -> 1;
+            default -> 0;
+        };
+    }
+
+    // Signed change to the stock row when the request succeeds
+    int delta(int quantity) {
+        return this == STOCK_IN ? quantity : -quantity;
+    }
+
+    HttpRequest request(String baseUrl, Long storeId, Long productId, int quantity) {
+        String store = baseUrl + "/stores/" + storeId;
+        return switch (this) {
+            case STOCK_IN -> post(store + "/stock-in", productId, quantity);
+            case SELL -> post(store + "/sell", productId, quantity);
+            case REMOVE_STOCK -> post(store + "/remove-stock", productId, quantity);
+            case STOCK_READ -> get(store + "/stock/" + productId);
+            case STORE_STOCK -> get(store + "/stock");
+            case MOVEMENTS -> get(store + "/stock-movements?productId=" + productId);
+            case MOVEMENT_PAGE -> get(store + "/stock-movements/page?limit=50");
+        };
+    }
+
+    // --- Helper Methods ---
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest post(String url, Long productId, int quantity) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"productId\":" + productId + ",\"quantity\":" + quantity + "}"))
+                .build();
+    }
+}
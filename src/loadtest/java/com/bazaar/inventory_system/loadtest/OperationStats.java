@@ -0,0 +1,55 @@
+package com.bazaar.inventory_system.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Latency and outcome counters of one operation. Recorded from the HTTP client's callback threads,
+so everything here is safe for concurrent use. Latencies are in microseconds.
+  ok:       2xx
+  rejected: 409, the shop's "not enough stock" answer, an expected outcome under load
+  errors:   anything else, including timeouts and connection failures
+ */
+final class OperationStats {
+
+    private final Recorder recorder = new Recorder(3);
+    final LongAdder ok = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final AtomicReference<String> firstError = new AtomicReference<>();
+
+    // Returns true when the request was applied
+    boolean record(long nanos, HttpResponse<?> response, Throwable failure) {
+        recorder.recordValue(Math.max(1, nanos / 1_000));
+        if (failure != null) {
+            errors.increment();
+            firstError.compareAndSet(null, failure.toString());
+            return false;
+        }
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            ok.increment();
+            return true;
+        }
+        if (status == 409) {
+            rejected.increment();
+        } else {
+            errors.increment();
+            firstError.compareAndSet(null, "HTTP " + status + " " + response.request().uri());
+        }
+        return false;
+    }
+
+    // Everything recorded since the previous call
+    Histogram histogram() {
+        return recorder.getIntervalHistogram();
+    }
+
+    long requests() {
+        return ok.sum() + rejected.sum() + errors.sum();
+    }
+}
@@ -0,0 +1,40 @@
+package com.bazaar.inventory_system.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+Thread source for the app's own background work (stock movement journal writer, ledger flusher,
+rollup backfill). Follows spring.threads.virtual.enabled the same way Spring Boot does for
+Tomcat and the MVC async executor: virtual threads when the property is set and the JVM is
+21+, otherwise named daemon platform threads. Bound the parallelism with the pool size, not
+with the thread kind: every one of these tasks needs a pooled JDBC connection.
+ */
+@Component
+public class AsyncThreads {
+
+    @Autowired
+    private Environment environment;
+
+    public boolean isVirtual() {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    public ThreadFactory threadFactory(String name) {
+        if (isVirtual()) {
+            return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+        }
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
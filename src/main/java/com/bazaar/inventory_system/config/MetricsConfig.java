@@ -0,0 +1,48 @@
+package com.bazaar.inventory_system.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/*
+Metrics scraped from /actuator/prometheus (Prometheus text format):
+  http.server.requests             per controller method (uri template), with histogram buckets
+  spring.data.repository.invocations  per repository method, with histogram buckets
+  inventory.repository.rows        rows per repository call (RepositoryRowCountInterceptor)
+  inventory.errors                 handled exceptions by type (GlobalExceptionHandler)
+  inventory.stock.row.*            hottest stock rows and contention (HotStockRows)
+inventory.metrics.enabled=false turns every meter into a no-op and skips the extra interceptors.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "inventory.metrics.enabled", havingValue = "false")
+    public MeterFilter denyAllMeters() {
+        return MeterFilter.deny();
+    }
+
+    // static: a BeanPostProcessor has to exist before the repositories it customizes
+    @Bean
+    @ConditionalOnProperty(name = "inventory.metrics.enabled", havingValue = "true", matchIfMissing = true)
+    public static BeanPostProcessor repositoryRowCountPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                    new RepositoryRowCountInterceptor(meterRegistry.getObject(),
+                                            repositoryInformation.getRepositoryInterface(),
+                                            repositoryInformation.getDomainType()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,61 @@
+package com.bazaar.inventory_system.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+Sends a connection to the replica only when the current thread has been cleared for replica reads
+(ReplicaReadInterceptor, GET requests), is not inside a read-write transaction and the replica is
+usable (ReplicaLagMonitor). Everything else, including startup, background threads and every
+write, gets the primary. Wrapped in a LazyConnectionDataSourceProxy (see ReadReplicaConfig) so the
+choice is made at the first statement, after the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor monitor;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    public static void allowReplica() {
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+    }
+
+    public static void clear() {
+        REPLICA_ALLOWED.remove();
+    }
+
+    // A replica that can't hand out a connection is not worth failing the read for
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            if (determineCurrentLookupKey() != Target.REPLICA) {
+                throw e;
+            }
+            monitor.replicaFailed(e);
+            return super.getConnection();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (REPLICA_ALLOWED.get() == null || !monitor.isReplicaUsable()) {
+            return Target.PRIMARY;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
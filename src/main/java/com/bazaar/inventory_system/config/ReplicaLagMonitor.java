@@ -0,0 +1,217 @@
+package com.bazaar.inventory_system.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Decides whether a read may go to the replica (inventory.read-replica.enabled=true).
+
+Lag: every heartbeat-ms the primary's replication_heartbeat row is set to the current time and the
+replica's copy is read back. The table holds that single row (epoch millis of this node's clock) and
+is created here, not by Hibernate, so it only exists where a replica is configured. The replica is usable while that copy is at most max-lag-ms old; when
+it is older, missing or the replica can't be reached, reads go to the primary until a probe sees
+it caught up again.
+
+Read-your-writes: a client session (cookie, see ReplicaReadInterceptor) that has written is kept on
+the primary until the replica's heartbeat has passed the time that write finished. Only sessions
+with such a write are tracked, and never for longer than max-lag-ms: a usable replica is never
+further behind than that. The heartbeat uses this node's clock, so with several app nodes keep the
+clocks in sync or max-lag-ms above their skew.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.read-replica.enabled", havingValue = "true")
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final long WRITE_IN_PROGRESS = Long.MAX_VALUE;
+
+    static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS replication_heartbeat " +
+            "(id INT PRIMARY KEY, beat_at BIGINT NOT NULL)";
+
+    static final String BEAT_SQL = "MERGE INTO replication_heartbeat t " +
+            "USING (VALUES (1, CAST(? AS BIGINT))) AS s (id, beat_at) ON t.id = s.id " +
+            "WHEN MATCHED THEN UPDATE SET beat_at = s.beat_at " +
+            "WHEN NOT MATCHED THEN INSERT (id, beat_at) VALUES (s.id, s.beat_at)";
+
+    static final String READ_BEAT_SQL = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Value("${inventory.read-replica.heartbeat-ms:250}")
+    private long heartbeatMillis;
+
+    @Value("${inventory.read-replica.max-lag-ms:2000}")
+    private long maxLagMillis;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ScheduledExecutorService scheduler;
+
+    // Session id -> time its last write finished (WRITE_IN_PROGRESS while one is running)
+    private final Map<String, Long> pendingWrites = new ConcurrentHashMap<>();
+
+    // Newest primary heartbeat seen on the replica, 0 when the last probe failed
+    private volatile long replicatedUpTo;
+    private volatile boolean replicaUsable;
+
+    // Stats
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong lagFallbacks = new AtomicLong();
+    private final AtomicLong ownWriteFallbacks = new AtomicLong();
+    private final AtomicLong replicaFailures = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxLagMillis)));
+        primary.execute(CREATE_TABLE_SQL);
+    }
+
+    // Until the first probe the replica counts as unusable and reads go to the primary
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        // Two threads: a hanging replica must not hold up the primary's heartbeat
+        scheduler = Executors.newScheduledThreadPool(2, asyncThreads.threadFactory("replica-lag"));
+        scheduler.scheduleWithFixedDelay(this::beatQuietly, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::probe, heartbeatMillis / 2, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    // Writes the primary's heartbeat row
+    public void beat() {
+        primary.update(BEAT_SQL, System.currentTimeMillis());
+    }
+
+    // Reads the replica's copy of the heartbeat row and updates the usable flag
+    public void probe() {
+        long now = System.currentTimeMillis();
+        try {
+            Long beatAt = replica.query(READ_BEAT_SQL, rs -> rs.next() ? rs.getLong(1) : null);
+            replicatedUpTo = beatAt == null ? 0 : beatAt;
+        } catch (RuntimeException e) {
+            if (replicaUsable) {
+                log.warn("Read replica probe failed, reading from the primary", e);
+            }
+            replicatedUpTo = 0;
+        }
+        boolean usable = now - replicatedUpTo <= maxLagMillis;
+        if (usable != replicaUsable) {
+            log.info("Read replica {} (lag {} ms)", usable ? "in use" : "behind, reading from the primary",
+                    getLagMillis());
+        }
+        replicaUsable = usable;
+        // Forget writes the replica has caught up with, and any older than max-lag-ms (see above)
+        long covered = Math.max(replicatedUpTo, now - maxLagMillis);
+        pendingWrites.values().removeIf(finishedAt -> finishedAt <= covered);
+    }
+
+    public void writeStarted(String sessionId) {
+        pendingWrites.put(sessionId, WRITE_IN_PROGRESS);
+    }
+
+    public void writeFinished(String sessionId) {
+        pendingWrites.put(sessionId, System.currentTimeMillis());
+    }
+
+    // Whether a read for this session (null = no session) can go to the replica right now
+    public boolean mayReadFromReplica(String sessionId) {
+        if (!replicaUsable) {
+            lagFallbacks.incrementAndGet();
+            return false;
+        }
+        Long lastWrite = sessionId == null ? null : pendingWrites.get(sessionId);
+        if (lastWrite != null && lastWrite > replicatedUpTo) {
+            ownWriteFallbacks.incrementAndGet();
+            return false;
+        }
+        replicaReads.incrementAndGet();
+        return true;
+    }
+
+    // Called when a replica connection can't be had: stay on the primary until the next good probe
+    void replicaFailed(Exception e) {
+        replicaFailures.incrementAndGet();
+        if (replicaUsable) {
+            log.warn("Read replica connection failed, reading from the primary", e);
+        }
+        replicaUsable = false;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLagMillis() {
+        return replicatedUpTo == 0 ? -1 : Math.max(0, System.currentTimeMillis() - replicatedUpTo);
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public int getTrackedSessions() {
+        return pendingWrites.size();
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    public long getLagFallbacks() {
+        return lagFallbacks.get();
+    }
+
+    public long getOwnWriteFallbacks() {
+        return ownWriteFallbacks.get();
+    }
+
+    public long getReplicaFailures() {
+        return replicaFailures.get();
+    }
+
+    // --- Helper Methods ---
+
+    private void beatQuietly() {
+        try {
+            beat();
+        } catch (RuntimeException e) {
+            log.error("Replication heartbeat failed", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.bazaar.inventory_system.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.UUID;
+
+/*
+Clears GET/HEAD requests for replica reads (ReadWriteRoutingDataSource) when ReplicaLagMonitor
+allows it, and reports every other request to it as a write of the client's session. The session
+is the inventory-session cookie, handed out on the first write; clients that don't keep cookies
+can send any stable id in it. Streamed responses (NDJSON export) read from the primary: their
+body is written on another thread.
+ */
+public class ReplicaReadInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String SESSION_COOKIE = "inventory-session";
+
+    private static final String WRITE_SESSION = ReplicaReadInterceptor.class.getName() + ".writeSession";
+
+    private final ReplicaLagMonitor monitor;
+
+    public ReplicaReadInterceptor(ReplicaLagMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String sessionId = sessionId(request);
+        if (isRead(request)) {
+            if (monitor.mayReadFromReplica(sessionId)) {
+                ReadWriteRoutingDataSource.allowReplica();
+            }
+            return true;
+        }
+        if (sessionId == null) {
+            sessionId = UUID.randomUUID().toString();
+            Cookie cookie = new Cookie(SESSION_COOKIE, sessionId);
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        monitor.writeStarted(sessionId);
+        request.setAttribute(WRITE_SESSION, sessionId);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ReadWriteRoutingDataSource.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReadWriteRoutingDataSource.clear();
+        Object sessionId = request.getAttribute(WRITE_SESSION);
+        if (sessionId != null) {
+            request.removeAttribute(WRITE_SESSION);
+            monitor.writeFinished((String) sessionId);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    private static String sessionId(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (SESSION_COOKIE.equals(cookie.getName()) && !cookie.getValue().isBlank()) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bazaar.inventory_system.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Modifying;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Records how many rows each repository method returned or changed, as the
+inventory.repository.rows summary (tags: repository, method). Timing comes from Spring Boot's
+own spring.data.repository.invocations timer. Streams and void methods are not counted;
+counts and other scalar results only when the method is @Modifying (rows affected).
+ */
+class RepositoryRowCountInterceptor implements MethodInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final String repository;
+    private final Class<?> domainType;
+    private final ConcurrentHashMap<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    RepositoryRowCountInterceptor(MeterRegistry meterRegistry, Class<?> repositoryInterface, Class<?> domainType) {
+        this.meterRegistry = meterRegistry;
+        this.repository = repositoryInterface.getSimpleName();
+        this.domainType = domainType;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        long rows = rows(invocation.getMethod(), result);
+        if (rows >= 0) {
+            summaries.computeIfAbsent(invocation.getMethod(), method -> DistributionSummary
+                            .builder("inventory.repository.rows")
+                            .description("Rows returned or changed per repository call")
+                            .baseUnit("rows")
+                            .tag("repository", repository)
+                            .tag("method", method.getName())
+                            .register(meterRegistry))
+                    .record(rows);
+        }
+        return result;
+    }
+
+    // -1 when the result doesn't say
+    private long rows(Method method, Object result) {
+        if (method.getReturnType() == void.class) {
+            return -1;
+        }
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof int[] counts) { // JDBC batch update counts
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        if (result instanceof Number number && method.isAnnotationPresent(Modifying.class)) {
+            return number.longValue();
+        }
+        if (domainType.isInstance(result)) {
+            return 1;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bazaar.inventory_system.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.StringWriter;
+import java.util.List;
+
+/*
+The shard pools, index = shard number; 0 is the home shard (spring.datasource, a bean of its
+own). Also collects the schema script Hibernate writes while building the home schema, which
+StoreShards replays on shards that don't have the tables yet.
+ */
+public class ShardDataSources implements DisposableBean {
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> jdbcTemplates;
+    private final StringWriter schemaScript = new StringWriter();
+
+    public ShardDataSources(List<DataSource> dataSources) {
+        this.dataSources = List.copyOf(dataSources);
+        this.jdbcTemplates = this.dataSources.stream().map(JdbcTemplate::new).toList();
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public DataSource get(int shard) {
+        return dataSources.get(shard);
+    }
+
+    // Straight to the shard's pool, outside any transaction and the routing DataSource
+    public JdbcTemplate jdbc(int shard) {
+        return jdbcTemplates.get(shard);
+    }
+
+    StringWriter getSchemaScriptWriter() {
+        return schemaScript;
+    }
+
+    public String getSchemaScript() {
+        return schemaScript.toString();
+    }
+
+    @Override
+    public void destroy() {
+        for (int shard = 1; shard < dataSources.size(); shard++) {
+            if (dataSources.get(shard) instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+}
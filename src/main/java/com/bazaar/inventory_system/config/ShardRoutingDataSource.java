@@ -0,0 +1,12 @@
+package com.bazaar.inventory_system.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Hands out connections of the current thread's shard (StoreShards.currentShard(), home by default)
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return StoreShards.currentShard();
+    }
+}
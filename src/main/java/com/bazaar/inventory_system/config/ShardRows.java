@@ -0,0 +1,129 @@
+package com.bazaar.inventory_system.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+Plain JDBC row copies between two shards, for tables whose columns are only known at run time
+(shared tables, store moves). Columns are taken from the SELECT's result set, so the source query
+decides what is copied; both shards have the same schema (see StoreShards).
+ */
+public final class ShardRows {
+
+    private ShardRows() {
+    }
+
+    // Inserts every selected row into the target, chunk rows per JDBC batch. Returns the row count.
+    public static int copy(JdbcTemplate from, JdbcTemplate to, String table, String where, Object[] args,
+                           int chunk) {
+        Copy copy = new Copy(to, table, null, chunk);
+        from.query("SELECT * FROM " + table + " WHERE " + where, copy::add, args);
+        copy.flush();
+        return copy.rows;
+    }
+
+    // Same, but rows whose idColumn already exists on the target are updated instead
+    public static int upsert(JdbcTemplate from, JdbcTemplate to, String table, String idColumn, String where,
+                             Object[] args, int chunk) {
+        Copy copy = new Copy(to, table, idColumn, chunk);
+        from.query("SELECT * FROM " + table + " WHERE " + where, copy::add, args);
+        copy.flush();
+        return copy.rows;
+    }
+
+    // --- Helper Methods ---
+
+    private static final class Copy {
+        final JdbcTemplate to;
+        final String table;
+        final String idColumn; // null: insert only
+        final int chunk;
+        final List<Object[]> pending = new ArrayList<>();
+        List<String> columns;
+        int idIndex = -1;
+        int rows;
+
+        Copy(JdbcTemplate to, String table, String idColumn, int chunk) {
+            this.to = to;
+            this.table = table;
+            this.idColumn = idColumn;
+            this.chunk = chunk;
+        }
+
+        void add(ResultSet rs) throws SQLException {
+            if (columns == null) {
+                ResultSetMetaData meta = rs.getMetaData();
+                columns = new ArrayList<>(meta.getColumnCount());
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    String column = meta.getColumnName(i);
+                    columns.add(column);
+                    if (column.equalsIgnoreCase(idColumn)) {
+                        idIndex = i - 1;
+                    }
+                }
+            }
+            Object[] row = new Object[columns.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            pending.add(row);
+            if (pending.size() >= chunk) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Object[]> inserts = pending;
+            if (idColumn != null) {
+                inserts = updateExisting();
+            }
+            if (!inserts.isEmpty()) {
+                String placeholders = columns.stream().map(c -> "?").collect(Collectors.joining(", "));
+                to.batchUpdate("INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                        + placeholders + ")", inserts);
+            }
+            rows += pending.size();
+            pending.clear();
+        }
+
+        // UPDATE by id first; what matched nothing is returned for the INSERT
+        private List<Object[]> updateExisting() {
+            List<String> assignments = new ArrayList<>();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i != idIndex) {
+                    assignments.add(columns.get(i) + " = ?");
+                }
+            }
+            List<Object[]> updates = new ArrayList<>(pending.size());
+            for (Object[] row : pending) {
+                Object[] args = new Object[row.length];
+                int next = 0;
+                for (int i = 0; i < row.length; i++) {
+                    if (i != idIndex) {
+                        args[next++] = row[i];
+                    }
+                }
+                args[next] = row[idIndex];
+                updates.add(args);
+            }
+            int[] counts = to.batchUpdate("UPDATE " + table + " SET " + String.join(", ", assignments)
+                    + " WHERE " + idColumn + " = ?", updates);
+            List<Object[]> missing = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    missing.add(pending.get(i));
+                }
+            }
+            return missing;
+        }
+    }
+}
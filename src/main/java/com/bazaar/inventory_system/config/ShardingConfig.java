@@ -0,0 +1,141 @@
+package com.bazaar.inventory_system.config;
+
+import com.bazaar.inventory_system.model.ArchivedMovementTotal;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.ReorderThreshold;
+import com.bazaar.inventory_system.model.Stock;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.StockMovementRollup;
+import com.bazaar.inventory_system.model.StockSlot;
+import com.bazaar.inventory_system.model.Store;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+Store sharding (inventory.sharding.enabled=true, see StoreShards). spring.datasource.* is shard 0,
+the home shard; inventory.sharding.urls adds shards 1..N-1, in that order. The order is what a
+store's hash maps to, so shards may only be appended. JPA, the JdbcTemplates and the transaction
+manager all get the routing DataSource below. Can't be combined with inventory.read-replica.
+ */
+@Configuration
+@ConditionalOnProperty(name = "inventory.sharding.enabled", havingValue = "true")
+public class ShardingConfig implements WebMvcConfigurer {
+
+    // Tables partitioned by store; every other repository is kept on the home shard
+    private static final Set<Class<?>> STORE_SCOPED = Set.of(Stock.class, StockMovement.class,
+            StockMovementRollup.class, ReorderThreshold.class, ArchivedMovementTotal.class, StockSlot.class);
+    private static final Map<Class<?>, StoreShards.SharedTable> SHARED =
+            Map.of(Store.class, StoreShards.SharedTable.STORE, Product.class, StoreShards.SharedTable.PRODUCT);
+
+    // Looked up late: StoreShards needs a repository, which needs the DataSource defined here
+    @Autowired
+    private ObjectProvider<StoreShards> storeShards;
+
+    // Same binding as Spring Boot's own pool, so spring.datasource.hikari.* keeps applying to it
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource homeShardDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shard-0");
+        return dataSource;
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(@Qualifier("homeShardDataSource") DataSource home,
+                                             @Value("${inventory.sharding.urls}") List<String> urls,
+                                             @Value("${inventory.sharding.username:sa}") String username,
+                                             @Value("${inventory.sharding.password:}") String password,
+                                             @Value("${inventory.sharding.pool-size:10}") int poolSize) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(home);
+        for (String url : urls) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setJdbcUrl(url.trim());
+            shard.setUsername(username);
+            shard.setPassword(password);
+            shard.setMaximumPoolSize(poolSize);
+            shard.setPoolName("shard-" + shards.size());
+            shards.add(shard);
+        }
+        return new ShardDataSources(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shards) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(shards.get(StoreShards.HOME));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Hibernate writes its CREATE script while it builds the home schema; StoreShards replays it on new shards.
+    // With a script action set Hibernate no longer falls back to ddl-auto for the database, so it is passed on.
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaScript(ShardDataSources shards) {
+        return properties -> {
+            Object ddlAuto = properties.get("hibernate.hbm2ddl.auto");
+            if (ddlAuto != null) {
+                properties.putIfAbsent("jakarta.persistence.schema-generation.database.action", ddlAuto);
+            }
+            properties.put("jakarta.persistence.schema-generation.scripts.action", "create");
+            properties.put("jakarta.persistence.schema-generation.scripts.create-target",
+                    shards.getSchemaScriptWriter());
+            properties.put("hibernate.hbm2ddl.delimiter", ";");
+        };
+    }
+
+    // static: a BeanPostProcessor has to exist before the repositories it customizes
+    @Bean
+    public static BeanPostProcessor sharedTableRepositoryPostProcessor(ObjectProvider<StoreShards> storeShards) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> {
+                                Class<?> domainType = repositoryInformation.getDomainType();
+                                // First in the chain, ahead of the repository's own transaction
+                                if (!STORE_SCOPED.contains(domainType)) {
+                                    proxyFactory.addAdvice(0,
+                                            new SharedTableInterceptor(storeShards, SHARED.get(domainType)));
+                                }
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StoreShardInterceptor(storeShards.getObject()));
+    }
+}
@@ -0,0 +1,34 @@
+package com.bazaar.inventory_system.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.config.ConfigDataEnvironmentPostProcessor;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/*
+With sharding on (inventory.sharding.enabled=true) no session is held open across a request: a
+request-wide session would keep every repository call of the request on the first shard's
+connection. Without sharding Spring Boot's default applies. An explicit spring.jpa.open-in-view
+wins either way. Registered in META-INF/spring.factories.
+ */
+public class ShardingEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (environment.getProperty("inventory.sharding.enabled", Boolean.class, false)
+                && !environment.containsProperty("spring.jpa.open-in-view")) {
+            environment.getPropertySources().addLast(
+                    new MapPropertySource("shardingDefaults", Map.of("spring.jpa.open-in-view", "false")));
+        }
+    }
+
+    // After application.properties is loaded
+    @Override
+    public int getOrder() {
+        return ConfigDataEnvironmentPostProcessor.ORDER + 1;
+    }
+}
@@ -0,0 +1,91 @@
+package com.bazaar.inventory_system.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Keeps repositories of tables that are not store-scoped on the home shard (see StoreShards), whatever
+store the current request is about. For stores and products it also keeps the copies on the other
+shards in step: saves are copied after commit, deletes are applied to the copies first and undone
+if the delete then fails. Inside a transaction that already runs on a store's shard, reads use that
+shard's copy and writes are refused.
+ */
+class SharedTableInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<StoreShards> storeShards;
+    private final StoreShards.SharedTable table; // null: home shard only, no copies
+
+    SharedTableInterceptor(ObjectProvider<StoreShards> storeShards, StoreShards.SharedTable table) {
+        this.storeShards = storeShards;
+        this.table = table;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        boolean save = method.startsWith("save") || method.equals("batchInsert");
+        boolean delete = method.startsWith("delete");
+        List<Long> deleted = table != null && delete ? ids(invocation.getArguments()) : null;
+        boolean copiesDeleted = false;
+
+        Object result;
+        try {
+            if (table != null && delete) {
+                copiesDeleted = true;
+                storeShards.getObject().deleteSharedRows(table, deleted);
+            }
+            result = proceed(invocation, method, save || delete);
+        } catch (Throwable e) {
+            if (copiesDeleted) {
+                storeShards.getObject().restoreSharedRows(table, deleted);
+            }
+            throw e;
+        }
+
+        if (table != null && save) {
+            // batchInsert fills in the ids of its argument; the save methods return the saved entities
+            Object saved = method.equals("batchInsert") ? invocation.getArguments()[0] : result;
+            storeShards.getObject().copySharedRows(table, ids(new Object[]{saved}));
+        }
+        return result;
+    }
+
+    // --- Helper Methods ---
+
+    private Object proceed(MethodInvocation invocation, String method, boolean write) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            if (write && StoreShards.currentShard() != StoreShards.HOME) {
+                throw new IllegalStateException(invocation.getMethod().getDeclaringClass().getSimpleName() + "."
+                        + method + " inside a transaction on shard " + StoreShards.currentShard());
+            }
+            return invocation.proceed();
+        }
+        Integer previous = StoreShards.enter(StoreShards.HOME);
+        try {
+            return invocation.proceed();
+        } finally {
+            StoreShards.restore(previous);
+        }
+    }
+
+    // null when the call has no arguments (deleteAll()): every row
+    private List<Long> ids(Object[] arguments) {
+        if (arguments.length == 0) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (Object argument : arguments) {
+            if (argument instanceof Iterable<?> entities) {
+                entities.forEach(entity -> ids.add(table.idOf(entity)));
+            } else if (argument != null) {
+                ids.add(table.idOf(argument));
+            }
+        }
+        return ids;
+    }
+}
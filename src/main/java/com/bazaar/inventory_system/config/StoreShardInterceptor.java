@@ -0,0 +1,50 @@
+package com.bazaar.inventory_system.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Requests under /stores/{storeId}/... run on that store's shard (see StoreShards)
+public class StoreShardInterceptor implements AsyncHandlerInterceptor {
+
+    private final StoreShards storeShards;
+
+    public StoreShardInterceptor(StoreShards storeShards) {
+        this.storeShards = storeShards;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String storeId = variables == null ? null : variables.get("storeId");
+        if (storeId != null) {
+            try {
+                StoreShards.enter(storeShards.shardOf(Long.valueOf(storeId)));
+            } catch (NumberFormatException e) {
+                // not a store id; the controller answers 400
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        StoreShards.restore(null);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        StoreShards.restore(null);
+    }
+}
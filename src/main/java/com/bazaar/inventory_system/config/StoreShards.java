@@ -0,0 +1,505 @@
+package com.bazaar.inventory_system.config;
+
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.model.StoreShard;
+import com.bazaar.inventory_system.repository.StoreShardRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/*
+Which database a store's rows live on (inventory.sharding.enabled=true, see ShardingConfig).
+Stock, movements, rollups and reorder thresholds of a store are on one shard: the one in the
+store_shard override table if the store was moved, otherwise the one its id hashes to on a
+consistent-hash ring, so adding a shard only re-homes about 1/N of the unmoved stores (move or pin
+those first). Everything else lives on the home shard (0); stores and products, which the stock
+tables reference, are copied from there to every shard after each write (SharedTableInterceptor).
+A copy that fails is retried every copy-retry-ms until it goes through, and at startup every
+shard's copies are compared with the home rows, so a change lost to a crash is caught up too.
+
+The shard is a thread-local picked up by ShardRoutingDataSource at a transaction's first
+statement: read() and write() set it for a store, onShard() and scatter() for a shard. Both
+read() and write() also hold the store's gate, which StoreMoveService closes while it switches
+the store over, so no read sees the old shard after the switch or the new one before the copy.
+A gate only exists while something holds or waits for it, so there are never more than the
+stores in use at the moment.
+A transaction stays on the shard it started on; switching inside one is refused.
+
+With sharding off there is a single shard and all of this is a pass-through.
+ */
+@Component
+public class StoreShards {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreShards.class);
+
+    public static final int HOME = 0;
+    // Each shard's stock_movement_seq starts at shard << 40, so movement ids stay unique when a store moves
+    private static final int MOVEMENT_ID_SHIFT = 40;
+    private static final int COPY_CHUNK = 500;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    // Tables copied from the home shard to every other one
+    public enum SharedTable {
+        STORE("store", "store_id", entity -> ((Store) entity).getStoreId()),
+        PRODUCT("product", "product_id", entity -> ((Product) entity).getProductId());
+
+        private final String table;
+        private final String idColumn;
+        private final Function<Object, Long> idOf;
+
+        SharedTable(String table, String idColumn, Function<Object, Long> idOf) {
+            this.table = table;
+            this.idColumn = idColumn;
+            this.idOf = idOf;
+        }
+
+        public Long idOf(Object entity) {
+            return entity instanceof Long id ? id : idOf.apply(entity);
+        }
+    }
+
+    @Autowired(required = false) // only present when inventory.sharding.enabled=true
+    private ShardDataSources dataSources;
+
+    @Autowired
+    private StoreShardRepository storeShardRepository;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Value("${inventory.sharding.virtual-nodes:64}")
+    private int virtualNodes;
+
+    @Value("${inventory.sharding.copy-retry-ms:5000}")
+    private long copyRetryMillis;
+
+    private int shardCount = 1;
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+    private final ConcurrentHashMap<Long, Integer> overrides = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Gate> gates = new ConcurrentHashMap<>();
+    private ExecutorService scatterPool;
+    private ScheduledExecutorService copyRetrier;
+
+    // users counts the threads holding or waiting for the lock; changed only inside gates.compute
+    private static final class Gate {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+        int users;
+    }
+
+    // Shared rows whose copy to a shard failed, retried by copyRetrier
+    private record FailedCopy(SharedTable table, int shard) {
+    }
+
+    private final ConcurrentHashMap<FailedCopy, Set<Long>> failedCopies = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        if (dataSources == null) {
+            return;
+        }
+        shardCount = dataSources.size();
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(mix(((long) shard << 32) | node), shard);
+            }
+        }
+        for (int shard = 1; shard < shardCount; shard++) {
+            createSchema(shard);
+        }
+        syncSharedTables();
+        for (StoreShard override : storeShardRepository.findAll()) {
+            overrides.put(override.getStoreId(), override.getShard());
+        }
+        scatterPool = Executors.newCachedThreadPool(asyncThreads.threadFactory("shard-scatter"));
+        copyRetrier = Executors.newSingleThreadScheduledExecutor(asyncThreads.threadFactory("shard-copy-retry"));
+        copyRetrier.scheduleWithFixedDelay(this::retryFailedCopies, copyRetryMillis, copyRetryMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("Store sharding: {} shards, {} moved stores", shardCount, overrides.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scatterPool != null) {
+            scatterPool.shutdownNow();
+            copyRetrier.shutdownNow();
+        }
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int getMovedStoreCount() {
+        return overrides.size();
+    }
+
+    public int shardOf(Long storeId) {
+        if (!isSharded()) {
+            return HOME;
+        }
+        Integer override = overrides.get(storeId);
+        if (override != null) {
+            return override;
+        }
+        Map.Entry<Long, Integer> node = ring.ceilingEntry(mix(storeId));
+        return (node != null ? node : ring.firstEntry()).getValue();
+    }
+
+    // Store-scoped reads: wait while the store is being switched to another shard
+    public <T> T read(Long storeId, Supplier<T> work) {
+        return isSharded() ? throughGate(storeId, work) : work.get();
+    }
+
+    // Store-scoped changes: same as read(), the gate is what keeps them off a store being switched
+    public <T> T write(Long storeId, Supplier<T> work) {
+        return isSharded() ? throughGate(storeId, work) : work.get();
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        Integer previous = enter(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    // Runs work once per shard, in parallel when there are several; results in shard order
+    public <T> List<T> scatter(IntFunction<T> work) {
+        if (!isSharded()) {
+            return Collections.singletonList(work.apply(HOME));
+        }
+        List<Future<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(scatterPool.submit(() -> onShard(target, () -> work.apply(target))));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shards", e);
+        }
+        return results;
+    }
+
+    // shard -> items, for work that covers many stores but has to run one shard at a time
+    public <T> Map<Integer, List<T>> groupByShard(Collection<T> items, Function<T, Long> storeIdOf) {
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(shardOf(storeIdOf.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    // Called by StoreMoveService before it switches a store: read() and write() block until unfreeze()
+    public void freeze(Long storeId) {
+        enterGate(storeId).lock.writeLock().lock();
+    }
+
+    public void unfreeze(Long storeId) {
+        gates.get(storeId).lock.writeLock().unlock();
+        leaveGate(storeId);
+    }
+
+    public int getGateCount() {
+        return gates.size();
+    }
+
+    public void pin(Long storeId, int shard) {
+        storeShardRepository.save(new StoreShard(storeId, shard, LocalDateTime.now()));
+        overrides.put(storeId, shard);
+    }
+
+    public JdbcTemplate jdbc(int shard) {
+        return dataSources.jdbc(shard);
+    }
+
+    // Copies the rows from the home shard to the others, after commit when inside a transaction.
+    // A copy that fails is queued for retryFailedCopies().
+    public void copySharedRows(SharedTable table, Collection<Long> ids) {
+        if (!isSharded() || ids.isEmpty()) {
+            return;
+        }
+        List<Long> rows = List.copyOf(ids);
+        Runnable copy = () -> {
+            for (int shard = 1; shard < shardCount; shard++) {
+                copyOrQueue(table, rows, shard);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    copy.run();
+                }
+            });
+        } else {
+            copy.run();
+        }
+    }
+
+    // Deletes the copies before the home row goes, so a copy still referenced on its shard fails the delete.
+    // ids == null: every row.
+    public void deleteSharedRows(SharedTable table, Collection<Long> ids) {
+        if (!isSharded() || (ids != null && ids.isEmpty())) {
+            return;
+        }
+        List<Long> rows = ids == null ? null : List.copyOf(ids);
+        for (int shard = shardCount - 1; shard > 0; shard--) {
+            if (rows == null) {
+                jdbc(shard).update("DELETE FROM " + table.table);
+                continue;
+            }
+            for (int from = 0; from < rows.size(); from += COPY_CHUNK) {
+                List<Long> chunk = rows.subList(from, Math.min(from + COPY_CHUNK, rows.size()));
+                jdbc(shard).update("DELETE FROM " + table.table + " WHERE " + table.idColumn + " IN ("
+                        + placeholders(chunk.size()) + ")", chunk.toArray());
+            }
+        }
+    }
+
+    // Puts back the copies of a delete that failed on a later shard or at home; ids == null: every row
+    public void restoreSharedRows(SharedTable table, Collection<Long> ids) {
+        if (!isSharded() || (ids != null && ids.isEmpty())) {
+            return;
+        }
+        List<Long> rows = ids == null ? null : List.copyOf(ids);
+        for (int shard = 1; shard < shardCount; shard++) {
+            if (rows != null) {
+                copyOrQueue(table, rows, shard);
+                continue;
+            }
+            try {
+                upsertSharedRows(table, null, shard);
+            } catch (RuntimeException e) {
+                log.error("Restoring {} rows on shard {} failed, the next startup re-syncs them", table.table, shard,
+                        e);
+            }
+        }
+    }
+
+    // Copies the rows of failed copies again, current home values; ones that fail again stay queued
+    public void retryFailedCopies() {
+        for (FailedCopy failed : List.copyOf(failedCopies.keySet())) {
+            Set<Long> ids = failedCopies.remove(failed);
+            if (ids == null) {
+                continue;
+            }
+            try {
+                upsertSharedRows(failed.table(), List.copyOf(ids), failed.shard());
+                log.info("Copied {} {} rows to shard {} on retry", ids.size(), failed.table().table, failed.shard());
+            } catch (RuntimeException e) {
+                queue(failed, ids);
+                log.warn("Copying {} {} rows to shard {} failed again", ids.size(), failed.table().table,
+                        failed.shard(), e);
+            }
+        }
+    }
+
+    public int getFailedCopyCount() {
+        return failedCopies.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Compares every shard's copies with the home rows and re-copies those that differ or are missing.
+    // Returns how many rows were copied.
+    public int syncSharedTables() {
+        int copied = 0;
+        for (SharedTable table : SharedTable.values()) {
+            Map<Long, Long> home = rowHashes(HOME, table);
+            for (int shard = 1; shard < shardCount; shard++) {
+                Map<Long, Long> copies = rowHashes(shard, table);
+                List<Long> stale = new ArrayList<>();
+                home.forEach((id, hash) -> {
+                    if (!hash.equals(copies.get(id))) {
+                        stale.add(id);
+                    }
+                });
+                if (!stale.isEmpty()) {
+                    copied += upsertSharedRows(table, stale, shard);
+                    log.info("Synced {} {} rows to shard {}", stale.size(), table.table, shard);
+                }
+            }
+        }
+        return copied;
+    }
+
+    public static int currentShard() {
+        Integer shard = CURRENT.get();
+        return shard == null ? HOME : shard;
+    }
+
+    // Returns what to hand to restore()
+    static Integer enter(int shard) {
+        if (currentShard() != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A transaction on shard " + currentShard()
+                    + " can't continue on shard " + shard);
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private <T> T throughGate(Long storeId, Supplier<T> work) {
+        Lock gate = enterGate(storeId).lock.readLock();
+        gate.lock();
+        try {
+            return onShard(shardOf(storeId), work); // looked up after the gate: the store may just have moved
+        } finally {
+            gate.unlock();
+            leaveGate(storeId);
+        }
+    }
+
+    private Gate enterGate(Long storeId) {
+        return gates.compute(storeId, (id, gate) -> {
+            Gate entered = gate == null ? new Gate() : gate;
+            entered.users++;
+            return entered;
+        });
+    }
+
+    // Drops the gate with its last user
+    private void leaveGate(Long storeId) {
+        gates.computeIfPresent(storeId, (id, gate) -> --gate.users == 0 ? null : gate);
+    }
+
+    // Replays the home schema on a shard that has no tables yet; shards that do are left alone
+    private void createSchema(int shard) {
+        JdbcTemplate jdbc = jdbc(shard);
+        try {
+            jdbc.queryForObject("SELECT COUNT(*) FROM stock WHERE 1 = 0", Long.class);
+            return;
+        } catch (DataAccessException e) {
+            // no stock table: a new shard
+        }
+        String script = dataSources.getSchemaScript();
+        if (script.isBlank()) {
+            throw new IllegalStateException("Shard " + shard + " has no schema and Hibernate produced no script");
+        }
+        // Spring's script reader, so a ';' inside a quoted default or comment doesn't end a statement
+        new ResourceDatabasePopulator(new ByteArrayResource(script.getBytes(StandardCharsets.UTF_8)))
+                .execute(dataSources.get(shard));
+        jdbc.execute("ALTER SEQUENCE stock_movement_seq RESTART WITH " + (((long) shard << MOVEMENT_ID_SHIFT) + 1));
+        log.info("Created schema on shard {}", shard);
+    }
+
+    private void copyOrQueue(SharedTable table, List<Long> rows, int shard) {
+        try {
+            upsertSharedRows(table, rows, shard);
+        } catch (RuntimeException e) {
+            queue(new FailedCopy(table, shard), rows);
+            log.error("Copying {} {} rows to shard {} failed, retrying in {} ms", rows.size(), table.table, shard,
+                    copyRetryMillis, e);
+        }
+    }
+
+    private void queue(FailedCopy failed, Collection<Long> ids) {
+        // merge, not computeIfAbsent + addAll: ids added to a set retryFailedCopies() just took would be lost
+        Set<Long> added = ConcurrentHashMap.newKeySet();
+        added.addAll(ids);
+        failedCopies.merge(failed, added, (queued, more) -> {
+            queued.addAll(more);
+            return queued;
+        });
+    }
+
+    // id -> hash of the whole row, so two shards' copies can be compared without holding them
+    private Map<Long, Long> rowHashes(int shard, SharedTable table) {
+        Map<Long, Long> hashes = new HashMap<>();
+        jdbc(shard).query("SELECT * FROM " + table.table, rs -> {
+            int columns = rs.getMetaData().getColumnCount();
+            long hash = 1;
+            for (int i = 1; i <= columns; i++) {
+                hash = hash * 1_000_003 + Objects.hashCode(rs.getObject(i));
+            }
+            hashes.put(rs.getLong(table.idColumn), hash);
+        });
+        return hashes;
+    }
+
+    // rows == null: every row
+    private int upsertSharedRows(SharedTable table, List<Long> rows, int shard) {
+        if (rows == null) {
+            return ShardRows.upsert(jdbc(HOME), jdbc(shard), table.table, table.idColumn, "1 = 1", new Object[0],
+                    COPY_CHUNK);
+        }
+        int copied = 0;
+        for (int from = 0; from < rows.size(); from += COPY_CHUNK) {
+            List<Long> chunk = rows.subList(from, Math.min(from + COPY_CHUNK, rows.size()));
+            copied += ShardRows.upsert(jdbc(HOME), jdbc(shard), table.table, table.idColumn,
+                    table.idColumn + " IN (" + placeholders(chunk.size()) + ")", chunk.toArray(), COPY_CHUNK);
+        }
+        return copied;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    // SplitMix64 finalizer: sequential store ids spread evenly around the ring
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,30 @@
+package com.bazaar.inventory_system.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Only active when an admission limit is configured (see ConcurrencyLimitInterceptor)
+@Configuration
+@ConditionalOnExpression("${inventory.concurrency.max-in-flight:0} > 0")
+public class WebConfig implements WebMvcConfigurer {
+
+    @Value("${inventory.concurrency.max-in-flight}")
+    private int maxInFlight;
+
+    @Value("${inventory.concurrency.acquire-timeout-ms:5000}")
+    private long acquireTimeoutMillis;
+
+    @Bean
+    public ConcurrencyLimitInterceptor concurrencyLimitInterceptor() {
+        return new ConcurrencyLimitInterceptor(maxInFlight, acquireTimeoutMillis);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(concurrencyLimitInterceptor());
+    }
+}
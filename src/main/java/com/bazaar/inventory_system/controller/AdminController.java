@@ -0,0 +1,253 @@
+package com.bazaar.inventory_system.controller;
+
+import com.bazaar.inventory_system.config.ReplicaLagMonitor;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.dto.ProductCacheStats;
+import com.bazaar.inventory_system.dto.ReconciliationReport;
+import com.bazaar.inventory_system.dto.StockConcurrencyStats;
+import com.bazaar.inventory_system.dto.StoreMoveReport;
+import com.bazaar.inventory_system.exception.InvalidStockMovementException;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.service.HotStockSlots;
+import com.bazaar.inventory_system.service.MovementArchive;
+import com.bazaar.inventory_system.service.ProductCache;
+import com.bazaar.inventory_system.service.ProductSearchIndex;
+import com.bazaar.inventory_system.service.StockMovementFeed;
+import com.bazaar.inventory_system.service.StockMovementJournal;
+import com.bazaar.inventory_system.service.StockMovementRollupService;
+import com.bazaar.inventory_system.service.StockReconciliationService;
+import com.bazaar.inventory_system.service.StockUpdateStrategy;
+import com.bazaar.inventory_system.service.StoreMoveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Operational stats for the optional background components
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired(required = false)
+    private StockMovementJournal movementJournal;
+
+    @Autowired(required = false)
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockMovementRollupService rollupService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private StockUpdateStrategy stockUpdates;
+
+    @Autowired
+    private HotStockSlots hotStockSlots;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private StockReconciliationService reconciliationService;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private StoreMoveService storeMoveService;
+
+    @Autowired
+    private StockMovementFeed movementFeed;
+
+    @Autowired(required = false)
+    private MovementArchive movementArchive;
+
+    @GetMapping("/journal")
+    public ResponseEntity<Map<String, Object>> getJournalStats() {
+        if (movementJournal == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", movementJournal.getQueueDepth());
+        stats.put("capacity", movementJournal.getCapacity());
+        stats.put("written", movementJournal.getWrittenCount());
+        stats.put("batches", movementJournal.getBatchCount());
+        stats.put("lastBatchSize", movementJournal.getLastBatchSize());
+        stats.put("averageBatchSize", movementJournal.getAverageBatchSize());
+        stats.put("lastFlushMicros", movementJournal.getLastFlushMicros());
+        stats.put("maxFlushMicros", movementJournal.getMaxFlushMicros());
+        stats.put("failed", movementJournal.getFailedCount());
+        stats.put("unwritten", movementJournal.getUnwrittenCount());
+        stats.put("rejected", movementJournal.getRejectedCount());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Live movement feed: open SSE connections and how events fared
+    @GetMapping("/movement-feed")
+    public ResponseEntity<Map<String, Object>> getMovementFeedStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", movementFeed.getSubscriberCount());
+        stats.put("feeds", movementFeed.getFeedCount());
+        stats.put("overflowPolicy", movementFeed.getOverflowPolicy());
+        stats.put("published", movementFeed.getPublishedCount());
+        stats.put("delivered", movementFeed.getDeliveredCount());
+        stats.put("dropped", movementFeed.getDroppedCount());
+        stats.put("slowDisconnects", movementFeed.getSlowDisconnectCount());
+        stats.put("resets", movementFeed.getResetCount());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Where reads went since startup, and how far the replica is behind (-1 = not reachable)
+    @GetMapping("/read-replica")
+    public ResponseEntity<Map<String, Object>> getReadReplicaStats() {
+        if (replicaLagMonitor == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("usable", replicaLagMonitor.isReplicaUsable());
+        stats.put("lagMillis", replicaLagMonitor.getLagMillis());
+        stats.put("maxLagMillis", replicaLagMonitor.getMaxLagMillis());
+        stats.put("replicaReads", replicaLagMonitor.getReplicaReads());
+        stats.put("lagFallbacks", replicaLagMonitor.getLagFallbacks());
+        stats.put("ownWriteFallbacks", replicaLagMonitor.getOwnWriteFallbacks());
+        stats.put("replicaFailures", replicaLagMonitor.getReplicaFailures());
+        stats.put("trackedSessions", replicaLagMonitor.getTrackedSessions());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Hit rate, evictions and load latency of the product catalog cache
+    @GetMapping("/product-cache")
+    public ResponseEntity<ProductCacheStats> getProductCacheStats() {
+        return ResponseEntity.ok(productCache.stats());
+    }
+
+    // Conflicts, retries and lock waits of single-row stock changes under the configured strategy
+    @GetMapping("/stock-concurrency")
+    public ResponseEntity<StockConcurrencyStats> getStockConcurrencyStats() {
+        return ResponseEntity.ok(stockUpdates.stats());
+    }
+
+    // Rows split into sub-counters (see HotStockSlots), with split/collapse/rebalance counts
+    @GetMapping("/hot-stock")
+    public ResponseEntity<Map<String, Object>> getHotStock() {
+        return ResponseEntity.ok(hotStockSlots.stats());
+    }
+
+    // Splits a row ahead of a flash sale; it stays split until the DELETE below
+    @PostMapping("/hot-stock/stores/{storeId}/products/{productId}")
+    public ResponseEntity<Map<String, Object>> splitStockRow(@PathVariable Long storeId, @PathVariable Long productId) {
+        boolean split = hotStockSlots.split(storeId, productId, true);
+        return ResponseEntity.ok(Map.of("split", split, "pinned", true));
+    }
+
+    @DeleteMapping("/hot-stock/stores/{storeId}/products/{productId}")
+    public ResponseEntity<Map<String, Object>> collapseStockRow(@PathVariable Long storeId,
+                                                                @PathVariable Long productId) {
+        return ResponseEntity.ok(Map.of("collapsed", hotStockSlots.collapse(storeId, productId)));
+    }
+
+    // Reload the product search index, e.g. after products were changed outside ProductService
+    @PostMapping("/product-index/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildProductIndex() {
+        long start = System.currentTimeMillis();
+        productSearchIndex.rebuild();
+        return ResponseEntity.ok(Map.of("products", productSearchIndex.size(),
+                "millis", System.currentTimeMillis() - start));
+    }
+
+    // Drop stock movement time partitions older than the given month (yyyymm), archived segments included
+    @DeleteMapping("/stock-movements")
+    public ResponseEntity<Map<String, Object>> dropMovementMonths(@RequestParam int beforeMonth) {
+        validateMonth("beforeMonth", beforeMonth);
+        int deleted = storeShards.scatter(shard -> stockMovementRepository.deleteMonthsBefore(beforeMonth))
+                .stream().mapToInt(Integer::intValue).sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("beforeMonth", beforeMonth);
+        result.put("deleted", deleted);
+        if (movementArchive != null) {
+            result.put("archivedDeleted", movementArchive.dropMonthsBefore(beforeMonth));
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    // Segment files of the cold movement archive, and what the last run moved
+    @GetMapping("/stock-movement-archive")
+    public ResponseEntity<Map<String, Object>> getMovementArchiveStats() {
+        if (movementArchive == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(movementArchive.stats());
+    }
+
+    // Archive old movements now instead of waiting for the next scheduled run
+    @PostMapping("/stock-movement-archive")
+    public ResponseEntity<Map<String, Object>> runMovementArchive() {
+        if (movementArchive == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(movementArchive.archive());
+    }
+
+    // Rebuild hourly/daily rollups from raw movements; by default every month up to the previous one
+    @PostMapping("/stock-movement-rollups/backfill")
+    public ResponseEntity<Map<String, Object>> backfillRollups(
+            @RequestParam(required = false) Integer fromMonth,
+            @RequestParam(required = false) Integer toMonth) {
+        int from = fromMonth != null ? fromMonth : 100001;
+        int to = toMonth != null ? toMonth : StockMovement.monthBucket(LocalDateTime.now().minusMonths(1));
+        validateMonth("fromMonth", from);
+        validateMonth("toMonth", to);
+
+        long start = System.currentTimeMillis();
+        Map<Integer, Integer> buckets = rollupService.backfill(from, to);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fromMonth", from);
+        result.put("toMonth", to);
+        result.put("bucketsPerMonth", buckets);
+        result.put("millis", System.currentTimeMillis() - start);
+        return ResponseEntity.ok(result);
+    }
+
+    // Checks stock against the movement log in the background (repair=true also fixes the rows); poll GET for progress
+    @PostMapping("/stock-reconciliation")
+    public ResponseEntity<ReconciliationReport> startReconciliation(
+            @RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.accepted().body(reconciliationService.start(repair));
+    }
+
+    @GetMapping("/stock-reconciliation")
+    public ResponseEntity<ReconciliationReport> getReconciliation() {
+        ReconciliationReport report = reconciliationService.lastReport();
+        return report == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(report);
+    }
+
+    @GetMapping("/shards")
+    public ResponseEntity<Map<String, Object>> getShards() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shards", storeShards.getShardCount());
+        stats.put("movedStores", storeShards.getMovedStoreCount());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Moves a store's stock, movements, thresholds and rollups to another shard while it keeps trading
+    @PostMapping("/shards/stores/{storeId}/move")
+    public ResponseEntity<StoreMoveReport> moveStore(@PathVariable Long storeId, @RequestParam int shard) {
+        return ResponseEntity.ok(storeMoveService.move(storeId, shard));
+    }
+
+    // --- Helper Methods ---
+    private void validateMonth(String name, int month) {
+        if (month < 100001 || month % 100 < 1 || month % 100 > 12) {
+            throw new InvalidStockMovementException(name + " must be yyyymm, e.g. 202401");
+        }
+    }
+}
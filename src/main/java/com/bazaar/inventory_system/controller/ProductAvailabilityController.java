@@ -0,0 +1,34 @@
+package com.bazaar.inventory_system.controller;
+
+import com.bazaar.inventory_system.dto.ProductAvailability;
+import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.service.ProductService;
+import com.bazaar.inventory_system.service.StockAvailability;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Cross-store view of one product, for the storefront; answered from memory (see StockAvailability)
+@RestController
+@RequestMapping("/products")
+public class ProductAvailabilityController {
+
+    @Autowired
+    private StockAvailability stockAvailability;
+
+    @Autowired
+    private ProductService productService; // cached, so the existence check is usually free
+
+    @GetMapping("/{productId}/availability")
+    public ResponseEntity<ProductAvailability> getAvailability(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "true") boolean stores) {
+
+        if (productService.findById(productId).isEmpty()) {
+            throw new ProductNotFoundException(productId);
+        }
+        return ResponseEntity.ok(new ProductAvailability(productId,
+                stockAvailability.totalQuantity(productId),
+                stores ? stockAvailability.storesWithStock(productId) : null));
+    }
+}
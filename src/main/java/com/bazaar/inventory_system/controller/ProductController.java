@@ -1,14 +1,22 @@
 package com.bazaar.inventory_system.controller;
 
+import com.bazaar.inventory_system.dto.ProductImportResult;
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
 import com.bazaar.inventory_system.exception.InvalidProductRequestException;
 import com.bazaar.inventory_system.exception.ProductNotFoundException;
 import com.bazaar.inventory_system.model.Product;
-import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.service.ProductImportService;
+import com.bazaar.inventory_system.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired; //for dependency injection
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*; //annotations to handle web requests from Spring MVC web framework
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;/*
 Optional is used to represent a value that may or may not be present, which is useful when retrieving a single product
@@ -20,46 +28,44 @@ by its ID as it might not exist in the database.
 public class ProductController {
 
     @Autowired //inject an instance of this class automatically
-    private ProductRepository productRepository;
+    private ProductService productService; // cached reads, see ProductCache
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    private static final int MAX_SEARCH_RESULTS = 1000;
 
     @GetMapping //GET HTTP requests mapping
     public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productRepository.findAll();
+        List<Product> products = productService.findAll();
         return ResponseEntity.ok(products);
     }
 
     @GetMapping("/{productId}")
     //@PathVariable allows accessing variables enclosed with {} in the path
     public ResponseEntity<Product> getProductById(@PathVariable Long productId) {
-        Product product = productRepository.findById(productId)
+        Product product = productService.findById(productId)
                 .orElseThrow(() -> new ProductNotFoundException(productId));
         return ResponseEntity.ok(product);
     }
+    // name: case-insensitive substring (mode=SUBSTRING) or word prefix (mode=PREFIX); category: exact.
+    // Results are ranked best match first and capped at limit
     @GetMapping("/search")
     public ResponseEntity<List<Product>> searchProducts(
             @PathVariable Long storeId,
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String category) {
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "SUBSTRING") ProductSearchQuery.Mode mode,
+            @RequestParam(defaultValue = "100") int limit) {
 
-        // Case 1: Both name and category provided
-        if (name != null && category != null) {
-            List<Product> products = productRepository.findByNameContainingIgnoreCaseAndCategory(name, category);
-            return ResponseEntity.ok(products);
-        }
-        // Case 2: Only name provided
-        else if (name != null) {
-            List<Product> products = productRepository.findByNameContainingIgnoreCase(name);
-            return ResponseEntity.ok(products);
-        }
-        // Case 3: Only category provided
-        else if (category != null) {
-            List<Product> products = productRepository.findByCategory(category);
-            return ResponseEntity.ok(products);
-        }
-        // Case 4: No filters provided
-        else {
+        // At least one filter is required
+        if (name == null && category == null) {
             return ResponseEntity.badRequest().build();
         }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new InvalidProductRequestException("Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        return ResponseEntity.ok(productService.search(new ProductSearchQuery(name, category, mode, limit)));
     }
 
     @PostMapping //POST HTTP request mapping
@@ -70,26 +76,37 @@ public class ProductController {
     public ResponseEntity<Product> createProduct(
             @PathVariable Long storeId,
             @Valid @RequestBody Product product) {
-        Product savedProduct = productRepository.save(product);
+        Product savedProduct = productService.create(product);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
     }
 
+    /*
+    Bulk import for vendor onboarding. The body is streamed, never held whole: text/csv with a
+    header row (name,category,price,description) or application/x-ndjson, one product per line.
+    Invalid rows are listed in the result and skipped; the others are imported.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ProductImportResult> importProducts(
+            @PathVariable Long storeId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            HttpServletRequest request) throws IOException {
+
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        ProductImportService.Format format = mediaType.isCompatibleWith(MediaType.valueOf("text/csv"))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        ProductImportResult result = productImportService.importProducts(request.getInputStream(), format,
+                mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8);
+        return ResponseEntity.ok(result);
+    }
+
     // UPDATE product
     @PutMapping("/{productId}")
     public ResponseEntity<Product> updateProduct(
             @PathVariable Long productId,
             @Valid @RequestBody Product productDetails) {
 
-        // Verify product exists
-        Product existingProduct = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException(productId));
-
-        existingProduct.setName(productDetails.getName());
-        existingProduct.setDescription(productDetails.getDescription());
-        existingProduct.setPrice(productDetails.getPrice());
-        existingProduct.setCategory(productDetails.getCategory());
-
-        Product updatedProduct = productRepository.save(existingProduct);
+        Product updatedProduct = productService.update(productId, productDetails);
         return ResponseEntity.ok(updatedProduct);
     }
     // DELETE product
@@ -98,11 +115,7 @@ public class ProductController {
             @PathVariable Long storeId,
             @PathVariable Long productId) {
 
-        // Verify product exists
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException(productId));
-
-        productRepository.delete(product);
+        productService.delete(productId); // 404 if it doesn't exist
         return ResponseEntity.noContent().build();
     }
 }
@@ -1,18 +1,24 @@
 package com.bazaar.inventory_system.controller;
 
-import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.dto.LowStockAlert;
+import com.bazaar.inventory_system.dto.StockBatchRequest;
+import com.bazaar.inventory_system.dto.StockBatchResult;
+import com.bazaar.inventory_system.dto.StockLevel;
 import com.bazaar.inventory_system.exception.InvalidStockRequestException;
 import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.exception.StoreNotFoundException;
+import com.bazaar.inventory_system.model.ReorderThreshold;
 import com.bazaar.inventory_system.model.Stock;
-import com.bazaar.inventory_system.model.StockId;
-import com.bazaar.inventory_system.model.StockMovement;
-import com.bazaar.inventory_system.repository.StockMovementRepository;
 import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.bazaar.inventory_system.service.IdempotencyService;
+import com.bazaar.inventory_system.service.ProductService;
+import com.bazaar.inventory_system.service.StockService;
+import com.bazaar.inventory_system.service.StockThresholds;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,12 +30,29 @@ public class StockController {
     private StockRepository stockRepository;
 
     @Autowired
-    private StockMovementRepository stockMovementRepository;
+    private StockService stockService;
 
+    // POSTs take an optional Idempotency-Key header, so POS retries are applied once
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private StockThresholds stockThresholds;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    // details=true adds product name and category (one joined query either way)
     @GetMapping("/stock")
-    public ResponseEntity<List<Stock>>  getAllStockForStore(@PathVariable Long storeId) {
-        // This might need a custom query in StockRepository for more complex filtering
-        List<Stock> stock = stockRepository.findByStoreId(storeId);
+    public ResponseEntity<List<StockLevel>> getAllStockForStore(
+            @PathVariable Long storeId,
+            @RequestParam(defaultValue = "false") boolean details) {
+        List<StockLevel> stock = details
+                ? stockRepository.findLevelsWithProduct(storeId)
+                : stockRepository.findLevels(storeId);
         return ResponseEntity.ok(stock);
     }
 
@@ -37,15 +60,48 @@ public class StockController {
     public Optional<Stock> getStockForProduct(
             @PathVariable Long storeId,
             @PathVariable Long productId) {
-        StockId stockId = new StockId();
-        stockId.setStoreId(storeId);
-        stockId.setProductId(productId);
-        return stockRepository.findById(stockId);
+        // Served from memory in ledger mode
+        return stockService.findStock(storeId, productId);
+    }
+
+    // Rows below their reorder threshold, from the in-memory low set (see StockThresholds)
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<LowStockAlert>> getLowStock(@PathVariable Long storeId) {
+        return ResponseEntity.ok(stockThresholds.lowStock(storeId));
+    }
+
+    @PutMapping("/stock/{productId}/threshold")
+    public ResponseEntity<ReorderThreshold> setReorderThreshold(
+            @PathVariable Long storeId,
+            @PathVariable Long productId,
+            @RequestBody ReorderThreshold threshold) {
+
+        // Validate input
+        if (threshold.getThreshold() == null || threshold.getThreshold() <= 0) {
+            throw new InvalidStockRequestException("Threshold must be positive");
+        }
+        if (!storeRepository.existsById(storeId)) {
+            throw new StoreNotFoundException(storeId);
+        }
+        if (productService.findById(productId).isEmpty()) {
+            throw new ProductNotFoundException(productId);
+        }
+        return ResponseEntity.ok(stockThresholds.setThreshold(storeId, productId, threshold.getThreshold()));
+    }
+
+    @DeleteMapping("/stock/{productId}/threshold")
+    public ResponseEntity<Void> removeReorderThreshold(
+            @PathVariable Long storeId,
+            @PathVariable Long productId) {
+        return stockThresholds.removeThreshold(storeId, productId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
     }
 
     @PostMapping("/stock-in")
     public ResponseEntity<Stock> addStock(
             @PathVariable Long storeId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Stock stock) {
 
         // Validate input
@@ -53,23 +109,16 @@ public class StockController {
             throw new InvalidStockRequestException("Quantity must be positive");
         }
 
-        StockId stockId = new StockId(storeId, stock.getProductId());
-        stock.setStoreId(storeId);
-
-        Stock updatedStock = stockRepository.findById(stockId)
-                .map(existingStock -> {
-                    existingStock.setQuantity(existingStock.getQuantity() + stock.getQuantity());
-                    return stockRepository.save(existingStock);
-                })
-                .orElseGet(() -> stockRepository.save(stock));
-
-        // Record movement
-        createStockMovement(storeId, stock.getProductId(), stock.getQuantity(), "Stock-In");
-        return ResponseEntity.status(HttpStatus.CREATED).body(updatedStock);
+        // Increments the row (or creates it) and records the movement in one transaction
+        return idempotencyService.execute(idempotencyKey, "stock-in /stores/" + storeId, stock, Stock.class, () -> {
+            Stock updatedStock = stockService.addStock(storeId, stock.getProductId(), stock.getQuantity());
+            return ResponseEntity.status(HttpStatus.CREATED).body(updatedStock);
+        });
     }
     @PostMapping("/sell")
     public ResponseEntity<Stock> sellProduct(
             @PathVariable Long storeId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Stock stock) {
 
         // Validate input
@@ -77,33 +126,15 @@ public class StockController {
             throw new InvalidStockRequestException("Sale quantity must be positive");
         }
 
-        StockId stockId = new StockId(storeId, stock.getProductId());
-        Stock existingStock = stockRepository.findById(stockId)
-                .orElseThrow(() -> new ProductNotFoundException(stock.getProductId()));
-
-        // Check sufficient stock
-        if (existingStock.getQuantity() < stock.getQuantity()) {
-            throw new InsufficientStockException(storeId, stock.getQuantity(), existingStock.getQuantity());
-        }
-
-        // Update stock
-        existingStock.setQuantity(existingStock.getQuantity() - stock.getQuantity());
-        stockRepository.save(existingStock);
-
-        // Record movement with NEGATIVE quantity
-        StockMovement movement = new StockMovement();
-        movement.setStoreId(storeId);
-        movement.setProductId(stock.getProductId());
-        movement.setQuantityChange(-stock.getQuantity()); // Negative for sales
-        movement.setMovementType("SALE");
-        stockMovementRepository.save(movement);
-
-        return ResponseEntity.ok(existingStock);
+        // Guarded decrement: throws InsufficientStockException / ProductNotFoundException
+        return idempotencyService.execute(idempotencyKey, "sell /stores/" + storeId, stock, Stock.class, () ->
+                ResponseEntity.ok(stockService.sellProduct(storeId, stock.getProductId(), stock.getQuantity())));
     }
 
     @PostMapping("/remove-stock")
     public ResponseEntity<Stock> removeStock(
             @PathVariable Long storeId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @RequestBody Stock stock) {
 
         // Validate input
@@ -111,26 +142,23 @@ public class StockController {
             throw new InvalidStockRequestException("Quantity must be positive");
         }
 
-        StockId stockId = new StockId(storeId, stock.getProductId());
-
-        // Find and validate stock
-        Stock updatedStock = stockRepository.findById(stockId)
-                .map(existingStock -> {
-                    if (existingStock.getQuantity() < stock.getQuantity()) {
-                        throw new InsufficientStockException(
-                                stock.getProductId(),
-                                stock.getQuantity(),
-                                existingStock.getQuantity()
-                        );
-                    }
-                    existingStock.setQuantity(existingStock.getQuantity() - stock.getQuantity());
-                    return stockRepository.save(existingStock);
-                })
-                .orElseThrow(() -> new ProductNotFoundException(stock.getProductId(), storeId));
-
-        // Record movement
-        createStockMovement(storeId, stock.getProductId(), -stock.getQuantity(), "Removal");
-        return ResponseEntity.ok(updatedStock);
+        return idempotencyService.execute(idempotencyKey, "remove-stock /stores/" + storeId, stock, Stock.class, () ->
+                ResponseEntity.ok(stockService.removeStock(storeId, stock.getProductId(), stock.getQuantity())));
+    }
+    // Whole basket or delivery in one call; all lines are committed or none are
+    @PostMapping("/stock/batch")
+    public ResponseEntity<StockBatchResult> applyStockBatch(
+            @PathVariable Long storeId,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody StockBatchRequest request) {
+
+        return idempotencyService.execute(idempotencyKey, "stock-batch /stores/" + storeId, request,
+                StockBatchResult.class, () -> {
+                    StockBatchResult result = stockService.applyBatch(storeId, request.getLines());
+                    return ResponseEntity
+                            .status(result.isCommitted() ? HttpStatus.OK : HttpStatus.CONFLICT)
+                            .body(result);
+                });
     }
     // --- Helper Methods ---
     private void validateStockRequest(Stock stock) {
@@ -139,14 +167,4 @@ public class StockController {
         }
     }
 
-    private void createStockMovement(Long storeId, Long productId, int quantityChange, String movementType) {
-        StockMovement movement = new StockMovement();
-        movement.setStoreId(storeId);
-        movement.setProductId(productId);
-        movement.setQuantityChange(quantityChange);
-        movement.setMovementType(movementType);
-        movement.setTimestamp(LocalDateTime.now());
-        stockMovementRepository.save(movement);
-    }
-
 }
\ No newline at end of file
@@ -1,17 +1,47 @@
 package com.bazaar.inventory_system.controller;
 
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.dto.AcceptedStockMovement;
+import com.bazaar.inventory_system.dto.StockMovementCursor;
+import com.bazaar.inventory_system.dto.StockMovementPage;
 import com.bazaar.inventory_system.exception.InvalidStockMovementException;
+import com.bazaar.inventory_system.exception.JournalUnavailableException;
 import com.bazaar.inventory_system.exception.StockMovementNotFoundException;
+import com.bazaar.inventory_system.exception.StoreNotFoundException;
+import com.bazaar.inventory_system.model.RollupGranularity;
 import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.StockMovementRollup;
 import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.bazaar.inventory_system.service.MovementArchive;
+import com.bazaar.inventory_system.service.StockMovementFeed;
+import com.bazaar.inventory_system.service.StockMovementJournal;
+import com.bazaar.inventory_system.service.StockMovementRollupService;
+import com.bazaar.inventory_system.service.IdempotencyService;
+import com.bazaar.inventory_system.service.StockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/stores/{storeId}/stock-movements")
@@ -20,6 +50,42 @@ public class StockMovementController {
     @Autowired
     private StockMovementRepository stockMovementRepository;
 
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private StockMovementRollupService rollupService;
+
+    @Autowired(required = false) // only present when inventory.journal.enabled=true
+    private StockMovementJournal movementJournal;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private StockMovementFeed movementFeed;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired(required = false) // only present when inventory.archive.enabled=true
+    private MovementArchive movementArchive;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NDJSON = "application/x-ndjson";
+
     // GET all stock movements with optional filters
     @GetMapping
     public ResponseEntity<List<StockMovement>> getStockMovements(
@@ -31,9 +97,7 @@ public class StockMovementController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
 
         // Validate date range if provided
-        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
-            throw new InvalidStockMovementException("Start date must be before end date");
-        }
+        validateDateRange(startDate, endDate);
 
         List<StockMovement> movements;
         if (productId != null && startDate != null && endDate != null) {
@@ -47,8 +111,124 @@ public class StockMovementController {
             movements = stockMovementRepository.findByStoreId(storeId);
         }
 
+        // Archived movements too, once the store has any; the result is then in (timestamp, id) order
+        if (movementArchive != null && movementArchive.hasSegments(storeId)) {
+            boolean range = startDate != null && endDate != null;
+            List<StockMovement> hot = new ArrayList<>(movements);
+            hot.sort(MovementArchive.ORDER);
+            movements = take(MovementArchive.merge(hot.iterator(), movementArchive.scan(storeId, productId,
+                    range ? startDate : null, range ? endDate : null, null, null)), Integer.MAX_VALUE);
+        }
+
         return ResponseEntity.ok(movements);
     }
+    // GET one page, keyset-paginated on (timestamp, stockMovementId); pass nextCursor back as cursor
+    @GetMapping("/page")
+    public ResponseEntity<StockMovementPage> getStockMovementPage(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+
+        validateDateRange(startDate, endDate);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidStockMovementException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        StockMovementCursor after = cursor != null ? StockMovementCursor.decode(cursor) : null;
+        // Fetch one extra row to know whether there is a next page
+        List<StockMovement> movements = stockMovementRepository.findPage(storeId, productId, startDate, endDate,
+                after != null ? after.getTimestamp() : null,
+                after != null ? after.getStockMovementId() : null,
+                limit + 1);
+        if (movementArchive != null) {
+            movements = take(MovementArchive.merge(movements.iterator(), movementArchive.scan(storeId, productId,
+                    startDate, endDate, after != null ? after.getTimestamp() : null,
+                    after != null ? after.getStockMovementId() : null)), limit + 1);
+        }
+
+        String nextCursor = null;
+        if (movements.size() > limit) {
+            movements = movements.subList(0, limit);
+            nextCursor = StockMovementCursor.after(movements.get(limit - 1)).encode();
+        }
+        return ResponseEntity.ok(new StockMovementPage(movements, nextCursor));
+    }
+
+    // GET full history as NDJSON (one movement per line), streamed from a JDBC cursor in constant memory
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportStockMovements(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        validateDateRange(startDate, endDate);
+
+        StreamingResponseBody body = out -> {
+            TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+            // Runs on an async thread, outside the request's shard routing
+            storeShards.read(storeId, () -> readOnly.execute(status -> {
+                try (Stream<StockMovement> movements =
+                             stockMovementRepository.streamMovements(storeId, productId, startDate, endDate)) {
+                    // Archive scanned after the query started, so a month archived meanwhile is in one or the other
+                    Iterator<StockMovement> merged = movementArchive == null ? movements.iterator()
+                            : MovementArchive.merge(movements.iterator(),
+                            movementArchive.scan(storeId, productId, startDate, endDate, null, null));
+                    while (merged.hasNext()) {
+                        StockMovement movement = merged.next();
+                        try {
+                            out.write(objectMapper.writeValueAsBytes(movement));
+                            out.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        if (entityManager.contains(movement)) {
+                            entityManager.detach(movement); // keep the persistence context from growing
+                        }
+                    }
+                }
+                return null;
+            }));
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    // GET live feed of new movements as Server-Sent Events ("movement" events, JSON). A reconnecting
+    // client sends Last-Event-ID and gets what it missed, or a "reset" event when that is too far back.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockMovements(
+            @PathVariable Long storeId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (!storeRepository.existsById(storeId)) {
+            throw new StoreNotFoundException(storeId);
+        }
+        return movementFeed.subscribe(storeId, lastEventId);
+    }
+
+    // GET per-bucket totals (net quantity change and movement count per product and movement type),
+    // answered from the hourly/daily rollups instead of the raw movements
+    @GetMapping("/summary")
+    public ResponseEntity<List<StockMovementRollup>> getStockMovementSummary(
+            @PathVariable Long storeId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        validateDateRange(startDate, endDate);
+        return ResponseEntity.ok(rollupService.summarize(storeId, productId, granularity, startDate, endDate));
+    }
+
     // GET specific stock movement
     @GetMapping("/{movementId}")
     public ResponseEntity<StockMovement> getStockMovement(
@@ -69,8 +249,10 @@ public class StockMovementController {
 
     // CREATE stock movement
     @PostMapping
-    public ResponseEntity<StockMovement> createStockMovement(
+    public ResponseEntity<Object> createStockMovement(
             @PathVariable Long storeId,
+            @RequestParam(defaultValue = "true") boolean sync,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody StockMovement stockMovement) {
 
         // Validate store ID consistency
@@ -84,13 +266,35 @@ public class StockMovementController {
             throw new InvalidStockMovementException("Quantity change cannot be zero");
         }
 
-        // Auto-set timestamp if not provided
-        if (stockMovement.getTimestamp() == null) {
-            stockMovement.setTimestamp(LocalDateTime.now());
-        }
+        // Fingerprinted before the timestamp default below, so a retry without one still matches.
+        // The body is a StockMovement (201) or an AcceptedStockMovement (202), so a replay from the
+        // table comes back as plain JSON
+        return idempotencyService.execute(idempotencyKey, "stock-movement /stores/" + storeId,
+                List.of(sync, stockMovement), Object.class, () -> {
+                    // Auto-set timestamp if not provided
+                    if (stockMovement.getTimestamp() == null) {
+                        stockMovement.setTimestamp(LocalDateTime.now());
+                    }
+
+                    if (movementJournal == null) {
+                        StockMovement savedMovement = stockService.createMovement(stockMovement);
+                        return ResponseEntity.status(HttpStatus.CREATED).body(savedMovement);
+                    }
 
-        StockMovement savedMovement = stockMovementRepository.save(stockMovement);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedMovement);
+                    // Journaled: wait for the group commit (default), or return 202 straight away with sync=false
+                    CompletableFuture<StockMovement> pending = movementJournal.append(stockMovement);
+                    if (!sync) {
+                        return ResponseEntity.status(HttpStatus.ACCEPTED).body(new AcceptedStockMovement(storeId,
+                                stockMovement.getProductId(), stockMovement.getQuantityChange(),
+                                stockMovement.getMovementType()));
+                    }
+                    try {
+                        return ResponseEntity.status(HttpStatus.CREATED).body(pending.join());
+                    } catch (CompletionException e) {
+                        throw new JournalUnavailableException("Stock movement was not written: "
+                                + e.getCause().getMessage(), e.getCause());
+                    }
+                });
     }
 
     // DELETE stock movement
@@ -108,7 +312,22 @@ public class StockMovementController {
                     "Cannot delete movement - it belongs to a different store");
         }
 
-        stockMovementRepository.delete(movement);
+        stockService.deleteMovement(movement);
         return ResponseEntity.noContent().build();
     }
+
+    // --- Helper Methods ---
+    private static List<StockMovement> take(Iterator<StockMovement> movements, int limit) {
+        List<StockMovement> taken = new ArrayList<>();
+        while (taken.size() < limit && movements.hasNext()) {
+            taken.add(movements.next());
+        }
+        return taken;
+    }
+
+    private void validateDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new InvalidStockMovementException("Start date must be before end date");
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.bazaar.inventory_system.dto;
+
+/*
+Body of the 202 from POST /stores/{storeId}/stock-movements?sync=false: the movement is queued in
+the journal and has no id or timestamp yet. It shows up in the movement listing once written.
+ */
+public class AcceptedStockMovement {
+    private final String status = "ACCEPTED";
+    private final Long storeId;
+    private final Long productId;
+    private final int quantityChange;
+    private final String movementType;
+
+    public AcceptedStockMovement(Long storeId, Long productId, int quantityChange, String movementType) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.quantityChange = quantityChange;
+        this.movementType = movementType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantityChange() {
+        return quantityChange;
+    }
+
+    public String getMovementType() {
+        return movementType;
+    }
+}
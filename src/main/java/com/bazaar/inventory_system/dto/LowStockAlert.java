@@ -0,0 +1,44 @@
+package com.bazaar.inventory_system.dto;
+
+import java.time.LocalDateTime;
+
+/*
+A stock row that fell below its reorder threshold. Sent once to the LowStockListeners when the
+row crosses the threshold, and listed by GET /stores/{storeId}/low-stock (with the current
+quantity) until it is restocked to the threshold or above.
+ */
+public class LowStockAlert {
+    private final Long storeId;
+    private final Long productId;
+    private final int quantity;
+    private final int threshold;
+    private final LocalDateTime since;
+
+    public LowStockAlert(Long storeId, Long productId, int quantity, int threshold, LocalDateTime since) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.threshold = threshold;
+        this.since = since;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public LocalDateTime getSince() {
+        return since;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bazaar.inventory_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/*
+Response of GET /products/{productId}/availability: units across all stores and, unless
+?stores=false, the stores that hold the product (storeId, productId, quantity).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductAvailability {
+    private final Long productId;
+    private final long totalQuantity;
+    private final List<StockLevel> stores;
+
+    public ProductAvailability(Long productId, long totalQuantity, List<StockLevel> stores) {
+        this.productId = productId;
+        this.totalQuantity = totalQuantity;
+        this.stores = stores;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public List<StockLevel> getStores() {
+        return stores;
+    }
+}
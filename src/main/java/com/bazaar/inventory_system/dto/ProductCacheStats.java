@@ -0,0 +1,77 @@
+package com.bazaar.inventory_system.dto;
+
+// Counters of the active ProductCache, served by GET /admin/product-cache
+public class ProductCacheStats {
+    private final String type;
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    private final long loads;
+    private final long loadNanos;
+    private final long maxLoadNanos;
+
+    public ProductCacheStats(String type, int size, long hits, long misses, long evictions, long expirations,
+                             long invalidations, long loads, long loadNanos, long maxLoadNanos) {
+        this.type = type;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.loads = loads;
+        this.loadNanos = loadNanos;
+        this.maxLoadNanos = maxLoadNanos;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    // Entries dropped to stay within max-entries
+    public long getEvictions() {
+        return evictions;
+    }
+
+    // Entries found past their TTL
+    public long getExpirations() {
+        return expirations;
+    }
+
+    // Entries dropped because a product changed
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public double getAverageLoadMicros() {
+        return loads == 0 ? 0 : loadNanos / 1_000.0 / loads;
+    }
+
+    public double getMaxLoadMicros() {
+        return maxLoadNanos / 1_000.0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bazaar.inventory_system.dto;
+
+// A rejected import row: line is where the row starts in the uploaded file (1-based, header included)
+public class ProductImportError {
+    private final long line;
+    private final String message;
+
+    public ProductImportError(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,54 @@
+package com.bazaar.inventory_system.dto;
+
+import java.util.List;
+
+/*
+Outcome of POST /stores/{storeId}/products/import. Rejected rows don't stop the import;
+errors lists them by line, but only the first max-errors of them (errorsTruncated is then true).
+ */
+public class ProductImportResult {
+    private final long rows;
+    private final long imported;
+    private final long rejected;
+    private final long elapsedMillis;
+    private final List<ProductImportError> errors;
+    private final boolean errorsTruncated;
+
+    public ProductImportResult(long rows, long imported, long rejected, long elapsedMillis,
+                               List<ProductImportError> errors, boolean errorsTruncated) {
+        this.rows = rows;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+
+    public List<ProductImportError> getErrors() {
+        return errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+}
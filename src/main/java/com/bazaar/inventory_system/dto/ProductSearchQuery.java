@@ -0,0 +1,98 @@
+package com.bazaar.inventory_system.dto;
+
+import com.bazaar.inventory_system.model.Product;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/*
+A /products/search request: name is matched case-insensitively, as a substring or as the prefix
+of any word, category exactly. Either may be null, not both. Also the ProductCache key for
+the results, hence equals/hashCode and matches().
+ */
+public class ProductSearchQuery {
+
+    public enum Mode {
+        SUBSTRING,
+        PREFIX
+    }
+
+    private final String name;
+    private final String category;
+    private final Mode mode;
+    private final int limit;
+
+    public ProductSearchQuery(String name, String category, Mode mode, int limit) {
+        this.name = name != null ? name.toLowerCase(Locale.ROOT) : null;
+        this.category = category;
+        this.mode = mode;
+        this.limit = limit;
+    }
+
+    // Lower-cased
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    // Whether the product qualifies, ignoring the limit
+    public boolean matches(Product product) {
+        if (product == null) {
+            return false;
+        }
+        if (category != null && !category.equals(product.getCategory())) {
+            return false;
+        }
+        return name == null || (product.getName() != null
+                && matchesName(product.getName().toLowerCase(Locale.ROOT)));
+    }
+
+    public boolean matchesName(String lowerCaseName) {
+        return mode == Mode.PREFIX ? wordStartIndex(lowerCaseName, name) >= 0 : lowerCaseName.contains(name);
+    }
+
+    // Index of the first occurrence of part that starts a word of text, or -1
+    public static int wordStartIndex(String text, String part) {
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductSearchQuery)) return false;
+        ProductSearchQuery that = (ProductSearchQuery) o;
+        return limit == that.limit && Objects.equals(name, that.name) && Objects.equals(category, that.category)
+                && mode == that.mode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, category, mode, limit);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSearchQuery{" +
+                "name='" + name + '\'' +
+                ", category='" + category + '\'' +
+                ", mode=" + mode +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -0,0 +1,95 @@
+package com.bazaar.inventory_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/*
+Progress and outcome of a stock reconciliation (see StockReconciliationService). While it runs,
+storesDone/storesTotal is the progress; drifts holds the first max-reported differences found.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReconciliationReport {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private final State state;
+    private final boolean repair;
+    private final int storesTotal;
+    private final int storesDone;
+    private final long mismatches;
+    private final long repaired;
+    private final LocalDateTime startedAt;
+    private final LocalDateTime finishedAt;
+    private final long elapsedMillis;
+    private final List<StockDrift> drifts;
+    private final boolean driftsTruncated;
+    private final String error;
+
+    public ReconciliationReport(State state, boolean repair, int storesTotal, int storesDone, long mismatches,
+                                long repaired, LocalDateTime startedAt, LocalDateTime finishedAt,
+                                long elapsedMillis, List<StockDrift> drifts, boolean driftsTruncated,
+                                String error) {
+        this.state = state;
+        this.repair = repair;
+        this.storesTotal = storesTotal;
+        this.storesDone = storesDone;
+        this.mismatches = mismatches;
+        this.repaired = repaired;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.elapsedMillis = elapsedMillis;
+        this.drifts = drifts;
+        this.driftsTruncated = driftsTruncated;
+        this.error = error;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isRepair() {
+        return repair;
+    }
+
+    public int getStoresTotal() {
+        return storesTotal;
+    }
+
+    public int getStoresDone() {
+        return storesDone;
+    }
+
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    public long getRepaired() {
+        return repaired;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public List<StockDrift> getDrifts() {
+        return drifts;
+    }
+
+    public boolean isDriftsTruncated() {
+        return driftsTruncated;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
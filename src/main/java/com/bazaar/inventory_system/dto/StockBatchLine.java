@@ -0,0 +1,43 @@
+package com.bazaar.inventory_system.dto;
+
+import com.bazaar.inventory_system.model.StockOperation;
+
+// One line of a basket or delivery sent to POST /stores/{storeId}/stock/batch
+public class StockBatchLine {
+    private StockOperation type;
+    private Long productId;
+    private Integer quantity;
+
+    public StockBatchLine() {
+    }
+
+    public StockBatchLine(StockOperation type, Long productId, Integer quantity) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public StockOperation getType() {
+        return type;
+    }
+
+    public void setType(StockOperation type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+}
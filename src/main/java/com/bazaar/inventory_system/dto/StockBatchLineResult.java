@@ -0,0 +1,81 @@
+package com.bazaar.inventory_system.dto;
+
+import com.bazaar.inventory_system.model.StockOperation;
+
+public class StockBatchLineResult {
+
+    public enum Status {
+        APPLIED,          // line was written
+        NOT_FOUND,        // no stock row for this product in the store
+        INSUFFICIENT,     // not enough stock for the sale/removal
+        ROLLED_BACK       // line itself was fine, but another line failed so nothing was committed
+    }
+
+    private int line;
+    private StockOperation type;
+    private Long productId;
+    private int quantity;
+    private Status status;
+    private String message;
+
+    public StockBatchLineResult() {
+    }
+
+    public StockBatchLineResult(int line, StockOperation type, Long productId, int quantity,
+                                Status status, String message) {
+        this.line = line;
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public StockOperation getType() {
+        return type;
+    }
+
+    public void setType(StockOperation type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,23 @@
+package com.bazaar.inventory_system.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class StockBatchRequest {
+    private List<StockBatchLine> lines = new ArrayList<>();
+
+    public StockBatchRequest() {
+    }
+
+    public StockBatchRequest(List<StockBatchLine> lines) {
+        this.lines = lines;
+    }
+
+    public List<StockBatchLine> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<StockBatchLine> lines) {
+        this.lines = lines;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bazaar.inventory_system.dto;
+
+import java.util.List;
+
+// Outcome of a batch: either every line was committed, or none were
+public class StockBatchResult {
+    private boolean committed;
+    private List<StockBatchLineResult> lines;
+
+    public StockBatchResult() {
+    }
+
+    public StockBatchResult(boolean committed, List<StockBatchLineResult> lines) {
+        this.committed = committed;
+        this.lines = lines;
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    public List<StockBatchLineResult> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<StockBatchLineResult> lines) {
+        this.lines = lines;
+    }
+}
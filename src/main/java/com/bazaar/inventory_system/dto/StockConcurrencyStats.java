@@ -0,0 +1,71 @@
+package com.bazaar.inventory_system.dto;
+
+// Counters of the active StockUpdateStrategy since startup, served by GET /admin/stock-concurrency
+public class StockConcurrencyStats {
+    private final String strategy;
+    private final long changes;
+    private final long conflicts;
+    private final long retries;
+    private final long retriesExhausted;
+    private final long lockTimeouts;
+    private final long lockWaits;
+    private final long lockWaitNanos;
+    private final long maxLockWaitNanos;
+
+    public StockConcurrencyStats(String strategy, long changes, long conflicts, long retries, long retriesExhausted,
+                                 long lockTimeouts, long lockWaits, long lockWaitNanos, long maxLockWaitNanos) {
+        this.strategy = strategy;
+        this.changes = changes;
+        this.conflicts = conflicts;
+        this.retries = retries;
+        this.retriesExhausted = retriesExhausted;
+        this.lockTimeouts = lockTimeouts;
+        this.lockWaits = lockWaits;
+        this.lockWaitNanos = lockWaitNanos;
+        this.maxLockWaitNanos = maxLockWaitNanos;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    // Single-row changes requested (a retried change counts once)
+    public long getChanges() {
+        return changes;
+    }
+
+    // Optimistic attempts that found the row changed since they read it
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    // Changes given up after max-attempts conflicts
+    public long getRetriesExhausted() {
+        return retriesExhausted;
+    }
+
+    public long getLockTimeouts() {
+        return lockTimeouts;
+    }
+
+    // Row locks taken with SELECT ... FOR UPDATE and how long they took; pessimistic strategy only
+    public long getLockWaits() {
+        return lockWaits;
+    }
+
+    public long getLockWaitNanos() {
+        return lockWaitNanos;
+    }
+
+    public long getMaxLockWaitNanos() {
+        return maxLockWaitNanos;
+    }
+
+    public double getAverageLockWaitMicros() {
+        return lockWaits == 0 ? 0 : lockWaitNanos / 1000.0 / lockWaits;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bazaar.inventory_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/*
+One stock row that disagrees with its movements: quantity is the stock table (null when there is
+no row), expected the sum of the row's movement quantity changes.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockDrift {
+    private final Long storeId;
+    private final Long productId;
+    private final Integer quantity;
+    private final long expected;
+    private final boolean repaired;
+
+    public StockDrift(Long storeId, Long productId, Integer quantity, long expected, boolean repaired) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expected = expected;
+        this.repaired = repaired;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public long getExpected() {
+        return expected;
+    }
+
+    public boolean isRepaired() {
+        return repaired;
+    }
+}
@@ -0,0 +1,49 @@
+package com.bazaar.inventory_system.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/*
+One row of GET /stores/{storeId}/stock, built straight from a JPQL constructor expression so no
+Stock/Store/Product entities are loaded. Same JSON as Stock (storeId, productId, quantity);
+productName and category are only filled, and only serialized, with ?details=true.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockLevel {
+    private final Long storeId;
+    private final Long productId;
+    private final Integer quantity;
+    private final String productName;
+    private final String category;
+
+    public StockLevel(Long storeId, Long productId, Integer quantity) {
+        this(storeId, productId, quantity, null, null);
+    }
+
+    public StockLevel(Long storeId, Long productId, Integer quantity, String productName, String category) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.productName = productName;
+        this.category = category;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bazaar.inventory_system.dto;
+
+import com.bazaar.inventory_system.exception.InvalidStockMovementException;
+import com.bazaar.inventory_system.model.StockMovement;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Opaque keyset cursor: the (timestamp, stockMovementId) of the last row a client has seen
+public class StockMovementCursor {
+    private final LocalDateTime timestamp;
+    private final Long stockMovementId;
+
+    public StockMovementCursor(LocalDateTime timestamp, Long stockMovementId) {
+        this.timestamp = timestamp;
+        this.stockMovementId = stockMovementId;
+    }
+
+    public static StockMovementCursor after(StockMovement movement) {
+        return new StockMovementCursor(movement.getTimestamp(), movement.getStockMovementId());
+    }
+
+    public static StockMovementCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new StockMovementCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidStockMovementException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + "|" + stockMovementId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getStockMovementId() {
+        return stockMovementId;
+    }
+}
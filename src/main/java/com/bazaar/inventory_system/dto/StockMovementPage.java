@@ -0,0 +1,35 @@
+package com.bazaar.inventory_system.dto;
+
+import com.bazaar.inventory_system.model.StockMovement;
+
+import java.util.List;
+
+// One page of GET /stores/{storeId}/stock-movements/page; nextCursor is null on the last page
+public class StockMovementPage {
+    private List<StockMovement> items;
+    private String nextCursor;
+
+    public StockMovementPage() {
+    }
+
+    public StockMovementPage(List<StockMovement> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<StockMovement> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StockMovement> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
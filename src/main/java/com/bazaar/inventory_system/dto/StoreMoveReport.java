@@ -0,0 +1,62 @@
+package com.bazaar.inventory_system.dto;
+
+import java.time.LocalDateTime;
+
+/*
+Outcome of moving a store to another shard (see StoreMoveService). frozenMillis is how long the
+store's changes were held back while it was switched over.
+ */
+public class StoreMoveReport {
+    private final Long storeId;
+    private final int fromShard;
+    private final int toShard;
+    private final int stockRows;
+    private final int movements;
+    private final long frozenMillis;
+    private final long elapsedMillis;
+    private final LocalDateTime movedAt;
+
+    public StoreMoveReport(Long storeId, int fromShard, int toShard, int stockRows, int movements,
+                           long frozenMillis, long elapsedMillis, LocalDateTime movedAt) {
+        this.storeId = storeId;
+        this.fromShard = fromShard;
+        this.toShard = toShard;
+        this.stockRows = stockRows;
+        this.movements = movements;
+        this.frozenMillis = frozenMillis;
+        this.elapsedMillis = elapsedMillis;
+        this.movedAt = movedAt;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public int getFromShard() {
+        return fromShard;
+    }
+
+    public int getToShard() {
+        return toShard;
+    }
+
+    public int getStockRows() {
+        return stockRows;
+    }
+
+    public int getMovements() {
+        return movements;
+    }
+
+    public long getFrozenMillis() {
+        return frozenMillis;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public LocalDateTime getMovedAt() {
+        return movedAt;
+    }
+}
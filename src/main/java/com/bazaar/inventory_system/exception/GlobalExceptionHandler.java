@@ -1,4 +1,6 @@
 package com.bazaar.inventory_system.exception;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus; //standard HTTP status codes
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -11,11 +13,15 @@ import org.springframework.web.context.request.WebRequest;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     // Handle InvalidInputException (e.g., negative quantity)
     @ExceptionHandler(InvalidInputException.class)
     public ResponseEntity<ErrorResponse> handleInvalidInput(
             InvalidInputException ex
     ) {
+        countError(ex);
         ErrorResponse response = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
                 ex.getMessage()
@@ -25,14 +31,25 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(ProductNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleProductNotFound(
             ProductNotFoundException ex) {
+        countError(ex);
         return ResponseEntity
                 .status(HttpStatus.NOT_FOUND)
                 .body(new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage()));
     }
 
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponse> handleInsufficientStock(
+            InsufficientStockException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage()));
+    }
+
     @ExceptionHandler(InvalidProductRequestException.class)
     public ResponseEntity<ErrorResponse> handleInvalidProductRequest(
             InvalidProductRequestException ex) {
+        countError(ex);
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
@@ -40,6 +57,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(StockMovementNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleStockMovementNotFound(
             StockMovementNotFoundException ex) {
+        countError(ex);
         return ResponseEntity
                 .status(HttpStatus.NOT_FOUND)
                 .body(new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage()));
@@ -48,6 +66,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(InvalidStockMovementException.class)
     public ResponseEntity<ErrorResponse> handleInvalidStockMovement(
             InvalidStockMovementException ex) {
+        countError(ex);
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
@@ -55,6 +74,7 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(StoreNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleStoreNotFound(
             StoreNotFoundException ex) {
+        countError(ex);
         return ResponseEntity
                 .status(HttpStatus.NOT_FOUND)
                 .body(new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage()));
@@ -63,8 +83,113 @@ public class GlobalExceptionHandler {
     @ExceptionHandler(InvalidStoreRequestException.class)
     public ResponseEntity<ErrorResponse> handleInvalidStoreRequest(
             InvalidStoreRequestException ex) {
+        countError(ex);
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
     }
+
+    @ExceptionHandler(InvalidStockRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidStockRequest(
+            InvalidStockRequestException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(StockLedgerUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleStockLedgerUnavailable(
+            StockLedgerUnavailableException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(JournalFullException.class)
+    public ResponseEntity<ErrorResponse> handleJournalFull(
+            JournalFullException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(JournalUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleJournalUnavailable(
+            JournalUnavailableException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(ReconciliationInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleReconciliationInProgress(
+            ReconciliationInProgressException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(StoreMoveInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleStoreMoveInProgress(
+            StoreMoveInProgressException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(MovementFeedFullException.class)
+    public ResponseEntity<ErrorResponse> handleMovementFeedFull(
+            MovementFeedFullException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(StockContentionException.class)
+    public ResponseEntity<ErrorResponse> handleStockContention(
+            StockContentionException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(ServerBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServerBusy(
+            ServerBusyException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReuse(
+            IdempotencyKeyReuseException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(new ErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY.value(), ex.getMessage()));
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyInProgress(
+            IdempotencyKeyInProgressException ex) {
+        countError(ex);
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage()));
+    }
+
+    // inventory.errors{exception=...}: rates of rejected requests, e.g. InsufficientStockException
+    private void countError(Exception ex) {
+        meterRegistry.counter("inventory.errors", "exception", ex.getClass().getSimpleName()).increment();
+    }
 }
@@ -0,0 +1,8 @@
+package com.bazaar.inventory_system.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String key, long waitedMillis) {
+        super("A request with Idempotency-Key '" + key + "' is still being processed (waited " +
+                waitedMillis + " ms), retry later");
+    }
+}
@@ -0,0 +1,7 @@
+package com.bazaar.inventory_system.exception;
+
+public class IdempotencyKeyReuseException extends RuntimeException {
+    public IdempotencyKeyReuseException(String key) {
+        super("Idempotency-Key '" + key + "' was already used for a different request");
+    }
+}
@@ -0,0 +1,8 @@
+package com.bazaar.inventory_system.exception;
+
+public class JournalFullException extends RuntimeException {
+    public JournalFullException(int capacity, long waitedMillis) {
+        super("Stock movement journal is full (" + capacity + " pending), gave up after " +
+                waitedMillis + " ms");
+    }
+}
@@ -0,0 +1,12 @@
+package com.bazaar.inventory_system.exception;
+
+public class JournalUnavailableException extends RuntimeException {
+    public JournalUnavailableException(int unwritten) {
+        super("Stock movement journal is retrying " + unwritten + " movements it failed to write, " +
+                "no stock changes are accepted until they are written");
+    }
+
+    public JournalUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bazaar.inventory_system.exception;
+
+public class MovementFeedFullException extends RuntimeException {
+    public MovementFeedFullException(int maxSubscribers) {
+        super("Stock movement feed is full (" + maxSubscribers + " subscribers), try again later");
+    }
+}
@@ -0,0 +1,7 @@
+package com.bazaar.inventory_system.exception;
+
+public class ReconciliationInProgressException extends RuntimeException {
+    public ReconciliationInProgressException(int storesDone, int storesTotal) {
+        super("A stock reconciliation is already running (" + storesDone + " of " + storesTotal + " stores done)");
+    }
+}
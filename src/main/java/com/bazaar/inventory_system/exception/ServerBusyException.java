@@ -0,0 +1,7 @@
+package com.bazaar.inventory_system.exception;
+
+public class ServerBusyException extends RuntimeException {
+    public ServerBusyException(int maxInFlight, long waitedMillis) {
+        super("Server busy: " + maxInFlight + " requests already in flight, waited " + waitedMillis + " ms");
+    }
+}
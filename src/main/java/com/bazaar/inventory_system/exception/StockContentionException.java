@@ -0,0 +1,8 @@
+package com.bazaar.inventory_system.exception;
+
+public class StockContentionException extends RuntimeException {
+    public StockContentionException(Long storeId, Long productId, String reason) {
+        super("Stock of product " + productId + " in store " + storeId + " is too contended: " + reason +
+                ", try again");
+    }
+}
@@ -0,0 +1,8 @@
+package com.bazaar.inventory_system.exception;
+
+public class StockLedgerUnavailableException extends RuntimeException {
+    public StockLedgerUnavailableException(long stalenessMillis, long maxStalenessMillis) {
+        super("Stock ledger is not accepting changes: database is " + stalenessMillis +
+                " ms behind (limit " + maxStalenessMillis + " ms)");
+    }
+}
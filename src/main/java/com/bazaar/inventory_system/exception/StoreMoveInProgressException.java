@@ -0,0 +1,7 @@
+package com.bazaar.inventory_system.exception;
+
+public class StoreMoveInProgressException extends RuntimeException {
+    public StoreMoveInProgressException(Long storeId, int toShard) {
+        super("Store " + storeId + " is already being moved to shard " + toShard);
+    }
+}
@@ -0,0 +1,47 @@
+package com.bazaar.inventory_system.model;
+
+import jakarta.persistence.*;
+
+/*
+What the movements moved out to the archive (see MovementArchive) add up to, per stock row.
+Written in the same transaction that deletes them from stock_movement, so stock still equals
+stock_movement plus these totals and reconciliation keeps working without reading segment files.
+ */
+@Entity
+@Table(name = "archived_movement_total")
+@IdClass(StockId.class)
+public class ArchivedMovementTotal {
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Sum of quantityChange of the archived movements
+    @Column(name = "quantity_change", nullable = false)
+    private Long quantityChange;
+
+    @Column(name = "movement_count", nullable = false)
+    private Long movementCount;
+
+    public ArchivedMovementTotal() {
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Long getQuantityChange() {
+        return quantityChange;
+    }
+
+    public Long getMovementCount() {
+        return movementCount;
+    }
+}
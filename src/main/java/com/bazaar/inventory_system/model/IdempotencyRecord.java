@@ -0,0 +1,59 @@
+package com.bazaar.inventory_system.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/*
+Durable copy of an idempotent response (see IdempotencyService), read when the key is no longer
+in memory. id is "<scope> <Idempotency-Key>", fingerprint a hash of the request that used it.
+ */
+@Entity
+@Table(name = "idempotency_record", indexes = @Index(name = "idx_idempotency_created", columnList = "created_at"))
+public class IdempotencyRecord {
+    @Id
+    @Column(length = 400)
+    private String id;
+
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    private int status;
+
+    @Lob
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String id, String fingerprint, int status, String body, LocalDateTime createdAt) {
+        this.id = id;
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.body = body;
+        this.createdAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
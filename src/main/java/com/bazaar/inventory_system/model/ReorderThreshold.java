@@ -0,0 +1,57 @@
+package com.bazaar.inventory_system.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Min;
+
+/*
+Reorder point of one stock row: the row is low once its quantity falls below threshold.
+Kept here so thresholds survive a restart; evaluated from memory by StockThresholds.
+ */
+@Entity
+@Table(name = "reorder_threshold")
+@IdClass(StockId.class)
+public class ReorderThreshold {
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Min(value = 1, message = "Threshold must be positive")
+    private Integer threshold;
+
+    public ReorderThreshold() {
+    }
+
+    public ReorderThreshold(Long storeId, Long productId, Integer threshold) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.threshold = threshold;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public Integer getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(Integer threshold) {
+        this.threshold = threshold;
+    }
+}
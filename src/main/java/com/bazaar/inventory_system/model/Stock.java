@@ -3,6 +3,7 @@ package com.bazaar.inventory_system.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @IdClass(StockId.class)
@@ -18,6 +19,14 @@ public class Stock {
     @Min(value = 0, message = "Quantity cannot be negative")
     private Integer quantity;
 
+    // Bumped by every write to the row, including the guarded SQL ones (see StockUpdateStrategy);
+    // the default lets plain INSERTs leave it out
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "store_id", insertable = false, updatable = false)
     @JsonIgnore
@@ -63,6 +72,10 @@ public class Stock {
         this.quantity = quantity;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public Store getStore() {
         return store;
     }
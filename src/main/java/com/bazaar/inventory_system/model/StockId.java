@@ -14,6 +14,7 @@ application's lifecycle. Composite primary key classes in JPA entities are typic
  */
 package com.bazaar.inventory_system.model;
 import java.io.Serializable;
+import java.util.Objects;
 
 public class StockId implements Serializable {
     private Long storeId;
@@ -45,4 +46,25 @@ public class StockId implements Serializable {
     public void setProductId(Long productId) {
         this.productId = productId;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StockId)) return false;
+        StockId stockId = (StockId) o;
+        return Objects.equals(storeId, stockId.storeId) && Objects.equals(productId, stockId.productId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(storeId, productId);
+    }
+
+    @Override
+    public String toString() {
+        return "StockId{" +
+                "storeId=" + storeId +
+                ", productId=" + productId +
+                '}';
+    }
 }
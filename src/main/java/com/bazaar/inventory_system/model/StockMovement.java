@@ -1,13 +1,29 @@
 package com.bazaar.inventory_system.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
 import java.time.LocalDateTime;
 
 @Entity
+/*
+Indexes follow the repository's access paths: every query is store-scoped, optionally by product,
+and reads a time range in (timestamp, stockMovementId) order. movement_month sits before timestamp
+so a date range only touches the months it covers; the bare month index lets old months be dropped
+by index range instead of a scan.
+ */
+@Table(indexes = {
+        @Index(name = "idx_movement_store_month_time",
+                columnList = "store_id, movement_month, timestamp, stock_movement_id"),
+        @Index(name = "idx_movement_store_product_month_time",
+                columnList = "store_id, product_id, movement_month, timestamp, stock_movement_id"),
+        @Index(name = "idx_movement_month", columnList = "movement_month")
+})
 public class StockMovement {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY: Hibernate can't batch inserts whose key only exists after the INSERT
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movement_seq", allocationSize = 50)
     private Long stockMovementId;
 
     @NotNull
@@ -25,6 +41,11 @@ public class StockMovement {
     @PastOrPresent(message = "Timestamp cannot be in the future")
     private LocalDateTime timestamp;
 
+    // Time partition (yyyymm) derived from timestamp; maintained by JPA callbacks, not by clients
+    @Column(name = "movement_month")
+    @JsonIgnore
+    private Integer movementMonth;
+
     @ManyToOne
     @JoinColumn(name = "store_id", insertable = false, updatable = false)
     private Store store;
@@ -50,6 +71,20 @@ public class StockMovement {
         this.product = product;
     }
 
+    public static Integer monthBucket(LocalDateTime timestamp) {
+        return timestamp == null ? null : timestamp.getYear() * 100 + timestamp.getMonthValue();
+    }
+
+    @PrePersist
+    @PreUpdate
+    void assignMonthBucket() {
+        this.movementMonth = monthBucket(timestamp);
+    }
+
+    public Integer getMovementMonth() {
+        return movementMonth;
+    }
+
     public Product getProduct() {
         return product;
     }
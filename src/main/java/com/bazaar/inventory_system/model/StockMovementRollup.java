@@ -0,0 +1,76 @@
+package com.bazaar.inventory_system.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/*
+Pre-aggregated stock movements: net quantity change and movement count per store, product,
+movement type and hour/day bucket. Kept up to date from the committed movements in short
+write-behind batches (see StockMovementRollupService), so summaries never need to read raw rows.
+ */
+@Entity
+@IdClass(StockMovementRollupId.class)
+@Table(name = "stock_movement_rollup", indexes = {
+        @Index(name = "idx_rollup_store_bucket", columnList = "store_id, granularity, bucket_start, product_id")
+})
+public class StockMovementRollup {
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "movement_type")
+    private String movementType;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 8)
+    private RollupGranularity granularity;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    // Sum of quantityChange (negative for sales and removals)
+    @Column(name = "quantity_change", nullable = false)
+    private Long quantityChange;
+
+    @Column(name = "movement_count", nullable = false)
+    private Long movementCount;
+
+    public StockMovementRollup() {
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getMovementType() {
+        return movementType;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public Long getQuantityChange() {
+        return quantityChange;
+    }
+
+    public Long getMovementCount() {
+        return movementCount;
+    }
+}
@@ -0,0 +1,72 @@
+package com.bazaar.inventory_system.model;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Composite key of StockMovementRollup: one bucket per store, product, movement type, size and start
+public class StockMovementRollupId implements Serializable {
+    private Long storeId;
+    private Long productId;
+    private String movementType;
+    private RollupGranularity granularity;
+    private LocalDateTime bucketStart;
+
+    public StockMovementRollupId() {
+
+    }
+
+    public StockMovementRollupId(Long storeId, Long productId, String movementType,
+                                 RollupGranularity granularity, LocalDateTime bucketStart) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.movementType = movementType;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getMovementType() {
+        return movementType;
+    }
+
+    public RollupGranularity getGranularity() {
+        return granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StockMovementRollupId)) return false;
+        StockMovementRollupId that = (StockMovementRollupId) o;
+        return Objects.equals(storeId, that.storeId) && Objects.equals(productId, that.productId)
+                && Objects.equals(movementType, that.movementType) && granularity == that.granularity
+                && Objects.equals(bucketStart, that.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(storeId, productId, movementType, granularity, bucketStart);
+    }
+
+    @Override
+    public String toString() {
+        return "StockMovementRollupId{" +
+                "storeId=" + storeId +
+                ", productId=" + productId +
+                ", movementType='" + movementType + '\'' +
+                ", granularity=" + granularity +
+                ", bucketStart=" + bucketStart +
+                '}';
+    }
+}
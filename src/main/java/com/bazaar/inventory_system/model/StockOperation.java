@@ -0,0 +1,29 @@
+package com.bazaar.inventory_system.model;
+
+// The three kinds of stock change, and the movementType string each one is recorded under
+public enum StockOperation {
+    STOCK_IN("Stock-In", 1),
+    SALE("SALE", -1),
+    REMOVAL("Removal", -1);
+
+    private final String movementType;
+    private final int sign;
+
+    StockOperation(String movementType, int sign) {
+        this.movementType = movementType;
+        this.sign = sign;
+    }
+
+    public String getMovementType() {
+        return movementType;
+    }
+
+    // Quantity change as recorded on the StockMovement (negative for sales and removals)
+    public int quantityChange(int quantity) {
+        return sign * quantity;
+    }
+
+    public boolean isDecrement() {
+        return sign < 0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bazaar.inventory_system.model;
+
+import jakarta.persistence.*;
+
+/*
+Sub-counters of a hot stock row (see HotStockSlots). While a row is split, its quantity is
+stock.quantity (the reserve, where stock-ins go) plus the quantities of its slots; sales take
+from one slot, so concurrent sales of the row lock different rows. A row has slots only while
+it is split.
+ */
+@Entity
+@Table(name = "stock_slot")
+@IdClass(StockSlotId.class)
+public class StockSlot {
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Id
+    @Column(name = "slot")
+    private Integer slot;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    public StockSlot() {
+    }
+
+    public StockSlot(Long storeId, Long productId, Integer slot, Integer quantity) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.slot = slot;
+        this.quantity = quantity;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getSlot() {
+        return slot;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bazaar.inventory_system.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Composite key of StockSlot: the stock row plus the slot number
+public class StockSlotId implements Serializable {
+    private Long storeId;
+    private Long productId;
+    private Integer slot;
+
+    public StockSlotId() {
+    }
+
+    public StockSlotId(Long storeId, Long productId, Integer slot) {
+        this.storeId = storeId;
+        this.productId = productId;
+        this.slot = slot;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public Integer getSlot() {
+        return slot;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StockSlotId)) return false;
+        StockSlotId that = (StockSlotId) o;
+        return Objects.equals(storeId, that.storeId) && Objects.equals(productId, that.productId)
+                && Objects.equals(slot, that.slot);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(storeId, productId, slot);
+    }
+}
@@ -0,0 +1,44 @@
+package com.bazaar.inventory_system.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/*
+Override of the hashed shard of one store (see StoreShards), written when a store is moved.
+Lives on the home shard only.
+ */
+@Entity
+@Table(name = "store_shard")
+public class StoreShard {
+    @Id
+    @Column(name = "store_id")
+    private Long storeId;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(name = "moved_at", nullable = false)
+    private LocalDateTime movedAt;
+
+    public StoreShard() {
+    }
+
+    public StoreShard(Long storeId, Integer shard, LocalDateTime movedAt) {
+        this.storeId = storeId;
+        this.shard = shard;
+        this.movedAt = movedAt;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Integer getShard() {
+        return shard;
+    }
+
+    public LocalDateTime getMovedAt() {
+        return movedAt;
+    }
+}
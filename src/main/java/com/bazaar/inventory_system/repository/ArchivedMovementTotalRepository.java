@@ -0,0 +1,29 @@
+package com.bazaar.inventory_system.repository;
+import com.bazaar.inventory_system.model.ArchivedMovementTotal;
+import com.bazaar.inventory_system.model.StockId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ArchivedMovementTotalRepository extends JpaRepository<ArchivedMovementTotal, StockId> {
+
+    // Adds to a stock row's totals or creates them, in a single MERGE statement
+    String ADD_SQL = "MERGE INTO archived_movement_total t " +
+            "USING (VALUES (CAST(:storeId AS BIGINT), CAST(:productId AS BIGINT), " +
+            "CAST(:quantityChange AS BIGINT), CAST(:movementCount AS BIGINT))) " +
+            "AS s (store_id, product_id, quantity_change, movement_count) " +
+            "ON t.store_id = s.store_id AND t.product_id = s.product_id " +
+            "WHEN MATCHED THEN UPDATE SET quantity_change = t.quantity_change + s.quantity_change, " +
+            "movement_count = t.movement_count + s.movement_count " +
+            "WHEN NOT MATCHED THEN INSERT (store_id, product_id, quantity_change, movement_count) " +
+            "VALUES (s.store_id, s.product_id, s.quantity_change, s.movement_count)";
+
+    // Must run inside the transaction that deletes the archived movements
+    @Modifying
+    @Query(value = ADD_SQL, nativeQuery = true)
+    int add(@Param("storeId") Long storeId,
+            @Param("productId") Long productId,
+            @Param("quantityChange") long quantityChange,
+            @Param("movementCount") long movementCount);
+}
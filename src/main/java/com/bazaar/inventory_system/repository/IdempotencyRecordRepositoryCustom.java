@@ -0,0 +1,23 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.IdempotencyRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Bulk writes and id scans for idempotency_record (implemented by IdempotencyRecordRepositoryCustomImpl)
+public interface IdempotencyRecordRepositoryCustom {
+
+    // Inserts or replaces each record by id, as one JDBC batch
+    String UPSERT_SQL = "MERGE INTO idempotency_record t " +
+            "USING (VALUES (CAST(:id AS VARCHAR(400)))) AS s (id) ON t.id = s.id " +
+            "WHEN MATCHED THEN UPDATE SET fingerprint = :fingerprint, status = :status, body = :body, " +
+            "created_at = :createdAt " +
+            "WHEN NOT MATCHED THEN INSERT (id, fingerprint, status, body, created_at) " +
+            "VALUES (s.id, :fingerprint, :status, :body, :createdAt)";
+
+    int[] batchUpsert(List<IdempotencyRecord> records);
+
+    void forEachIdCreatedSince(LocalDateTime since, Consumer<String> consumer);
+}
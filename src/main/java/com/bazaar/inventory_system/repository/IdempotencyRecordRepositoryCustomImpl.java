@@ -0,0 +1,40 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.IdempotencyRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class IdempotencyRecordRepositoryCustomImpl implements IdempotencyRecordRepositoryCustom {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] batchUpsert(List<IdempotencyRecord> records) {
+        SqlParameterSource[] batch = new SqlParameterSource[records.size()];
+        for (int i = 0; i < batch.length; i++) {
+            IdempotencyRecord record = records.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("id", record.getId())
+                    .addValue("fingerprint", record.getFingerprint())
+                    .addValue("status", record.getStatus())
+                    .addValue("body", record.getBody())
+                    .addValue("createdAt", record.getCreatedAt());
+        }
+        return jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+    }
+
+    @Override
+    public void forEachIdCreatedSince(LocalDateTime since, Consumer<String> consumer) {
+        jdbcTemplate.query("SELECT id FROM idempotency_record WHERE created_at >= :since",
+                new MapSqlParameterSource("since", since),
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+    }
+}
@@ -1,10 +1,16 @@
 package com.bazaar.inventory_system.repository;
 import com.bazaar.inventory_system.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+    // LIKE-based lookups; /products/search goes through ProductSearchIndex instead
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
     // For name-only search
     List<Product> findByNameContainingIgnoreCase(String name);
 
@@ -13,4 +19,8 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     // For combined search
     List<Product> findByNameContainingIgnoreCaseAndCategory(String name, String category);
+
+    // Which of the given ids exist, so a batch can report unknown products line by line
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN :productIds")
+    Set<Long> findExistingIds(@Param("productIds") Collection<Long> productIds);
 }
@@ -0,0 +1,23 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.Product;
+
+import java.util.List;
+
+// Bulk catalog reads and writes without building entities, mixed into ProductRepository (implemented by ProductRepositoryCustomImpl)
+public interface ProductRepositoryCustom {
+
+    String INSERT_SQL = "INSERT INTO product (name, category, price, description) " +
+            "VALUES (:name, :category, :price, :description)";
+
+    // Streams (productId, name, category) for every product, used to (re)build ProductSearchIndex
+    void forEachSearchable(SearchableProductConsumer consumer);
+
+    // One JDBC batch for all the products; sets each product's generated id
+    void batchInsert(List<Product> products);
+
+    @FunctionalInterface
+    interface SearchableProductConsumer {
+        void accept(long productId, String name, String category);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Override
+    public void forEachSearchable(SearchableProductConsumer consumer) {
+        jdbcTemplate.query("SELECT product_id, name, category FROM product",
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getString(2), rs.getString(3)));
+    }
+
+    @Override
+    public void batchInsert(List<Product> products) {
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        namedJdbcTemplate.batchUpdate(INSERT_SQL, SqlParameterSourceUtils.createBatch(products), keys,
+                new String[]{"product_id"});
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            products.get(i).setProductId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.bazaar.inventory_system.repository;
+import com.bazaar.inventory_system.model.ReorderThreshold;
+import com.bazaar.inventory_system.model.StockId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReorderThresholdRepository extends JpaRepository<ReorderThreshold, StockId> {
+}
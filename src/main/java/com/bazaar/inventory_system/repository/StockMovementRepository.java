@@ -1,19 +1,63 @@
 package com.bazaar.inventory_system.repository;
 import com.bazaar.inventory_system.model.StockMovement;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, StockMovementRepositoryCustom {
 
-    List<StockMovement> findByStoreIdAndProductIdAndTimestampBetween(
-            Long storeId, Long productId, LocalDateTime startDate, LocalDateTime endDate);
+    // Time-range lookups also constrain movement_month, so only the months in range are read
+    default List<StockMovement> findByStoreIdAndProductIdAndTimestampBetween(
+            Long storeId, Long productId, LocalDateTime startDate, LocalDateTime endDate) {
+        return findByStoreIdAndProductIdAndMovementMonthBetweenAndTimestampBetween(storeId, productId,
+                StockMovement.monthBucket(startDate), StockMovement.monthBucket(endDate), startDate, endDate);
+    }
     List<StockMovement> findByStoreId(
             Long storeId);
-    List<StockMovement> findByStoreIdAndTimestampBetween(
-            Long storeId, LocalDateTime startDate, LocalDateTime endDate);
+    default List<StockMovement> findByStoreIdAndTimestampBetween(
+            Long storeId, LocalDateTime startDate, LocalDateTime endDate) {
+        return findByStoreIdAndMovementMonthBetweenAndTimestampBetween(storeId,
+                StockMovement.monthBucket(startDate), StockMovement.monthBucket(endDate), startDate, endDate);
+    }
     List<StockMovement> findByStoreIdAndProductId(
             Long storeId, Long productId);
 
-}
+    List<StockMovement> findByStoreIdAndProductIdAndMovementMonthBetweenAndTimestampBetween(
+            Long storeId, Long productId, Integer startMonth, Integer endMonth,
+            LocalDateTime startDate, LocalDateTime endDate);
+    List<StockMovement> findByStoreIdAndMovementMonthBetweenAndTimestampBetween(
+            Long storeId, Integer startMonth, Integer endMonth, LocalDateTime startDate, LocalDateTime endDate);
+
+    // Months (yyyymm) in the range that hold any movements
+    @Query("SELECT DISTINCT m.movementMonth FROM StockMovement m " +
+            "WHERE m.movementMonth BETWEEN :fromMonth AND :toMonth ORDER BY m.movementMonth")
+    List<Integer> findMonthsBetween(@Param("fromMonth") int fromMonth, @Param("toMonth") int toMonth);
+
+    // Archiving (see MovementArchive): stores with months before the given yyyymm, their months, and the rows
+    @Query("SELECT DISTINCT m.storeId FROM StockMovement m WHERE m.movementMonth < :month")
+    List<Long> findStoreIdsWithMonthsBefore(@Param("month") int month);
 
+    @Query("SELECT DISTINCT m.movementMonth FROM StockMovement m " +
+            "WHERE m.storeId = :storeId AND m.movementMonth < :month ORDER BY m.movementMonth")
+    List<Integer> findStoreMonthsBefore(@Param("storeId") Long storeId, @Param("month") int month);
+
+    List<StockMovement> findByStoreIdAndMovementMonthOrderByTimestampAscStockMovementIdAsc(
+            Long storeId, Integer movementMonth);
+
+    // Must run inside the archiving transaction; returns rows removed
+    @Modifying
+    @Query("DELETE FROM StockMovement m WHERE m.stockMovementId IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // Drops whole time partitions (all months before the given yyyymm); returns rows removed
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StockMovement m WHERE m.movementMonth < :month")
+    int deleteMonthsBefore(@Param("month") int month);
+}
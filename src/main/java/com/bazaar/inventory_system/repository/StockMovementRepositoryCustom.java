@@ -0,0 +1,23 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.StockMovement;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Keyset pagination and streaming over stock movements (implemented by StockMovementRepositoryCustomImpl)
+public interface StockMovementRepositoryCustom {
+
+    /*
+    One page ordered by (timestamp, stockMovementId). Pass the last row of the previous page
+    as afterTimestamp/afterId (both null for the first page); productId, startDate and endDate
+    are optional filters. Movements without a timestamp are not paged.
+     */
+    List<StockMovement> findPage(Long storeId, Long productId, LocalDateTime startDate, LocalDateTime endDate,
+                                 LocalDateTime afterTimestamp, Long afterId, int limit);
+
+    // Same order and filters, read through a JDBC cursor; must be consumed inside a transaction and closed
+    Stream<StockMovement> streamMovements(Long storeId, Long productId, LocalDateTime startDate,
+                                          LocalDateTime endDate);
+}
@@ -0,0 +1,95 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.StockMovement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class StockMovementRepositoryCustomImpl implements StockMovementRepositoryCustom {
+
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<StockMovement> findPage(Long storeId, Long productId, LocalDateTime startDate, LocalDateTime endDate,
+                                        LocalDateTime afterTimestamp, Long afterId, int limit) {
+        return query(storeId, productId, startDate, endDate, afterTimestamp, afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<StockMovement> streamMovements(Long storeId, Long productId, LocalDateTime startDate,
+                                                 LocalDateTime endDate) {
+        return query(storeId, productId, startDate, endDate, null, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    // Only the predicates that are actually used go into the query, so each variant can use its own index
+    private TypedQuery<StockMovement> query(Long storeId, Long productId, LocalDateTime startDate,
+                                            LocalDateTime endDate, LocalDateTime afterTimestamp, Long afterId) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT m FROM StockMovement m WHERE m.storeId = :storeId AND m.timestamp IS NOT NULL");
+        if (productId != null) {
+            jpql.append(" AND m.productId = :productId");
+        }
+        // Month bounds prune partitions; the cursor's own month is a lower bound too. The bound is
+        // always present (0 = all months): a range on movement_month is what makes the planner pick
+        // the composite index, which is already in ORDER BY order, over the plain store_id FK index
+        LocalDateTime from = later(startDate, afterTimestamp);
+        jpql.append(" AND m.movementMonth >= :fromMonth");
+        if (endDate != null) {
+            jpql.append(" AND m.movementMonth <= :toMonth");
+        }
+        if (startDate != null) {
+            jpql.append(" AND m.timestamp >= :startDate");
+        }
+        if (endDate != null) {
+            jpql.append(" AND m.timestamp <= :endDate");
+        }
+        if (afterTimestamp != null) {
+            jpql.append(" AND (m.timestamp > :afterTimestamp" +
+                    " OR (m.timestamp = :afterTimestamp AND m.stockMovementId > :afterId))");
+        }
+        // movementMonth is monotonic in timestamp, so leading with it gives the same order
+        // while matching the (store, [product,] month, timestamp, id) indexes
+        jpql.append(" ORDER BY m.movementMonth, m.timestamp, m.stockMovementId");
+
+        TypedQuery<StockMovement> query = entityManager.createQuery(jpql.toString(), StockMovement.class)
+                .setParameter("storeId", storeId);
+        if (productId != null) {
+            query.setParameter("productId", productId);
+        }
+        query.setParameter("fromMonth", from != null ? StockMovement.monthBucket(from) : 0);
+        if (endDate != null) {
+            query.setParameter("toMonth", StockMovement.monthBucket(endDate));
+        }
+        if (startDate != null) {
+            query.setParameter("startDate", startDate);
+        }
+        if (endDate != null) {
+            query.setParameter("endDate", endDate);
+        }
+        if (afterTimestamp != null) {
+            query.setParameter("afterTimestamp", afterTimestamp);
+            query.setParameter("afterId", afterId);
+        }
+        return query;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || a.isAfter(b) ? a : b;
+    }
+}
@@ -0,0 +1,32 @@
+package com.bazaar.inventory_system.repository;
+import com.bazaar.inventory_system.model.RollupGranularity;
+import com.bazaar.inventory_system.model.StockMovementRollup;
+import com.bazaar.inventory_system.model.StockMovementRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockMovementRollupRepository
+        extends JpaRepository<StockMovementRollup, StockMovementRollupId>, StockMovementRollupRepositoryCustom {
+
+    // Buckets emptied by deleted movements are kept as zero rows, so skip them
+    @Query("SELECT r FROM StockMovementRollup r WHERE r.storeId = :storeId AND r.granularity = :granularity " +
+            "AND r.bucketStart BETWEEN :from AND :to AND r.movementCount > 0 " +
+            "ORDER BY r.bucketStart, r.productId, r.movementType")
+    List<StockMovementRollup> findBuckets(@Param("storeId") Long storeId,
+                                          @Param("granularity") RollupGranularity granularity,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    @Query("SELECT r FROM StockMovementRollup r WHERE r.storeId = :storeId AND r.productId = :productId " +
+            "AND r.granularity = :granularity AND r.bucketStart BETWEEN :from AND :to AND r.movementCount > 0 " +
+            "ORDER BY r.bucketStart, r.movementType")
+    List<StockMovementRollup> findBuckets(@Param("storeId") Long storeId,
+                                          @Param("productId") Long productId,
+                                          @Param("granularity") RollupGranularity granularity,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,41 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.RollupGranularity;
+import com.bazaar.inventory_system.model.StockMovementRollupId;
+
+import java.util.List;
+
+// JDBC writes to the rollup table, mixed into StockMovementRollupRepository (implemented by StockMovementRollupRepositoryCustomImpl)
+public interface StockMovementRollupRepositoryCustom {
+
+    // Adds to a bucket or creates it, in a single MERGE statement
+    String ADD_TO_BUCKET_SQL = "MERGE INTO stock_movement_rollup t " +
+            "USING (VALUES (CAST(:storeId AS BIGINT), CAST(:productId AS BIGINT), " +
+            "CAST(:movementType AS VARCHAR(255)), CAST(:granularity AS VARCHAR(8)), " +
+            "CAST(:bucketStart AS TIMESTAMP), CAST(:quantityChange AS BIGINT), CAST(:movementCount AS BIGINT))) " +
+            "AS s (store_id, product_id, movement_type, granularity, bucket_start, quantity_change, movement_count) " +
+            "ON t.store_id = s.store_id AND t.product_id = s.product_id AND t.movement_type = s.movement_type " +
+            "AND t.granularity = s.granularity AND t.bucket_start = s.bucket_start " +
+            "WHEN MATCHED THEN UPDATE SET quantity_change = t.quantity_change + s.quantity_change, " +
+            "movement_count = t.movement_count + s.movement_count " +
+            "WHEN NOT MATCHED THEN INSERT (store_id, product_id, movement_type, granularity, bucket_start, " +
+            "quantity_change, movement_count) VALUES (s.store_id, s.product_id, s.movement_type, s.granularity, " +
+            "s.bucket_start, s.quantity_change, s.movement_count)";
+
+    String DELETE_RANGE_SQL = "DELETE FROM stock_movement_rollup WHERE bucket_start >= ? AND bucket_start < ?";
+
+    // %1$s is the granularity name, which H2's DATE_TRUNC also accepts as its unit
+    String REBUILD_MONTH_SQL = "INSERT INTO stock_movement_rollup (store_id, product_id, movement_type, " +
+            "granularity, bucket_start, quantity_change, movement_count) " +
+            "SELECT store_id, product_id, movement_type, '%1$s', DATE_TRUNC('%1$s', timestamp), " +
+            "SUM(quantity_change), COUNT(*) FROM stock_movement " +
+            "WHERE movement_month = ? AND product_id IS NOT NULL " +
+            "GROUP BY store_id, product_id, movement_type, DATE_TRUNC('%1$s', timestamp)";
+
+    // One update count per bucket, in order; quantities and counts may be negative to take movements out
+    int[] batchAdd(List<StockMovementRollupId> buckets, List<Long> quantityChanges, List<Long> movementCounts);
+
+    // Replaces every bucket of one month (yyyymm) with what the raw movements of that month add up to;
+    // returns the number of buckets written
+    int rebuildMonth(int month, List<RollupGranularity> granularities);
+}
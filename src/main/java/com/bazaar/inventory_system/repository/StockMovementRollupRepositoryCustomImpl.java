@@ -0,0 +1,50 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.RollupGranularity;
+import com.bazaar.inventory_system.model.StockMovementRollupId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+// Runs on the connection of the surrounding transaction, like StockRepositoryCustomImpl
+public class StockMovementRollupRepositoryCustomImpl implements StockMovementRollupRepositoryCustom {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] batchAdd(List<StockMovementRollupId> buckets, List<Long> quantityChanges, List<Long> movementCounts) {
+        SqlParameterSource[] batch = new SqlParameterSource[buckets.size()];
+        for (int i = 0; i < batch.length; i++) {
+            StockMovementRollupId bucket = buckets.get(i);
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("storeId", bucket.getStoreId())
+                    .addValue("productId", bucket.getProductId())
+                    .addValue("movementType", bucket.getMovementType())
+                    .addValue("granularity", bucket.getGranularity().name())
+                    .addValue("bucketStart", Timestamp.valueOf(bucket.getBucketStart()))
+                    .addValue("quantityChange", quantityChanges.get(i))
+                    .addValue("movementCount", movementCounts.get(i));
+        }
+        return jdbcTemplate.batchUpdate(ADD_TO_BUCKET_SQL, batch);
+    }
+
+    @Override
+    public int rebuildMonth(int month, List<RollupGranularity> granularities) {
+        LocalDate monthStart = LocalDate.of(month / 100, month % 100, 1);
+        jdbcTemplate.getJdbcTemplate().update(DELETE_RANGE_SQL,
+                Timestamp.valueOf(monthStart.atStartOfDay()),
+                Timestamp.valueOf(monthStart.plusMonths(1).atStartOfDay()));
+        int written = 0;
+        for (RollupGranularity granularity : granularities) {
+            written += jdbcTemplate.getJdbcTemplate().update(
+                    String.format(REBUILD_MONTH_SQL, granularity.name()), month);
+        }
+        return written;
+    }
+}
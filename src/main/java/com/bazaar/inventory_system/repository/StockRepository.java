@@ -1,10 +1,81 @@
 package com.bazaar.inventory_system.repository;
+import com.bazaar.inventory_system.dto.StockLevel;
 import com.bazaar.inventory_system.model.Stock;
 import com.bazaar.inventory_system.model.StockId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface StockRepository extends JpaRepository<Stock, StockId> {
+public interface StockRepository extends JpaRepository<Stock, StockId>, StockRepositoryCustom {
+
+    // The row's quantity: stock.quantity plus its slots while it is split (see HotStockSlots)
+    String TOTAL_QUANTITY = "CAST(s.quantity + COALESCE((SELECT SUM(q.quantity) FROM StockSlot q " +
+            "WHERE q.storeId = s.storeId AND q.productId = s.productId), 0) AS Integer)";
+
+    // Loads every Stock with its EAGER store and product; prefer findLevels for listings
     List<Stock> findByStoreId(Long storeId);
+
+    // Lean listings: one SELECT of plain columns, no entities and no association fetches
+    @Query("SELECT new com.bazaar.inventory_system.dto.StockLevel(s.storeId, s.productId, " + TOTAL_QUANTITY + ") " +
+            "FROM Stock s WHERE s.storeId = :storeId ORDER BY s.productId")
+    List<StockLevel> findLevels(@Param("storeId") Long storeId);
+
+    @Query("SELECT new com.bazaar.inventory_system.dto.StockLevel(s.storeId, s.productId, " + TOTAL_QUANTITY +
+            ", p.name, p.category) FROM Stock s JOIN s.product p WHERE s.storeId = :storeId ORDER BY s.productId")
+    List<StockLevel> findLevelsWithProduct(@Param("storeId") Long storeId);
+
+    // Quantity only, without loading the EAGER store/product associations
+    @Query("SELECT " + TOTAL_QUANTITY + " FROM Stock s WHERE s.storeId = :storeId AND s.productId = :productId")
+    Optional<Integer> findQuantity(@Param("storeId") Long storeId, @Param("productId") Long productId);
+
+    // The statements below change stock.quantity alone, which is only the reserve of a split row
+
+    // Guarded decrement: the quantity check and the write happen in one statement,
+    // so concurrent sales can never take the row below zero. Returns rows updated (0 or 1).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Stock s SET s.quantity = s.quantity - :quantity, s.version = s.version + 1 " +
+            "WHERE s.storeId = :storeId AND s.productId = :productId AND s.quantity >= :quantity")
+    int decrementIfAvailable(@Param("storeId") Long storeId,
+                             @Param("productId") Long productId,
+                             @Param("quantity") int quantity);
+
+    // See StockRepositoryCustom.INCREMENT_OR_INSERT_SQL
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = INCREMENT_OR_INSERT_SQL, nativeQuery = true)
+    int incrementOrInsert(@Param("storeId") Long storeId,
+                          @Param("productId") Long productId,
+                          @Param("quantity") int quantity);
+
+    // Pessimistic updates: a plain write, once the row is locked (lockQuantities) and checked
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Stock s SET s.quantity = :quantity, s.version = s.version + 1 " +
+            "WHERE s.storeId = :storeId AND s.productId = :productId")
+    int setQuantity(@Param("storeId") Long storeId,
+                    @Param("productId") Long productId,
+                    @Param("quantity") int quantity);
+
+    // Optimistic updates: read quantity and version, then write only if the version is still the same
+    @Query("SELECT s.quantity AS quantity, s.version AS version FROM Stock s " +
+            "WHERE s.storeId = :storeId AND s.productId = :productId")
+    Optional<VersionedQuantity> findVersionedQuantity(@Param("storeId") Long storeId,
+                                                      @Param("productId") Long productId);
+
+    // Returns 0 when another change got in first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Stock s SET s.quantity = :quantity, s.version = s.version + 1 " +
+            "WHERE s.storeId = :storeId AND s.productId = :productId AND s.version = :version")
+    int setQuantityIfVersion(@Param("storeId") Long storeId,
+                             @Param("productId") Long productId,
+                             @Param("quantity") int quantity,
+                             @Param("version") long version);
+
+    interface VersionedQuantity {
+        int getQuantity();
+
+        long getVersion();
+    }
 }
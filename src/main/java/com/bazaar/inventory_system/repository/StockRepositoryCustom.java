@@ -0,0 +1,97 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.StockId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// JDBC-batched stock updates, mixed into StockRepository (implemented by StockRepositoryCustomImpl)
+public interface StockRepositoryCustom {
+
+    // Upsert-style increment: adds to an existing row or creates it, in a single MERGE statement
+    String INCREMENT_OR_INSERT_SQL = "MERGE INTO stock t " +
+            "USING (VALUES (CAST(:storeId AS BIGINT), CAST(:productId AS BIGINT), CAST(:quantity AS INTEGER))) " +
+            "AS s (store_id, product_id, quantity) " +
+            "ON t.store_id = s.store_id AND t.product_id = s.product_id " +
+            "WHEN MATCHED THEN UPDATE SET quantity = t.quantity + s.quantity, version = t.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (store_id, product_id, quantity) " +
+            "VALUES (s.store_id, s.product_id, s.quantity)";
+
+    // Absolute write used by the ledger's write-behind flush
+    String SET_QUANTITY_SQL = "MERGE INTO stock t " +
+            "USING (VALUES (CAST(:storeId AS BIGINT), CAST(:productId AS BIGINT), CAST(:quantity AS INTEGER))) " +
+            "AS s (store_id, product_id, quantity) " +
+            "ON t.store_id = s.store_id AND t.product_id = s.product_id " +
+            "WHEN MATCHED THEN UPDATE SET quantity = s.quantity, version = t.version + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (store_id, product_id, quantity) " +
+            "VALUES (s.store_id, s.product_id, s.quantity)";
+
+    String DECREMENT_IF_AVAILABLE_SQL = "UPDATE stock SET quantity = quantity - :quantity, version = version + 1 " +
+            "WHERE store_id = :storeId AND product_id = :productId AND quantity >= :quantity";
+
+    // The same statements returning the row's new quantity (H2 data change delta table), so the
+    // caller needs no second read to answer with it
+    String INCREMENT_OR_INSERT_RETURNING_SQL = "SELECT quantity FROM FINAL TABLE (" + INCREMENT_OR_INSERT_SQL + ")";
+
+    String DECREMENT_IF_AVAILABLE_RETURNING_SQL =
+            "SELECT quantity FROM FINAL TABLE (" + DECREMENT_IF_AVAILABLE_SQL + ")";
+
+    // A store's movements: the ones still in stock_movement plus the totals of the archived ones
+    String STORE_MOVEMENTS_SQL = "(SELECT product_id, quantity_change FROM stock_movement WHERE store_id = :storeId " +
+            "UNION ALL SELECT product_id, quantity_change FROM archived_movement_total WHERE store_id = :storeId)";
+
+    /*
+    Reconciliation: the rows of one store whose quantity differs from the sum of their movements,
+    plus products with movements but no stock row (quantity NULL). The database does the
+    summing, and only differences come back. Split rows count their slots.
+     */
+    String DRIFT_SQL = "SELECT s.product_id, s.quantity + COALESCE(q.total, 0), COALESCE(m.total, 0) FROM stock s " +
+            "LEFT JOIN (SELECT product_id, SUM(quantity_change) AS total FROM " + STORE_MOVEMENTS_SQL +
+            " u GROUP BY product_id) m ON m.product_id = s.product_id " +
+            "LEFT JOIN (SELECT product_id, SUM(quantity) AS total FROM stock_slot WHERE store_id = :storeId " +
+            "GROUP BY product_id) q ON q.product_id = s.product_id " +
+            "WHERE s.store_id = :storeId AND s.quantity + COALESCE(q.total, 0) <> COALESCE(m.total, 0) " +
+            "UNION ALL " +
+            "SELECT m.product_id, NULL, SUM(m.quantity_change) FROM " + STORE_MOVEMENTS_SQL + " m " +
+            "WHERE NOT EXISTS " +
+            "(SELECT 1 FROM stock s WHERE s.store_id = :storeId AND s.product_id = m.product_id) " +
+            "GROUP BY m.product_id HAVING SUM(m.quantity_change) <> 0";
+
+    // Each returns one update count per line, in order: 0 means the guarded decrement did not apply
+    int[] batchDecrementIfAvailable(Long storeId, List<Long> productIds, List<Integer> quantities);
+
+    int[] batchIncrementOrInsert(Long storeId, List<Long> productIds, List<Integer> quantities);
+
+    // stock.quantity after the change; empty when the guarded decrement did not apply
+    Optional<Integer> decrementIfAvailableReturning(Long storeId, Long productId, int quantity);
+
+    int incrementOrInsertReturning(Long storeId, Long productId, int quantity);
+
+    int[] batchSetQuantity(List<StockId> stockIds, List<Integer> quantities);
+
+    // Streams (storeId, productId, quantity) for every row without building entities, slots included
+    void forEachQuantity(StockQuantityConsumer consumer);
+
+    void forEachDrift(Long storeId, StockDriftConsumer consumer);
+
+    // productId -> stock.quantity, with the rows locked (FOR UPDATE) until the transaction ends
+    Map<Long, Integer> lockQuantities(Long storeId, Collection<Long> productIds);
+
+    // Same, but waits at most waitMillis for the locks (FOR UPDATE WAIT, H2 and Oracle syntax)
+    Map<Long, Integer> lockQuantities(Long storeId, Collection<Long> productIds, long waitMillis);
+
+    // productId -> sum of the quantity changes of its movements in the store, archived ones included
+    Map<Long, Long> sumMovements(Long storeId, Collection<Long> productIds);
+
+    @FunctionalInterface
+    interface StockDriftConsumer {
+        void accept(long productId, Integer quantity, long expected);
+    }
+
+    @FunctionalInterface
+    interface StockQuantityConsumer {
+        void accept(long storeId, long productId, int quantity);
+    }
+}
@@ -0,0 +1,120 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.StockId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/*
+Runs the guarded stock statements as JDBC batches on the connection of the surrounding
+JPA transaction. Hibernate only batches entity inserts/updates it flushes itself, and a
+conditional "quantity >= ?" update can't be expressed through dirty checking.
+ */
+public class StockRepositoryCustomImpl implements StockRepositoryCustom {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public int[] batchDecrementIfAvailable(Long storeId, List<Long> productIds, List<Integer> quantities) {
+        return jdbcTemplate.batchUpdate(DECREMENT_IF_AVAILABLE_SQL, parameters(storeId, productIds, quantities));
+    }
+
+    @Override
+    public int[] batchIncrementOrInsert(Long storeId, List<Long> productIds, List<Integer> quantities) {
+        return jdbcTemplate.batchUpdate(INCREMENT_OR_INSERT_SQL, parameters(storeId, productIds, quantities));
+    }
+
+    @Override
+    public Optional<Integer> decrementIfAvailableReturning(Long storeId, Long productId, int quantity) {
+        return jdbcTemplate.queryForList(DECREMENT_IF_AVAILABLE_RETURNING_SQL,
+                parameters(storeId, productId, quantity), Integer.class).stream().findFirst();
+    }
+
+    @Override
+    public int incrementOrInsertReturning(Long storeId, Long productId, int quantity) {
+        return jdbcTemplate.queryForObject(INCREMENT_OR_INSERT_RETURNING_SQL,
+                parameters(storeId, productId, quantity), Integer.class);
+    }
+
+    @Override
+    public int[] batchSetQuantity(List<StockId> stockIds, List<Integer> quantities) {
+        SqlParameterSource[] batch = new SqlParameterSource[stockIds.size()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new MapSqlParameterSource()
+                    .addValue("storeId", stockIds.get(i).getStoreId())
+                    .addValue("productId", stockIds.get(i).getProductId())
+                    .addValue("quantity", quantities.get(i));
+        }
+        return jdbcTemplate.batchUpdate(SET_QUANTITY_SQL, batch);
+    }
+
+    @Override
+    public void forEachQuantity(StockQuantityConsumer consumer) {
+        jdbcTemplate.getJdbcTemplate().query("SELECT s.store_id, s.product_id, s.quantity + COALESCE(q.total, 0) " +
+                        "FROM stock s LEFT JOIN (SELECT store_id, product_id, SUM(quantity) AS total FROM stock_slot " +
+                        "GROUP BY store_id, product_id) q ON q.store_id = s.store_id AND q.product_id = s.product_id",
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getLong(2), rs.getInt(3)));
+    }
+
+    @Override
+    public void forEachDrift(Long storeId, StockDriftConsumer consumer) {
+        jdbcTemplate.query(DRIFT_SQL, new MapSqlParameterSource("storeId", storeId),
+                (RowCallbackHandler) rs -> consumer.accept(rs.getLong(1), rs.getObject(2, Integer.class),
+                        rs.getLong(3)));
+    }
+
+    @Override
+    public Map<Long, Integer> lockQuantities(Long storeId, Collection<Long> productIds) {
+        return lockQuantities(storeId, productIds, "FOR UPDATE");
+    }
+
+    @Override
+    public Map<Long, Integer> lockQuantities(Long storeId, Collection<Long> productIds, long waitMillis) {
+        // Per statement, so nothing is left behind on the pooled connection
+        return lockQuantities(storeId, productIds, "FOR UPDATE WAIT " + BigDecimal.valueOf(waitMillis, 3));
+    }
+
+    @Override
+    public Map<Long, Long> sumMovements(Long storeId, Collection<Long> productIds) {
+        Map<Long, Long> sums = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, SUM(quantity_change) FROM " + STORE_MOVEMENTS_SQL + " m " +
+                        "WHERE product_id IN (:productIds) GROUP BY product_id",
+                new MapSqlParameterSource("storeId", storeId).addValue("productIds", productIds),
+                (RowCallbackHandler) rs -> sums.put(rs.getLong(1), rs.getLong(2)));
+        return sums;
+    }
+
+    private Map<Long, Integer> lockQuantities(Long storeId, Collection<Long> productIds, String lockClause) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        jdbcTemplate.query("SELECT product_id, quantity FROM stock " +
+                        "WHERE store_id = :storeId AND product_id IN (:productIds) " + lockClause,
+                new MapSqlParameterSource("storeId", storeId).addValue("productIds", productIds),
+                (RowCallbackHandler) rs -> quantities.put(rs.getLong(1), rs.getInt(2)));
+        return quantities;
+    }
+
+    private SqlParameterSource[] parameters(Long storeId, List<Long> productIds, List<Integer> quantities) {
+        SqlParameterSource[] batch = new SqlParameterSource[productIds.size()];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = parameters(storeId, productIds.get(i), quantities.get(i));
+        }
+        return batch;
+    }
+
+    private SqlParameterSource parameters(Long storeId, Long productId, int quantity) {
+        return new MapSqlParameterSource()
+                .addValue("storeId", storeId)
+                .addValue("productId", productId)
+                .addValue("quantity", quantity);
+    }
+}
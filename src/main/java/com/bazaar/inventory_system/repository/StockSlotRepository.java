@@ -0,0 +1,69 @@
+package com.bazaar.inventory_system.repository;
+import com.bazaar.inventory_system.model.StockId;
+import com.bazaar.inventory_system.model.StockSlot;
+import com.bazaar.inventory_system.model.StockSlotId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+// Plain column projections throughout: a slot entity cached in the session would hide a concurrent sale
+public interface StockSlotRepository extends JpaRepository<StockSlot, StockSlotId> {
+
+    @Query("SELECT DISTINCT new com.bazaar.inventory_system.model.StockId(s.storeId, s.productId) FROM StockSlot s")
+    List<StockId> findSplitRows();
+
+    @Query(value = "SELECT product_id AS productId, slot, quantity FROM stock_slot " +
+            "WHERE store_id = :storeId AND product_id = :productId ORDER BY slot", nativeQuery = true)
+    List<SlotQuantity> findSlots(@Param("storeId") Long storeId, @Param("productId") Long productId);
+
+    // Locked until the transaction ends; callers lock the stock rows first, then their slots
+    @Query(value = "SELECT product_id AS productId, slot, quantity FROM stock_slot " +
+            "WHERE store_id = :storeId AND product_id IN (:productIds) ORDER BY product_id, slot FOR UPDATE",
+            nativeQuery = true)
+    List<SlotQuantity> lockSlots(@Param("storeId") Long storeId, @Param("productIds") Collection<Long> productIds);
+
+    // Guarded like StockRepository.decrementIfAvailable, on one slot only. Returns rows updated (0 or 1).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE stock_slot SET quantity = quantity - :quantity " +
+            "WHERE store_id = :storeId AND product_id = :productId AND slot = :slot AND quantity >= :quantity",
+            nativeQuery = true)
+    int decrementIfAvailable(@Param("storeId") Long storeId,
+                             @Param("productId") Long productId,
+                             @Param("slot") int slot,
+                             @Param("quantity") int quantity);
+
+    // Upsert, for splitting and rebalancing a row whose stock row and slots are locked
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "MERGE INTO stock_slot t " +
+            "USING (VALUES (CAST(:storeId AS BIGINT), CAST(:productId AS BIGINT), CAST(:slot AS INTEGER), " +
+            "CAST(:quantity AS INTEGER))) AS s (store_id, product_id, slot, quantity) " +
+            "ON t.store_id = s.store_id AND t.product_id = s.product_id AND t.slot = s.slot " +
+            "WHEN MATCHED THEN UPDATE SET quantity = s.quantity " +
+            "WHEN NOT MATCHED THEN INSERT (store_id, product_id, slot, quantity) " +
+            "VALUES (s.store_id, s.product_id, s.slot, s.quantity)", nativeQuery = true)
+    int setQuantity(@Param("storeId") Long storeId,
+                    @Param("productId") Long productId,
+                    @Param("slot") int slot,
+                    @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE stock_slot SET quantity = 0 " +
+            "WHERE store_id = :storeId AND product_id IN (:productIds) AND quantity <> 0", nativeQuery = true)
+    int empty(@Param("storeId") Long storeId, @Param("productIds") Collection<Long> productIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM stock_slot WHERE store_id = :storeId AND product_id = :productId", nativeQuery = true)
+    int deleteSlots(@Param("storeId") Long storeId, @Param("productId") Long productId);
+
+    interface SlotQuantity {
+        long getProductId();
+
+        int getSlot();
+
+        int getQuantity();
+    }
+}
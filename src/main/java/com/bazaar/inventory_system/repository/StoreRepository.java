@@ -2,8 +2,14 @@ package com.bazaar.inventory_system.repository;
 
 import com.bazaar.inventory_system.model.Store;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface StoreRepository extends JpaRepository<Store, Long> {
     boolean existsByName(String name);
+
+    @Query("SELECT s.storeId FROM Store s ORDER BY s.storeId")
+    List<Long> findAllIds();
 }
 
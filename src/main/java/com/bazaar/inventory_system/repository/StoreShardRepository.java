@@ -0,0 +1,7 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.model.StoreShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StoreShardRepository extends JpaRepository<StoreShard, Long> {
+}
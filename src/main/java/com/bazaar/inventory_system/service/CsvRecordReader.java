@@ -0,0 +1,118 @@
+package com.bazaar.inventory_system.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Streaming RFC 4180 reader used by ProductImportService: one record at a time, so memory does not
+grow with the file. Fields may be quoted; a quoted field can hold commas, newlines and "" for a
+quote. Lines end in \n or \r\n. The caller wraps the Reader in a BufferedReader.
+A malformed record throws MalformedRecordException after skipping to the end of its line, so
+reading can go on with the next record.
+ */
+final class CsvRecordReader {
+
+    private final Reader in;
+    private final StringBuilder field = new StringBuilder(64);
+    private long line = 1;       // line of the next character
+    private long recordLine = 1; // line the last record started on
+    private int pending = -2;    // one character of lookahead, -2 when empty
+
+    CsvRecordReader(Reader in) {
+        this.in = in;
+    }
+
+    // Next record, or null at end of input. Blank lines are skipped.
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\n' || c == '\r') {
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>(8);
+        while (true) {
+            field.setLength(0);
+            if (c == '"') {
+                long quoteLine = line;
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        throw new MalformedRecordException(recordLine,
+                                "Unterminated quoted field starting on line " + quoteLine);
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break; // closing quote; c is what follows it
+                        }
+                    }
+                    field.append((char) c);
+                }
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    field.append((char) c);
+                    c = read();
+                }
+            }
+            fields.add(field.toString());
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                int after = read();
+                if (after != '\n') {
+                    unread(after);
+                }
+            } else if (c != '\n' && c != -1) {
+                long badLine = line;
+                while (c != '\n' && c != -1) {
+                    c = read();
+                }
+                throw new MalformedRecordException(recordLine, "Unexpected character after closing quote on line " + badLine);
+            }
+            return fields;
+        }
+    }
+
+    long recordLine() {
+        return recordLine;
+    }
+
+    // --- Helper Methods ---
+
+    private int read() throws IOException {
+        int c;
+        if (pending != -2) {
+            c = pending;
+            pending = -2;
+        } else {
+            c = in.read();
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        if (c == '\n') {
+            line--;
+        }
+        pending = c;
+    }
+
+    static final class MalformedRecordException extends IOException {
+        final long line;
+
+        MalformedRecordException(long line, String message) {
+            super(message);
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockConcurrencyStats;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.repository.StockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/*
+The default (inventory.stock-concurrency.strategy=guarded): the check and the write are one
+statement, so there is nothing to retry and the row lock is held only for the UPDATE itself.
+The statement also returns the new quantity; only a decrement that did not apply reads the row.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.stock-concurrency.strategy", havingValue = "guarded", matchIfMissing = true)
+public class GuardedStockUpdates implements StockUpdateStrategy {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private StockConcurrencyMetrics metrics;
+
+    @PostConstruct
+    void registerMetrics() {
+        metrics = new StockConcurrencyMetrics("guarded", meterRegistry);
+    }
+
+    @Override
+    public <T> T run(Long storeId, Long productId, Supplier<T> change) {
+        metrics.change();
+        return change.get();
+    }
+
+    @Override
+    public int increment(Long storeId, Long productId, int quantity) {
+        return stockRepository.incrementOrInsertReturning(storeId, productId, quantity);
+    }
+
+    @Override
+    public int decrement(Long storeId, Long productId, int quantity) {
+        Optional<Integer> updated = stockRepository.decrementIfAvailableReturning(storeId, productId, quantity);
+        if (updated.isPresent()) {
+            return updated.get();
+        }
+        // Only the failure path reads the row, to tell "no such stock" apart from "not enough"
+        throw new InsufficientStockException(productId, quantity, currentQuantity(storeId, productId));
+    }
+
+    @Override
+    public StockConcurrencyStats stats() {
+        return metrics.stats();
+    }
+
+    // --- Helper Methods ---
+
+    private int currentQuantity(Long storeId, Long productId) {
+        return stockRepository.findQuantity(storeId, productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId, storeId));
+    }
+}
@@ -0,0 +1,133 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.model.StockId;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Contention signal per stock row. StockService wraps every single-row change in enter/exit; a change
+that starts while another one on the same (store, product) is still running is "contended" (it
+will queue on the row lock, or on the ledger CAS). Counts are kept per window (window-ms); at the
+end of each window the top rows become gauges tagged store/product, so the scrape output stays
+small no matter how many rows are touched:
+  inventory.stock.row.contended    contended changes in the last window
+  inventory.stock.row.operations   all changes in the last window
+  inventory.stock.contention       counter of contended changes over all rows
+A change still running when the window rolls over is not seen by the next one.
+Each closed window's contended counts also go to HotStockSlots, which splits the hottest rows.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class HotStockRows {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Autowired
+    private HotStockSlots hotStockSlots;
+
+    @Value("${inventory.metrics.hot-rows.top:10}")
+    private int top;
+
+    @Value("${inventory.metrics.hot-rows.window-ms:10000}")
+    private long windowMillis;
+
+    private volatile ConcurrentHashMap<StockId, RowActivity> window = new ConcurrentHashMap<>();
+    private Counter contention;
+    private MultiGauge contendedGauge;
+    private MultiGauge operationsGauge;
+    private ScheduledExecutorService roller;
+
+    @PostConstruct
+    void start() {
+        contention = Counter.builder("inventory.stock.contention")
+                .description("Stock changes that started while another change of the same row was running")
+                .register(meterRegistry);
+        contendedGauge = MultiGauge.builder("inventory.stock.row.contended")
+                .description("Contended changes of the hottest stock rows in the last window")
+                .register(meterRegistry);
+        operationsGauge = MultiGauge.builder("inventory.stock.row.operations")
+                .description("Changes of the hottest stock rows in the last window")
+                .register(meterRegistry);
+        roller = Executors.newSingleThreadScheduledExecutor(asyncThreads.threadFactory("hot-stock-rows"));
+        roller.scheduleAtFixedRate(this::roll, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        roller.shutdownNow();
+    }
+
+    public RowActivity enter(Long storeId, Long productId) {
+        RowActivity row = window.computeIfAbsent(new StockId(storeId, productId), id -> new RowActivity());
+        row.operations.increment();
+        if (row.inFlight.incrementAndGet() > 1) {
+            row.contended.increment();
+            contention.increment();
+        }
+        return row;
+    }
+
+    public void exit(RowActivity row) {
+        row.inFlight.decrementAndGet();
+    }
+
+    // Closes the current window and publishes its hottest rows
+    void roll() {
+        Map<StockId, RowActivity> closed = window;
+        window = new ConcurrentHashMap<>();
+
+        List<Map.Entry<StockId, RowActivity>> hottest = new ArrayList<>(closed.entrySet());
+        hottest.sort(Comparator.comparingLong((Map.Entry<StockId, RowActivity> e) -> e.getValue().contended.sum())
+                .thenComparingLong(e -> e.getValue().operations.sum())
+                .reversed());
+        List<MultiGauge.Row<?>> contended = new ArrayList<>();
+        List<MultiGauge.Row<?>> operations = new ArrayList<>();
+        for (Map.Entry<StockId, RowActivity> entry : hottest.subList(0, Math.min(top, hottest.size()))) {
+            Tags tags = Tags.of("store", String.valueOf(entry.getKey().getStoreId()),
+                    "product", String.valueOf(entry.getKey().getProductId()));
+            contended.add(MultiGauge.Row.of(tags, entry.getValue().contended.sum()));
+            operations.add(MultiGauge.Row.of(tags, entry.getValue().operations.sum()));
+        }
+        contendedGauge.register(contended, true);
+        operationsGauge.register(operations, true);
+
+        Map<StockId, Long> contendedByRow = new HashMap<>();
+        closed.forEach((id, row) -> {
+            if (row.contended.sum() > 0) {
+                contendedByRow.put(id, row.contended.sum());
+            }
+        });
+        hotStockSlots.onContention(contendedByRow);
+    }
+
+    public static final class RowActivity {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder operations = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+    }
+}
@@ -0,0 +1,460 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.exception.InvalidInputException;
+import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.model.StockId;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StockSlotRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+
+/*
+Split counters for flash-sale rows (inventory.hot-stock.enabled=true). A hot row's quantity is
+spread over `slots` StockSlot rows, and a sale decrements one slot picked at random with a guarded
+UPDATE, so concurrent sales of the same product lock different rows instead of queueing on one.
+stock.quantity becomes the row's reserve: stock-ins go there, and every rebalance-ms the reserve
+and uneven slots are spread out again. Reads (StockRepository.TOTAL_QUANTITY) add the slots up.
+
+A row is split when HotStockRows counts at least split-contended overlapping changes of it in one
+window, or by hand (POST /admin/hot-stock/...; pinned until DELETE). It collapses back into
+stock.quantity after cool-windows windows under cool-contended.
+
+Nothing can be oversold: every write is guarded or done under locks, and any sale that finds no
+single slot and no reserve with enough units drains the slots into the reserve, with the stock
+row and its slots locked, before giving up. Whatever changes the layout (split, rebalance,
+collapse, drain) locks the stock row first and its slots second. Batches and reconciliation
+drain the rows they touch and work on the reserve as before.
+
+Only sales stop queueing on the stock row: their movement and rollup rows are still written in
+the same transaction unless inventory.journal.enabled moves them off the request path. Off
+(and in ledger mode, where rows are never locked anyway) leftover slots are collapsed at startup.
+ */
+@Component
+public class HotStockSlots {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockSlots.class);
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockSlotRepository slotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.hot-stock.enabled:false}")
+    private boolean enabled;
+
+    @Value("${inventory.ledger.enabled:false}")
+    private boolean ledgerMode;
+
+    @Value("${inventory.hot-stock.slots:8}")
+    private int slotCount;
+
+    @Value("${inventory.hot-stock.split-contended:200}")
+    private long splitContended;
+
+    @Value("${inventory.hot-stock.cool-contended:20}")
+    private long coolContended;
+
+    @Value("${inventory.hot-stock.cool-windows:3}")
+    private int coolWindows;
+
+    @Value("${inventory.hot-stock.rebalance-ms:500}")
+    private long rebalanceMillis;
+
+    private final ConcurrentHashMap<StockId, SplitRow> splitRows = new ConcurrentHashMap<>();
+    private final LongAdder splits = new LongAdder();
+    private final LongAdder collapses = new LongAdder();
+    private final LongAdder rebalances = new LongAdder();
+    private final LongAdder drains = new LongAdder();
+    private final LongAdder slotMisses = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        List<StockId> existing = new ArrayList<>();
+        storeShards.scatter(shard -> slotRepository.findSplitRows()).forEach(existing::addAll);
+        if (!isActive()) {
+            existing.forEach(row -> collapse(row.getStoreId(), row.getProductId()));
+            if (!existing.isEmpty()) {
+                log.info("Hot stock off: collapsed {} split rows", existing.size());
+            }
+            return;
+        }
+        existing.forEach(row -> splitRows.put(row, new SplitRow(false)));
+        Gauge.builder("inventory.stock.split.rows", splitRows, Map::size)
+                .description("Stock rows currently split into slots")
+                .register(meterRegistry);
+        scheduler = Executors.newSingleThreadScheduledExecutor(asyncThreads.threadFactory("hot-stock-slots"));
+        if (rebalanceMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::rebalanceQuietly, rebalanceMillis, rebalanceMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public boolean isActive() {
+        return enabled && !ledgerMode;
+    }
+
+    public boolean isSplit(Long storeId, Long productId) {
+        return !splitRows.isEmpty() && splitRows.containsKey(new StockId(storeId, productId));
+    }
+
+    // Asks the database, for the moment between a split's commit and isSplit() seeing it
+    public boolean hasSlots(Long storeId, Long productId) {
+        return isActive() && !slotRepository.findSlots(storeId, productId).isEmpty();
+    }
+
+    /*
+    Sells from the slots. change runs one attempt in its own transaction, whose write returns the
+    row's new total quantity. A guarded UPDATE that had to wait for a slot keeps it locked even
+    when it then matches nothing, so an attempt that comes up short never goes on to another lock;
+    the next one starts over in a new transaction:
+     1. one slot picked at random;
+     2. the others that had enough a moment ago, in slot order (the order rebalance and drain lock them in);
+     3. the reserve, draining the slots into it if that is short too (stock row first, as everywhere).
+     */
+    public <T> T decrement(Long storeId, Long productId, int quantity, Function<IntSupplier, T> change) {
+        try {
+            return change.apply(() -> decrementRandomSlot(storeId, productId, quantity));
+        } catch (SlotsShortException e) {
+            slotMisses.increment();
+        }
+        try {
+            return change.apply(() -> decrementAnySlot(storeId, productId, quantity));
+        } catch (SlotsShortException e) {
+            return change.apply(() -> decrementReserve(storeId, productId, quantity));
+        }
+    }
+
+    // Stock-ins of a split row go to the reserve; must run in the change's transaction
+    public int increment(Long storeId, Long productId, int quantity) {
+        stockRepository.incrementOrInsert(storeId, productId, quantity);
+        return total(storeId, productId);
+    }
+
+    /*
+    Moves the slots of the given rows that are split into their reserve, so statements on
+    stock.quantity alone see every unit. Must run in the caller's transaction; the rows stay split
+    and the next rebalance fills the slots again. A row split after this check is missed, which
+    at worst rejects a change that could have been applied.
+     */
+    public void drain(Long storeId, Collection<Long> productIds) {
+        List<Long> split = productIds.stream().filter(productId -> isSplit(storeId, productId))
+                .distinct().sorted().toList();
+        if (split.isEmpty()) {
+            return;
+        }
+        stockRepository.lockQuantities(storeId, split);
+        Map<Long, Integer> slotTotals = new TreeMap<>();
+        for (StockSlotRepository.SlotQuantity slot : slotRepository.lockSlots(storeId, split)) {
+            if (slot.getQuantity() > 0) {
+                slotTotals.merge(slot.getProductId(), slot.getQuantity(), Integer::sum);
+            }
+        }
+        if (slotTotals.isEmpty()) {
+            return;
+        }
+        stockRepository.batchIncrementOrInsert(storeId, new ArrayList<>(slotTotals.keySet()),
+                new ArrayList<>(slotTotals.values()));
+        slotRepository.empty(storeId, slotTotals.keySet());
+        drains.increment();
+    }
+
+    /*
+    Splits a row into slots. pinned rows are never collapsed for being cool, only by unpin.
+    Returns false if it was split already (pinning it if asked).
+     */
+    public boolean split(Long storeId, Long productId, boolean pinned) {
+        if (!isActive()) {
+            throw new InvalidInputException("Hot stock rows are off (inventory.hot-stock.enabled, not in ledger mode)");
+        }
+        StockId id = new StockId(storeId, productId);
+        SplitRow current = splitRows.get(id);
+        if (current != null) {
+            current.pinned |= pinned;
+            return false;
+        }
+        return storeShards.write(storeId, () -> transactionTemplate.execute(status -> {
+            Integer reserve = stockRepository.lockQuantities(storeId, List.of(productId)).get(productId);
+            if (reserve == null) {
+                throw new ProductNotFoundException(productId, storeId);
+            }
+            if (!slotRepository.lockSlots(storeId, List.of(productId)).isEmpty()) {
+                splitRows.putIfAbsent(id, new SplitRow(pinned));
+                return false;
+            }
+            spread(storeId, productId, reserve, Collections.emptyList());
+            stockRepository.setQuantity(storeId, productId, 0);
+            // Marked after commit, so a rolled-back split is never seen; a sale that misses the empty
+            // reserve before then finds the slots through hasSlots()
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    splitRows.put(id, new SplitRow(pinned));
+                    splits.increment();
+                }
+            });
+            return true;
+        }));
+    }
+
+    // Folds the slots back into stock.quantity and deletes them; returns false if the row wasn't split
+    public boolean collapse(Long storeId, Long productId) {
+        boolean collapsed = storeShards.write(storeId, () -> transactionTemplate.execute(status -> {
+            Integer reserve = stockRepository.lockQuantities(storeId, List.of(productId)).get(productId);
+            List<StockSlotRepository.SlotQuantity> slots = slotRepository.lockSlots(storeId, List.of(productId));
+            if (reserve == null || slots.isEmpty()) {
+                return false;
+            }
+            int total = reserve + slots.stream().mapToInt(StockSlotRepository.SlotQuantity::getQuantity).sum();
+            stockRepository.setQuantity(storeId, productId, total);
+            slotRepository.deleteSlots(storeId, productId);
+            return true;
+        }));
+        // Removed after commit: until then the slots still hold units
+        splitRows.remove(new StockId(storeId, productId));
+        if (collapsed) {
+            collapses.increment();
+        }
+        return collapsed;
+    }
+
+    // Spreads reserve and slots of every split row evenly again, where they have drifted apart
+    public int rebalance() {
+        int rebalanced = 0;
+        for (StockId id : new ArrayList<>(splitRows.keySet())) {
+            if (rebalance(id.getStoreId(), id.getProductId())) {
+                rebalanced++;
+            }
+        }
+        return rebalanced;
+    }
+
+    // Called by HotStockRows at the end of every window with the contended changes per row
+    void onContention(Map<StockId, Long> contended) {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.execute(() -> {
+            for (Map.Entry<StockId, Long> row : contended.entrySet()) {
+                if (row.getValue() >= splitContended && !splitRows.containsKey(row.getKey())) {
+                    splitQuietly(row.getKey());
+                }
+            }
+            for (Map.Entry<StockId, SplitRow> row : splitRows.entrySet()) {
+                SplitRow split = row.getValue();
+                if (split.pinned || contended.getOrDefault(row.getKey(), 0L) >= coolContended) {
+                    split.coolWindows = 0;
+                } else if (++split.coolWindows >= coolWindows) {
+                    collapseQuietly(row.getKey());
+                }
+            }
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", isActive());
+        stats.put("slots", slotCount);
+        stats.put("splits", splits.sum());
+        stats.put("collapses", collapses.sum());
+        stats.put("rebalances", rebalances.sum());
+        stats.put("drains", drains.sum());
+        stats.put("slotMisses", slotMisses.sum());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        splitRows.forEach((id, row) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("storeId", id.getStoreId());
+            entry.put("productId", id.getProductId());
+            entry.put("pinned", row.pinned);
+            rows.add(entry);
+        });
+        stats.put("rows", rows);
+        return stats;
+    }
+
+    // --- Helper Methods ---
+
+    private int decrementRandomSlot(Long storeId, Long productId, int quantity) {
+        int slot = ThreadLocalRandom.current().nextInt(slotCount);
+        if (slotRepository.decrementIfAvailable(storeId, productId, slot, quantity) == 1) {
+            return total(storeId, productId);
+        }
+        throw new SlotsShortException();
+    }
+
+    private int decrementAnySlot(Long storeId, Long productId, int quantity) {
+        for (StockSlotRepository.SlotQuantity slot : slotRepository.findSlots(storeId, productId)) {
+            if (slot.getQuantity() >= quantity
+                    && slotRepository.decrementIfAvailable(storeId, productId, slot.getSlot(), quantity) == 1) {
+                return total(storeId, productId);
+            }
+        }
+        throw new SlotsShortException();
+    }
+
+    private int decrementReserve(Long storeId, Long productId, int quantity) {
+        if (stockRepository.decrementIfAvailable(storeId, productId, quantity) == 1) {
+            return total(storeId, productId);
+        }
+        // The units left are spread over several slots (or the row is being changed): gather them
+        drain(storeId, List.of(productId));
+        if (stockRepository.decrementIfAvailable(storeId, productId, quantity) == 1) {
+            return total(storeId, productId);
+        }
+        throw new InsufficientStockException(productId, quantity, total(storeId, productId));
+    }
+
+    private int total(Long storeId, Long productId) {
+        return stockRepository.findQuantity(storeId, productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId, storeId));
+    }
+
+    // A cheap unlocked look first: most rounds find nothing to do and take no lock
+    private boolean rebalance(Long storeId, Long productId) {
+        return storeShards.write(storeId, () -> {
+            StockRepository.VersionedQuantity reserve = stockRepository.findVersionedQuantity(storeId, productId)
+                    .orElse(null);
+            List<StockSlotRepository.SlotQuantity> slots = slotRepository.findSlots(storeId, productId);
+            if (reserve == null || slots.isEmpty() || balanced(reserve.getQuantity(), slots)) {
+                return false;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                Integer locked = stockRepository.lockQuantities(storeId, List.of(productId)).get(productId);
+                List<StockSlotRepository.SlotQuantity> lockedSlots =
+                        slotRepository.lockSlots(storeId, List.of(productId));
+                if (locked == null || lockedSlots.isEmpty()) {
+                    return; // collapsed meanwhile
+                }
+                spread(storeId, productId, locked, lockedSlots);
+                if (locked != 0) {
+                    stockRepository.setQuantity(storeId, productId, 0);
+                }
+            });
+            rebalances.increment();
+            return true;
+        });
+    }
+
+    private static boolean balanced(int reserve, List<StockSlotRepository.SlotQuantity> slots) {
+        if (reserve > 0) {
+            return false;
+        }
+        int total = 0;
+        int min = Integer.MAX_VALUE;
+        for (StockSlotRepository.SlotQuantity slot : slots) {
+            total += slot.getQuantity();
+            min = Math.min(min, slot.getQuantity());
+        }
+        return min >= total / slots.size() / 2;
+    }
+
+    // Writes reserve + the current slots evenly over the slots (slotCount of them for a new split)
+    private void spread(Long storeId, Long productId, int reserve, List<StockSlotRepository.SlotQuantity> slots) {
+        int count = slots.isEmpty() ? slotCount : slots.size();
+        long total = reserve;
+        for (StockSlotRepository.SlotQuantity slot : slots) {
+            total += slot.getQuantity();
+        }
+        for (int i = 0; i < count; i++) {
+            int quantity = (int) (total / count + (i < total % count ? 1 : 0));
+            int slot = slots.isEmpty() ? i : slots.get(i).getSlot();
+            if (slots.isEmpty() || slots.get(i).getQuantity() != quantity) {
+                slotRepository.setQuantity(storeId, productId, slot, quantity);
+            }
+        }
+    }
+
+    private void rebalanceQuietly() {
+        try {
+            rebalance();
+        } catch (RuntimeException e) {
+            log.warn("Hot stock rebalance failed, retrying in {} ms", rebalanceMillis, e);
+        }
+    }
+
+    private void splitQuietly(StockId id) {
+        try {
+            if (split(id.getStoreId(), id.getProductId(), false)) {
+                log.info("Split hot stock row {} into {} slots", id, slotCount);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not split hot stock row {}", id, e);
+        }
+    }
+
+    private void collapseQuietly(StockId id) {
+        try {
+            if (collapse(id.getStoreId(), id.getProductId())) {
+                log.info("Collapsed cooled stock row {}", id);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not collapse stock row {}", id, e);
+        }
+    }
+
+    // pinned is set from request threads; coolWindows is only touched by the scheduler
+    private static final class SplitRow {
+        private volatile boolean pinned;
+        private int coolWindows;
+
+        SplitRow(boolean pinned) {
+            this.pinned = pinned;
+        }
+    }
+
+    // An attempt of decrement() came up short; never leaves it
+    private static final class SlotsShortException extends RuntimeException {
+        SlotsShortException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.bazaar.inventory_system.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+Bloom filter over the ids in idempotency_record: "no" is certain, "maybe" costs a SELECT.
+About 10 bits per expected key and 7 probes, so ~1% false positives at capacity. Ids can't be
+removed; IdempotencyService builds a fresh one after each purge.
+ */
+final class IdempotencyKeyFilter {
+
+    private static final int PROBES = 7;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+
+    IdempotencyKeyFilter(int expectedKeys) {
+        long wanted = Math.max(1024, 10L * expectedKeys);
+        this.bits = new AtomicLongArray((int) ((wanted + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+    }
+
+    void add(String id) {
+        long hash = hash(id);
+        for (int i = 0; i < PROBES; i++) {
+            long bit = index(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String id) {
+        long hash = hash(id);
+        for (int i = 0; i < PROBES; i++) {
+            long bit = index(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- Helper Methods ---
+
+    // Double hashing: probe i is h1 + i * h2
+    private long index(long hash, int probe) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Math.floorMod(h1 + (long) probe * h2, bitCount);
+    }
+
+    // 64-bit FNV-1a, then a final mix so both halves are usable
+    private static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
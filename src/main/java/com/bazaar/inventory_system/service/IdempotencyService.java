@@ -0,0 +1,403 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.exception.IdempotencyKeyInProgressException;
+import com.bazaar.inventory_system.exception.IdempotencyKeyReuseException;
+import com.bazaar.inventory_system.exception.InvalidInputException;
+import com.bazaar.inventory_system.model.IdempotencyRecord;
+import com.bazaar.inventory_system.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/*
+Idempotency-Key handling for the stock POSTs. The first request with a key runs and its response
+is kept; a retry with the same key and the same request gets that response back (with an
+Idempotent-Replayed header) and changes nothing. A retry that arrives while the first request
+is still running waits for it, up to wait-ms.
+
+Responses live in memory, in a ConcurrentHashMap, so neither a new key nor a replay touches the
+database and keyed requests never wait on each other. Every spill-interval-ms a background thread
+sweeps the oldest keys out of memory (those past ttl-ms, and any over max-entries, so between
+sweeps memory may briefly run over), spills them to idempotency_record in batches (and all of
+them on shutdown), and they are answered from there until retention-ms. A Bloom filter over the
+table's ids means a new key only costs a SELECT on a false positive.
+
+Only returned responses are kept. A request that throws changed nothing (its transaction rolled
+back), so its key is released and a retry runs again. Keys still in memory when the process
+dies are lost, and a retry of one of those is applied again.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int SPILL_BATCH = 500;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Value("${inventory.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${inventory.idempotency.ttl-ms:3600000}")
+    private long ttlMillis;
+
+    @Value("${inventory.idempotency.retention-ms:86400000}")
+    private long retentionMillis;
+
+    @Value("${inventory.idempotency.wait-ms:5000}")
+    private long waitMillis;
+
+    @Value("${inventory.idempotency.spill-interval-ms:1000}")
+    private long spillIntervalMillis;
+
+    @Value("${inventory.idempotency.purge-interval-ms:600000}")
+    private long purgeIntervalMillis;
+
+    @Value("${inventory.idempotency.table-filter-keys:1000000}")
+    private int tableFilterKeys;
+
+    // Every known key; an entry swept out of memory stays here (in spilling) until it's in the table,
+    // so a lookup always finds it in one of the two places
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>(1024);
+    private final Set<Entry> spilling = ConcurrentHashMap.newKeySet();
+    // Insertion order, for the sweep; entries released since are skipped when they reach the head
+    private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inMemory = new AtomicInteger();
+    private final ReentrantLock spillLock = new ReentrantLock(); // one sweep and spill at a time
+    private volatile IdempotencyKeyFilter tableFilter;
+    private ScheduledExecutorService background;
+
+    // Stats
+    private final LongAdder memoryReplays = new LongAdder();
+    private final LongAdder tableReplays = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+
+    @PostConstruct
+    void start() {
+        tableFilter = loadTableFilter();
+        // One thread for both tasks, so a purge never rebuilds the filter under a running spill
+        background = Executors.newSingleThreadScheduledExecutor(asyncThreads.threadFactory("idempotency"));
+        background.scheduleWithFixedDelay(this::spillQuietly, spillIntervalMillis, spillIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        background.scheduleWithFixedDelay(this::purgeQuietly, purgeIntervalMillis, purgeIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        background.shutdown();
+        background.awaitTermination(10, TimeUnit.SECONDS);
+        entries.values().forEach(this::leaveMemory);
+        spill(); // so the keys survive a restart
+    }
+
+    /*
+    Runs action once per (scope, key). scope names the endpoint and store, e.g. "sell /stores/1";
+    request is what the client sent, hashed to reject a key reused for a different request.
+    Without a key the action just runs.
+     */
+    public <T> ResponseEntity<T> execute(String key, String scope, Object request, Class<T> bodyType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidInputException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + " " + key;
+        String fingerprint = fingerprint(request);
+
+        Entry mine = new Entry(id, fingerprint, System.currentTimeMillis());
+        Entry existing = entries.putIfAbsent(id, mine);
+        if (existing != null) {
+            memoryReplays.increment();
+            return replay(key, existing, fingerprint, bodyType);
+        }
+        inMemory.incrementAndGet();
+        order.add(mine);
+
+        try {
+            ResponseEntity<T> stored = tableFilter.mightContain(id) ? loadRecord(id, key, fingerprint, bodyType) : null;
+            if (stored != null) {
+                mine.persisted = true;
+                mine.response.complete(stored);
+                return replayed(stored);
+            }
+            ResponseEntity<T> response = action.get();
+            mine.response.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            release(id, mine, e);
+            throw e;
+        }
+    }
+
+    // Sweeps expired and surplus keys out of memory, then writes every finished entry that left
+    // memory to the table; returns how many
+    public int spill() {
+        spillLock.lock();
+        try {
+            sweep();
+            List<Entry> ready = new ArrayList<>();
+            for (Entry candidate : spilling) {
+                if (candidate.response.isCompletedExceptionally()) {
+                    spilling.remove(candidate);
+                } else if (candidate.response.isDone()) {
+                    ready.add(candidate);
+                }
+            }
+            for (int from = 0; from < ready.size(); from += SPILL_BATCH) {
+                List<Entry> chunk = ready.subList(from, Math.min(from + SPILL_BATCH, ready.size()));
+                List<IdempotencyRecord> records = new ArrayList<>(chunk.size());
+                for (Entry entry : chunk) {
+                    records.add(toRecord(entry));
+                }
+                transactionTemplate.executeWithoutResult(status -> recordRepository.batchUpsert(records));
+                // Filter first: once an entry leaves the map, lookups have to reach the table
+                IdempotencyKeyFilter filter = tableFilter;
+                chunk.forEach(entry -> filter.add(entry.id));
+                chunk.forEach(entry -> {
+                    spilling.remove(entry);
+                    entries.remove(entry.id, entry);
+                });
+                spilled.add(chunk.size());
+            }
+            return ready.size();
+        } finally {
+            spillLock.unlock();
+        }
+    }
+
+    // Drops records past retention-ms and rebuilds the filter without them
+    public int purgeExpiredRecords() {
+        int removed = recordRepository.deleteCreatedBefore(retentionCutoff());
+        if (removed > 0) {
+            tableFilter = loadTableFilter();
+            log.info("Purged {} expired idempotency records", removed);
+        }
+        return removed;
+    }
+
+    public int size() {
+        return inMemory.get();
+    }
+
+    public int getSpillingCount() {
+        return spilling.size();
+    }
+
+    public long getMemoryReplays() {
+        return memoryReplays.sum();
+    }
+
+    public long getTableReplays() {
+        return tableReplays.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getSpilledCount() {
+        return spilled.sum();
+    }
+
+    // --- Helper Methods ---
+
+    private <T> ResponseEntity<T> replay(String key, Entry entry, String fingerprint, Class<T> bodyType) {
+        if (!entry.fingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyReuseException(key);
+        }
+        ResponseEntity<?> response;
+        try {
+            response = entry.response.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key, waitMillis);
+        } catch (ExecutionException e) {
+            // The first attempt failed while this one waited: report the same failure
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key, 0);
+        }
+        return replayed(ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(bodyType.cast(response.getBody())));
+    }
+
+    private <T> ResponseEntity<T> replayed(ResponseEntity<T> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private <T> ResponseEntity<T> loadRecord(String id, String key, String fingerprint, Class<T> bodyType) {
+        IdempotencyRecord record = recordRepository.findById(id).orElse(null);
+        if (record == null || record.getCreatedAt().isBefore(retentionCutoff())) {
+            return null;
+        }
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReuseException(key);
+        }
+        tableReplays.increment();
+        try {
+            T body = record.getBody() == null ? null : objectMapper.readValue(record.getBody(), bodyType);
+            return ResponseEntity.status(record.getStatus()).body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable idempotency record " + id, e);
+        }
+    }
+
+    private IdempotencyRecord toRecord(Entry entry) {
+        String id = entry.id;
+        ResponseEntity<?> response = entry.response.join();
+        try {
+            String body = response.getBody() == null ? null : objectMapper.writeValueAsString(response.getBody());
+            LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.createdAt),
+                    ZoneId.systemDefault());
+            return new IdempotencyRecord(id, entry.fingerprint, response.getStatusCode().value(), body, createdAt);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot store idempotency record " + id, e);
+        }
+    }
+
+    private IdempotencyKeyFilter loadTableFilter() {
+        IdempotencyKeyFilter filter = new IdempotencyKeyFilter(tableFilterKeys);
+        recordRepository.forEachIdCreatedSince(retentionCutoff(), filter::add);
+        return filter;
+    }
+
+    private LocalDateTime retentionCutoff() {
+        return LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(retentionMillis));
+    }
+
+    private void release(String id, Entry entry, RuntimeException failure) {
+        if (entry.inMemory.compareAndSet(true, false)) {
+            inMemory.decrementAndGet();
+        }
+        entries.remove(id, entry);
+        spilling.remove(entry);
+        entry.response.completeExceptionally(failure);
+    }
+
+    // Under spillLock. The oldest keys are at the head of order: those past ttl-ms, and any over
+    // max-entries, leave memory.
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        Entry oldest;
+        while ((oldest = order.peek()) != null) {
+            boolean expired = oldest.createdAt + ttlMillis < now;
+            if (!expired && inMemory.get() <= maxEntries) {
+                break;
+            }
+            order.poll();
+            if (leaveMemory(oldest) && !expired) {
+                evictions.increment();
+            }
+        }
+    }
+
+    // Loaded records are already in the table and just go; the rest wait in spilling. False if
+    // the entry had already left (released, or swept on shutdown).
+    private boolean leaveMemory(Entry entry) {
+        if (!entry.inMemory.compareAndSet(true, false)) {
+            return false;
+        }
+        inMemory.decrementAndGet();
+        if (entry.persisted) {
+            entries.remove(entry.id, entry);
+        } else {
+            spilling.add(entry);
+        }
+        return true;
+    }
+
+    private void spillQuietly() {
+        try {
+            spill();
+        } catch (RuntimeException e) {
+            log.warn("Idempotency spill failed, {} entries still pending", getSpillingCount(), e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            purgeExpiredRecords();
+        } catch (RuntimeException e) {
+            log.warn("Idempotency record purge failed", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint request", e);
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final String fingerprint;
+        final long createdAt;
+        final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        final AtomicBoolean inMemory = new AtomicBoolean(true); // not yet swept out or released
+        volatile boolean persisted; // loaded from the table, so already there
+
+        Entry(String id, String fingerprint, long createdAt) {
+            this.id = id;
+            this.fingerprint = fingerprint;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductCacheStats;
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/*
+In-process product cache (inventory.product-cache.type=memory, the default). One access-ordered
+LinkedHashMap holds single products, the full list and search results together: the least
+recently used entry goes once max-entries is exceeded, and an entry older than ttl-ms is
+reloaded on its next read.
+
+Invalidation is precise: a change drops that product's entry, the full list, and only the
+search results whose query matched the product before or after the change (a product that
+matches neither can't enter or leave any of them, whatever their limit).
+Every invalidation also bumps a generation counter, and a load that started before it is
+not stored, so a slow read racing an update can't put the old row back.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.product-cache.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryProductCache implements ProductCache {
+
+    private static final Object ALL_PRODUCTS = "all-products";
+
+    @Value("${inventory.product-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${inventory.product-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long generation;
+
+    // Stats, guarded by this
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    private long loads;
+    private long loadNanos;
+    private long maxLoadNanos;
+
+    @Override
+    public Optional<Product> getProduct(Long productId, Supplier<Optional<Product>> loader) {
+        // Missing ids are not cached, so a create never has a stale "not found" to clear
+        return Optional.ofNullable(get(new ProductKey(productId), () -> loader.get().orElse(null)));
+    }
+
+    @Override
+    public List<Product> getAll(Supplier<List<Product>> loader) {
+        return get(ALL_PRODUCTS, () -> List.copyOf(loader.get()));
+    }
+
+    @Override
+    public List<Product> search(ProductSearchQuery query, Supplier<List<Product>> loader) {
+        return get(query, () -> List.copyOf(loader.get()));
+    }
+
+    @Override
+    public synchronized void invalidate(Product before, Product after) {
+        generation++;
+        Long productId = after != null ? after.getProductId() : before.getProductId();
+        int removed = 0;
+        for (Iterator<Object> keys = entries.keySet().iterator(); keys.hasNext(); ) {
+            Object key = keys.next();
+            boolean stale = key == ALL_PRODUCTS
+                    || (key instanceof ProductKey product && product.productId.equals(productId))
+                    || (key instanceof ProductSearchQuery search && (search.matches(before) || search.matches(after)));
+            if (stale) {
+                keys.remove();
+                removed++;
+            }
+        }
+        invalidations += removed;
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    @Override
+    public synchronized ProductCacheStats stats() {
+        return new ProductCacheStats("memory", entries.size(), hits, misses, evictions, expirations,
+                invalidations, loads, loadNanos, maxLoadNanos);
+    }
+
+    // --- Helper Methods ---
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Object key, Supplier<T> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (System.currentTimeMillis() < entry.expiresAt) {
+                    hits++;
+                    return (T) entry.value;
+                }
+                entries.remove(key);
+                expirations++;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        // Load outside the lock: a slow query must not block hits on other keys
+        long start = System.nanoTime();
+        T value = loader.get();
+        long nanos = System.nanoTime() - start;
+
+        synchronized (this) {
+            loads++;
+            loadNanos += nanos;
+            maxLoadNanos = Math.max(maxLoadNanos, nanos);
+            if (value != null && loadGeneration == generation) {
+                entries.put(key, new Entry(value, System.currentTimeMillis() + ttlMillis));
+                Iterator<Map.Entry<Object, Entry>> eldest = entries.entrySet().iterator();
+                while (entries.size() > maxEntries) {
+                    eldest.next();
+                    eldest.remove();
+                    evictions++;
+                }
+            }
+        }
+        return value;
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+
+    private record ProductKey(Long productId) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.LowStockAlert;
+
+/*
+Receives low-stock alerts from StockThresholds, one per crossing, on its outbox thread (never on
+a request thread). Implement it as a bean, e.g. to create purchase orders or notify the store.
+ */
+public interface LowStockListener {
+    void onLowStock(LowStockAlert alert);
+}
@@ -0,0 +1,495 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ArchivedMovementTotalRepository;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/*
+Cold storage for old stock movements (inventory.archive.enabled=true). Every interval-ms, whole
+months older than min-age-days are moved per store out of stock_movement into immutable segment
+files, <dir>/<storeId>/<yyyymm>-<part>.seg (see MovementSegment); a month that gets late rows
+after it was archived gets another part. For each store and month:
+ 1. the rows are read and written to a .seg.pending file, which readers already see;
+ 2. in one transaction the rows are deleted and their sums added to archived_movement_total,
+    so stock still reconciles against the movement log;
+ 3. the file is renamed to .seg.
+A failed step 2 removes the file. After a crash, a pending file whose rows are still in the
+database is removed, otherwise it is kept. While a row is in both places readers see it once.
+
+The movement list, page and export endpoints merge hot rows with the segments (scan/merge), in
+(timestamp, stockMovementId) order; segments and months outside the requested time range are
+skipped on their min/max timestamps without being read. Archived movements can't be fetched or
+deleted by id, and the rollups of archived months are not rebuilt by the backfill.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.archive.enabled", havingValue = "true")
+public class MovementArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(MovementArchive.class);
+    private static final String SUFFIX = ".seg";
+    private static final String PENDING_SUFFIX = ".seg.pending";
+
+    // Order of the paged and exported history; movements without a timestamp go last
+    public static final Comparator<StockMovement> ORDER = Comparator
+            .comparing(StockMovement::getTimestamp, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(StockMovement::getStockMovementId);
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private ArchivedMovementTotalRepository totalRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Value("${inventory.archive.dir:movement-archive}")
+    private Path directory;
+
+    @Value("${inventory.archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${inventory.archive.interval-ms:3600000}")
+    private long intervalMillis;
+
+    @Value("${inventory.archive.delete-chunk:1000}")
+    private int deleteChunk;
+
+    // storeId -> month -> parts; the lists are replaced, never changed, and only under this
+    private final ConcurrentHashMap<Long, ConcurrentSkipListMap<Integer, List<MovementSegment>>> segments =
+            new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    // Stats
+    private volatile Map<String, Object> lastRun;
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> stores = Files.list(directory)) {
+            for (Path store : stores.filter(Files::isDirectory)
+                    .filter(store -> store.getFileName().toString().matches("\\d+")).toList()) {
+                Long storeId = Long.valueOf(store.getFileName().toString());
+                try (Stream<Path> files = Files.list(store)) {
+                    for (Path file : files.sorted().toList()) {
+                        load(storeId, file);
+                    }
+                }
+            }
+        }
+        log.info("Movement archive {}: {} segments of {} stores", directory.toAbsolutePath(), getSegmentCount(),
+                segments.size());
+    }
+
+    // Not in @PostConstruct, so a first run doesn't hold up startup
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (intervalMillis <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(asyncThreads.threadFactory("movement-archive"));
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // Archives every month before the cutoff; returns what was moved
+    public synchronized Map<String, Object> archive() {
+        long start = System.currentTimeMillis();
+        int cutoff = StockMovement.monthBucket(LocalDateTime.now().minusDays(minAgeDays));
+        int written = 0;
+        long movements = 0;
+        for (List<Long> storeIds : storeShards.scatter(shard ->
+                stockMovementRepository.findStoreIdsWithMonthsBefore(cutoff))) {
+            for (Long storeId : storeIds) {
+                for (Integer month : storeShards.read(storeId, () ->
+                        stockMovementRepository.findStoreMonthsBefore(storeId, cutoff))) {
+                    int rows = archiveMonth(storeId, month);
+                    if (rows > 0) {
+                        written++;
+                        movements += rows;
+                    }
+                }
+            }
+        }
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("beforeMonth", cutoff);
+        run.put("segments", written);
+        run.put("movements", movements);
+        run.put("millis", System.currentTimeMillis() - start);
+        run.put("finishedAt", LocalDateTime.now());
+        lastRun = run;
+        if (written > 0) {
+            log.info("Archived {} stock movements into {} segments", movements, written);
+        }
+        return run;
+    }
+
+    /*
+    Archived movements of one store in (timestamp, stockMovementId) order, with the same optional
+    filters as StockMovementRepositoryCustom.findPage (afterTimestamp/afterId = the cursor).
+    Months are read one at a time as the iterator reaches them; the segments are those present
+    when this is called.
+     */
+    public Iterator<StockMovement> scan(Long storeId, Long productId, LocalDateTime startDate,
+                                        LocalDateTime endDate, LocalDateTime afterTimestamp, Long afterId) {
+        NavigableMap<Integer, List<MovementSegment>> months = segments.get(storeId);
+        if (months == null || months.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        LocalDateTime from = startDate;
+        if (afterTimestamp != null && (from == null || afterTimestamp.isAfter(from))) {
+            from = afterTimestamp;
+        }
+        NavigableMap<Integer, List<MovementSegment>> range = new TreeMap<>(months.subMap(
+                from != null ? StockMovement.monthBucket(from) : Integer.MIN_VALUE, true,
+                endDate != null ? StockMovement.monthBucket(endDate) : Integer.MAX_VALUE, true));
+        Predicate<StockMovement> filter = movement -> {
+            LocalDateTime timestamp = movement.getTimestamp();
+            return (productId == null || productId.equals(movement.getProductId()))
+                    && (startDate == null || !timestamp.isBefore(startDate))
+                    && (endDate == null || !timestamp.isAfter(endDate))
+                    && (afterTimestamp == null || timestamp.isAfter(afterTimestamp)
+                    || (timestamp.equals(afterTimestamp) && movement.getStockMovementId() > afterId));
+        };
+        return new ScanIterator(storeId, range.values().iterator(), from, endDate, filter);
+    }
+
+    // Two (timestamp, stockMovementId)-ordered sequences as one; a row in both comes out once
+    public static Iterator<StockMovement> merge(Iterator<StockMovement> hot, Iterator<StockMovement> cold) {
+        return new Iterator<>() {
+            private StockMovement nextHot = hot.hasNext() ? hot.next() : null;
+            private StockMovement nextCold = cold.hasNext() ? cold.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextHot != null || nextCold != null;
+            }
+
+            @Override
+            public StockMovement next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order = nextHot == null ? 1 : nextCold == null ? -1 : ORDER.compare(nextHot, nextCold);
+                StockMovement result = order <= 0 ? nextHot : nextCold;
+                if (order <= 0) {
+                    nextHot = hot.hasNext() ? hot.next() : null;
+                }
+                if (order >= 0) {
+                    nextCold = cold.hasNext() ? cold.next() : null;
+                }
+                return result;
+            }
+        };
+    }
+
+    public boolean hasSegments(Long storeId) {
+        Map<Integer, List<MovementSegment>> months = segments.get(storeId);
+        return months != null && !months.isEmpty();
+    }
+
+    // Months (yyyymm) with a segment in any store
+    public Set<Integer> getArchivedMonths() {
+        Set<Integer> months = new TreeSet<>();
+        segments.values().forEach(store -> months.addAll(store.keySet()));
+        return months;
+    }
+
+    // Deletes the segments of every month before the given yyyymm (archived totals are kept); returns rows dropped
+    public synchronized long dropMonthsBefore(int month) {
+        long dropped = 0;
+        for (Map.Entry<Long, ConcurrentSkipListMap<Integer, List<MovementSegment>>> store : segments.entrySet()) {
+            NavigableMap<Integer, List<MovementSegment>> old = store.getValue().headMap(month, false);
+            for (Map.Entry<Integer, List<MovementSegment>> entry : List.copyOf(old.entrySet())) {
+                for (MovementSegment segment : entry.getValue()) {
+                    deleteQuietly(path(store.getKey(), segment.month, segment.part, SUFFIX));
+                    deleteQuietly(path(store.getKey(), segment.month, segment.part, PENDING_SUFFIX));
+                    dropped += segment.rows;
+                }
+                old.remove(entry.getKey());
+            }
+        }
+        return dropped;
+    }
+
+    public Map<String, Object> stats() {
+        long rows = 0;
+        long bytes = 0;
+        for (Map<Integer, List<MovementSegment>> store : segments.values()) {
+            for (List<MovementSegment> parts : store.values()) {
+                for (MovementSegment segment : parts) {
+                    rows += segment.rows;
+                    bytes += segment.bytes;
+                }
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("directory", directory.toAbsolutePath().toString());
+        stats.put("minAgeDays", minAgeDays);
+        stats.put("stores", segments.size());
+        stats.put("segments", getSegmentCount());
+        stats.put("movements", rows);
+        stats.put("bytes", bytes);
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    public int getSegmentCount() {
+        return segments.values().stream().flatMap(store -> store.values().stream()).mapToInt(List::size).sum();
+    }
+
+    // --- Helper Methods ---
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.error("Stock movement archiving failed, retrying in {} ms", intervalMillis, e);
+        }
+    }
+
+    // Returns the number of movements archived, 0 when the month was left as it was
+    private int archiveMonth(Long storeId, int month) {
+        List<StockMovement> movements = storeShards.read(storeId, () ->
+                stockMovementRepository.findByStoreIdAndMovementMonthOrderByTimestampAscStockMovementIdAsc(
+                        storeId, month));
+        if (movements.isEmpty()) {
+            return 0;
+        }
+        int part = nextPart(storeId, month);
+        Path pending = path(storeId, month, part, PENDING_SUFFIX);
+        MovementSegment segment;
+        try {
+            Files.createDirectories(pending.getParent());
+            segment = MovementSegment.write(pending, storeId, month, part, movements);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        register(segment);
+
+        List<Long> ids = movements.stream().map(StockMovement::getStockMovementId).toList();
+        Map<Long, long[]> totals = new HashMap<>(); // productId -> {quantityChange, movementCount}
+        for (StockMovement movement : movements) {
+            if (movement.getProductId() != null) {
+                long[] total = totals.computeIfAbsent(movement.getProductId(), productId -> new long[2]);
+                total[0] += movement.getQuantityChange() == null ? 0 : movement.getQuantityChange();
+                total[1]++;
+            }
+        }
+        try {
+            storeShards.write(storeId, () -> transactionTemplate.execute(status -> {
+                int deleted = 0;
+                for (int from = 0; from < ids.size(); from += deleteChunk) {
+                    deleted += stockMovementRepository.deleteByIds(
+                            ids.subList(from, Math.min(from + deleteChunk, ids.size())));
+                }
+                // Changed since they were read: leave the month for the next run
+                if (deleted != ids.size()) {
+                    throw new IllegalStateException("Store " + storeId + " month " + month + ": " + deleted
+                            + " of " + ids.size() + " movements left to archive");
+                }
+                totals.forEach((productId, total) -> totalRepository.add(storeId, productId, total[0], total[1]));
+                return null;
+            }));
+        } catch (RuntimeException e) {
+            unregister(segment);
+            deleteQuietly(pending);
+            log.warn("Archiving store {} month {} rolled back: {}", storeId, month, e.toString());
+            return 0;
+        }
+        finish(pending, path(storeId, month, part, SUFFIX));
+        return movements.size();
+    }
+
+    private void load(Long storeId, Path file) {
+        String name = file.getFileName().toString();
+        boolean pending = name.endsWith(PENDING_SUFFIX);
+        if (!pending && !name.endsWith(SUFFIX)) {
+            return;
+        }
+        String[] key = name.substring(0, name.indexOf('.')).split("-");
+        int month = Integer.parseInt(key[0]);
+        int part = Integer.parseInt(key[1]);
+        MovementSegment segment = MovementSegment.open(file, storeId, month, part);
+        if (pending) {
+            // Left by a crash: its transaction committed exactly when its rows are gone
+            boolean committed = !storeShards.read(storeId, () -> stockMovementRepository.existsById(segment.minId));
+            if (!committed) {
+                deleteQuietly(file);
+                return;
+            }
+            finish(file, path(storeId, month, part, SUFFIX));
+        }
+        register(segment);
+    }
+
+    private synchronized int nextPart(Long storeId, int month) {
+        List<MovementSegment> parts = segments.getOrDefault(storeId, new ConcurrentSkipListMap<>())
+                .getOrDefault(month, List.of());
+        return parts.stream().mapToInt(segment -> segment.part + 1).max().orElse(0);
+    }
+
+    private synchronized void register(MovementSegment segment) {
+        segments.computeIfAbsent(segment.storeId, storeId -> new ConcurrentSkipListMap<>())
+                .merge(segment.month, List.of(segment), (parts, added) -> {
+                    List<MovementSegment> all = new ArrayList<>(parts);
+                    all.addAll(added);
+                    return List.copyOf(all);
+                });
+    }
+
+    private synchronized void unregister(MovementSegment segment) {
+        segments.get(segment.storeId).computeIfPresent(segment.month, (month, parts) -> {
+            List<MovementSegment> rest = parts.stream().filter(part -> part != segment).toList();
+            return rest.isEmpty() ? null : rest;
+        });
+    }
+
+    // The mapping stays valid across the rename; a failed rename is finished on the next startup
+    private void finish(Path pending, Path done) {
+        try {
+            Files.move(pending, done, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not rename {} to {}: {}", pending, done, e.toString());
+        }
+    }
+
+    private Path path(Long storeId, int month, int part, String suffix) {
+        return directory.resolve(storeId.toString()).resolve(month + "-" + part + suffix);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.toString());
+        }
+    }
+
+    // Reads one month at a time, then hands its matching rows out with their store and product attached
+    private final class ScanIterator implements Iterator<StockMovement> {
+        private final Long storeId;
+        private final Iterator<List<MovementSegment>> months;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final Predicate<StockMovement> filter;
+        private final Map<Long, Optional<Product>> products = new HashMap<>();
+        private Store store;
+        private Iterator<StockMovement> current = Collections.emptyIterator();
+
+        ScanIterator(Long storeId, Iterator<List<MovementSegment>> months, LocalDateTime from, LocalDateTime to,
+                     Predicate<StockMovement> filter) {
+            this.storeId = storeId;
+            this.months = months;
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && months.hasNext()) {
+                List<StockMovement> rows = new ArrayList<>();
+                List<MovementSegment> parts = months.next();
+                for (MovementSegment segment : parts) {
+                    if (segment.overlaps(from, to)) {
+                        for (StockMovement movement : segment.read()) {
+                            if (filter.test(movement)) {
+                                rows.add(movement);
+                            }
+                        }
+                    }
+                }
+                if (parts.size() > 1) {
+                    rows.sort(ORDER);
+                }
+                current = rows.iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public StockMovement next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StockMovement movement = current.next();
+            if (store == null) {
+                store = storeRepository.findById(storeId).orElse(null);
+            }
+            movement.setStore(store);
+            Long productId = movement.getProductId();
+            if (productId != null) {
+                movement.setProduct(products.computeIfAbsent(productId, id ->
+                        productCache.getProduct(id, () -> productRepository.findById(id))).orElse(null));
+            }
+            return movement;
+        }
+    }
+}
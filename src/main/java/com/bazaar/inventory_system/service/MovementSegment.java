@@ -0,0 +1,269 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.model.StockMovement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/*
+One immutable archive file (see MovementArchive): movements of one store and month, in
+(timestamp, stockMovementId) order, stored column by column:
+ - stockMovementId, productId: deltas from the previous row, zig-zag varints (productId null = 0)
+ - timestamp: epoch nanoseconds of the wall-clock time, deltas, zig-zag varints
+ - quantityChange: zig-zag varint + 1 (0 = null)
+ - movementType: varint index into the segment's dictionary of types (0 = null)
+Each column is deflated on its own. The header carries the row count and the min/max timestamp
+and id, so a segment outside a query's range is skipped without reading its columns. Files are
+memory-mapped and the columns inflated straight from the mapping.
+ */
+final class MovementSegment {
+
+    private static final int MAGIC = 0x534D5331; // "SMS1"
+    private static final int COLUMNS = 5;
+    private static final int ID = 0, TIMESTAMP = 1, PRODUCT = 2, QUANTITY = 3, TYPE = 4;
+
+    final Long storeId;
+    final int month;
+    final int part;
+    final int rows;
+    final LocalDateTime minTimestamp;
+    final LocalDateTime maxTimestamp;
+    final long minId;
+    final long maxId;
+    final long bytes;
+
+    private final MappedByteBuffer buffer;
+    private final List<String> dictionary;
+    private final int[] rawLengths = new int[COLUMNS];
+    private final int[] offsets = new int[COLUMNS];
+    private final int[] lengths = new int[COLUMNS];
+
+    private MovementSegment(Long storeId, int month, int part, MappedByteBuffer buffer, long bytes) {
+        this.storeId = storeId;
+        this.month = month;
+        this.part = part;
+        this.buffer = buffer;
+        this.bytes = bytes;
+        ByteBuffer header = buffer.duplicate();
+        if (header.getInt() != MAGIC) {
+            throw new IllegalStateException("Not a movement segment: store " + storeId + ", month " + month);
+        }
+        rows = header.getInt();
+        minTimestamp = toTimestamp(header.getLong());
+        maxTimestamp = toTimestamp(header.getLong());
+        minId = header.getLong();
+        maxId = header.getLong();
+        int types = header.getInt();
+        dictionary = new ArrayList<>(types + 1);
+        dictionary.add(null);
+        for (int i = 0; i < types; i++) {
+            byte[] type = new byte[header.getShort()];
+            header.get(type);
+            dictionary.add(new String(type, StandardCharsets.UTF_8));
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            rawLengths[column] = header.getInt();
+            lengths[column] = header.getInt();
+        }
+        int offset = header.position();
+        for (int column = 0; column < COLUMNS; column++) {
+            offsets[column] = offset;
+            offset += lengths[column];
+        }
+    }
+
+    // Writes and syncs the file, then maps it. movements must be in (timestamp, stockMovementId) order.
+    static MovementSegment write(Path path, Long storeId, int month, int part, List<StockMovement> movements) {
+        Map<String, Integer> types = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        Column ids = new Column(), timestamps = new Column(), products = new Column(), quantities = new Column(),
+                typeIndexes = new Column();
+        long previousId = 0, previousTimestamp = 0, previousProduct = 0;
+        long minId = Long.MAX_VALUE, maxId = Long.MIN_VALUE;
+        for (StockMovement movement : movements) {
+            long id = movement.getStockMovementId();
+            long timestamp = toNanos(movement.getTimestamp());
+            long product = movement.getProductId() == null ? 0 : movement.getProductId();
+            ids.writeSigned(id - previousId);
+            timestamps.writeSigned(timestamp - previousTimestamp);
+            products.writeSigned(product - previousProduct);
+            quantities.write(movement.getQuantityChange() == null ? 0 : zigZag(movement.getQuantityChange()) + 1);
+            String type = movement.getMovementType();
+            typeIndexes.write(type == null ? 0 : types.computeIfAbsent(type, t -> {
+                dictionary.add(t);
+                return dictionary.size();
+            }));
+            previousId = id;
+            previousTimestamp = timestamp;
+            previousProduct = product;
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+        }
+        List<byte[]> raw = List.of(ids.toByteArray(), timestamps.toByteArray(), products.toByteArray(),
+                quantities.toByteArray(), typeIndexes.toByteArray());
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(48);
+        header.putInt(MAGIC).putInt(movements.size())
+                .putLong(toNanos(movements.get(0).getTimestamp()))
+                .putLong(toNanos(movements.get(movements.size() - 1).getTimestamp()))
+                .putLong(minId).putLong(maxId).putInt(dictionary.size());
+        file.write(header.array(), 0, header.position());
+        for (String type : dictionary) {
+            byte[] bytes = type.getBytes(StandardCharsets.UTF_8);
+            file.write(bytes.length >>> 8);
+            file.write(bytes.length);
+            file.writeBytes(bytes);
+        }
+        List<byte[]> compressed = new ArrayList<>(COLUMNS);
+        ByteBuffer lengths = ByteBuffer.allocate(COLUMNS * 8);
+        for (byte[] column : raw) {
+            byte[] deflated = deflate(column);
+            compressed.add(deflated);
+            lengths.putInt(column.length).putInt(deflated.length);
+        }
+        file.writeBytes(lengths.array());
+        compressed.forEach(file::writeBytes);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer content = ByteBuffer.wrap(file.toByteArray());
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't write movement segment " + path, e);
+        }
+        return open(path, storeId, month, part);
+    }
+
+    static MovementSegment open(Path path, Long storeId, int month, int part) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            return new MovementSegment(storeId, month, part, channel.map(FileChannel.MapMode.READ_ONLY, 0, size),
+                    size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't open movement segment " + path, e);
+        }
+    }
+
+    // Whether any row can fall in [from, to] (either bound null = open)
+    boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return (from == null || !maxTimestamp.isBefore(from)) && (to == null || !minTimestamp.isAfter(to));
+    }
+
+    // Every row, in file order; store and product are left for the caller to attach
+    List<StockMovement> read() {
+        byte[] ids = inflate(ID), timestamps = inflate(TIMESTAMP), products = inflate(PRODUCT),
+                quantities = inflate(QUANTITY), types = inflate(TYPE);
+        int[] positions = new int[COLUMNS];
+        List<StockMovement> movements = new ArrayList<>(rows);
+        long id = 0, timestamp = 0, product = 0;
+        for (int row = 0; row < rows; row++) {
+            id += unZigZag(readVarLong(ids, positions, ID));
+            timestamp += unZigZag(readVarLong(timestamps, positions, TIMESTAMP));
+            product += unZigZag(readVarLong(products, positions, PRODUCT));
+            long quantity = readVarLong(quantities, positions, QUANTITY);
+            int type = (int) readVarLong(types, positions, TYPE);
+            movements.add(new StockMovement(id, storeId, product == 0 ? null : product,
+                    quantity == 0 ? null : (int) unZigZag(quantity - 1), dictionary.get(type),
+                    toTimestamp(timestamp), null, null));
+        }
+        return movements;
+    }
+
+    // --- Helper Methods ---
+
+    private byte[] inflate(int column) {
+        byte[] raw = new byte[rawLengths[column]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice(offsets[column], lengths[column]));
+            int filled = 0;
+            while (filled < raw.length && !inflater.finished()) {
+                filled += inflater.inflate(raw, filled, raw.length - filled);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt movement segment: store " + storeId + ", month " + month, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static long readVarLong(byte[] data, int[] positions, int column) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[positions[column]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long toNanos(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    private static LocalDateTime toTimestamp(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    // Varint output for one column
+    private static final class Column extends ByteArrayOutputStream {
+        void write(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeSigned(long value) {
+            write(zigZag(value));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductCacheStats;
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// inventory.product-cache.type=none: no caching, but loads are still counted and timed for comparison
+@Component
+@ConditionalOnProperty(name = "inventory.product-cache.type", havingValue = "none")
+public class NoProductCache implements ProductCache {
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+    private final AtomicLong maxLoadNanos = new AtomicLong();
+
+    @Override
+    public Optional<Product> getProduct(Long productId, Supplier<Optional<Product>> loader) {
+        return load(loader);
+    }
+
+    @Override
+    public List<Product> getAll(Supplier<List<Product>> loader) {
+        return load(loader);
+    }
+
+    @Override
+    public List<Product> search(ProductSearchQuery query, Supplier<List<Product>> loader) {
+        return load(loader);
+    }
+
+    @Override
+    public void invalidate(Product before, Product after) {
+    }
+
+    @Override
+    public void invalidateAll() {
+    }
+
+    @Override
+    public ProductCacheStats stats() {
+        return new ProductCacheStats("none", 0, 0, loads.get(), 0, 0, 0,
+                loads.get(), loadNanos.get(), maxLoadNanos.get());
+    }
+
+    private <T> T load(Supplier<T> loader) {
+        long start = System.nanoTime();
+        T value = loader.get();
+        long nanos = System.nanoTime() - start;
+        loads.incrementAndGet();
+        loadNanos.addAndGet(nanos);
+        maxLoadNanos.accumulateAndGet(nanos, Math::max);
+        return value;
+    }
+}
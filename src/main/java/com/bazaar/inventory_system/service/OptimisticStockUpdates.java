@@ -0,0 +1,122 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockConcurrencyStats;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.exception.StockContentionException;
+import com.bazaar.inventory_system.repository.StockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/*
+Optimistic updates (inventory.stock-concurrency.strategy=optimistic): read quantity and version,
+check, then write with "WHERE version = ?". No lock is held between the read and the write; a
+write that matches no row lost to a concurrent change, and the whole change (movement included)
+is rolled back and run again after a full-jitter backoff: random(0, min(max-backoff-ms,
+backoff-ms * 2^(attempt - 1))). After max-attempts conflicts the request gets a 503.
+Cheap when changes to a row are spread out, wasteful on a hot row, where most attempts lose.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.stock-concurrency.strategy", havingValue = "optimistic")
+public class OptimisticStockUpdates implements StockUpdateStrategy {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.stock-concurrency.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${inventory.stock-concurrency.backoff-ms:2}")
+    private long backoffMillis;
+
+    @Value("${inventory.stock-concurrency.max-backoff-ms:100}")
+    private long maxBackoffMillis;
+
+    private StockConcurrencyMetrics metrics;
+
+    @PostConstruct
+    void registerMetrics() {
+        metrics = new StockConcurrencyMetrics("optimistic", meterRegistry);
+    }
+
+    @Override
+    public <T> T run(Long storeId, Long productId, Supplier<T> change) {
+        metrics.change();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return change.get();
+            } catch (OptimisticLockingFailureException e) {
+                metrics.conflict();
+                if (attempt >= maxAttempts) {
+                    metrics.retriesExhausted();
+                    throw new StockContentionException(storeId, productId, attempt + " conflicting attempts");
+                }
+                metrics.retry();
+                backOff(storeId, productId, attempt);
+            }
+        }
+    }
+
+    @Override
+    public int increment(Long storeId, Long productId, int quantity) {
+        StockRepository.VersionedQuantity current = stockRepository.findVersionedQuantity(storeId, productId)
+                .orElse(null);
+        if (current == null) {
+            // Nothing to compare a version with yet; two first stock-ins race on the insert
+            // instead, which StockService retries
+            return stockRepository.incrementOrInsertReturning(storeId, productId, quantity);
+        }
+        return write(storeId, productId, current, current.getQuantity() + quantity);
+    }
+
+    @Override
+    public int decrement(Long storeId, Long productId, int quantity) {
+        StockRepository.VersionedQuantity current = stockRepository.findVersionedQuantity(storeId, productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId, storeId));
+        if (current.getQuantity() < quantity) {
+            throw new InsufficientStockException(productId, quantity, current.getQuantity());
+        }
+        return write(storeId, productId, current, current.getQuantity() - quantity);
+    }
+
+    @Override
+    public StockConcurrencyStats stats() {
+        return metrics.stats();
+    }
+
+    // --- Helper Methods ---
+
+    private int write(Long storeId, Long productId, StockRepository.VersionedQuantity current, int quantity) {
+        int updated = stockRepository.setQuantityIfVersion(storeId, productId, quantity, current.getVersion());
+        if (updated == 0) {
+            // Rolls back the transaction; run() tries again
+            throw new OptimisticLockingFailureException("Stock of product " + productId + " in store " + storeId +
+                    " changed since version " + current.getVersion());
+        }
+        return quantity;
+    }
+
+    private void backOff(Long storeId, Long productId, int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 30));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockContentionException(storeId, productId, "interrupted while backing off");
+        }
+    }
+}
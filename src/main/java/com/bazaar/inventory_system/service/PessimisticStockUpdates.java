@@ -0,0 +1,97 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockConcurrencyStats;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.exception.StockContentionException;
+import com.bazaar.inventory_system.repository.StockRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/*
+Pessimistic updates (inventory.stock-concurrency.strategy=pessimistic): SELECT ... FOR UPDATE,
+check, then a plain write, all under the row lock, which is held until the change commits.
+Requests on a hot row queue on the lock instead of failing and retrying; a request that waits
+longer than lock-timeout-ms gets a 503. The timeout goes with the lock itself (FOR UPDATE WAIT),
+so no session setting lingers on the pooled connection.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.stock-concurrency.strategy", havingValue = "pessimistic")
+public class PessimisticStockUpdates implements StockUpdateStrategy {
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${inventory.stock-concurrency.lock-timeout-ms:2000}")
+    private long lockTimeoutMillis;
+
+    private StockConcurrencyMetrics metrics;
+
+    @PostConstruct
+    void init() {
+        metrics = new StockConcurrencyMetrics("pessimistic", meterRegistry);
+    }
+
+    @Override
+    public <T> T run(Long storeId, Long productId, Supplier<T> change) {
+        metrics.change();
+        try {
+            return change.get();
+        } catch (PessimisticLockingFailureException e) {
+            // Lock wait timeout, or picked as a deadlock victim
+            metrics.lockTimeout();
+            throw new StockContentionException(storeId, productId,
+                    "no row lock within " + lockTimeoutMillis + " ms");
+        }
+    }
+
+    @Override
+    public int increment(Long storeId, Long productId, int quantity) {
+        Integer current = lock(storeId, productId);
+        if (current == null) {
+            // No row to lock yet; two first stock-ins race on the insert instead, which StockService retries
+            return stockRepository.incrementOrInsertReturning(storeId, productId, quantity);
+        }
+        stockRepository.setQuantity(storeId, productId, current + quantity);
+        return current + quantity;
+    }
+
+    @Override
+    public int decrement(Long storeId, Long productId, int quantity) {
+        Integer current = lock(storeId, productId);
+        if (current == null) {
+            throw new ProductNotFoundException(productId, storeId);
+        }
+        if (current < quantity) {
+            throw new InsufficientStockException(productId, quantity, current);
+        }
+        stockRepository.setQuantity(storeId, productId, current - quantity);
+        return current - quantity;
+    }
+
+    @Override
+    public StockConcurrencyStats stats() {
+        return metrics.stats();
+    }
+
+    // --- Helper Methods ---
+
+    // The quantity, read under the row lock; null when there is no row
+    private Integer lock(Long storeId, Long productId) {
+        long start = System.nanoTime();
+        Integer quantity = stockRepository.lockQuantities(storeId, List.of(productId), lockTimeoutMillis).get(productId);
+        metrics.lockWait(System.nanoTime() - start);
+        return quantity;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductCacheStats;
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/*
+Read-through cache in front of the product catalog, used by ProductService. Picked with
+inventory.product-cache.type: "memory" (InMemoryProductCache, the default) or "none"
+(NoProductCache, every call goes to the database), so both can be benchmarked.
+ */
+public interface ProductCache {
+
+    Optional<Product> getProduct(Long productId, Supplier<Optional<Product>> loader);
+
+    List<Product> getAll(Supplier<List<Product>> loader);
+
+    List<Product> search(ProductSearchQuery query, Supplier<List<Product>> loader);
+
+    // Called after a product change is committed; before is null on create, after is null on delete
+    void invalidate(Product before, Product after);
+
+    // Called after bulk changes (imports), where checking every entry against every product costs more
+    void invalidateAll();
+
+    ProductCacheStats stats();
+}
@@ -0,0 +1,324 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.dto.ProductImportError;
+import com.bazaar.inventory_system.dto.ProductImportResult;
+import com.bazaar.inventory_system.exception.InvalidProductRequestException;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/*
+Bulk catalog import behind POST /stores/{storeId}/products/import, for vendor onboarding.
+The upload is read as a stream, one row at a time (CSV with a header row, or NDJSON with one
+Product object per line), and cut into chunks of chunk-size rows. Worker threads validate a chunk
+with the same Bean Validation constraints as createProduct and insert its valid rows as one JDBC
+batch in their own transaction. At most two chunks per thread are in memory; the reader waits
+for a free slot, so memory does not depend on the size of the file.
+
+A bad row (unparseable, invalid, or refused by the database) is reported by line and skipped,
+and the rest of the file is still imported. When a batch fails in the database its rows are
+retried one by one to find the culprit. Each committed chunk goes into ProductSearchIndex and
+clears ProductCache. The import is not atomic: chunks committed before a failure stay.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    private static final Set<String> IGNORED_CSV_COLUMNS = Set.of("productid", "product_id");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Value("${inventory.product-import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${inventory.product-import.threads:4}")
+    private int threads;
+
+    @Value("${inventory.product-import.max-errors:1000}")
+    private int maxErrors;
+
+    public ProductImportResult importProducts(InputStream input, Format format, Charset charset) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset), 1 << 16);
+        Import job = new Import();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, asyncThreads.threadFactory("product-import"));
+        try {
+            if (format == Format.CSV) {
+                readCsv(reader, job, workers);
+            } else {
+                readNdjson(reader, job, workers);
+            }
+            job.submit(workers);
+        } finally {
+            // Chunks already handed over are finished either way
+            workers.shutdown();
+            try {
+                workers.awaitTermination(1, TimeUnit.HOURS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ProductImportResult result = job.result();
+        log.info("Product import: {} rows, {} imported, {} rejected in {} ms ({} rows/s)", result.getRows(),
+                result.getImported(), result.getRejected(), result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    // --- Helper Methods ---
+
+    private void readCsv(BufferedReader reader, Import job, ExecutorService workers) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        int name = -1, category = -1, price = -1, description = -1;
+        for (int i = 0; i < header.size(); i++) {
+            // Spreadsheet exports may start with a UTF-8 byte order mark
+            String column = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            switch (column) {
+                case "name" -> name = i;
+                case "category" -> category = i;
+                case "price" -> price = i;
+                case "description" -> description = i;
+                default -> {
+                    if (!IGNORED_CSV_COLUMNS.contains(column)) {
+                        throw new InvalidProductRequestException("Unknown CSV column: " + header.get(i));
+                    }
+                }
+            }
+        }
+        if (name < 0) {
+            throw new InvalidProductRequestException("CSV header must have a name column");
+        }
+
+        while (true) {
+            List<String> fields;
+            try {
+                fields = csv.next();
+            } catch (CsvRecordReader.MalformedRecordException e) {
+                job.rejectRead(e.line, e.getMessage());
+                continue;
+            }
+            if (fields == null) {
+                return;
+            }
+            long line = csv.recordLine();
+            if (fields.size() != header.size()) {
+                job.rejectRead(line, "Expected " + header.size() + " fields, found " + fields.size());
+                continue;
+            }
+            Product product = new Product(null, fields.get(name), field(fields, category), null,
+                    field(fields, description));
+            String priceText = field(fields, price);
+            if (priceText != null) {
+                try {
+                    product.setPrice(new BigDecimal(priceText.trim()));
+                } catch (NumberFormatException e) {
+                    job.rejectRead(line, "Invalid price: " + priceText);
+                    continue;
+                }
+            }
+            job.add(line, product, workers);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Import job, ExecutorService workers) throws IOException {
+        ObjectReader productReader = objectMapper.readerFor(Product.class);
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                Product product = productReader.readValue(text);
+                product.setProductId(null); // ids are always generated
+                job.add(line, product, workers);
+            } catch (JsonProcessingException e) {
+                job.rejectRead(line, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // Empty CSV fields are null, as they would be when left out of the JSON
+    private static String field(List<String> fields, int index) {
+        if (index < 0) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    // Runs on a worker thread
+    private void importChunk(Import job, List<Row> chunk) {
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            Set<ConstraintViolation<Product>> violations = validator.validate(row.product());
+            if (violations.isEmpty()) {
+                valid.add(row);
+            } else {
+                job.reject(row.line(), violations.stream().map(ConstraintViolation::getMessage).sorted()
+                        .collect(Collectors.joining("; ")));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        List<Product> inserted = insert(job, valid);
+        job.imported.addAndGet(inserted.size());
+        searchIndex.putAll(inserted);
+        productCache.invalidateAll();
+    }
+
+    private List<Product> insert(Import job, List<Row> rows) {
+        List<Product> products = rows.stream().map(Row::product).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> productRepository.batchInsert(products));
+            return products;
+        } catch (DataAccessException e) {
+            // The whole batch rolled back; insert the rows one by one to find the ones the database refuses
+            List<Product> inserted = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                row.product().setProductId(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            productRepository.batchInsert(List.of(row.product())));
+                    inserted.add(row.product());
+                } catch (DataAccessException rowError) {
+                    job.reject(row.line(), "Rejected by the database: "
+                            + firstLine(rowError.getMostSpecificCause().getMessage()));
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "unknown error";
+        }
+        int end = message.indexOf('\n');
+        String first = end < 0 ? message : message.substring(0, end);
+        return first.endsWith("; SQL statement:") ? first.substring(0, first.length() - 16) : first;
+    }
+
+    private record Row(long line, Product product) {
+    }
+
+    // State of one import, shared by the reading thread and the workers
+    private final class Import {
+        final long startedAt = System.nanoTime();
+        final Semaphore slots = new Semaphore(threads * 2);
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong imported = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final List<ProductImportError> errors = new ArrayList<>(); // guarded by itself
+        List<Row> chunk = new ArrayList<>(chunkSize);               // reading thread only
+
+        void add(long line, Product product, ExecutorService workers) {
+            rows.incrementAndGet();
+            chunk.add(new Row(line, product));
+            if (chunk.size() == chunkSize) {
+                submit(workers);
+            }
+        }
+
+        // A row the reader could not turn into a Product
+        void rejectRead(long line, String message) {
+            rows.incrementAndGet();
+            reject(line, message);
+        }
+
+        void reject(long line, String message) {
+            rejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ProductImportError(line, message));
+                }
+            }
+        }
+
+        void submit(ExecutorService workers) {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<Row> full = chunk;
+            chunk = new ArrayList<>(chunkSize);
+            slots.acquireUninterruptibly(); // back-pressure: the reader waits for a worker
+            workers.execute(() -> {
+                try {
+                    importChunk(this, full);
+                } catch (RuntimeException e) {
+                    log.error("Product import chunk failed", e);
+                    for (Row row : full) {
+                        reject(row.line(), "Import failed: " + firstLine(e.getMessage()));
+                    }
+                } finally {
+                    slots.release();
+                }
+            });
+        }
+
+        ProductImportResult result() {
+            List<ProductImportError> sorted;
+            synchronized (errors) {
+                sorted = new ArrayList<>(errors);
+            }
+            sorted.sort(Comparator.comparingLong(ProductImportError::getLine));
+            return new ProductImportResult(rows.get(), imported.get(), rejected.get(),
+                    (System.nanoTime() - startedAt) / 1_000_000, sorted, rejected.get() > sorted.size());
+        }
+    }
+}
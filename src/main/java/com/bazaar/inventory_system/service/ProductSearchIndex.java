@@ -0,0 +1,339 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+In-process inverted index behind /products/search, replacing LOWER(name) LIKE '%x%' scans.
+
+Every product gets a dense ordinal; each trigram of its lower-cased name points to a sorted
+int[] of ordinals. Word starts are indexed too, as trigrams padded with a marker
+(\1\1a and \1ab for a word starting "ab..."), so one- and two-letter prefix queries are
+lookups as well. A query intersects the postings of its grams, smallest first, then checks
+each candidate against the real rule (ProductSearchQuery.matchesName), because trigrams only
+narrow the set. Categories are indexed for exact match the same way.
+
+Substring queries shorter than three characters have no trigram and fall back to a scan of
+the in-memory names. Kept current by ProductService; rebuild() reloads from the database
+after changes made around it.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+    private static final char WORD_START = '\u0001';
+
+    // Best first: exact name, then name prefix, then word prefix, then anywhere; shorter names win ties
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparingInt(Match::length)
+            .thenComparingLong(Match::productId);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] productIds = new long[0];
+    private String[] names = new String[0]; // lower-cased
+    private String[] categories = new String[0];
+    private final BitSet deleted = new BitSet();
+    private int ordinalCount;
+
+    private final Map<Long, Postings> grams = new HashMap<>();
+    private final Map<String, Postings> categoryPostings = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            grams.clear();
+            categoryPostings.clear();
+            deleted.clear();
+            ordinalCount = 0;
+            productRepository.forEachSearchable(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built: {} products, {} grams in {} ms",
+                ordinals.size(), grams.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Adds or re-indexes a product after its change is committed
+    public void put(Product product) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(product.getProductId());
+            if (ordinal == null) {
+                add(product.getProductId(), product.getName(), product.getCategory());
+            } else {
+                unindex(ordinal);
+                index(ordinal, product.getName(), product.getCategory());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Bulk version of put for imports: one write lock for the whole list
+    public void putAll(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                Integer ordinal = ordinals.get(product.getProductId());
+                if (ordinal == null) {
+                    add(product.getProductId(), product.getName(), product.getCategory());
+                } else {
+                    unindex(ordinal);
+                    index(ordinal, product.getName(), product.getCategory());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(productId);
+            if (ordinal != null) {
+                unindex(ordinal);
+                deleted.set(ordinal); // ordinals are not reused until the next rebuild
+                names[ordinal] = null;
+                categories[ordinal] = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Ids of the best query.getLimit() matches, best first
+    public List<Long> search(ProductSearchQuery query) {
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            if (query.getCategory() != null) {
+                Postings postings = categoryPostings.get(query.getCategory());
+                if (postings == null) {
+                    return List.of();
+                }
+                lists.add(postings);
+            }
+            if (query.getName() != null) {
+                for (long gram : queryGrams(query.getName(), query.getMode())) {
+                    Postings postings = grams.get(gram);
+                    if (postings == null) {
+                        return List.of();
+                    }
+                    lists.add(postings);
+                }
+            }
+
+            PriorityQueue<Match> best = new PriorityQueue<>(query.getLimit() + 1, RANKING.reversed());
+            if (lists.isEmpty()) {
+                for (int ordinal = 0; ordinal < ordinalCount; ordinal++) {
+                    consider(query, ordinal, best);
+                }
+            } else {
+                lists.sort(Comparator.comparingInt(p -> p.size));
+                Postings smallest = lists.get(0);
+                candidates:
+                for (int i = 0; i < smallest.size; i++) {
+                    int ordinal = smallest.ordinals[i];
+                    for (int l = 1; l < lists.size(); l++) {
+                        if (!lists.get(l).contains(ordinal)) {
+                            continue candidates;
+                        }
+                    }
+                    consider(query, ordinal, best);
+                }
+            }
+
+            List<Long> result = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                result.add(best.poll().productId());
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private void consider(ProductSearchQuery query, int ordinal, PriorityQueue<Match> best) {
+        if (deleted.get(ordinal)) {
+            return;
+        }
+        String name = names[ordinal];
+        String part = query.getName();
+        if (part != null && !query.matchesName(name)) {
+            return;
+        }
+        best.add(part == null
+                ? new Match(0, 0, productIds[ordinal])
+                : new Match(score(name, part), name.length(), productIds[ordinal]));
+        if (best.size() > query.getLimit()) {
+            best.poll();
+        }
+    }
+
+    private static int score(String name, String part) {
+        if (name.equals(part)) {
+            return 3;
+        }
+        if (name.startsWith(part)) {
+            return 2;
+        }
+        return ProductSearchQuery.wordStartIndex(name, part) >= 0 ? 1 : 0;
+    }
+
+    private void add(long productId, String name, String category) {
+        if (ordinalCount == productIds.length) {
+            int capacity = Math.max(1024, ordinalCount * 2);
+            productIds = Arrays.copyOf(productIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        int ordinal = ordinalCount++;
+        productIds[ordinal] = productId;
+        ordinals.put(productId, ordinal);
+        index(ordinal, name, category);
+    }
+
+    private void index(int ordinal, String name, String category) {
+        String lowerCaseName = name != null ? name.toLowerCase(Locale.ROOT) : "";
+        names[ordinal] = lowerCaseName;
+        categories[ordinal] = category;
+        for (long gram : documentGrams(lowerCaseName)) {
+            grams.computeIfAbsent(gram, g -> new Postings()).add(ordinal);
+        }
+        if (category != null) {
+            categoryPostings.computeIfAbsent(category, c -> new Postings()).add(ordinal);
+        }
+    }
+
+    private void unindex(int ordinal) {
+        for (long gram : documentGrams(names[ordinal])) {
+            Postings postings = grams.get(gram);
+            if (postings != null && postings.remove(ordinal) == 0) {
+                grams.remove(gram);
+            }
+        }
+        String category = categories[ordinal];
+        if (category != null) {
+            Postings postings = categoryPostings.get(category);
+            if (postings != null && postings.remove(ordinal) == 0) {
+                categoryPostings.remove(category);
+            }
+        }
+    }
+
+    // Every trigram, plus the padded grams of each word start (same word rule as ProductSearchQuery)
+    private static Set<Long> documentGrams(String name) {
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            keys.add(gram(name.charAt(i), name.charAt(i + 1), name.charAt(i + 2)));
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1))) {
+                keys.add(gram(WORD_START, WORD_START, name.charAt(i)));
+                if (i + 1 < name.length()) {
+                    keys.add(gram(WORD_START, name.charAt(i), name.charAt(i + 1)));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static Set<Long> queryGrams(String part, ProductSearchQuery.Mode mode) {
+        Set<Long> keys = new LinkedHashSet<>();
+        if (mode == ProductSearchQuery.Mode.PREFIX && !part.isEmpty()) {
+            keys.add(part.length() == 1
+                    ? gram(WORD_START, WORD_START, part.charAt(0))
+                    : gram(WORD_START, part.charAt(0), part.charAt(1)));
+        }
+        for (int i = 0; i + 3 <= part.length(); i++) {
+            keys.add(gram(part.charAt(i), part.charAt(i + 1), part.charAt(i + 2)));
+        }
+        return keys;
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private record Match(int score, int length, long productId) {
+    }
+
+    // Sorted, duplicate-free ordinals; new products append at the end
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int size;
+
+        void add(int ordinal) {
+            int at = size;
+            if (size > 0 && ordinals[size - 1] >= ordinal) {
+                at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+                if (at >= 0) {
+                    return;
+                }
+                at = -at - 1;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+            ordinals[at] = ordinal;
+            size++;
+        }
+
+        // Returns the remaining size
+        int remove(int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at >= 0) {
+                System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+                size--;
+            }
+            return size;
+        }
+
+        boolean contains(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+        }
+    }
+}
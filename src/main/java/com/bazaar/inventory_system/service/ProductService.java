@@ -0,0 +1,97 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/*
+Product catalog used by ProductController. Reads go through the ProductCache, searches through
+ProductSearchIndex; writes go straight to the repository (each save commits on its own) and
+then update the index and invalidate exactly the cache entries the change can affect.
+ */
+@Service
+public class ProductService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    public List<Product> findAll() {
+        return productCache.getAll(productRepository::findAll);
+    }
+
+    public Optional<Product> findById(Long productId) {
+        return productCache.getProduct(productId, () -> productRepository.findById(productId));
+    }
+
+    // Ranked ids from the index, then one findAllById for the entities
+    public List<Product> search(ProductSearchQuery query) {
+        return productCache.search(query, () -> {
+            List<Long> ids = searchIndex.search(query);
+            Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+            List<Product> ranked = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Product product = byId.get(id);
+                if (product != null) { // deleted since the index was read
+                    ranked.add(product);
+                }
+            }
+            return ranked;
+        });
+    }
+
+    public Product create(Product product) {
+        Product saved = productRepository.save(product);
+        searchIndex.put(saved);
+        productCache.invalidate(null, saved);
+        return saved;
+    }
+
+    public Product update(Long productId, Product productDetails) {
+        // Always the database row, never the cached instance, which other requests may be serializing
+        Product existingProduct = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        Product before = copyOf(existingProduct);
+
+        existingProduct.setName(productDetails.getName());
+        existingProduct.setDescription(productDetails.getDescription());
+        existingProduct.setPrice(productDetails.getPrice());
+        existingProduct.setCategory(productDetails.getCategory());
+
+        Product updated = productRepository.save(existingProduct);
+        searchIndex.put(updated);
+        productCache.invalidate(before, updated);
+        return updated;
+    }
+
+    public void delete(Long productId) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        productRepository.delete(product);
+        searchIndex.remove(productId);
+        productCache.invalidate(product, null);
+    }
+
+    // --- Helper Methods ---
+
+    private Product copyOf(Product product) {
+        return new Product(product.getProductId(), product.getName(), product.getCategory(), product.getPrice(),
+                product.getDescription());
+    }
+}
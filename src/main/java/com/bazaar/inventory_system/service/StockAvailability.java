@@ -0,0 +1,278 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.dto.StockLevel;
+import com.bazaar.inventory_system.model.StockId;
+import com.bazaar.inventory_system.repository.StockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Per-product totals across all stores, for GET /products/{productId}/availability.
+Built from the stock table at startup and then kept up to date by StockService, which reports
+the quantity every committed stock change left its row at. Per product it keeps the quantity
+per store and the total, so the total is a single read and the store list only walks the
+stores that hold the product.
+
+Quantities are set, never added up: each report carries a version drawn from one counter while
+the change still holds its row lock, and a report older than the one already applied for that
+row is dropped. Commits can finish in any order, but since a row's lock is held until commit,
+version order is the row's commit order, and a row only ever moves forward through quantities
+the table really had. The total changes by the difference to the row's previous quantity.
+
+Split rows (HotStockSlots) are written in their slots without the row lock, and ledger changes
+don't touch the table at all, so those can't report a quantity. They only ask for the row to be
+refreshed after commit: a single background thread reads the row back (the table with the stock
+row locked, or the ledger's committed quantity) and sets it under a fresh version.
+
+Listeners (StockThresholds) get each new (store, product) quantity as it is applied, under the
+product's lock, so they see the changes of one product in the same order as the totals do.
+ */
+@Component
+public class StockAvailability {
+
+    private static final Logger log = LoggerFactory.getLogger(StockAvailability.class);
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Autowired(required = false)
+    private StockLedger stockLedger;
+
+    private final ConcurrentHashMap<Long, ProductStock> products = new ConcurrentHashMap<>();
+    private final List<QuantityListener> listeners = new CopyOnWriteArrayList<>();
+    // Version 0 is the startup load; every later report is newer
+    private final AtomicLong versions = new AtomicLong();
+
+    // Rows waiting to be read back; a row is queued at most once until the refresher takes it
+    private final Set<StockId> stale = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<StockId> refreshQueue = new LinkedBlockingQueue<>();
+    private Thread refresher;
+    private volatile boolean running;
+
+    @PostConstruct
+    void load() {
+        products.clear();
+        storeShards.scatter(shard -> {
+            stockRepository.forEachQuantity((storeId, productId, quantity) -> apply(storeId, productId, quantity, 0));
+            return null;
+        });
+        log.info("Stock availability loaded for {} products", products.size());
+        if (refresher == null) {
+            running = true;
+            refresher = asyncThreads.threadFactory("stock-availability-refresh").newThread(this::refreshLoop);
+            refresher.start();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        refresher.interrupt();
+        refresher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // Call while holding the row's lock. Inside a transaction it is applied after commit and dropped on rollback.
+    public void recordQuantity(Long storeId, Long productId, int quantity) {
+        recordQuantities(storeId, Map.of(productId, quantity));
+    }
+
+    // productId -> new quantity, all for one store; same rule as recordQuantity for every row
+    public void recordQuantities(Long storeId, Map<Long, Integer> quantities) {
+        long version = versions.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            quantities.forEach((productId, quantity) -> apply(storeId, productId, quantity, version));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                quantities.forEach((productId, quantity) -> apply(storeId, productId, quantity, version));
+            }
+        });
+    }
+
+    // For rows changed without their lock (split rows, ledger): read back once the transaction has committed
+    public void refreshAfterCommit(Long storeId, Collection<Long> productIds) {
+        List<StockId> rows = productIds.stream().distinct().map(productId -> new StockId(storeId, productId)).toList();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rows.forEach(this::markStale);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // After every afterCommit, so the ledger has already moved its committed quantities
+                if (status == STATUS_COMMITTED) {
+                    rows.forEach(StockAvailability.this::markStale);
+                }
+            }
+        });
+    }
+
+    public long totalQuantity(Long productId) {
+        ProductStock stock = products.get(productId);
+        return stock == null ? 0 : stock.total;
+    }
+
+    // Stores currently holding the product, by storeId
+    public List<StockLevel> storesWithStock(Long productId) {
+        ProductStock stock = products.get(productId);
+        return stock == null ? List.of() : stock.levels(productId);
+    }
+
+    public int quantity(Long storeId, Long productId) {
+        ProductStock stock = products.get(productId);
+        return stock == null ? 0 : stock.quantity(storeId);
+    }
+
+    // Runs action with the current quantity, under the same lock the listeners are called under
+    public void inspect(Long storeId, Long productId, QuantityListener action) {
+        products.computeIfAbsent(productId, id -> new ProductStock()).inspect(storeId, productId, action);
+    }
+
+    public void addListener(QuantityListener listener) {
+        listeners.add(listener);
+    }
+
+    public int getProductCount() {
+        return products.size();
+    }
+
+    // --- Helper Methods ---
+
+    private void apply(long storeId, long productId, int quantity, long version) {
+        products.computeIfAbsent(productId, id -> new ProductStock()).set(storeId, productId, quantity, version);
+    }
+
+    private void markStale(StockId stockId) {
+        if (stale.add(stockId)) {
+            refreshQueue.add(stockId);
+        }
+    }
+
+    private void refreshLoop() {
+        while (running) {
+            StockId stockId;
+            try {
+                stockId = refreshQueue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            stale.remove(stockId); // before reading, so a commit from here on queues the row again
+            try {
+                refresh(stockId);
+            } catch (RuntimeException e) {
+                log.warn("Stock availability refresh of store {} product {} failed, retrying",
+                        stockId.getStoreId(), stockId.getProductId(), e);
+                markStale(stockId);
+            }
+        }
+    }
+
+    // One thread reads every row back, so versions drawn here follow the order of the reads
+    private void refresh(StockId stockId) {
+        Long storeId = stockId.getStoreId();
+        Long productId = stockId.getProductId();
+        if (stockLedger != null) {
+            OptionalInt quantity = stockLedger.committedQuantity(storeId, productId);
+            if (quantity.isPresent()) {
+                apply(storeId, productId, quantity.getAsInt(), versions.incrementAndGet());
+            }
+            return;
+        }
+        storeShards.write(storeId, () -> transactionTemplate.execute(status -> {
+            // The stock row lock waits out a split row's drain or collapse and orders this read
+            // after any change that reported under that lock
+            if (stockRepository.lockQuantities(storeId, List.of(productId)).isEmpty()) {
+                return null;
+            }
+            long version = versions.incrementAndGet();
+            Optional<Integer> quantity = stockRepository.findQuantity(storeId, productId);
+            quantity.ifPresent(q -> apply(storeId, productId, q, version));
+            return null;
+        }));
+    }
+
+    @FunctionalInterface
+    public interface QuantityListener {
+        void quantityChanged(long storeId, long productId, int quantity);
+    }
+
+    private record Level(int quantity, long version) {
+    }
+
+    private final class ProductStock {
+        volatile long total;
+        // Guarded by this; rows at zero stay, so their version still turns away older reports
+        private final Map<Long, Level> byStore = new HashMap<>(4);
+
+        synchronized void set(long storeId, long productId, int quantity, long version) {
+            Level previous = byStore.get(storeId);
+            if (previous != null && previous.version() >= version) {
+                return; // an older report, committed after a newer one
+            }
+            byStore.put(storeId, new Level(quantity, version));
+            int change = quantity - (previous == null ? 0 : previous.quantity());
+            if (change == 0) {
+                return;
+            }
+            total += change;
+            for (QuantityListener listener : listeners) {
+                listener.quantityChanged(storeId, productId, quantity);
+            }
+        }
+
+        synchronized int quantity(Long storeId) {
+            Level level = byStore.get(storeId);
+            return level == null ? 0 : level.quantity();
+        }
+
+        synchronized void inspect(long storeId, long productId, QuantityListener action) {
+            action.quantityChanged(storeId, productId, quantity(storeId));
+        }
+
+        synchronized List<StockLevel> levels(Long productId) {
+            List<StockLevel> levels = new ArrayList<>(byStore.size());
+            byStore.forEach((storeId, level) -> {
+                if (level.quantity() > 0) {
+                    levels.add(new StockLevel(storeId, productId, level.quantity()));
+                }
+            });
+            levels.sort((a, b) -> Long.compare(a.getStoreId(), b.getStoreId()));
+            return levels;
+        }
+    }
+}
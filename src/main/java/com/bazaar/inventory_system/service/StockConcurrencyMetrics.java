@@ -0,0 +1,82 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockConcurrencyStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+Counters shared by the StockUpdateStrategy implementations, kept here for stats() and exported as
+  inventory.stock.concurrency.changes / conflicts / retries / failures{reason}
+  inventory.stock.concurrency.lock.wait   timer of the pessimistic SELECT ... FOR UPDATE
+all tagged with the strategy. Only the pessimistic strategy records lock waits: the guarded and
+optimistic ones wait inside a single UPDATE, where the wait can't be told apart from the write.
+ */
+class StockConcurrencyMetrics {
+
+    private final String strategy;
+    private final LongAdder changes = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesExhausted = new LongAdder();
+    private final LongAdder lockTimeouts = new LongAdder();
+    private final LongAdder lockWaits = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final AtomicLong maxLockWaitNanos = new AtomicLong();
+    private final Timer lockWait;
+
+    StockConcurrencyMetrics(String strategy, MeterRegistry meterRegistry) {
+        this.strategy = strategy;
+        FunctionCounter.builder("inventory.stock.concurrency.changes", changes, LongAdder::sum)
+                .description("Single-row stock changes").tag("strategy", strategy).register(meterRegistry);
+        FunctionCounter.builder("inventory.stock.concurrency.conflicts", conflicts, LongAdder::sum)
+                .description("Optimistic attempts that lost to a concurrent change")
+                .tag("strategy", strategy).register(meterRegistry);
+        FunctionCounter.builder("inventory.stock.concurrency.retries", retries, LongAdder::sum)
+                .tag("strategy", strategy).register(meterRegistry);
+        FunctionCounter.builder("inventory.stock.concurrency.failures", retriesExhausted, LongAdder::sum)
+                .tag("strategy", strategy).tag("reason", "retries-exhausted").register(meterRegistry);
+        FunctionCounter.builder("inventory.stock.concurrency.failures", lockTimeouts, LongAdder::sum)
+                .tag("strategy", strategy).tag("reason", "lock-timeout").register(meterRegistry);
+        lockWait = Timer.builder("inventory.stock.concurrency.lock.wait")
+                .description("Time to get the stock row lock with SELECT ... FOR UPDATE (pessimistic only)")
+                .tag("strategy", strategy).register(meterRegistry);
+    }
+
+    void change() {
+        changes.increment();
+    }
+
+    void conflict() {
+        conflicts.increment();
+    }
+
+    void retry() {
+        retries.increment();
+    }
+
+    void retriesExhausted() {
+        retriesExhausted.increment();
+    }
+
+    void lockTimeout() {
+        lockTimeouts.increment();
+    }
+
+    void lockWait(long nanos) {
+        lockWaits.increment();
+        lockWaitNanos.add(nanos);
+        maxLockWaitNanos.accumulateAndGet(nanos, Math::max);
+        lockWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    StockConcurrencyStats stats() {
+        return new StockConcurrencyStats(strategy, changes.sum(), conflicts.sum(), retries.sum(),
+                retriesExhausted.sum(), lockTimeouts.sum(), lockWaits.sum(), lockWaitNanos.sum(),
+                maxLockWaitNanos.get());
+    }
+}
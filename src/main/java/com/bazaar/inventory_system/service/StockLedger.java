@@ -0,0 +1,305 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.exception.StockLedgerUnavailableException;
+import com.bazaar.inventory_system.model.StockId;
+import com.bazaar.inventory_system.repository.StockRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+Ledger mode (inventory.ledger.enabled=true): the authoritative quantity of every stock row
+lives in memory, one AtomicInteger per (storeId, productId), and is changed with CAS loops
+instead of a database round trip. Changed rows are marked dirty and written back to the
+stock table in batches every flush interval, so several sales of the same row between two
+flushes cost a single UPDATE.
+
+Decrements are made inside the caller's transaction and undone in memory when it rolls back, so a
+change whose movement never commits (or that StockService retries) is not applied twice.
+Increments only become visible when their transaction commits: until then they are kept per
+transaction, where only that transaction's own later decrements (a batch) can draw on them, so
+no other request can sell units that a rollback would take back. Next to the live quantity each
+row keeps its committed quantity, moved only when a change commits, for StockAvailability.
+
+Staleness is bounded: once the database has not been flushed for longer than
+inventory.ledger.max-staleness-ms, changes are refused until a flush gets through.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "true")
+@DependsOn("hotStockSlots") // collapses leftover split rows before load() reads the quantities
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+    private static final int FLUSH_CHUNK = 500;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Value("${inventory.ledger.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${inventory.ledger.max-staleness-ms:5000}")
+    private long maxStalenessMillis;
+
+    private final ConcurrentHashMap<StockId, AtomicInteger> quantities = new ConcurrentHashMap<>();
+    // The same rows without the changes of transactions still open
+    private final ConcurrentHashMap<StockId, AtomicInteger> committed = new ConcurrentHashMap<>();
+    private final Set<StockId> dirty = ConcurrentHashMap.newKeySet();
+    // Not synchronized: flush does JDBC, and a virtual thread blocked in a monitor pins its carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService flusher;
+
+    // Start time of the last flush that succeeded: every change made before it is in the database
+    private volatile long lastFlushStartedAt = System.currentTimeMillis();
+
+    @PostConstruct
+    void load() {
+        storeShards.scatter(shard -> {
+            stockRepository.forEachQuantity((storeId, productId, quantity) -> {
+                StockId stockId = new StockId(storeId, productId);
+                quantities.put(stockId, new AtomicInteger(quantity));
+                committed.put(stockId, new AtomicInteger(quantity));
+            });
+            return null;
+        });
+        lastFlushStartedAt = System.currentTimeMillis();
+        flusher = Executors.newSingleThreadScheduledExecutor(asyncThreads.threadFactory("stock-ledger-flush"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        log.info("Stock ledger loaded {} rows, flushing every {} ms", quantities.size(), flushIntervalMillis);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush(); // final write-behind before the DataSource goes away
+        log.info("Stock ledger flushed on shutdown");
+    }
+
+    public OptionalInt quantity(Long storeId, Long productId) {
+        AtomicInteger quantity = quantities.get(new StockId(storeId, productId));
+        return quantity == null ? OptionalInt.empty() : OptionalInt.of(quantity.get());
+    }
+
+    // The quantity as of the last commit, without the decrements of transactions still open
+    public OptionalInt committedQuantity(Long storeId, Long productId) {
+        AtomicInteger quantity = committed.get(new StockId(storeId, productId));
+        return quantity == null ? OptionalInt.empty() : OptionalInt.of(quantity.get());
+    }
+
+    // Returns the new quantity as this transaction sees it; undone if the transaction rolls back.
+    // Units this transaction stocked in itself are used first.
+    public int decrement(Long storeId, Long productId, int amount) {
+        checkStaleness();
+        StockId stockId = new StockId(storeId, productId);
+        AtomicInteger quantity = quantities.get(stockId);
+        Map<StockId, Integer> pending = pendingIncrements(false);
+        int own = pending == null ? 0 : pending.getOrDefault(stockId, 0);
+        if (quantity == null && (pending == null || !pending.containsKey(stockId))) {
+            throw new ProductNotFoundException(productId, storeId);
+        }
+        int fromOwn = Math.min(own, amount);
+        int fromShared = amount - fromOwn;
+        int current = quantity == null ? 0 : quantity.get();
+        if (fromShared > 0) {
+            if (quantity == null) {
+                throw new InsufficientStockException(productId, amount, own);
+            }
+            do {
+                current = quantity.get();
+                if (current < fromShared) {
+                    throw new InsufficientStockException(productId, amount, current + own);
+                }
+            } while (!quantity.compareAndSet(current, current - fromShared));
+            dirty.add(stockId);
+            settle(stockId, fromShared);
+        }
+        if (fromOwn > 0) {
+            pending.put(stockId, own - fromOwn);
+        }
+        return current - fromShared + own - fromOwn;
+    }
+
+    // Returns the new quantity as this transaction sees it; applied when the transaction commits
+    public int increment(Long storeId, Long productId, int amount) {
+        checkStaleness();
+        StockId stockId = new StockId(storeId, productId);
+        AtomicInteger quantity = quantities.get(stockId);
+        Map<StockId, Integer> pending = pendingIncrements(true);
+        if (quantity == null && (pending == null || !pending.containsKey(stockId))) {
+            // First stock-in for this row: create it in the caller's transaction so bad store/product
+            // ids fail here, on the request, and not later in a background flush. The entry in memory
+            // is only created on commit, so a rollback leaves neither.
+            stockRepository.incrementOrInsert(storeId, productId, 0);
+        }
+        if (pending == null) { // no transaction: nothing can roll it back
+            int updated = quantities.computeIfAbsent(stockId, id -> new AtomicInteger()).addAndGet(amount);
+            committed.computeIfAbsent(stockId, id -> new AtomicInteger()).addAndGet(amount);
+            dirty.add(stockId);
+            return updated;
+        }
+        int own = pending.merge(stockId, amount, Integer::sum);
+        return (quantity == null ? 0 : quantity.get()) + own;
+    }
+
+    // Writes every dirty row's current quantity. A row changed mid-flush is re-marked and goes next time.
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (dirty.isEmpty()) {
+                lastFlushStartedAt = System.currentTimeMillis();
+                return;
+            }
+            long startedAt = System.currentTimeMillis();
+            List<StockId> pending = new ArrayList<>(dirty);
+            try {
+                storeShards.groupByShard(pending, StockId::getStoreId).forEach((shard, rows) ->
+                        storeShards.onShard(shard, () -> {
+                            flushRows(rows);
+                            return null;
+                        }));
+                lastFlushStartedAt = startedAt;
+            } catch (RuntimeException e) {
+                dirty.addAll(pending);
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public int getDirtyCount() {
+        return dirty.size();
+    }
+
+    public int getSize() {
+        return quantities.size();
+    }
+
+    // How far the stock table may be behind memory right now
+    public long getStalenessMillis() {
+        return dirty.isEmpty() ? 0 : System.currentTimeMillis() - lastFlushStartedAt;
+    }
+
+    // --- Helper Methods ---
+
+    // Takes a decrement off the committed quantity on commit, or gives its units back on rollback
+    // (only ever adding, so it can't take a row below zero)
+    private void settle(StockId stockId, int units) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.computeIfAbsent(stockId, id -> new AtomicInteger()).addAndGet(-units);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed.computeIfAbsent(stockId, id -> new AtomicInteger()).addAndGet(-units);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    quantities.get(stockId).addAndGet(units);
+                    dirty.add(stockId);
+                }
+            }
+        });
+    }
+
+    /*
+    The current transaction's stock-ins, by row, not yet visible to anyone else; null outside a
+    transaction (or when create is false and it has none). Applied to the shared quantities after
+    commit and dropped on rollback.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<StockId, Integer> pendingIncrements(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<StockId, Integer> pending = (Map<StockId, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null || !create) {
+            return pending;
+        }
+        Map<StockId, Integer> created = new HashMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                created.forEach((stockId, units) -> {
+                    quantities.computeIfAbsent(stockId, id -> new AtomicInteger()).addAndGet(units);
+                    committed.computeIfAbsent(stockId, id -> new AtomicInteger()).addAndGet(units);
+                    dirty.add(stockId);
+                });
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StockLedger.this);
+            }
+        });
+        return created;
+    }
+
+    private void flushRows(List<StockId> rows) {
+        for (int from = 0; from < rows.size(); from += FLUSH_CHUNK) {
+            List<StockId> chunk = rows.subList(from, Math.min(from + FLUSH_CHUNK, rows.size()));
+            List<Integer> values = new ArrayList<>(chunk.size());
+            for (StockId stockId : chunk) {
+                dirty.remove(stockId); // remove before reading, so a concurrent change re-marks it
+                values.add(quantities.get(stockId).get());
+            }
+            transactionTemplate.executeWithoutResult(status -> stockRepository.batchSetQuantity(chunk, values));
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Stock ledger flush failed, {} rows still pending", dirty.size(), e);
+        }
+    }
+
+    private void checkStaleness() {
+        long staleness = getStalenessMillis();
+        if (staleness > maxStalenessMillis) {
+            throw new StockLedgerUnavailableException(staleness, maxStalenessMillis);
+        }
+    }
+}
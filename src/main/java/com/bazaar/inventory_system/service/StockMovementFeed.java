@@ -0,0 +1,377 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.exception.MovementFeedFullException;
+import com.bazaar.inventory_system.model.StockMovement;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+In-process fan-out of new stock movements to Server-Sent Events subscribers, one feed per store.
+Movements are published after their transaction commits (same places that feed the rollups), get
+the next sequence number of their store's feed and are offered to every subscriber of that store.
+
+Publishing never blocks on a subscriber: each one has a bounded queue, drained by a small pool of
+sender threads, and an idle subscriber holds no thread at all (the request thread is released as
+soon as the emitter is returned). A subscriber whose queue is full is a slow consumer:
+ - disconnect (default): its connection is closed; the client reconnects with Last-Event-ID and
+   is replayed what it missed, as far as the store's replay buffer goes back;
+ - drop-oldest: the oldest queued events are dropped, visible to the client as a gap in the ids.
+
+Event ids are "<epoch>-<seq>", epoch being this process's start. A Last-Event-ID from another
+process or older than the replay buffer gets a "reset" event: reload the history, then follow
+the feed. Comments are sent every heartbeat-ms so proxies keep idle connections open and dead
+clients are noticed.
+ */
+@Component
+public class StockMovementFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(StockMovementFeed.class);
+
+    public enum OverflowPolicy { DISCONNECT, DROP_OLDEST }
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Value("${inventory.movement-feed.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${inventory.movement-feed.replay-size:100}")
+    private int replaySize;
+
+    @Value("${inventory.movement-feed.max-subscribers:10000}")
+    private int maxSubscribers;
+
+    @Value("${inventory.movement-feed.overflow:disconnect}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${inventory.movement-feed.heartbeat-ms:15000}")
+    private long heartbeatMillis;
+
+    @Value("${inventory.movement-feed.sender-threads:4}")
+    private int senderThreads;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ConcurrentHashMap<Long, StoreFeed> feeds = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private ExecutorService senders;
+    private ScheduledExecutorService heartbeats;
+
+    // Stats
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong slowDisconnects = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        senders = Executors.newFixedThreadPool(senderThreads, asyncThreads.threadFactory("movement-feed"));
+        heartbeats = Executors.newSingleThreadScheduledExecutor(asyncThreads.threadFactory("movement-feed-heartbeat"));
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        for (StoreFeed feed : feeds.values()) {
+            feed.subscribers.forEach(Subscriber::close);
+        }
+        senders.shutdown();
+    }
+
+    // Inside a transaction the movements go out after commit and are dropped on rollback
+    public void publish(Collection<StockMovement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        List<StockMovement> committed = List.copyOf(movements);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    fanOut(committed);
+                }
+            });
+        } else {
+            fanOut(committed);
+        }
+    }
+
+    // lastEventId: the Last-Event-ID header of a reconnecting client, or null
+    public SseEmitter subscribe(Long storeId, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new MovementFeedFullException(maxSubscribers);
+        }
+        SseEmitter emitter = new SseEmitter();
+        StoreFeed feed = feeds.computeIfAbsent(storeId, StoreFeed::new);
+        Subscriber subscriber = new Subscriber(feed, emitter);
+        emitter.onCompletion(subscriber::detach);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        feed.subscribe(subscriber, lastEventId);
+        subscriber.heartbeat(); // commits the response headers right away when there is nothing to replay
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public int getFeedCount() {
+        return feeds.size();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getSlowDisconnectCount() {
+        return slowDisconnects.get();
+    }
+
+    public long getResetCount() {
+        return resets.get();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    // --- Helper Methods ---
+
+    private void fanOut(List<StockMovement> movements) {
+        for (StockMovement movement : movements) {
+            feeds.computeIfAbsent(movement.getStoreId(), StoreFeed::new).publish(movement);
+        }
+        published.addAndGet(movements.size());
+    }
+
+    private void heartbeat() {
+        for (StoreFeed feed : feeds.values()) {
+            feed.subscribers.forEach(Subscriber::heartbeat);
+        }
+    }
+
+    private record Event(long seq, String id, String name, Object data) {
+    }
+
+    private final class StoreFeed {
+        final Long storeId;
+        final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final ArrayDeque<Event> recent = new ArrayDeque<>(); // guarded by this, last replaySize events
+        private long lastSeq; // guarded by this
+
+        StoreFeed(Long storeId) {
+            this.storeId = storeId;
+        }
+
+        synchronized void publish(StockMovement movement) {
+            lastSeq++;
+            Event event = new Event(lastSeq, epoch + "-" + lastSeq, "movement", movement);
+            recent.addLast(event);
+            if (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        }
+
+        // Under the same lock as publish, so nothing falls between the replay and the live events
+        synchronized void subscribe(Subscriber subscriber, String lastEventId) {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                long after = resumePoint(lastEventId.trim());
+                if (after < 0) {
+                    resets.incrementAndGet();
+                    subscriber.replay(new Event(0, null, "reset", Map.of("storeId", storeId,
+                            "reason", "Last-Event-ID " + lastEventId + " can't be resumed, reload the history")));
+                } else {
+                    for (Event event : recent) {
+                        if (event.seq() > after) {
+                            subscriber.replay(event);
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        // Sequence number to replay after, or -1 when the gap can't be filled
+        private long resumePoint(String lastEventId) {
+            int dash = lastEventId.lastIndexOf('-');
+            if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+                return -1;
+            }
+            long seq;
+            try {
+                seq = Long.parseLong(lastEventId.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+            long oldest = recent.isEmpty() ? lastSeq + 1 : recent.peekFirst().seq();
+            return seq > lastSeq || seq < oldest - 1 ? -1 : seq;
+        }
+    }
+
+    private final class Subscriber {
+        final StoreFeed feed;
+        final SseEmitter emitter;
+        private final ArrayDeque<Event> queue = new ArrayDeque<>(); // guarded by this
+        private boolean scheduled; // guarded by this: a drain is queued or running
+        private boolean heartbeatDue; // guarded by this
+        private boolean closed; // guarded by this
+        private boolean detached; // guarded by this
+
+        Subscriber(StoreFeed feed, SseEmitter emitter) {
+            this.feed = feed;
+            this.emitter = emitter;
+        }
+
+        // Called under the feed's lock, must not block
+        synchronized void offer(Event event) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= bufferSize) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    slowDisconnects.incrementAndGet();
+                    dropped.addAndGet(queue.size() + 1);
+                    queue.clear();
+                    closed = true; // completed by the sender, which may be inside a send right now
+                    schedule();
+                    return;
+                }
+                queue.removeFirst();
+                dropped.incrementAndGet();
+            }
+            queue.addLast(event);
+            schedule();
+        }
+
+        // Replayed events are not bounded by the buffer: there are at most replay-size of them
+        synchronized void replay(Event event) {
+            queue.addLast(event);
+            schedule();
+        }
+
+        synchronized void heartbeat() {
+            if (!closed && queue.isEmpty()) {
+                heartbeatDue = true;
+                schedule();
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            queue.clear();
+            schedule();
+        }
+
+        // Emitter finished (completed, timed out or failed): stop offering to it
+        void detach() {
+            synchronized (this) {
+                if (detached) {
+                    return;
+                }
+                detached = true;
+                closed = true;
+                queue.clear();
+            }
+            feed.subscribers.remove(this);
+            subscriberCount.decrementAndGet();
+        }
+
+        private void schedule() {
+            if (!scheduled) {
+                scheduled = true;
+                senders.execute(this::drain);
+            }
+        }
+
+        // One drain at a time per subscriber, so events go out in order
+        private void drain() {
+            while (true) {
+                List<Event> batch;
+                boolean sendHeartbeat;
+                boolean complete;
+                synchronized (this) {
+                    if (queue.isEmpty() && !heartbeatDue && !closed) {
+                        scheduled = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(queue);
+                    queue.clear();
+                    sendHeartbeat = heartbeatDue;
+                    heartbeatDue = false;
+                    complete = closed;
+                }
+                if (complete) {
+                    try {
+                        emitter.complete();
+                    } catch (IllegalStateException e) {
+                        // already completed, e.g. after a timeout
+                    }
+                    detach();
+                    synchronized (this) {
+                        scheduled = false;
+                    }
+                    return;
+                }
+                try {
+                    for (Event event : batch) {
+                        SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.name())
+                                .data(event.data(), MediaType.APPLICATION_JSON);
+                        emitter.send(event.id() == null ? builder : builder.id(event.id()));
+                        delivered.incrementAndGet();
+                    }
+                    if (sendHeartbeat) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone, or the emitter already finished
+                    log.debug("Stock movement subscriber of store {} dropped: {}", feed.storeId, e.toString());
+                    emitter.completeWithError(e);
+                    detach();
+                    synchronized (this) {
+                        scheduled = false;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
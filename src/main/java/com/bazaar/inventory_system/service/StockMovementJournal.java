@@ -0,0 +1,367 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.exception.JournalFullException;
+import com.bazaar.inventory_system.exception.JournalUnavailableException;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Group-committed journal for StockMovement rows (inventory.journal.enabled=true).
+Producers put movements on a bounded ring buffer and get a future back; one writer thread
+drains it and inserts everything that arrived within max-wait-ms (up to max-batch rows)
+in a single transaction, so many requests share one commit.
+
+Back-pressure: a producer takes a slot before its stock change is made. If the buffer stays
+full for offer-timeout-ms the request fails with JournalFullException (503) and nothing
+has been changed yet.
+
+The stock changes behind queued movements have already committed, so a group is never dropped:
+one that still fails after WRITE_ATTEMPTS is kept and retried, backing off up to
+max-retry-backoff-ms, until it is written. While any is waiting, new changes are refused with
+JournalUnavailableException (503), as the ledger does past max-staleness-ms.
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.journal.enabled", havingValue = "true")
+public class StockMovementJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(StockMovementJournal.class);
+    private static final int WRITE_ATTEMPTS = 3;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StockMovementRollupService rollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private StockMovementFeed movementFeed;
+
+    @Value("${inventory.journal.capacity:8192}")
+    private int capacity;
+
+    @Value("${inventory.journal.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${inventory.journal.max-wait-ms:10}")
+    private long maxWaitMillis;
+
+    @Value("${inventory.journal.offer-timeout-ms:1000}")
+    private long offerTimeoutMillis;
+
+    @Value("${inventory.journal.max-retry-backoff-ms:5000}")
+    private long maxRetryBackoffMillis;
+
+    private ArrayBlockingQueue<Entry> buffer;
+    // Groups whose write failed, oldest first; only the writer takes from it
+    private final ConcurrentLinkedQueue<List<Entry>> unwritten = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unwrittenCount = new AtomicInteger();
+    private long retryBackoffMillis;
+    private Semaphore slots;
+    private Thread writer;
+    private volatile boolean running = true;
+
+    // Stats
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile long lastFlushMicros;
+    private volatile long maxFlushMicros;
+
+    @PostConstruct
+    void start() {
+        buffer = new ArrayBlockingQueue<>(capacity);
+        slots = new Semaphore(capacity);
+        writer = asyncThreads.threadFactory("stock-movement-journal").newThread(this::writeLoop);
+        writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false; // the writer drains whatever is left, then exits
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (writer.isAlive()) {
+            writer.interrupt();
+            log.error("Stock movement journal stopped with {} movements not written", unwrittenCount.get());
+        }
+    }
+
+    /*
+    Queues a movement. Inside a transaction it is only handed to the writer after commit
+    (and dropped on rollback), so a failed stock change never leaves a movement behind.
+    The future completes with the saved movement once its group has been committed.
+     */
+    public CompletableFuture<StockMovement> append(StockMovement movement) {
+        return appendAll(List.of(movement)).thenApply(saved -> saved.get(0));
+    }
+
+    public CompletableFuture<List<StockMovement>> appendAll(List<StockMovement> movements) {
+        int waiting = unwrittenCount.get();
+        if (waiting > 0) {
+            rejected.addAndGet(movements.size());
+            throw new JournalUnavailableException(waiting);
+        }
+        reserve(movements.size());
+        List<CompletableFuture<StockMovement>> futures = new ArrayList<>(movements.size());
+        List<Entry> entries = new ArrayList<>(movements.size());
+        for (StockMovement movement : movements) {
+            Entry entry = new Entry(movement);
+            entries.add(entry);
+            futures.add(entry.future);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        buffer.addAll(entries);
+                    } else {
+                        slots.release(entries.size());
+                        entries.forEach(e -> e.future.cancel(false));
+                    }
+                }
+            });
+        } else {
+            buffer.addAll(entries);
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    public int getQueueDepth() {
+        return capacity - slots.availablePermits();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    // Movements whose write failed and is being retried
+    public int getUnwrittenCount() {
+        return unwrittenCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        long batchCount = batches.get();
+        return batchCount == 0 ? 0 : (double) written.get() / batchCount;
+    }
+
+    public long getLastFlushMicros() {
+        return lastFlushMicros;
+    }
+
+    public long getMaxFlushMicros() {
+        return maxFlushMicros;
+    }
+
+    // --- Helper Methods ---
+
+    private void reserve(int count) {
+        try {
+            if (!slots.tryAcquire(count, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.addAndGet(count);
+                throw new JournalFullException(capacity, offerTimeoutMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JournalFullException(capacity, 0);
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> group = new ArrayList<>(maxBatch);
+        while (running || !buffer.isEmpty() || !unwritten.isEmpty()) {
+            try {
+                if (!unwritten.isEmpty()) {
+                    retryUnwritten();
+                }
+                Entry first = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                // Keep collecting until the group is full or the window since the first entry closes
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (group.size() < maxBatch) {
+                    buffer.drainTo(group, maxBatch - group.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (group.size() >= maxBatch || remaining <= 0) {
+                        break;
+                    }
+                    Entry next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        group.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failUnwritten(e);
+                return;
+            }
+            if (!group.isEmpty()) {
+                write(group);
+                group.clear();
+            }
+        }
+    }
+
+    // Waits out the backoff, then retries the failed groups in order until one fails again
+    private void retryUnwritten() throws InterruptedException {
+        Thread.sleep(retryBackoffMillis);
+        List<Entry> group;
+        while ((group = unwritten.poll()) != null) {
+            // Every group is from one shard; one that fails again goes back on the queue first
+            int shard = storeShards.shardOf(group.get(0).movement.getStoreId());
+            List<Entry> retried = group;
+            boolean written = storeShards.onShard(shard, () -> writeShard(retried));
+            unwrittenCount.addAndGet(-group.size());
+            if (!written) {
+                retryBackoffMillis = Math.min(retryBackoffMillis * 2, maxRetryBackoffMillis);
+                return;
+            }
+        }
+        log.info("Stock movement journal caught up with its failed writes");
+    }
+
+    // Only when the writer is interrupted during shutdown: the callers learn their movements were lost
+    private void failUnwritten(InterruptedException e) {
+        List<Entry> group;
+        while ((group = unwritten.poll()) != null) {
+            for (Entry entry : group) {
+                entry.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // A group that spans shards is committed shard by shard, each part completing on its own
+    private void write(List<Entry> group) {
+        storeShards.groupByShard(group, entry -> entry.movement.getStoreId()).forEach((shard, entries) ->
+                storeShards.onShard(shard, () -> {
+                    writeShard(entries);
+                    return null;
+                }));
+    }
+
+    // False if the group could not be written; it is then queued for retryUnwritten, slots still held
+    private boolean writeShard(List<Entry> group) {
+        List<StockMovement> movements = new ArrayList<>(group.size());
+        for (Entry entry : group) {
+            movements.add(entry.movement);
+        }
+        long start = System.nanoTime();
+        try {
+            insertWithRetry(movements);
+        } catch (RuntimeException e) {
+            failed.addAndGet(group.size());
+            log.error("Stock movement journal failed to write {} movements, retrying in the background",
+                    group.size(), e);
+            if (unwritten.isEmpty()) {
+                retryBackoffMillis = 100;
+            }
+            unwrittenCount.addAndGet(group.size());
+            unwritten.add(group);
+            return false;
+        }
+        long micros = (System.nanoTime() - start) / 1_000;
+        lastFlushMicros = micros;
+        maxFlushMicros = Math.max(maxFlushMicros, micros);
+        lastBatchSize = group.size();
+        written.addAndGet(group.size());
+        batches.incrementAndGet();
+        slots.release(group.size());
+        for (Entry entry : group) {
+            entry.future.complete(entry.movement);
+        }
+        return true;
+    }
+
+    private void insertWithRetry(List<StockMovement> movements) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    stockMovementRepository.saveAll(movements);
+                    stockMovementRepository.flush();
+                    rollupService.record(movements);
+                    movementFeed.publish(movements);
+                });
+                return;
+            } catch (RuntimeException e) {
+                movements.forEach(m -> m.setStockMovementId(null)); // ids from the rolled-back attempt
+                if (attempt == WRITE_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Stock movement journal write failed (attempt {}), retrying", attempt, e);
+                try {
+                    Thread.sleep(50L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        final StockMovement movement;
+        final CompletableFuture<StockMovement> future = new CompletableFuture<>();
+
+        Entry(StockMovement movement) {
+            this.movement = movement;
+        }
+    }
+}
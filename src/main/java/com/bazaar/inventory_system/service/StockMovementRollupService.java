@@ -0,0 +1,290 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.model.RollupGranularity;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.StockMovementRollup;
+import com.bazaar.inventory_system.model.StockMovementRollupId;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StockMovementRollupRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+Hourly and daily rollups of stock movements, so a summary reads O(buckets) instead of O(movements).
+Every write path (StockService, the journal's group commit, the movement endpoints) reports its
+movements through record/retract. The deltas are kept in memory once that transaction commits and
+are folded into the rollup table every flush-ms, one JDBC batch of MERGEs per shard. A hot SKU's
+buckets are then updated (and row-locked) once per flush instead of inside every sale.
+Summaries flush first, so they see every committed movement. A crash loses at most one interval of
+deltas; POST /admin/stock-movement-rollups/backfill rebuilds them from the raw movements.
+ */
+@Service
+public class StockMovementRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockMovementRollupService.class);
+    private static final List<RollupGranularity> GRANULARITIES = List.of(RollupGranularity.values());
+
+    // Fixed update order, so two flushes touching the same buckets can't deadlock
+    private static final Comparator<StockMovementRollupId> BUCKET_ORDER = Comparator
+            .comparing(StockMovementRollupId::getStoreId)
+            .thenComparing(StockMovementRollupId::getProductId)
+            .thenComparing(StockMovementRollupId::getMovementType)
+            .thenComparing(StockMovementRollupId::getGranularity)
+            .thenComparing(StockMovementRollupId::getBucketStart);
+
+    @Autowired
+    private StockMovementRollupRepository rollupRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired(required = false) // only present when inventory.archive.enabled=true
+    private MovementArchive movementArchive;
+
+    @Value("${inventory.rollup.backfill-threads:4}")
+    private int backfillThreads;
+
+    @Value("${inventory.rollup.flush-ms:200}")
+    private long flushMillis;
+
+    // Committed deltas not in the table yet: bucket -> {quantity change, movement count}
+    private Map<StockMovementRollupId, long[]> pending = new HashMap<>(); // guarded by pendingLock
+    // Locks, not synchronized: a virtual thread blocked in a monitor pins its carrier
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void startFlusher() {
+        flusher = Executors.newSingleThreadScheduledExecutor(asyncThreads.threadFactory("rollup-flush"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush(); // last deltas before the DataSource goes away
+    }
+
+    // Called in the transaction that inserts the movements; counted once it commits
+    public void record(Collection<StockMovement> movements) {
+        afterCommit(deltas(movements, 1));
+    }
+
+    // Called in the transaction that deletes the movements; counted once it commits
+    public void retract(Collection<StockMovement> movements) {
+        afterCommit(deltas(movements, -1));
+    }
+
+    /*
+    Writes the pending deltas. Runs on the shard's connection without the store write gate, so
+    StoreMoveService can call it while the store is frozen. Deltas of a shard whose write fails
+    are put back for the next flush.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<StockMovementRollupId, long[]> deltas = takePending();
+            if (deltas.isEmpty()) {
+                return;
+            }
+            try {
+                storeShards.groupByShard(deltas.keySet(), StockMovementRollupId::getStoreId).forEach((shard, buckets) -> {
+                    storeShards.onShard(shard, () -> transactionTemplate.execute(status -> write(buckets, deltas)));
+                    buckets.forEach(deltas::remove);
+                });
+            } catch (RuntimeException e) {
+                addPending(deltas);
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Buckets overlapping [startDate, endDate], optionally for one product
+    public List<StockMovementRollup> summarize(Long storeId, Long productId, RollupGranularity granularity,
+                                               LocalDateTime startDate, LocalDateTime endDate) {
+        flush();
+        LocalDateTime from = granularity.truncate(startDate);
+        return storeShards.read(storeId, () -> productId == null
+                ? rollupRepository.findBuckets(storeId, granularity, from, endDate)
+                : rollupRepository.findBuckets(storeId, productId, granularity, from, endDate));
+    }
+
+    /*
+    Rebuilds the buckets of every month in [fromMonth, toMonth] (yyyymm) that still has raw
+    movements, one month per task on a small pool; months never share a bucket, so the tasks
+    don't touch each other's rows. Months whose movements were already dropped keep their
+    rollups. Meant for history: a month that is still being written to should not be rebuilt
+    while writes are going on. Returns the number of buckets written per month.
+    With sharding every shard rebuilds its own months; the counts are summed. Months with archived
+    movements are skipped: their raw rows are no longer all in the table.
+     */
+    public Map<Integer, Integer> backfill(int fromMonth, int toMonth) {
+        flush(); // pending deltas are already part of the raw rows the months are rebuilt from
+        Set<Integer> archived = movementArchive != null ? movementArchive.getArchivedMonths() : Set.of();
+        List<List<Integer>> monthsByShard = storeShards.scatter(shard ->
+                stockMovementRepository.findMonthsBetween(fromMonth, toMonth).stream()
+                        .filter(month -> !archived.contains(month)).toList());
+        int taskCount = monthsByShard.stream().mapToInt(List::size).sum();
+        Map<Integer, Integer> written = new TreeMap<>();
+        if (taskCount == 0) {
+            return written;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(backfillThreads, taskCount),
+                asyncThreads.threadFactory("rollup-backfill"));
+        try {
+            List<Map.Entry<Integer, Future<Integer>>> tasks = new ArrayList<>(taskCount);
+            for (int shard = 0; shard < monthsByShard.size(); shard++) {
+                int target = shard;
+                for (Integer month : monthsByShard.get(shard)) {
+                    tasks.add(Map.entry(month, pool.submit(() -> storeShards.onShard(target, () ->
+                            transactionTemplate.execute(status -> rollupRepository.rebuildMonth(month, GRANULARITIES))))));
+                }
+            }
+            for (Map.Entry<Integer, Future<Integer>> task : tasks) {
+                written.merge(task.getKey(), task.getValue().get(), Integer::sum);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup backfill interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Rebuilt stock movement rollups for {} months", written.size());
+        return written;
+    }
+
+    public int getPendingCount() {
+        pendingLock.lock();
+        try {
+            return pending.size();
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    // --- Helper Methods ---
+
+    // Collapses the movements into one delta per bucket: a 1,000-line basket is a few buckets per product
+    private static Map<StockMovementRollupId, long[]> deltas(Collection<StockMovement> movements, int sign) {
+        Map<StockMovementRollupId, long[]> deltas = new HashMap<>();
+        for (StockMovement movement : movements) {
+            // Buckets are per product and time: movements missing either are not rolled up
+            if (movement.getProductId() == null || movement.getTimestamp() == null) {
+                continue;
+            }
+            for (RollupGranularity granularity : GRANULARITIES) {
+                StockMovementRollupId bucket = new StockMovementRollupId(movement.getStoreId(),
+                        movement.getProductId(), movement.getMovementType(), granularity,
+                        granularity.truncate(movement.getTimestamp()));
+                long[] delta = deltas.computeIfAbsent(bucket, b -> new long[2]);
+                delta[0] += sign * (long) movement.getQuantityChange();
+                delta[1] += sign;
+            }
+        }
+        return deltas;
+    }
+
+    private void afterCommit(Map<StockMovementRollupId, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            addPending(deltas);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                addPending(deltas);
+            }
+        });
+    }
+
+    private void addPending(Map<StockMovementRollupId, long[]> deltas) {
+        pendingLock.lock();
+        try {
+            deltas.forEach((bucket, delta) -> {
+                long[] sum = pending.computeIfAbsent(bucket, b -> new long[2]);
+                sum[0] += delta[0];
+                sum[1] += delta[1];
+            });
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private Map<StockMovementRollupId, long[]> takePending() {
+        pendingLock.lock();
+        try {
+            Map<StockMovementRollupId, long[]> taken = pending;
+            pending = new HashMap<>();
+            return taken;
+        } finally {
+            pendingLock.unlock();
+        }
+    }
+
+    private int[] write(List<StockMovementRollupId> buckets, Map<StockMovementRollupId, long[]> deltas) {
+        buckets.sort(BUCKET_ORDER);
+        List<Long> quantityChanges = new ArrayList<>(buckets.size());
+        List<Long> movementCounts = new ArrayList<>(buckets.size());
+        for (StockMovementRollupId bucket : buckets) {
+            quantityChanges.add(deltas.get(bucket)[0]);
+            movementCounts.add(deltas.get(bucket)[1]);
+        }
+        return rollupRepository.batchAdd(buckets, quantityChanges, movementCounts);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Stock movement rollup flush failed, {} buckets still pending", getPendingCount(), e);
+        }
+    }
+}
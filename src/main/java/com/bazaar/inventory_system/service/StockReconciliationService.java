@@ -0,0 +1,270 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.dto.ReconciliationReport;
+import com.bazaar.inventory_system.dto.StockDrift;
+import com.bazaar.inventory_system.exception.InvalidInputException;
+import com.bazaar.inventory_system.exception.ReconciliationInProgressException;
+import com.bazaar.inventory_system.model.StockId;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Checks Stock.quantity against the movement log, which drift apart when movements are posted or
+deleted directly. For each store the database sums the movements per product and returns only
+the rows where that sum and the quantity differ (StockRepositoryCustom.DRIFT_SQL), so memory
+follows the number of differences, not the size of the log. Stores are split across a
+ForkJoinPool of `parallelism` workers, each holding one connection at a time.
+
+A difference from the scan may only be a change that committed between its two reads, so each
+candidate is checked again with its stock row locked before it is reported; with repair the row
+is set to its movement sum in that same transaction. A negative sum (history deleted after the
+sales) is reported but never written. Repairs reach StockAvailability like any other change, as
+the quantities they set.
+Each store is scanned and repaired on its own shard.
+
+In ledger mode the ledger is flushed first and repair is refused, since the table is not where
+quantities live. With the journal on, movements still queued show up as differences.
+ */
+@Service
+public class StockReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReconciliationService.class);
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StockAvailability stockAvailability;
+
+    @Autowired
+    private HotStockSlots hotStockSlots;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired(required = false) // only present when inventory.ledger.enabled=true
+    private StockLedger stockLedger;
+
+    @Value("${inventory.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${inventory.reconciliation.confirm-batch:500}")
+    private int confirmBatch;
+
+    @Value("${inventory.reconciliation.max-reported:1000}")
+    private int maxReported;
+
+    private Run current; // guarded by this; the running or last run
+
+    // Runs in the background; follow it with lastReport()
+    public ReconciliationReport start(boolean repair) {
+        Run run = begin(repair);
+        asyncThreads.threadFactory("stock-reconciliation").newThread(() -> execute(run)).start();
+        return run.report();
+    }
+
+    // Same, on the calling thread
+    public ReconciliationReport run(boolean repair) {
+        Run run = begin(repair);
+        execute(run);
+        return run.report();
+    }
+
+    public synchronized ReconciliationReport lastReport() {
+        return current == null ? null : current.report();
+    }
+
+    // --- Helper Methods ---
+
+    private synchronized Run begin(boolean repair) {
+        if (current != null && current.state == ReconciliationReport.State.RUNNING) {
+            throw new ReconciliationInProgressException(current.storesDone.get(), current.storesTotal);
+        }
+        if (repair && stockLedger != null) {
+            throw new InvalidInputException("Stock repair is not available in ledger mode");
+        }
+        current = new Run(repair);
+        return current;
+    }
+
+    private void execute(Run run) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            if (stockLedger != null) {
+                stockLedger.flush();
+            }
+            List<Long> storeIds = storeRepository.findAllIds();
+            run.storesTotal = storeIds.size();
+            if (!storeIds.isEmpty()) {
+                pool.invoke(new StoreRange(run, storeIds, 0, storeIds.size()));
+            }
+            run.finish(null);
+            log.info("Stock reconciliation: {} stores, {} mismatches, {} repaired in {} ms", run.storesTotal,
+                    run.mismatches.get(), run.repaired.get(), run.elapsedMillis());
+        } catch (RuntimeException e) {
+            log.error("Stock reconciliation failed", e);
+            run.finish(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void reconcileStore(Run run, Long storeId) {
+        List<Long> candidates = new ArrayList<>();
+        storeShards.read(storeId, () -> {
+            stockRepository.forEachDrift(storeId, (productId, quantity, expected) -> candidates.add(productId));
+            return null;
+        });
+        for (int from = 0; from < candidates.size(); from += confirmBatch) {
+            confirm(run, storeId, candidates.subList(from, Math.min(from + confirmBatch, candidates.size())));
+        }
+        run.storesDone.incrementAndGet();
+    }
+
+    // Re-reads the candidates with their rows locked; only what still differs is reported (and repaired)
+    private void confirm(Run run, Long storeId, List<Long> productIds) {
+        List<StockDrift> drifts = storeShards.write(storeId, () -> transactionTemplate.execute(status -> {
+            Map<Long, Integer> quantities = stockRepository.lockQuantities(storeId, productIds);
+            if (productIds.stream().anyMatch(productId -> hotStockSlots.isSplit(storeId, productId))) {
+                // Split rows: move the slots into stock.quantity, so the row holds its whole quantity
+                hotStockSlots.drain(storeId, productIds);
+                quantities = stockRepository.lockQuantities(storeId, productIds);
+            }
+            Map<Long, Long> sums = stockRepository.sumMovements(storeId, productIds);
+            List<StockDrift> confirmed = new ArrayList<>();
+            List<StockId> repairIds = new ArrayList<>();
+            List<Integer> repairQuantities = new ArrayList<>();
+            Map<Long, Integer> repaired = new HashMap<>();
+            for (Long productId : productIds) {
+                Integer quantity = quantities.get(productId);
+                int current = quantity == null ? 0 : quantity;
+                long expected = sums.getOrDefault(productId, 0L);
+                if (current == expected) {
+                    continue; // settled since the scan
+                }
+                boolean repair = run.repair && expected >= 0 && expected <= Integer.MAX_VALUE;
+                if (repair) {
+                    repairIds.add(new StockId(storeId, productId));
+                    repairQuantities.add((int) expected);
+                    repaired.put(productId, (int) expected);
+                }
+                confirmed.add(new StockDrift(storeId, productId, quantity, expected, repair));
+            }
+            if (!repairIds.isEmpty()) {
+                stockRepository.batchSetQuantity(repairIds, repairQuantities);
+                if (hotStockSlots.isActive()) {
+                    stockAvailability.refreshAfterCommit(storeId, repaired.keySet());
+                } else {
+                    stockAvailability.recordQuantities(storeId, repaired);
+                }
+            }
+            return confirmed;
+        }));
+        drifts.forEach(run::record);
+    }
+
+    // Splits the store list until each task is one store
+    private final class StoreRange extends RecursiveAction {
+        private final Run run;
+        private final List<Long> storeIds;
+        private final int from;
+        private final int to;
+
+        StoreRange(Run run, List<Long> storeIds, int from, int to) {
+            this.run = run;
+            this.storeIds = storeIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                reconcileStore(run, storeIds.get(from));
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new StoreRange(run, storeIds, from, middle), new StoreRange(run, storeIds, middle, to));
+        }
+    }
+
+    private final class Run {
+        final boolean repair;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final long startNanos = System.nanoTime();
+        final AtomicInteger storesDone = new AtomicInteger();
+        final AtomicLong mismatches = new AtomicLong();
+        final AtomicLong repaired = new AtomicLong();
+        final List<StockDrift> drifts = new ArrayList<>(); // guarded by itself
+        volatile int storesTotal;
+        volatile ReconciliationReport.State state = ReconciliationReport.State.RUNNING;
+        volatile LocalDateTime finishedAt;
+        volatile long finishedNanos;
+        volatile String error;
+
+        Run(boolean repair) {
+            this.repair = repair;
+        }
+
+        void record(StockDrift drift) {
+            mismatches.incrementAndGet();
+            if (drift.isRepaired()) {
+                repaired.incrementAndGet();
+            }
+            synchronized (drifts) {
+                if (drifts.size() < maxReported) {
+                    drifts.add(drift);
+                }
+            }
+        }
+
+        void finish(RuntimeException failure) {
+            finishedNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            error = failure == null ? null : failure.getMessage();
+            state = failure == null ? ReconciliationReport.State.COMPLETED : ReconciliationReport.State.FAILED;
+        }
+
+        long elapsedMillis() {
+            long end = state == ReconciliationReport.State.RUNNING ? System.nanoTime() : finishedNanos;
+            return (end - startNanos) / 1_000_000;
+        }
+
+        ReconciliationReport report() {
+            List<StockDrift> reported;
+            synchronized (drifts) {
+                reported = List.copyOf(drifts);
+            }
+            return new ReconciliationReport(state, repair, storesTotal, storesDone.get(), mismatches.get(),
+                    repaired.get(), startedAt, finishedAt, elapsedMillis(), reported,
+                    mismatches.get() > reported.size(), error);
+        }
+    }
+}
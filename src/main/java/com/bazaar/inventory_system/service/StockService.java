@@ -0,0 +1,449 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.dto.StockBatchLine;
+import com.bazaar.inventory_system.dto.StockBatchLineResult;
+import com.bazaar.inventory_system.dto.StockBatchResult;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.exception.InvalidStockRequestException;
+import com.bazaar.inventory_system.exception.ProductNotFoundException;
+import com.bazaar.inventory_system.model.Stock;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.StockOperation;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/*
+Stock mutations used by StockController. Single-row changes go through the configured
+StockUpdateStrategy (by default a single guarded SQL statement instead of findById + check +
+save), so two requests on the same row can't both read the old quantity and overwrite each
+other (lost update / oversell); batches always use the guarded statements. Rows split into
+slots by HotStockSlots are changed there instead.
+In ledger mode the quantities are changed in StockLedger instead and written back later.
+Movements are recorded here, directly or through StockMovementJournal when it is enabled,
+and handed to StockMovementRollupService for the hourly/daily rollups. Every committed change is also reported to
+StockAvailability for the cross-store totals.
+Everything runs on the store's shard (StoreShards), changes inside its write gate.
+ */
+@Service
+public class StockService {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    // 23503: standard (PostgreSQL); 23506: H2's "referenced row missing"
+    private static final Set<String> FOREIGN_KEY_VIOLATIONS = Set.of("23503", "23506");
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockMovementRollupService rollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private StockAvailability stockAvailability;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private StockUpdateStrategy stockUpdates;
+
+    @Autowired
+    private HotStockSlots hotStockSlots;
+
+    @Autowired
+    private StockMovementFeed movementFeed;
+
+    @Autowired(required = false) // only present when inventory.ledger.enabled=true
+    private StockLedger stockLedger;
+
+    @Autowired(required = false) // only present when inventory.journal.enabled=true
+    private StockMovementJournal movementJournal;
+
+    @Autowired(required = false) // absent when inventory.metrics.enabled=false
+    private HotStockRows hotStockRows;
+
+    public Optional<Stock> findStock(Long storeId, Long productId) {
+        if (stockLedger != null) {
+            OptionalInt quantity = stockLedger.quantity(storeId, productId);
+            return quantity.isPresent()
+                    ? Optional.of(new Stock(storeId, productId, quantity.getAsInt(), null, null))
+                    : Optional.empty();
+        }
+        // Reserve plus slots: a row may be split without this node knowing yet
+        return storeShards.read(storeId, () -> stockRepository.findQuantity(storeId, productId)
+                .map(quantity -> new Stock(storeId, productId, quantity, null, null)));
+    }
+
+    public Stock addStock(Long storeId, Long productId, int quantity) {
+        return storeShards.write(storeId, () -> onRow(storeId, productId, () -> {
+            if (stockLedger != null) {
+                // The ledger only applies the increment in memory once this transaction commits
+                return retryOnInsertRace(storeId, productId, () -> transactionTemplate.execute(status -> {
+                    recordMovement(storeId, productId, StockOperation.STOCK_IN, quantity);
+                    int updated = stockLedger.increment(storeId, productId, quantity);
+                    stockAvailability.refreshAfterCommit(storeId, List.of(productId));
+                    return new Stock(storeId, productId, updated, null, null);
+                }));
+            }
+            if (hotStockSlots.isSplit(storeId, productId)) {
+                return applyChange(storeId, productId, StockOperation.STOCK_IN, quantity,
+                        () -> hotStockSlots.increment(storeId, productId, quantity));
+            }
+            return stockUpdates.run(storeId, productId, () -> applyChange(storeId, productId, StockOperation.STOCK_IN,
+                    quantity, () -> stockUpdates.increment(storeId, productId, quantity)));
+        }));
+    }
+
+    public Stock sellProduct(Long storeId, Long productId, int quantity) {
+        return removeUnits(storeId, productId, StockOperation.SALE, quantity);
+    }
+
+    public Stock removeStock(Long storeId, Long productId, int quantity) {
+        return removeUnits(storeId, productId, StockOperation.REMOVAL, quantity);
+    }
+
+    // A movement posted directly to /stock-movements: saved with its rollups, stock is not touched
+    public StockMovement createMovement(StockMovement movement) {
+        Long requestedId = movement.getStockMovementId();
+        return storeShards.write(movement.getStoreId(), () -> retryOnInsertRace(movement.getStoreId(),
+                movement.getProductId(), () -> transactionTemplate.execute(status -> {
+            movement.setStockMovementId(requestedId); // drop the id a rolled-back first attempt assigned
+            StockMovement saved = stockMovementRepository.save(movement);
+            rollupService.record(List.of(saved));
+            movementFeed.publish(List.of(saved));
+            return saved;
+        })));
+    }
+
+    public void deleteMovement(StockMovement movement) {
+        storeShards.write(movement.getStoreId(), () -> transactionTemplate.execute(status -> {
+            stockMovementRepository.delete(movement);
+            rollupService.retract(List.of(movement));
+            return null;
+        }));
+    }
+
+    /*
+    Applies a whole basket/delivery in one transaction: all lines are committed or none are.
+    The stock changes are made by writeBatch, or writeBatchInLedger in ledger mode; the movements
+    are inserted afterwards through Hibernate's insert batching.
+     */
+    public StockBatchResult applyBatch(Long storeId, List<StockBatchLine> lines) {
+        validateBatch(lines);
+        BatchWrite write = stockLedger != null ? this::writeBatchInLedger : this::writeBatch;
+        return storeShards.write(storeId, () -> retryOnInsertRace(storeId, null, () ->
+                transactionTemplate.execute(status -> applyBatch(storeId, lines, status, write))));
+    }
+
+    // --- Helper Methods ---
+
+    private Stock removeUnits(Long storeId, Long productId, StockOperation operation, int quantity) {
+        if (stockLedger != null) {
+            return storeShards.write(storeId, () -> onRow(storeId, productId, () ->
+                    retryOnInsertRace(storeId, productId, () -> transactionTemplate.execute(status ->
+                            decrementInLedger(storeId, productId, operation, quantity)))));
+        }
+        return storeShards.write(storeId, () -> onRow(storeId, productId, () -> {
+            if (!hotStockSlots.isSplit(storeId, productId)) {
+                try {
+                    return stockUpdates.run(storeId, productId, () -> applyChange(storeId, productId, operation,
+                            quantity, () -> stockUpdates.decrement(storeId, productId, quantity)));
+                } catch (InsufficientStockException e) {
+                    // Split meanwhile: the units are in the slots now
+                    if (!hotStockSlots.isSplit(storeId, productId) && !hotStockSlots.hasSlots(storeId, productId)) {
+                        throw e;
+                    }
+                }
+            }
+            return hotStockSlots.decrement(storeId, productId, quantity,
+                    write -> applyChange(storeId, productId, operation, quantity, write));
+        }));
+    }
+
+    /*
+    One single-row change in its own transaction. The movement goes first, so the row lock taken by
+    write is held for as short as possible; a write that fails throws, which rolls the movement back.
+    write returns the row's new quantity, reported to StockAvailability while the row is still locked
+    (with hot stock rows on, any row may have slots written without that lock, so it is read back instead).
+     */
+    private Stock applyChange(Long storeId, Long productId, StockOperation operation, int quantity, IntSupplier write) {
+        return retryOnInsertRace(storeId, productId, () -> transactionTemplate.execute(status -> {
+            recordMovement(storeId, productId, operation, quantity);
+            int updated = write.getAsInt();
+            if (hotStockSlots.isActive()) {
+                stockAvailability.refreshAfterCommit(storeId, List.of(productId));
+            } else {
+                stockAvailability.recordQuantity(storeId, productId, updated);
+            }
+            return new Stock(storeId, productId, updated, null, null);
+        }));
+    }
+
+    // Single-row changes report to HotStockRows, which counts concurrent changes of the same row
+    private <T> T onRow(Long storeId, Long productId, Supplier<T> change) {
+        if (hotStockRows == null) {
+            return change.get();
+        }
+        HotStockRows.RowActivity row = hotStockRows.enter(storeId, productId);
+        try {
+            return change.get();
+        } finally {
+            hotStockRows.exit(row);
+        }
+    }
+
+    // The stock changes of a batch's lines, one result per line in line order; lines of unknownProducts are NOT_FOUND
+    @FunctionalInterface
+    private interface BatchWrite {
+        List<StockBatchLineResult> apply(Long storeId, List<StockBatchLine> lines, Set<Long> unknownProducts);
+    }
+
+    private StockBatchResult applyBatch(Long storeId, List<StockBatchLine> lines, TransactionStatus status,
+                                        BatchWrite write) {
+        List<StockBatchLineResult> results = write.apply(storeId, lines, unknownProducts(lines));
+        boolean allApplied = results.stream()
+                .allMatch(result -> result.getStatus() == StockBatchLineResult.Status.APPLIED);
+
+        if (!allApplied) {
+            status.setRollbackOnly();
+            for (StockBatchLineResult result : results) {
+                if (result.getStatus() == StockBatchLineResult.Status.APPLIED) {
+                    result.setStatus(StockBatchLineResult.Status.ROLLED_BACK);
+                }
+            }
+            return new StockBatchResult(false, results);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockMovement> movements = new ArrayList<>(lines.size());
+        for (StockBatchLine line : lines) {
+            movements.add(newMovement(storeId, line.getProductId(), line.getType(), line.getQuantity(), now));
+        }
+        recordMovements(movements);
+        recordAvailability(storeId, lines);
+        return new StockBatchResult(true, results);
+    }
+
+    /*
+    Consecutive lines of the same direction go to the database as one JDBC batch of guarded
+    statements, in line order, so a stock-in followed by a sale of the same product behaves as it
+    would one by one.
+     */
+    private List<StockBatchLineResult> writeBatch(Long storeId, List<StockBatchLine> lines, Set<Long> unknownProducts) {
+        // The batch statements work on stock.quantity, so split rows get their slots back first
+        hotStockSlots.drain(storeId, lines.stream().map(StockBatchLine::getProductId).toList());
+        List<StockBatchLineResult> results = new ArrayList<>(lines.size());
+        int runStart = 0;
+        while (runStart < lines.size()) {
+            boolean decrement = lines.get(runStart).getType().isDecrement();
+            int runEnd = runStart;
+            List<Long> productIds = new ArrayList<>();
+            List<Integer> quantities = new ArrayList<>();
+            while (runEnd < lines.size() && lines.get(runEnd).getType().isDecrement() == decrement) {
+                // Unknown products are left out, a stock-in would fail the whole batch on the foreign key
+                if (!unknownProducts.contains(lines.get(runEnd).getProductId())) {
+                    productIds.add(lines.get(runEnd).getProductId());
+                    quantities.add(lines.get(runEnd).getQuantity());
+                }
+                runEnd++;
+            }
+
+            int[] counts = productIds.isEmpty() ? new int[0] : decrement
+                    ? stockRepository.batchDecrementIfAvailable(storeId, productIds, quantities)
+                    : stockRepository.batchIncrementOrInsert(storeId, productIds, quantities);
+
+            for (int i = runStart, next = 0; i < runEnd; i++) {
+                StockBatchLine line = lines.get(i);
+                results.add(unknownProducts.contains(line.getProductId())
+                        ? notFound(storeId, i, line)
+                        : lineResult(storeId, i, line, counts[next++]));
+            }
+            runStart = runEnd;
+        }
+        return results;
+    }
+
+    // Ledger mode: lines are applied one by one in memory; rolling the transaction back undoes them
+    private List<StockBatchLineResult> writeBatchInLedger(Long storeId, List<StockBatchLine> lines,
+                                                          Set<Long> unknownProducts) {
+        List<StockBatchLineResult> results = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            StockBatchLine line = lines.get(i);
+            if (unknownProducts.contains(line.getProductId())) {
+                results.add(notFound(storeId, i, line));
+                continue;
+            }
+            StockBatchLineResult.Status lineStatus = StockBatchLineResult.Status.APPLIED;
+            String message = null;
+            try {
+                if (line.getType().isDecrement()) {
+                    stockLedger.decrement(storeId, line.getProductId(), line.getQuantity());
+                } else {
+                    stockLedger.increment(storeId, line.getProductId(), line.getQuantity());
+                }
+            } catch (ProductNotFoundException e) {
+                lineStatus = StockBatchLineResult.Status.NOT_FOUND;
+                message = e.getMessage();
+            } catch (InsufficientStockException e) {
+                lineStatus = StockBatchLineResult.Status.INSUFFICIENT;
+                message = e.getMessage();
+            }
+            results.add(new StockBatchLineResult(i, line.getType(), line.getProductId(), line.getQuantity(),
+                    lineStatus, message));
+        }
+        return results;
+    }
+
+    // The batch's rows as they are now, still locked by its writes; applied when the batch commits
+    private void recordAvailability(Long storeId, List<StockBatchLine> lines) {
+        List<Long> productIds = lines.stream().map(StockBatchLine::getProductId).distinct().toList();
+        if (stockLedger != null || hotStockSlots.isActive()) {
+            stockAvailability.refreshAfterCommit(storeId, productIds);
+        } else {
+            stockAvailability.recordQuantities(storeId, stockRepository.lockQuantities(storeId, productIds));
+        }
+    }
+
+    // The ledger undoes its decrement itself if the movement insert fails and the transaction rolls back
+    private Stock decrementInLedger(Long storeId, Long productId, StockOperation operation, int quantity) {
+        int updated = stockLedger.decrement(storeId, productId, quantity);
+        recordMovement(storeId, productId, operation, quantity);
+        stockAvailability.refreshAfterCommit(storeId, List.of(productId));
+        return new Stock(storeId, productId, updated, null, null);
+    }
+
+    private StockBatchLineResult lineResult(Long storeId, int index, StockBatchLine line, int updateCount) {
+        StockBatchLineResult.Status status = StockBatchLineResult.Status.APPLIED;
+        String message = null;
+        // Zero rows only happens for a guarded decrement; look the row up to say why
+        if (updateCount == 0) {
+            Integer available = stockRepository.findQuantity(storeId, line.getProductId()).orElse(null);
+            if (available == null) {
+                status = StockBatchLineResult.Status.NOT_FOUND;
+                message = new ProductNotFoundException(line.getProductId(), storeId).getMessage();
+            } else {
+                status = StockBatchLineResult.Status.INSUFFICIENT;
+                message = new InsufficientStockException(line.getProductId(), line.getQuantity(), available).getMessage();
+            }
+        }
+        return new StockBatchLineResult(index, line.getType(), line.getProductId(), line.getQuantity(), status, message);
+    }
+
+    private static StockBatchLineResult notFound(Long storeId, int index, StockBatchLine line) {
+        return new StockBatchLineResult(index, line.getType(), line.getProductId(), line.getQuantity(),
+                StockBatchLineResult.Status.NOT_FOUND,
+                new ProductNotFoundException(line.getProductId(), storeId).getMessage());
+    }
+
+    private Set<Long> unknownProducts(List<StockBatchLine> lines) {
+        Set<Long> productIds = new HashSet<>();
+        for (StockBatchLine line : lines) {
+            productIds.add(line.getProductId());
+        }
+        productIds.removeAll(productRepository.findExistingIds(productIds));
+        return productIds;
+    }
+
+    private void validateBatch(List<StockBatchLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new InvalidStockRequestException("Batch must contain at least one line");
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            StockBatchLine line = lines.get(i);
+            if (line.getType() == null || line.getProductId() == null) {
+                throw new InvalidStockRequestException("Line " + i + ": type and productId are mandatory");
+            }
+            if (line.getQuantity() == null || line.getQuantity() <= 0) {
+                throw new InvalidStockRequestException("Line " + i + ": quantity must be positive");
+            }
+        }
+    }
+
+    /*
+    Two first-time stock-ins for the same row can race on the INSERT branch of the MERGE; the row
+    exists afterwards, so one retry takes the UPDATE branch. Only a duplicate key is retried: a missing store/product row (foreign key) is answered
+    as ProductNotFoundException when the change is for a single product, anything else is rethrown.
+     */
+    private <T> T retryOnInsertRace(Long storeId, Long productId, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (DataIntegrityViolationException e) {
+                String sqlState = sqlState(e);
+                if (productId != null && FOREIGN_KEY_VIOLATIONS.contains(sqlState)) {
+                    throw new ProductNotFoundException(productId, storeId);
+                }
+                boolean duplicateKey = e instanceof DuplicateKeyException || UNIQUE_VIOLATION.equals(sqlState);
+                if (!duplicateKey || attempt > 1) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Hibernate and JdbcTemplate wrap the driver's exception differently; the SQLState is the same
+    private static String sqlState(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                return sqlException.getSQLState();
+            }
+        }
+        return null;
+    }
+
+    private void recordMovement(Long storeId, Long productId, StockOperation operation, int quantity) {
+        recordMovements(List.of(newMovement(storeId, productId, operation, quantity, LocalDateTime.now())));
+    }
+
+    // With the journal enabled the rows are queued for its next group commit (after this
+    // transaction commits); otherwise they are inserted here, in the caller's transaction
+    private void recordMovements(List<StockMovement> movements) {
+        if (movementJournal != null) {
+            movementJournal.appendAll(movements);
+            return;
+        }
+        stockMovementRepository.saveAll(movements);
+        stockMovementRepository.flush();
+        rollupService.record(movements);
+        movementFeed.publish(movements);
+    }
+
+    private StockMovement newMovement(Long storeId, Long productId, StockOperation operation, int quantity,
+                                      LocalDateTime timestamp) {
+        StockMovement movement = new StockMovement();
+        movement.setStoreId(storeId);
+        movement.setProductId(productId);
+        movement.setQuantityChange(operation.quantityChange(quantity));
+        movement.setMovementType(operation.getMovementType());
+        movement.setTimestamp(timestamp);
+        return movement;
+    }
+}
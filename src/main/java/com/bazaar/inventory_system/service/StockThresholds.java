@@ -0,0 +1,272 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.dto.LowStockAlert;
+import com.bazaar.inventory_system.model.ReorderThreshold;
+import com.bazaar.inventory_system.model.StockId;
+import com.bazaar.inventory_system.repository.ReorderThresholdRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+Reorder thresholds per (store, product), evaluated from memory on every committed quantity change.
+StockAvailability calls quantityChanged with the row's new quantity; rows without a threshold
+cost one map lookup. A row is low while its quantity is below the threshold:
+ - crossing below raises one LowStockAlert and adds the row to its store's low set,
+ - further sales while low raise nothing (edge-triggered),
+ - getting back to the threshold or above clears it, so the next crossing alerts again.
+GET /stores/{storeId}/low-stock reads the low set, never the stock table.
+
+Alerts go through a bounded in-memory outbox to the LowStockListener beans on their own thread,
+so a slow listener can't hold up a sale. When the outbox is full the alert is dropped and
+counted; the row still shows up in the low set. Alerts are not persisted across a restart.
+StockAvailability passes each row's absolute quantity and drops reports older than the one
+already applied, so a row only ever goes through quantities the table really had, in the row's
+own commit order: racing commits can't raise an alert for a dip that never happened.
+ */
+@Component
+public class StockThresholds {
+
+    private static final Logger log = LoggerFactory.getLogger(StockThresholds.class);
+
+    @Autowired
+    private ReorderThresholdRepository thresholdRepository;
+
+    @Autowired
+    private StockAvailability stockAvailability;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired(required = false)
+    private List<LowStockListener> listeners;
+
+    @Value("${inventory.low-stock.outbox-capacity:10000}")
+    private int outboxCapacity;
+
+    private final ConcurrentHashMap<StockId, RowThreshold> thresholds = new ConcurrentHashMap<>();
+    // storeId -> productId -> threshold, only for rows that are low right now
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, RowThreshold>> lowByStore = new ConcurrentHashMap<>();
+    private ArrayBlockingQueue<LowStockAlert> outbox;
+    private Thread dispatcher;
+    private volatile boolean running = true;
+
+    // Stats
+    private final AtomicLong raised = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        for (List<ReorderThreshold> shardThresholds : storeShards.scatter(shard -> thresholdRepository.findAll())) {
+            for (ReorderThreshold threshold : shardThresholds) {
+                register(threshold.getStoreId(), threshold.getProductId(), threshold.getThreshold(), false);
+            }
+        }
+        stockAvailability.addListener(this::quantityChanged);
+        outbox = new ArrayBlockingQueue<>(outboxCapacity);
+        dispatcher = asyncThreads.threadFactory("low-stock-outbox").newThread(this::dispatchLoop);
+        dispatcher.start();
+        log.info("Loaded {} reorder thresholds, {} rows low", thresholds.size(), getLowCount());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false; // the dispatcher delivers what is queued, then exits
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // Setting a threshold above the current quantity alerts right away
+    public ReorderThreshold setThreshold(Long storeId, Long productId, int threshold) {
+        ReorderThreshold saved = storeShards.write(storeId, () ->
+                thresholdRepository.save(new ReorderThreshold(storeId, productId, threshold)));
+        register(storeId, productId, threshold, true);
+        return saved;
+    }
+
+    public boolean removeThreshold(Long storeId, Long productId) {
+        StockId id = new StockId(storeId, productId);
+        boolean existed = storeShards.write(storeId, () -> {
+            if (!thresholdRepository.existsById(id)) {
+                return false;
+            }
+            thresholdRepository.deleteById(id);
+            return true;
+        });
+        if (!existed) {
+            return false;
+        }
+        RowThreshold row = thresholds.remove(id);
+        if (row != null) {
+            synchronized (row) {
+                row.removed = true;
+                clearLow(row);
+            }
+        }
+        return true;
+    }
+
+    // Low rows of one store, by productId, with their current quantity
+    public List<LowStockAlert> lowStock(Long storeId) {
+        Map<Long, RowThreshold> low = lowByStore.get(storeId);
+        if (low == null) {
+            return List.of();
+        }
+        List<LowStockAlert> alerts = new ArrayList<>(low.size());
+        for (RowThreshold row : low.values()) {
+            int level;
+            LocalDateTime since;
+            synchronized (row) {
+                level = row.level;
+                since = row.lowSince;
+            }
+            if (since != null) {
+                alerts.add(new LowStockAlert(storeId, row.productId,
+                        stockAvailability.quantity(storeId, row.productId), level, since));
+            }
+        }
+        alerts.sort(Comparator.comparing(LowStockAlert::getProductId));
+        return alerts;
+    }
+
+    public int getThresholdCount() {
+        return thresholds.size();
+    }
+
+    public int getLowCount() {
+        return lowByStore.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public long getRaisedCount() {
+        return raised.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public int getOutboxDepth() {
+        return outbox.size();
+    }
+
+    // --- Helper Methods ---
+
+    // Called by StockAvailability under the product's lock
+    private void quantityChanged(long storeId, long productId, int quantity) {
+        RowThreshold row = thresholds.get(new StockId(storeId, productId));
+        if (row == null) {
+            return;
+        }
+        synchronized (row) {
+            if (!row.removed) {
+                evaluate(row, quantity, true);
+            }
+        }
+    }
+
+    private void register(Long storeId, Long productId, int level, boolean alert) {
+        RowThreshold row = thresholds.computeIfAbsent(new StockId(storeId, productId),
+                id -> new RowThreshold(storeId, productId));
+        // Same lock order as quantityChanged: product first, then row
+        stockAvailability.inspect(storeId, productId, (store, product, quantity) -> {
+            synchronized (row) {
+                row.level = level;
+                evaluate(row, quantity, alert);
+            }
+        });
+    }
+
+    // Guarded by row
+    private void evaluate(RowThreshold row, int quantity, boolean alert) {
+        boolean low = quantity < row.level;
+        if (low && row.lowSince == null) {
+            row.lowSince = LocalDateTime.now();
+            lowByStore.computeIfAbsent(row.storeId, id -> new ConcurrentHashMap<>()).put(row.productId, row);
+            if (alert) {
+                publish(new LowStockAlert(row.storeId, row.productId, quantity, row.level, row.lowSince));
+            }
+        } else if (!low && row.lowSince != null) {
+            clearLow(row);
+        }
+    }
+
+    // Guarded by row
+    private void clearLow(RowThreshold row) {
+        row.lowSince = null;
+        Map<Long, RowThreshold> low = lowByStore.get(row.storeId);
+        if (low != null) {
+            low.remove(row.productId, row);
+        }
+    }
+
+    private void publish(LowStockAlert alert) {
+        raised.incrementAndGet();
+        if (!outbox.offer(alert)) {
+            dropped.incrementAndGet();
+            log.warn("Low-stock outbox full, dropped alert for store {} product {}",
+                    alert.getStoreId(), alert.getProductId());
+        }
+    }
+
+    private void dispatchLoop() {
+        while (running || !outbox.isEmpty()) {
+            LowStockAlert alert;
+            try {
+                alert = outbox.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (alert != null) {
+                deliver(alert);
+            }
+        }
+    }
+
+    private void deliver(LowStockAlert alert) {
+        if (listeners == null || listeners.isEmpty()) {
+            log.info("Low stock: store {} product {} at {} (threshold {})",
+                    alert.getStoreId(), alert.getProductId(), alert.getQuantity(), alert.getThreshold());
+            return;
+        }
+        for (LowStockListener listener : listeners) {
+            try {
+                listener.onLowStock(alert);
+            } catch (RuntimeException e) {
+                log.error("Low-stock listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private static final class RowThreshold {
+        final long storeId;
+        final long productId;
+        // All guarded by this
+        int level;
+        LocalDateTime lowSince; // null while not low
+        boolean removed;
+
+        RowThreshold(long storeId, long productId) {
+            this.storeId = storeId;
+            this.productId = productId;
+        }
+    }
+}
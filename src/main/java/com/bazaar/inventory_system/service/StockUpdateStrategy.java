@@ -0,0 +1,33 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockConcurrencyStats;
+
+import java.util.function.Supplier;
+
+/*
+How StockService changes the quantity of one stock row (addStock, sellProduct, removeStock),
+picked with inventory.stock-concurrency.strategy:
+  guarded      one conditional UPDATE ("quantity >= n") that checks and writes under the row lock
+               the database takes for the statement anyway (GuardedStockUpdates, the default)
+  optimistic   read quantity and version, write only if the version hasn't moved, retry with
+               jittered backoff otherwise (OptimisticStockUpdates)
+  pessimistic  SELECT ... FOR UPDATE first, then check and write while holding the lock, with a
+               lock wait timeout (PessimisticStockUpdates)
+All three keep the quantity from going below zero; they differ in how they behave when many
+requests hit the same row. Every other stock write (batches, ledger flushes, reconciliation
+repairs) bumps the version too, so they can run next to any of them.
+ */
+public interface StockUpdateStrategy {
+
+    // Wraps a whole change of the row (its transaction included), so the change can be run again
+    <T> T run(Long storeId, Long productId, Supplier<T> change);
+
+    // Both run inside the change's transaction and return the new quantity.
+    // A missing row is created by increment; decrement throws ProductNotFoundException or
+    // InsufficientStockException, which rolls back the transaction.
+    int increment(Long storeId, Long productId, int quantity);
+
+    int decrement(Long storeId, Long productId, int quantity);
+
+    StockConcurrencyStats stats();
+}
@@ -0,0 +1,201 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.ShardRows;
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.dto.StoreMoveReport;
+import com.bazaar.inventory_system.exception.InvalidInputException;
+import com.bazaar.inventory_system.exception.StoreMoveInProgressException;
+import com.bazaar.inventory_system.exception.StoreNotFoundException;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+Moves one store's rows to another shard while the store stays online:
+ 1. the movement log as of now is copied in the background, the store keeps selling meanwhile;
+ 2. the store is frozen (StoreShards.read() and write() wait), pending rollup deltas are flushed, and stock
+    rows, thresholds, rollups and archived totals are copied whole, movements newer than step 1 are added and ones deleted since are dropped;
+ 3. the store is pinned to the new shard in store_shard and unfrozen, so the waiting changes
+    go to the new shard;
+ 4. the old rows are deleted.
+The freeze lasts as long as step 2: it copies the stock rows and recent movements and compares
+the two shards' movement ids (an index scan), but never copies the whole history.
+Reads are held at the gate too, so none answers from the new shard before the copy or from the
+old one after the switch; the freeze in turn waits for reads in flight, a running export included.
+
+Refused in ledger and journal mode: both hold changes outside the database that the copy would miss.
+One move at a time.
+ */
+@Service
+public class StoreMoveService {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreMoveService.class);
+
+    // Copied whole while frozen; the movement log is handled separately
+    private static final List<String> FROZEN_TABLES =
+            List.of("stock", "stock_slot", "reorder_threshold", "stock_movement_rollup", "archived_movement_total");
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private StockMovementRollupService rollupService;
+
+    @Autowired(required = false) // only present when inventory.ledger.enabled=true
+    private StockLedger stockLedger;
+
+    @Autowired(required = false) // only present when inventory.journal.enabled=true
+    private StockMovementJournal movementJournal;
+
+    @Value("${inventory.sharding.move-chunk:1000}")
+    private int chunk;
+
+    private Long moving; // guarded by this
+    private int movingTo;
+
+    public StoreMoveReport move(Long storeId, int toShard) {
+        if (!storeShards.isSharded()) {
+            throw new InvalidInputException("Sharding is not enabled");
+        }
+        if (stockLedger != null || movementJournal != null) {
+            throw new InvalidInputException("Stores can't be moved in ledger or journal mode");
+        }
+        if (toShard < 0 || toShard >= storeShards.getShardCount()) {
+            throw new InvalidInputException("shard must be between 0 and " + (storeShards.getShardCount() - 1));
+        }
+        if (!storeRepository.existsById(storeId)) {
+            throw new StoreNotFoundException(storeId);
+        }
+        int fromShard = storeShards.shardOf(storeId);
+        if (fromShard == toShard) {
+            throw new InvalidInputException("Store " + storeId + " is already on shard " + toShard);
+        }
+        begin(storeId, toShard);
+        try {
+            return copy(storeId, fromShard, toShard);
+        } finally {
+            end();
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private synchronized void begin(Long storeId, int toShard) {
+        if (moving != null) {
+            throw new StoreMoveInProgressException(moving, movingTo);
+        }
+        moving = storeId;
+        movingTo = toShard;
+    }
+
+    private synchronized void end() {
+        moving = null;
+    }
+
+    private StoreMoveReport copy(Long storeId, int fromShard, int toShard) {
+        JdbcTemplate source = storeShards.jdbc(fromShard);
+        JdbcTemplate target = storeShards.jdbc(toShard);
+        long start = System.nanoTime();
+        long frozenMillis;
+        int stockRows = 0;
+        int movements;
+
+        deleteStoreRows(target, storeId); // leftovers of an earlier attempt
+        try {
+            long watermark = source.queryForObject(
+                    "SELECT COALESCE(MAX(stock_movement_id), 0) FROM stock_movement WHERE store_id = ?",
+                    Long.class, storeId);
+            movements = ShardRows.copy(source, target, "stock_movement", "store_id = ? AND stock_movement_id <= ?",
+                    new Object[]{storeId, watermark}, chunk);
+
+            storeShards.freeze(storeId);
+            long frozenAt = System.nanoTime();
+            try {
+                rollupService.flush(); // deltas of changes committed before the freeze, still on the old shard
+                for (String table : FROZEN_TABLES) {
+                    int rows = ShardRows.copy(source, target, table, "store_id = ?", new Object[]{storeId}, chunk);
+                    if (table.equals("stock")) {
+                        stockRows = rows;
+                    }
+                }
+                movements += ShardRows.copy(source, target, "stock_movement", "store_id = ? AND stock_movement_id > ?",
+                        new Object[]{storeId, watermark}, chunk);
+                movements += reconcileMovements(source, target, storeId);
+                storeShards.pin(storeId, toShard);
+            } finally {
+                storeShards.unfreeze(storeId);
+                frozenMillis = (System.nanoTime() - frozenAt) / 1_000_000;
+            }
+        } catch (RuntimeException e) {
+            log.error("Moving store {} from shard {} to {} failed, it stays on shard {}", storeId, fromShard, toShard,
+                    fromShard, e);
+            deleteStoreRows(target, storeId);
+            throw e;
+        }
+
+        deleteStoreRows(source, storeId);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Moved store {} from shard {} to {}: {} stock rows, {} movements, frozen {} ms, {} ms in all",
+                storeId, fromShard, toShard, stockRows, movements, frozenMillis, elapsedMillis);
+        return new StoreMoveReport(storeId, fromShard, toShard, stockRows, movements, frozenMillis, elapsedMillis,
+                LocalDateTime.now());
+    }
+
+    /*
+    Fixes what the two id-range copies can miss: movements deleted on the source after the bulk
+    copy, and ones that got an id below the watermark (ids are handed out in blocks) but committed
+    after it. Returns the change in the target's count.
+     */
+    private int reconcileMovements(JdbcTemplate source, JdbcTemplate target, Long storeId) {
+        String ids = "SELECT stock_movement_id FROM stock_movement WHERE store_id = ?";
+        Set<Long> sourceIds = new HashSet<>(source.queryForList(ids, Long.class, storeId));
+        List<Long> gone = new ArrayList<>();
+        for (Long id : target.queryForList(ids, Long.class, storeId)) {
+            if (!sourceIds.remove(id)) {
+                gone.add(id);
+            }
+        }
+        List<Long> missing = new ArrayList<>(sourceIds);
+        for (int from = 0; from < gone.size(); from += chunk) {
+            List<Long> part = gone.subList(from, Math.min(from + chunk, gone.size()));
+            target.update("DELETE FROM stock_movement WHERE stock_movement_id IN (" + placeholders(part.size()) + ")",
+                    part.toArray());
+        }
+        for (int from = 0; from < missing.size(); from += chunk) {
+            List<Long> part = missing.subList(from, Math.min(from + chunk, missing.size()));
+            ShardRows.copy(source, target, "stock_movement", "stock_movement_id IN (" + placeholders(part.size()) + ")",
+                    part.toArray(), chunk);
+        }
+        return missing.size() - gone.size();
+    }
+
+    // In chunks, so a large history isn't deleted in one statement
+    private void deleteStoreRows(JdbcTemplate jdbc, Long storeId) {
+        for (String table : List.of("archived_movement_total", "stock_movement_rollup", "reorder_threshold",
+                "stock_movement", "stock_slot", "stock")) {
+            int deleted;
+            do {
+                deleted = jdbc.update("DELETE FROM " + table + " WHERE store_id = ? FETCH FIRST " + chunk
+                        + " ROWS ONLY", storeId);
+            } while (deleted == chunk);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
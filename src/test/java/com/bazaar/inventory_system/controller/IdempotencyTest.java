@@ -0,0 +1,235 @@
+package com.bazaar.inventory_system.controller;
+
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.IdempotencyRecordRepository;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.bazaar.inventory_system.service.IdempotencyService;
+import com.bazaar.inventory_system.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Small memory store, so the eviction test reaches the durable table quickly
+@SpringBootTest(properties = "inventory.idempotency.max-entries=50")
+@AutoConfigureMockMvc
+class IdempotencyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyTest.class);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Test
+    void retriedSaleIsAppliedOnceAndReplayed() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 10);
+        String key = UUID.randomUUID().toString();
+
+        String first = sell(storeId, productId, 3, key).andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER))
+                .andReturn().getResponse().getContentAsString();
+        String retry = sell(storeId, productId, 3, key).andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retry);
+        assertEquals(7, stockRepository.findQuantity(storeId, productId).orElseThrow());
+        assertEquals(2, stockMovementRepository.findByStoreIdAndProductId(storeId, productId).size());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 10);
+        String key = UUID.randomUUID().toString();
+
+        sell(storeId, productId, 1, key).andExpect(status().isOk());
+        sell(storeId, productId, 2, key).andExpect(status().isUnprocessableEntity());
+        assertEquals(9, stockRepository.findQuantity(storeId, productId).orElseThrow());
+    }
+
+    @Test
+    void failedRequestReleasesItsKey() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 1);
+        String key = UUID.randomUUID().toString();
+
+        sell(storeId, productId, 5, key).andExpect(status().isConflict());
+        stockService.addStock(storeId, productId, 10);
+        sell(storeId, productId, 5, key).andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(6, stockRepository.findQuantity(storeId, productId).orElseThrow());
+    }
+
+    @Test
+    void concurrentRetriesApplyOnce() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 100);
+        String key = UUID.randomUUID().toString();
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return sell(storeId, productId, 1, key).andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+        for (Future<Integer> future : statuses) {
+            assertEquals(200, future.get(1, TimeUnit.MINUTES));
+        }
+        executor.shutdown();
+        assertEquals(99, stockRepository.findQuantity(storeId, productId).orElseThrow());
+    }
+
+    @Test
+    void keyEvictedFromMemoryIsAnsweredFromTable() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 1000);
+        String key = UUID.randomUUID().toString();
+
+        String first = stockIn(storeId, productId, 5, key).andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        // Push it out of the 50-entry memory store and into the table
+        for (int i = 0; i < 60; i++) {
+            sell(storeId, productId, 1, UUID.randomUUID().toString()).andExpect(status().isOk());
+        }
+        idempotencyService.spill();
+        assertTrue(recordRepository.existsById("stock-in /stores/" + storeId + " " + key));
+
+        long tableReplays = idempotencyService.getTableReplays();
+        String retry = stockIn(storeId, productId, 5, key).andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyService.REPLAYED_HEADER, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retry);
+        assertEquals(tableReplays + 1, idempotencyService.getTableReplays());
+        assertEquals(1000 + 5 - 60, stockRepository.findQuantity(storeId, productId).orElseThrow());
+    }
+
+    // Not a pass/fail check: logs the happy-path cost of a key, and the cost of a replay.
+    // Opt-in: mvn test -Dtest=IdempotencyTest -Didempotency.benchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "idempotency.benchmark", matches = "true")
+    void idempotencyKeyOverhead() throws Exception {
+        int requests = 500;
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 10 * requests);
+        for (int i = 0; i < 100; i++) { // warm up both paths
+            sell(storeId, productId, 1, null);
+            sell(storeId, productId, 1, UUID.randomUUID().toString());
+        }
+
+        // Interleaved, so drift over the run hits both sides alike
+        List<String> keys = new ArrayList<>();
+        long plainNanos = 0;
+        long keyedNanos = 0;
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            sell(storeId, productId, 1, null).andExpect(status().isOk());
+            plainNanos += System.nanoTime() - start;
+
+            String key = UUID.randomUUID().toString();
+            keys.add(key);
+            start = System.nanoTime();
+            sell(storeId, productId, 1, key).andExpect(status().isOk());
+            keyedNanos += System.nanoTime() - start;
+        }
+        long plainMicros = plainNanos / 1_000 / requests;
+        long keyedMicros = keyedNanos / 1_000 / requests;
+
+        long start = System.nanoTime();
+        for (String key : keys.subList(keys.size() - 40, keys.size())) { // still in memory
+            sell(storeId, productId, 1, key).andExpect(status().isOk());
+        }
+        long replayMicros = (System.nanoTime() - start) / 1_000 / 40;
+
+        log.info("sale without key {} us, with new key {} us (+{} us), replay from memory {} us",
+                plainMicros, keyedMicros, keyedMicros - plainMicros, replayMicros);
+    }
+
+    // --- Helper Methods ---
+
+    private ResultActions sell(Long storeId, Long productId, int quantity, String key) throws Exception {
+        return send("stores/" + storeId + "/sell", productId, quantity, key);
+    }
+
+    private ResultActions stockIn(Long storeId, Long productId, int quantity, String key) throws Exception {
+        return send("stores/" + storeId + "/stock-in", productId, quantity, key);
+    }
+
+    private ResultActions send(String path, Long productId, int quantity, String key) throws Exception {
+        MockHttpServletRequestBuilder request = post("/" + path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"productId\":" + productId + ",\"quantity\":" + quantity + "}");
+        if (key != null) {
+            request.header(IdempotencyService.HEADER, key);
+        }
+        return mockMvc.perform(request);
+    }
+
+    private Long newStore() {
+        return storeRepository.save(new Store("idempotency-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private Long newProduct() {
+        return productRepository.save(new Product(null, "Item", "Test", BigDecimal.ONE, null)).getProductId();
+    }
+}
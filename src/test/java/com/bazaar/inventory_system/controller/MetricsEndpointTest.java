@@ -0,0 +1,73 @@
+package com.bazaar.inventory_system.controller;
+
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.bazaar.inventory_system.service.HotStockRows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "inventory.metrics.hot-rows.window-ms=3600000")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockRows hotStockRows;
+
+    @Test
+    void scrapeShowsEndpointRepositoryErrorAndHotRowMetrics() throws Exception {
+        Long storeId = storeRepository.save(new Store("metrics-" + System.nanoTime(), "Test")).getStoreId();
+        Long productId = productRepository.save(new Product(null, "Item", "Test", BigDecimal.ONE, null)).getProductId();
+
+        mockMvc.perform(post("/stores/" + storeId + "/stock-in").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":" + productId + ",\"quantity\":2}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/stores/" + storeId + "/sell").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":" + productId + ",\"quantity\":5}"))
+                .andExpect(status().isConflict());
+
+        // Two overlapping changes of one row, then close the window
+        HotStockRows.RowActivity first = hotStockRows.enter(storeId, productId);
+        HotStockRows.RowActivity second = hotStockRows.enter(storeId, productId);
+        hotStockRows.exit(second);
+        hotStockRows.exit(first);
+        ReflectionTestUtils.invokeMethod(hotStockRows, "roll");
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "endpoint histogram");
+        assertTrue(scrape.contains("uri=\"/stores/{storeId}/sell\""), "per-endpoint tag");
+        assertTrue(scrape.contains("spring_data_repository_invocations_seconds_count{"), "repository timing");
+        assertTrue(scrape.contains("repository=\"StockRepository\""), "repository tag");
+        assertTrue(scrape.contains("inventory_repository_rows_count{"), "repository row counts");
+        assertTrue(scrape.contains("inventory_errors_total{exception=\"InsufficientStockException\"}"), "error counter");
+        assertTrue(scrape.contains("inventory_stock_row_contended{product=\"" + productId + "\",store=\"" + storeId
+                + "\"} 1.0"), "hot row gauge");
+    }
+}
@@ -0,0 +1,18 @@
+package com.bazaar.inventory_system.controller;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+// See ThreadingBenchmarkSupport for how to run it
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=false",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000",
+        "inventory.concurrency.max-in-flight=200",
+        "inventory.concurrency.acquire-timeout-ms=30000"
+})
+@DirtiesContext
+@EnabledIfSystemProperty(named = "threading.benchmark", matches = "true")
+class PlatformThreadsBenchmarkTest extends ThreadingBenchmarkSupport {
+}
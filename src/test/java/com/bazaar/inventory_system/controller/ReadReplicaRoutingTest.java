@@ -0,0 +1,157 @@
+package com.bazaar.inventory_system.controller;
+
+import com.bazaar.inventory_system.config.ReplicaLagMonitor;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static com.bazaar.inventory_system.config.ReplicaReadInterceptor.SESSION_COOKIE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+Two local H2 databases: the app's own as the primary and a named one as the replica. There is no
+replication between them, so replicate() copies the primary over (H2 SCRIPT), which is also how the
+test controls lag. Rows are then changed on the replica only, to see which database served a read.
+ */
+@SpringBootTest(properties = {
+        "inventory.read-replica.enabled=true",
+        "inventory.read-replica.url=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "inventory.read-replica.max-lag-ms=500",
+        "inventory.read-replica.heartbeat-ms=600000" // beats and probes are driven by the tests
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:read-replica-test;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    // Outside the app's read-only replica pool, standing in for the replication stream
+    private final JdbcTemplate replicaWriter = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @Test
+    void readsComeFromReplicaAndWritesGoToPrimary() throws Exception {
+        Long storeId = newStore();
+        replicate();
+        setReplicaLocation(storeId, "Replica");
+
+        mockMvc.perform(get("/stores/{storeId}", storeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.location").value("Replica"));
+
+        mockMvc.perform(put("/stores/{storeId}", storeId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(storeJson(storeId, "Updated")))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(SESSION_COOKIE));
+
+        assertEquals("Updated", storeRepository.findById(storeId).orElseThrow().getLocation());
+        assertEquals("Replica", replicaLocation(storeId));
+    }
+
+    @Test
+    void clientReadsItsOwnWritesUntilReplicaCatchesUp() throws Exception {
+        Long storeId = newStore();
+        replicate();
+        Cookie writer = new Cookie(SESSION_COOKIE, "writer");
+        Cookie reader = new Cookie(SESSION_COOKIE, "reader");
+
+        mockMvc.perform(put("/stores/{storeId}", storeId).cookie(writer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(storeJson(storeId, "Moved")))
+                .andExpect(status().isOk());
+
+        // Replica not caught up: the writer is kept on the primary, everyone else reads the old row
+        mockMvc.perform(get("/stores/{storeId}", storeId).cookie(writer))
+                .andExpect(jsonPath("$.location").value("Moved"));
+        mockMvc.perform(get("/stores/{storeId}", storeId).cookie(reader))
+                .andExpect(jsonPath("$.location").value("Primary"));
+        assertEquals(1, monitor.getTrackedSessions());
+
+        replicate();
+        setReplicaLocation(storeId, "Replica");
+        mockMvc.perform(get("/stores/{storeId}", storeId).cookie(writer))
+                .andExpect(jsonPath("$.location").value("Replica"));
+        assertEquals(0, monitor.getTrackedSessions());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() throws Exception {
+        Long storeId = newStore();
+        replicate();
+        setReplicaLocation(storeId, "Replica");
+        mockMvc.perform(get("/stores/{storeId}", storeId))
+                .andExpect(jsonPath("$.location").value("Replica"));
+
+        Thread.sleep(600); // nothing replicated for longer than max-lag-ms
+        monitor.beat();
+        monitor.probe();
+        assertFalse(monitor.isReplicaUsable());
+        long fallbacks = monitor.getLagFallbacks();
+        mockMvc.perform(get("/stores/{storeId}", storeId))
+                .andExpect(jsonPath("$.location").value("Primary"));
+        assertEquals(fallbacks + 1, monitor.getLagFallbacks());
+
+        replicate();
+        assertTrue(monitor.isReplicaUsable());
+        mockMvc.perform(get("/admin/read-replica"))
+                .andExpect(jsonPath("$.usable").value(true));
+    }
+
+    // --- Helper Methods ---
+
+    // Full copy of the primary, heartbeat included, then a probe so the monitor sees it right away
+    private void replicate() {
+        monitor.beat();
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT", String.class);
+        replicaWriter.execute("DROP ALL OBJECTS");
+        script.forEach(replicaWriter::execute);
+        monitor.probe();
+        assertTrue(monitor.isReplicaUsable());
+    }
+
+    private void setReplicaLocation(Long storeId, String location) {
+        replicaWriter.update("UPDATE store SET location = ? WHERE store_id = ?", location, storeId);
+    }
+
+    private String replicaLocation(Long storeId) {
+        return replicaWriter.queryForObject("SELECT location FROM store WHERE store_id = ?", String.class, storeId);
+    }
+
+    private Long newStore() {
+        return storeRepository.save(new Store("replica-" + System.nanoTime(), "Primary")).getStoreId();
+    }
+
+    private String storeJson(Long storeId, String location) {
+        Store store = storeRepository.findById(storeId).orElseThrow();
+        return "{\"name\":\"" + store.getName() + "\",\"location\":\"" + location + "\"}";
+    }
+}
@@ -0,0 +1,117 @@
+package com.bazaar.inventory_system.controller;
+
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StockMovementControllerPagingTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockMovementControllerPagingTest.class);
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    private Long storeId;
+
+    @BeforeEach
+    void seed() {
+        storeId = storeRepository.save(new Store("paging-" + System.nanoTime(), "Test")).getStoreId();
+        // Ten rows per timestamp, so pages have to break ties on stockMovementId
+        LocalDateTime base = LocalDateTime.now().minusDays(1).withNano(0);
+        List<StockMovement> movements = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            movements.add(new StockMovement(null, storeId, null, 1, "Stock-In",
+                    base.plusSeconds(i / 10), null, null));
+        }
+        stockMovementRepository.saveAll(movements);
+    }
+
+    @Test
+    void cursorWalksEveryRowOnceInOrder() throws Exception {
+        Set<Long> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        long start = System.nanoTime();
+        do {
+            String url = "/stores/" + storeId + "/stock-movements/page?limit=333" +
+                    (cursor != null ? "&cursor=" + cursor : "");
+            JsonNode page = objectMapper.readTree(mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            for (JsonNode item : page.get("items")) {
+                assertTrue(seen.add(item.get("stockMovementId").asLong()), "row returned twice");
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+        long pagedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(ROWS, seen.size());
+        assertEquals((ROWS + 332) / 333, pages);
+
+        start = System.nanoTime();
+        mockMvc.perform(get("/stores/" + storeId + "/stock-movements")).andExpect(status().isOk());
+        long fullListMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("{} movements: full list {} ms, {} keyset pages {} ms", ROWS, fullListMs, pages, pagedMs);
+    }
+
+    @Test
+    void exportStreamsOneJsonObjectPerLine() throws Exception {
+        long start = System.nanoTime();
+        MvcResult pending = mockMvc.perform(get("/stores/" + storeId + "/stock-movements/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long exportMs = (System.nanoTime() - start) / 1_000_000;
+
+        String[] lines = body.split("\n");
+        assertEquals(ROWS, lines.length);
+        assertEquals(storeId.longValue(), objectMapper.readTree(lines[0]).get("storeId").asLong());
+        log.info("{} movements: NDJSON export {} ms", ROWS, exportMs);
+    }
+
+    @Test
+    void rejectsGarbageCursor() throws Exception {
+        mockMvc.perform(get("/stores/" + storeId + "/stock-movements/page?cursor=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,224 @@
+package com.bazaar.inventory_system.controller;
+
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.bazaar.inventory_system.service.StockMovementFeed;
+import com.bazaar.inventory_system.service.StockService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A real port as well as MockMvc: idle and slow subscribers are only meaningful over actual sockets
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "inventory.movement-feed.buffer-size=16",
+        "inventory.movement-feed.replay-size=50"
+})
+@AutoConfigureMockMvc
+class StockMovementFeedTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockMovementFeed movementFeed;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void newMovementsArePushedToSubscribers() throws Exception {
+        Long storeId = newStore();
+        Long otherStoreId = newStore();
+        Long productId = newProduct();
+        MvcResult stream = subscribe(storeId, null);
+
+        stockService.addStock(storeId, productId, 10);
+        stockService.addStock(otherStoreId, productId, 10);
+        stockService.sellProduct(storeId, productId, 3);
+
+        waitFor(() -> events(stream).size() == 2);
+        String body = stream.getResponse().getContentAsString();
+        assertTrue(body.contains("\"quantityChange\":10"), body);
+        assertTrue(body.contains("\"quantityChange\":-3"), body);
+        assertFalse(body.contains("\"storeId\":" + otherStoreId + ","), body);
+    }
+
+    @Test
+    void reconnectResumesAfterLastEventId() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        MvcResult first = subscribe(storeId, null);
+        for (int i = 0; i < 5; i++) {
+            stockService.addStock(storeId, productId, 1);
+        }
+        waitFor(() -> events(first).size() == 5);
+        List<String> ids = events(first);
+
+        MvcResult resumed = subscribe(storeId, ids.get(2));
+        waitFor(() -> events(resumed).size() == 2);
+        assertEquals(ids.subList(3, 5), events(resumed));
+
+        MvcResult unknown = subscribe(storeId, "0-1");
+        waitFor(() -> content(unknown).contains("event:reset"));
+        assertTrue(events(unknown).isEmpty());
+    }
+
+    @Test
+    void unknownStoreIsNotFound() throws Exception {
+        mockMvc.perform(get("/stores/{storeId}/stock-movements/stream", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void idleSubscribersHoldNoRequestThreads() throws Exception {
+        Long storeId = newStore();
+        int before = movementFeed.getSubscriberCount();
+        List<Socket> idle = new ArrayList<>();
+        try {
+            // More than Tomcat's 200 request threads
+            for (int i = 0; i < 400; i++) {
+                idle.add(openStream(storeId, 0));
+            }
+            waitFor(() -> movementFeed.getSubscriberCount() == before + 400);
+
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/stores/" + storeId))
+                            .timeout(Duration.ofSeconds(5)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+        } finally {
+            for (Socket socket : idle) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    void slowConsumerIsDisconnected() throws Exception {
+        Long storeId = newStore();
+        long disconnectsBefore = movementFeed.getSlowDisconnectCount();
+        int subscribersBefore = movementFeed.getSubscriberCount();
+        try (Socket slow = openStream(storeId, 1024)) {
+            waitFor(() -> movementFeed.getSubscriberCount() == subscribersBefore + 1);
+            // Never read: once the socket buffers are full the sender blocks and the queue fills up
+            String padding = "x".repeat(1000);
+            for (int i = 0; i < 200_000 && movementFeed.getSlowDisconnectCount() == disconnectsBefore; i++) {
+                movementFeed.publish(List.of(new StockMovement((long) i, storeId, null, 1, padding,
+                        LocalDateTime.now(), null, null)));
+            }
+            assertTrue(movementFeed.getSlowDisconnectCount() > disconnectsBefore);
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private MvcResult subscribe(Long storeId, String lastEventId) throws Exception {
+        var get = get("/stores/{storeId}/stock-movements/stream", storeId);
+        if (lastEventId != null) {
+            get.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(get).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static List<String> events(MvcResult result) {
+        List<String> ids = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(content(result));
+        while (matcher.find()) {
+            ids.add(matcher.group(1));
+        }
+        return ids;
+    }
+
+    private static String content(MvcResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    // A raw connection that reads the response headers and then nothing more
+    private Socket openStream(Long storeId, int receiveBuffer) throws IOException {
+        Socket socket = new Socket();
+        if (receiveBuffer > 0) {
+            socket.setReceiveBufferSize(receiveBuffer);
+        }
+        socket.connect(new InetSocketAddress("localhost", port), 5000);
+        socket.setSoTimeout(5000);
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /stores/" + storeId + "/stock-movements/stream HTTP/1.1\r\nHost: localhost\r\n"
+                + "Accept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        InputStream in = socket.getInputStream();
+        byte[] statusLine = new byte[12];
+        int read = 0;
+        while (read < statusLine.length) {
+            int n = in.read(statusLine, read, statusLine.length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        assertEquals("HTTP/1.1 200", new String(statusLine, 0, read, StandardCharsets.US_ASCII));
+        return socket;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private Long newStore() {
+        return storeRepository.save(new Store("feed-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private Long newProduct() {
+        return productRepository.save(new Product(null, "Feed " + System.nanoTime(), "Test", BigDecimal.ONE, null))
+                .getProductId();
+    }
+}
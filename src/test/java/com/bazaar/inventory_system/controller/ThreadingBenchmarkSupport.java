@@ -0,0 +1,213 @@
+package com.bazaar.inventory_system.controller;
+
+import com.bazaar.inventory_system.config.AsyncThreads;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.bazaar.inventory_system.service.StockService;
+import com.sun.management.UnixOperatingSystemMXBean;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Closed-loop HTTP load against a real Tomcat: N clients each send a request, wait for the answer,
+send the next. 80% GET /stores/{id}/stock/{productId}, 20% POST /stores/{id}/sell. Logs
+throughput, p50/p99 latency and error counts per client count. The subclasses only differ in
+spring.threads.virtual.enabled, so two runs give the platform vs virtual comparison.
+
+Not a pass/fail check, and off by default:
+  mvn test -Dthreading.benchmark=true -Dtest='*ThreadsBenchmarkTest'
+  -Dthreading.benchmark.clients=1000,5000,10000   client counts (default)
+  -Dthreading.benchmark.seconds=10                measured seconds per client count
+Client and server share the process, so each client needs two file descriptors: levels that
+don't fit under the fd limit are skipped (raise it with ulimit -n).
+ */
+abstract class ThreadingBenchmarkSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingBenchmarkSupport.class);
+
+    private static final int PRODUCTS = 200;
+    private static final int WARMUP_SECONDS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private AsyncThreads asyncThreads;
+
+    @Test
+    void closedLoopThroughputAndLatency() throws Exception {
+        int seconds = Integer.getInteger("threading.benchmark.seconds", 10);
+        int[] levels = Arrays.stream(System.getProperty("threading.benchmark.clients", "1000,5000,10000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+        Long storeId = storeRepository.save(new Store("threading-" + System.nanoTime(), "Test")).getStoreId();
+        List<Long> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Long productId = productRepository.save(new Product(null, "Item " + i, "Test", BigDecimal.ONE, null))
+                    .getProductId();
+            stockService.addStock(storeId, productId, 10_000_000);
+            products.add(productId);
+        }
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(2);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(callbacks)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        String mode = asyncThreads.isVirtual() ? "virtual" : "platform";
+        try {
+            run(client, storeId, products, Math.min(levels[0], 200), WARMUP_SECONDS); // JIT, pools, connections
+            for (int clients : levels) {
+                if (!enoughFileDescriptors(clients)) {
+                    log.info("{} threads, {} clients: skipped, fd limit too low", mode, clients);
+                    continue;
+                }
+                Result result = run(client, storeId, products, clients, seconds);
+                log.info("{} threads, {} clients: {} req/s, p50 {} ms, p99 {} ms, max {} ms, errors {} (503: {})",
+                        mode, clients, Math.round(result.throughput()), oneDecimal(result.percentile(0.50)),
+                        oneDecimal(result.percentile(0.99)), oneDecimal(result.percentile(1.0)), result.errors,
+                        result.busy);
+                assertTrue(result.latencies.length > 0);
+            }
+        } finally {
+            callbacks.shutdownNow(); // HttpClient itself has no close() before Java 21
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private static String oneDecimal(double millis) {
+        return String.format("%.1f", millis);
+    }
+
+    private Result run(HttpClient client, Long storeId, List<Long> products, int clients, int seconds) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong busy = new AtomicLong();
+        List<LatencyLog> logs = new ArrayList<>(clients);
+        List<CompletableFuture<Void>> loops = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            LatencyLog log = new LatencyLog();
+            logs.add(log);
+            loops.add(loop(client, storeId, products, deadline, log, errors, busy));
+        }
+        CompletableFuture.allOf(loops.toArray(new CompletableFuture[0])).join();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] all = logs.stream().map(LatencyLog::toArray).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, elapsedSeconds, errors.get(), busy.get());
+    }
+
+    private CompletableFuture<Void> loop(HttpClient client, Long storeId, List<Long> products, long deadline,
+                                         LatencyLog log, AtomicLong errors, AtomicLong busy) {
+        if (System.nanoTime() >= deadline) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long sent = System.nanoTime();
+        return client.sendAsync(nextRequest(storeId, products), HttpResponse.BodyHandlers.discarding())
+                .handle((response, failure) -> {
+                    log.add(System.nanoTime() - sent);
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.incrementAndGet();
+                        if (response != null && response.statusCode() == 503) {
+                            busy.incrementAndGet();
+                        }
+                    }
+                    return null;
+                })
+                .thenCompose(v -> loop(client, storeId, products, deadline, log, errors, busy));
+    }
+
+    private HttpRequest nextRequest(Long storeId, List<Long> products) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long productId = products.get(random.nextInt(products.size()));
+        String base = "http://localhost:" + port + "/stores/" + storeId;
+        if (random.nextInt(5) == 0) {
+            return HttpRequest.newBuilder(URI.create(base + "/sell"))
+                    .timeout(Duration.ofSeconds(60))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"productId\":" + productId + ",\"quantity\":1}"))
+                    .build();
+        }
+        return HttpRequest.newBuilder(URI.create(base + "/stock/" + productId))
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+    }
+
+    private static boolean enoughFileDescriptors(int clients) {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof UnixOperatingSystemMXBean unix) {
+            return unix.getOpenFileDescriptorCount() + 2L * clients + 500 <= unix.getMaxFileDescriptorCount();
+        }
+        return true;
+    }
+
+    // One per client, so only ever touched by one request chain at a time
+    private static final class LatencyLog {
+        private long[] values = new long[256];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private record Result(long[] latencies, double elapsedSeconds, long errors, long busy) {
+
+        double throughput() {
+            return latencies.length / elapsedSeconds;
+        }
+
+        double percentile(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(p * latencies.length) - 1);
+            return latencies[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
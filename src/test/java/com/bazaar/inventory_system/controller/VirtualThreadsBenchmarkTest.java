@@ -0,0 +1,21 @@
+package com.bazaar.inventory_system.controller;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+// Same load as PlatformThreadsBenchmarkTest on virtual threads; needs a Java 21+ runtime
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "server.tomcat.max-connections=20000",
+        "server.tomcat.accept-count=10000",
+        "inventory.concurrency.max-in-flight=200",
+        "inventory.concurrency.acquire-timeout-ms=30000"
+})
+@DirtiesContext
+@EnabledIfSystemProperty(named = "threading.benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsBenchmarkTest extends ThreadingBenchmarkSupport {
+}
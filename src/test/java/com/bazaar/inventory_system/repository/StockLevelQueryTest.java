@@ -0,0 +1,108 @@
+package com.bazaar.inventory_system.repository;
+
+import com.bazaar.inventory_system.dto.StockLevel;
+import com.bazaar.inventory_system.model.Stock;
+import com.bazaar.inventory_system.model.Store;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Statement counts come from Hibernate statistics, so this runs in its own context with them switched on
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@DirtiesContext
+class StockLevelQueryTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLevelQueryTest.class);
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingIsOneStatementWhateverTheStoreSize() {
+        Long storeId = newStoreWithSkus(200);
+
+        assertEquals(1, statements(() -> stockRepository.findLevels(storeId)));
+        assertEquals(1, statements(() -> stockRepository.findLevelsWithProduct(storeId)));
+        // The entity query it replaces: the listing plus a select per product for the EAGER association
+        assertTrue(statements(() -> stockRepository.findByStoreId(storeId)) > 200);
+
+        List<StockLevel> levels = stockRepository.findLevelsWithProduct(storeId);
+        assertEquals(200, levels.size());
+        assertEquals(storeId, levels.get(0).getStoreId());
+        assertEquals("Product 0", levels.get(0).getProductName());
+        assertEquals("Category 0", levels.get(0).getCategory());
+        assertEquals(0, levels.get(0).getQuantity());
+        assertNull(stockRepository.findLevels(storeId).get(0).getProductName());
+    }
+
+    // Not a pass/fail check: logs listing latency for a store with 50k SKUs.
+    // Opt-in: mvn test -Dtest=StockLevelQueryTest -Dstock.level.benchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "stock.level.benchmark", matches = "true")
+    void fiftyThousandSkuListing() {
+        Long storeId = newStoreWithSkus(50_000);
+        stockRepository.findLevels(storeId); // warm-up
+
+        long start = System.nanoTime();
+        List<StockLevel> lean = stockRepository.findLevels(storeId);
+        long leanMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        List<StockLevel> detailed = stockRepository.findLevelsWithProduct(storeId);
+        long detailedMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        List<Stock> entities = stockRepository.findByStoreId(storeId);
+        long entityMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(50_000, lean.size());
+        assertEquals(50_000, detailed.size());
+        assertEquals(50_000, entities.size());
+        log.info("50k SKUs: projection {} ms, projection+product {} ms, entities (EAGER) {} ms",
+                leanMs, detailedMs, entityMs);
+    }
+
+    // --- Helper Methods ---
+
+    private long statements(Supplier<?> query) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        query.get();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Long newStoreWithSkus(int skus) {
+        Long storeId = storeRepository.save(new Store("levels-" + System.nanoTime(), "Test")).getStoreId();
+        Long firstProduct = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(product_id), 0) FROM product", Long.class) + 1;
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> stock = new ArrayList<>();
+        for (int i = 0; i < skus; i++) {
+            products.add(new Object[]{firstProduct + i, "Product " + i, "Category " + i % 20});
+            stock.add(new Object[]{storeId, firstProduct + i, i % 100});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO product (product_id, name, category, price) VALUES (?, ?, ?, 1)", products);
+        jdbcTemplate.batchUpdate("INSERT INTO stock (store_id, product_id, quantity) VALUES (?, ?, ?)", stock);
+        return storeId;
+    }
+}
@@ -0,0 +1,126 @@
+package com.bazaar.inventory_system.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+Query-plan regression test: EXPLAIN the SQL shape of each StockMovementRepository access path
+and check that H2 picks the composite index meant for it instead of a scan or the bare FK index.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StockMovementQueryPlanTest {
+
+    private static final String STORE_INDEX = "IDX_MOVEMENT_STORE_MONTH_TIME";
+    private static final String PRODUCT_INDEX = "IDX_MOVEMENT_STORE_PRODUCT_MONTH_TIME";
+    private static final String MONTH_INDEX = "IDX_MOVEMENT_MONTH";
+
+    // Seeded ids sit far above anything the sequence hands out to the other tests sharing this database
+    private static final long SEED_BASE = 1_000_000_000L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /*
+    Plans depend on statistics, so give the optimizer a realistic spread of stores, products and months.
+    The default seed keeps the suite fast; -Dquery.plan.volume=true seeds 20,000 rows and adds the
+    checks whose plan only flips at that size.
+     */
+    @BeforeAll
+    void seed() {
+        int seedRows = Boolean.getBoolean("query.plan.volume") ? 20_000 : 2_000;
+        List<Object[]> rows = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < seedRows; i++) {
+            LocalDateTime timestamp = start.plusHours((long) i * 8_000 / seedRows);
+            rows.add(new Object[]{SEED_BASE + i, SEED_BASE + i % 50, SEED_BASE + i % 400, 1, "SALE",
+                    Timestamp.valueOf(timestamp), timestamp.getYear() * 100 + timestamp.getMonthValue()});
+        }
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.batchUpdate("INSERT INTO stock_movement (stock_movement_id, store_id, product_id, " +
+                "quantity_change, movement_type, timestamp, movement_month) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void removeSeed() {
+        jdbcTemplate.update("DELETE FROM stock_movement WHERE stock_movement_id >= ?", SEED_BASE);
+    }
+
+    // Unordered store lookups (findByStoreId) may equally use the plain store_id index H2 creates for the FK
+    @Test
+    void byStoreDoesNotScan() {
+        assertNoTableScan("SELECT * FROM stock_movement WHERE store_id = 1000000001");
+    }
+
+    @Test
+    void byStoreAndTimeRangeUsesStoreIndex() {
+        assertUses(STORE_INDEX, "SELECT * FROM stock_movement WHERE store_id = 1000000001 " +
+                "AND movement_month BETWEEN 202401 AND 202403 " +
+                "AND timestamp BETWEEN TIMESTAMP '2024-01-15 00:00:00' AND TIMESTAMP '2024-03-01 00:00:00'");
+    }
+
+    // With few rows per product H2 is as happy with the store index
+    @Test
+    @EnabledIfSystemProperty(named = "query.plan.volume", matches = "true")
+    void byStoreAndProductUsesProductIndex() {
+        assertUses(PRODUCT_INDEX, "SELECT * FROM stock_movement WHERE store_id = 1000000001 AND product_id = 1000000002");
+    }
+
+    @Test
+    void byStoreProductAndTimeRangeUsesProductIndex() {
+        assertUses(PRODUCT_INDEX, "SELECT * FROM stock_movement WHERE store_id = 1000000001 AND product_id = 1000000002 " +
+                "AND movement_month BETWEEN 202401 AND 202403 " +
+                "AND timestamp BETWEEN TIMESTAMP '2024-01-15 00:00:00' AND TIMESTAMP '2024-03-01 00:00:00'");
+    }
+
+    @Test
+    void firstKeysetPageUsesStoreIndex() {
+        assertUses(STORE_INDEX, "SELECT * FROM stock_movement WHERE store_id = 1000000001 AND timestamp IS NOT NULL " +
+                "AND movement_month >= 0 ORDER BY movement_month, timestamp, stock_movement_id FETCH FIRST 100 ROWS ONLY");
+    }
+
+    @Test
+    void keysetPageUsesStoreIndex() {
+        assertUses(STORE_INDEX, "SELECT * FROM stock_movement WHERE store_id = 1000000001 AND timestamp IS NOT NULL " +
+                "AND movement_month >= 202402 " +
+                "AND (timestamp > TIMESTAMP '2024-02-01 00:00:00' " +
+                "OR (timestamp = TIMESTAMP '2024-02-01 00:00:00' AND stock_movement_id > 10)) " +
+                "ORDER BY movement_month, timestamp, stock_movement_id FETCH FIRST 100 ROWS ONLY");
+    }
+
+    @Test
+    void dropOldMonthsUsesMonthIndex() {
+        assertUses(MONTH_INDEX, "DELETE FROM stock_movement WHERE movement_month < 202402");
+    }
+
+    // --- Helper Methods ---
+
+    private void assertUses(String index, String sql) {
+        String plan = explain(sql);
+        assertTrue(plan.toUpperCase().contains(index), () -> "expected " + index + " in plan:\n" + plan);
+    }
+
+    private void assertNoTableScan(String sql) {
+        String plan = explain(sql);
+        assertFalse(plan.contains("tableScan"), () -> "unexpected table scan in plan:\n" + plan);
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
@@ -0,0 +1,13 @@
+package com.bazaar.inventory_system.service;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+// See StockContentionBenchmarkSupport.
+// Opt-in: mvn test -Dtest=GuardedStockContentionBenchmarkTest -Dstock.contention.benchmark=true
+@SpringBootTest(properties = "inventory.stock-concurrency.strategy=guarded")
+@DirtiesContext
+@EnabledIfSystemProperty(named = "stock.contention.benchmark", matches = "true")
+class GuardedStockContentionBenchmarkTest extends StockContentionBenchmarkSupport {
+}
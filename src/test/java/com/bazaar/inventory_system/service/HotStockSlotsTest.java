@@ -0,0 +1,205 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ReconciliationReport;
+import com.bazaar.inventory_system.dto.StockBatchLine;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockId;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.StockOperation;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StockSlotRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Rebalancing only runs when called, so the test decides when slots are evened out
+@SpringBootTest(properties = {
+        "inventory.hot-stock.enabled=true",
+        "inventory.hot-stock.slots=4",
+        "inventory.hot-stock.rebalance-ms=0",
+        "inventory.hot-stock.split-contended=50",
+        "inventory.hot-stock.cool-contended=5",
+        "inventory.hot-stock.cool-windows=2"
+})
+class HotStockSlotsTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private HotStockSlots hotStockSlots;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockReconciliationService reconciliationService;
+
+    @Autowired
+    private StockAvailability stockAvailability;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockSlotRepository slotRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void splitRowNeverOversells() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 100);
+        assertTrue(hotStockSlots.split(storeId, productId, true));
+        assertEquals(4, slotRepository.findSlots(storeId, productId).size());
+        assertEquals(0, stockRepository.findVersionedQuantity(storeId, productId).orElseThrow().getQuantity());
+        assertEquals(100, stockService.findStock(storeId, productId).orElseThrow().getQuantity());
+
+        // Sales race restocks (into the reserve) and rebalances (out of it)
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger restocked = new AtomicInteger();
+        AtomicBoolean selling = new AtomicBoolean(true);
+        ExecutorService background = Executors.newSingleThreadExecutor();
+        Future<?> restocking = background.submit(() -> {
+            while (selling.get()) {
+                stockService.addStock(storeId, productId, 2);
+                restocked.addAndGet(2);
+                hotStockSlots.rebalance();
+            }
+            return null;
+        });
+        runConcurrently(THREADS, 15, () -> {
+            try {
+                stockService.sellProduct(storeId, productId, 1);
+                sold.incrementAndGet();
+            } catch (InsufficientStockException e) {
+                rejected.incrementAndGet();
+            }
+        });
+        selling.set(false);
+        restocking.get(1, TimeUnit.MINUTES);
+        background.shutdown();
+
+        int quantity = stockService.findStock(storeId, productId).orElseThrow().getQuantity();
+        assertEquals(THREADS * 15, sold.get() + rejected.get());
+        assertEquals(100 + restocked.get() - sold.get(), quantity);
+        assertTrue(quantity >= 0);
+        assertEquals(quantity, stockMovementRepository.findByStoreIdAndProductId(storeId, productId).stream()
+                .mapToInt(StockMovement::getQuantityChange).sum());
+        assertEquals(quantity, stockRepository.findLevels(storeId).get(0).getQuantity());
+        // Slot writes don't report a quantity; availability reads the row back after they commit
+        await(() -> stockAvailability.quantity(storeId, productId) == quantity);
+        ReconciliationReport report = reconciliationService.run(false);
+        assertEquals(0, report.getMismatches(), () -> report.getDrifts().toString());
+
+        assertTrue(hotStockSlots.collapse(storeId, productId));
+        assertFalse(hotStockSlots.isSplit(storeId, productId));
+        assertTrue(slotRepository.findSlots(storeId, productId).isEmpty());
+        assertEquals(quantity, stockRepository.findVersionedQuantity(storeId, productId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    void salesGatherUnitsSpreadOverSlots() {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 100);
+        hotStockSlots.split(storeId, productId, true); // 25 per slot
+
+        // No slot holds 30: the sale drains the slots into the reserve and takes them from there
+        assertEquals(70, stockService.sellProduct(storeId, productId, 30).getQuantity());
+        InsufficientStockException e = assertThrows(InsufficientStockException.class,
+                () -> stockService.sellProduct(storeId, productId, 71));
+        assertTrue(e.getMessage().contains("70"), e.getMessage());
+
+        hotStockSlots.rebalance();
+        assertTrue(stockService.applyBatch(storeId, List.of(
+                new StockBatchLine(StockOperation.SALE, productId, 40),
+                new StockBatchLine(StockOperation.STOCK_IN, productId, 5))).isCommitted());
+        assertEquals(35, stockService.findStock(storeId, productId).orElseThrow().getQuantity());
+        hotStockSlots.collapse(storeId, productId);
+    }
+
+    @Test
+    void contendedRowsSplitAndCoolDown() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 10);
+
+        hotStockSlots.onContention(Map.of(new StockId(storeId, productId), 80L));
+        await(() -> hotStockSlots.isSplit(storeId, productId));
+        assertEquals(10, stockService.findStock(storeId, productId).orElseThrow().getQuantity());
+
+        hotStockSlots.onContention(Map.of(new StockId(storeId, productId), 3L));
+        hotStockSlots.onContention(Map.of());
+        await(() -> !hotStockSlots.isSplit(storeId, productId));
+        assertTrue(slotRepository.findSlots(storeId, productId).isEmpty());
+        assertEquals(10, stockRepository.findVersionedQuantity(storeId, productId).orElseThrow().getQuantity());
+    }
+
+    // --- Helper Methods ---
+
+    private void runConcurrently(int threads, int iterations, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < iterations; i++) {
+                    task.run();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    private Long newStore() {
+        return storeRepository.save(new Store("hot-stock-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private Long newProduct() {
+        return productRepository.save(new Product(null, "Flash " + System.nanoTime(), "Test", BigDecimal.ONE, null))
+                .getProductId();
+    }
+}
@@ -0,0 +1,216 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ReconciliationReport;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Archiving only runs when called; segments go to a temp directory
+@SpringBootTest(properties = {
+        "inventory.archive.enabled=true",
+        "inventory.archive.interval-ms=0",
+        "inventory.archive.min-age-days=90"
+})
+@AutoConfigureMockMvc
+class MovementArchiveTest {
+
+    private static final Path DIRECTORY = tempDirectory();
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) {
+        registry.add("inventory.archive.dir", DIRECTORY::toString);
+    }
+
+    @Autowired
+    private MovementArchive movementArchive;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockReconciliationService reconciliationService;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void archivedMovementsReadTheSameAsBefore() throws Exception {
+        Long storeId = storeRepository.save(new Store("archive-" + System.nanoTime(), "Test")).getStoreId();
+        Long productId = newProduct();
+        Long otherProductId = newProduct();
+        LocalDateTime old = LocalDateTime.now().minusDays(250).withNano(123_456_789);
+        for (int i = 0; i < 300; i++) {
+            // Three rows per timestamp, so the order has to break ties on the id
+            LocalDateTime timestamp = old.plusMinutes(i / 3 * 700L);
+            stockService.createMovement(new StockMovement(null, storeId, i % 2 == 0 ? productId : otherProductId,
+                    i % 5 == 0 ? -3 : 7, i % 7 == 0 ? "Sale" : "Stock-In", timestamp, null, null));
+        }
+        stockService.createMovement(new StockMovement(null, storeId, null, null, "Manual", old, null, null));
+        stockService.addStock(storeId, productId, 11);
+        stockService.sellProduct(storeId, productId, 4);
+        reconciliationService.run(true); // stock = movement sums, so any drift below comes from archiving
+
+        List<String> queries = List.of("", "?productId=" + productId,
+                "?startDate=" + old.plusDays(20) + "&endDate=" + old.plusDays(90),
+                "?productId=" + otherProductId + "&startDate=" + old.plusDays(30) + "&endDate=" + LocalDateTime.now());
+        Map<String, Object> before = new TreeMap<>();
+        for (String query : queries) {
+            before.put("list" + query, byId(getJson("/stores/" + storeId + "/stock-movements" + query)));
+            before.put("page" + query, pageThrough(storeId, query));
+            before.put("export" + query, export(storeId, query));
+        }
+
+        Map<String, Object> run = movementArchive.archive();
+        assertEquals(301L, run.get("movements"));
+        assertTrue((Integer) run.get("segments") >= 2);
+        assertEquals(2, stockMovementRepository.findByStoreId(storeId).size());
+
+        for (String query : queries) {
+            assertEquals(before.get("list" + query),
+                    byId(getJson("/stores/" + storeId + "/stock-movements" + query)), "list" + query);
+            assertEquals(before.get("page" + query), pageThrough(storeId, query), "page" + query);
+            assertEquals(before.get("export" + query), export(storeId, query), "export" + query);
+        }
+        ReconciliationReport report = reconciliationService.run(false);
+        assertEquals(0, report.getMismatches(), () -> report.getDrifts().toString());
+
+        // A late row in an archived month becomes a second part of that month
+        stockService.createMovement(new StockMovement(null, storeId, productId, 1, "Stock-In",
+                old.plusMinutes(1), null, null));
+        List<Long> ids = pageThrough(storeId, "");
+        assertEquals(1L, movementArchive.archive().get("movements"));
+        assertEquals(ids, pageThrough(storeId, ""));
+    }
+
+    @Test
+    void segmentRoundTripsEveryColumn() {
+        Long storeId = 42L;
+        LocalDateTime base = LocalDateTime.of(2021, 3, 1, 0, 0, 0, 1);
+        List<StockMovement> movements = new ArrayList<>();
+        movements.add(new StockMovement(5L, storeId, 900L, Integer.MIN_VALUE, "Sale", base, null, null));
+        movements.add(new StockMovement(3L, storeId, null, null, null, base, null, null));
+        movements.add(new StockMovement(1_000_000_000_000L, storeId, 1L, Integer.MAX_VALUE, "Stock-In",
+                base.plusDays(30).withNano(999_999_999), null, null));
+        movements.add(new StockMovement(7L, storeId, 900L, 0, "Sale", base.plusDays(30).withNano(999_999_999),
+                null, null));
+        movements.sort(MovementArchive.ORDER);
+
+        MovementSegment segment = MovementSegment.write(DIRECTORY.resolve("round-trip.seg"), storeId, 202103, 0,
+                movements);
+        assertEquals(4, segment.rows);
+        assertEquals(3L, segment.minId);
+        assertEquals(1_000_000_000_000L, segment.maxId);
+        List<StockMovement> read = MovementSegment.open(DIRECTORY.resolve("round-trip.seg"), storeId, 202103, 0)
+                .read();
+        for (int i = 0; i < movements.size(); i++) {
+            StockMovement expected = movements.get(i);
+            StockMovement actual = read.get(i);
+            assertEquals(expected.getStockMovementId(), actual.getStockMovementId());
+            assertEquals(storeId, actual.getStoreId());
+            assertEquals(expected.getProductId(), actual.getProductId());
+            assertEquals(expected.getQuantityChange(), actual.getQuantityChange());
+            assertEquals(expected.getMovementType(), actual.getMovementType());
+            assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        }
+
+        // Pruning works on the header alone
+        assertTrue(segment.overlaps(null, null));
+        assertTrue(segment.overlaps(base, base));
+        assertFalse(segment.overlaps(base.plusDays(31), null));
+        assertFalse(segment.overlaps(null, base.minusNanos(1)));
+    }
+
+    // --- Helper Methods ---
+
+    private JsonNode getJson(String url) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    // The list endpoint doesn't promise an order, so compare it row by row
+    private static Map<Long, JsonNode> byId(JsonNode movements) {
+        Map<Long, JsonNode> rows = new TreeMap<>();
+        movements.forEach(movement -> rows.put(movement.get("stockMovementId").asLong(), movement));
+        return rows;
+    }
+
+    private List<Long> pageThrough(Long storeId, String query) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            String url = "/stores/" + storeId + "/stock-movements/page" + (query.isEmpty() ? "?" : query + "&")
+                    + "limit=7" + (cursor != null ? "&cursor=" + cursor : "");
+            JsonNode page = getJson(url);
+            page.get("items").forEach(item -> ids.add(item.get("stockMovementId").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private String export(Long storeId, String query) throws Exception {
+        MvcResult pending = mockMvc.perform(get("/stores/" + storeId + "/stock-movements/export" + query))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private Long newProduct() {
+        return productRepository.save(new Product(null, "Archived " + System.nanoTime(), "Test", BigDecimal.ONE, null))
+                .getProductId();
+    }
+
+    private static Path tempDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("movement-archive");
+            directory.toFile().deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
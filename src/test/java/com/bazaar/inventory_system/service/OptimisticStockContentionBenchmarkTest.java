@@ -0,0 +1,13 @@
+package com.bazaar.inventory_system.service;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+// See StockContentionBenchmarkSupport.
+// Opt-in: mvn test -Dtest=OptimisticStockContentionBenchmarkTest -Dstock.contention.benchmark=true
+@SpringBootTest(properties = "inventory.stock-concurrency.strategy=optimistic")
+@DirtiesContext
+@EnabledIfSystemProperty(named = "stock.contention.benchmark", matches = "true")
+class OptimisticStockContentionBenchmarkTest extends StockContentionBenchmarkSupport {
+}
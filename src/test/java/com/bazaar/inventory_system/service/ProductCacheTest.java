@@ -0,0 +1,144 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductCacheStats;
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.product-cache.type=memory",
+        "inventory.product-cache.max-entries=100",
+        "inventory.product-cache.ttl-ms=300"
+})
+class ProductCacheTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCacheTest.class);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void repeatedReadIsServedFromCache() {
+        Long productId = productService.create(product("Cached lamp", "Lighting")).getProductId();
+
+        productService.findById(productId);
+        ProductCacheStats before = productCache.stats();
+        assertEquals("Cached lamp", productService.findById(productId).orElseThrow().getName());
+
+        assertEquals(before.getHits() + 1, productCache.stats().getHits());
+        assertEquals(before.getLoads(), productCache.stats().getLoads());
+    }
+
+    @Test
+    void updateDropsOnlyTheSearchesItAffects() {
+        String tag = "t" + System.nanoTime();
+        Long productId = productService.create(product("Apple " + tag, "Fruit")).getProductId();
+        productService.create(product("Kiwi " + tag, "Fruit"));
+
+        assertEquals(1, search("apple " + tag).size());
+        assertEquals(1, search("kiwi " + tag).size());
+        assertEquals(0, search("pear " + tag).size());
+
+        productService.update(productId, product("Pear " + tag, "Fruit"));
+
+        long loads = productCache.stats().getLoads();
+        assertEquals(1, search("kiwi " + tag).size()); // untouched: still a hit
+        assertEquals(loads, productCache.stats().getLoads());
+        assertEquals(0, search("apple " + tag).size()); // matched the old name
+        assertEquals(1, search("pear " + tag).size());  // matches the new name
+        assertEquals(loads + 2, productCache.stats().getLoads());
+        assertEquals("Pear " + tag, productService.findById(productId).orElseThrow().getName());
+    }
+
+    @Test
+    void deleteDropsTheProductAndCreateDropsTheFullList() {
+        Long productId = productService.create(product("Short-lived", "Misc")).getProductId();
+        int listed = productService.findAll().size();
+        assertTrue(productService.findById(productId).isPresent());
+
+        productService.delete(productId);
+        assertTrue(productService.findById(productId).isEmpty());
+        assertEquals(listed - 1, productService.findAll().size());
+
+        productService.create(product("Newcomer", "Misc"));
+        assertEquals(listed, productService.findAll().size());
+    }
+
+    @Test
+    void entriesExpireAndTheOldestAreEvicted() throws Exception {
+        Long productId = productService.create(product("Expiring", "Misc")).getProductId();
+        productService.findById(productId);
+        Thread.sleep(400);
+        long expirations = productCache.stats().getExpirations();
+        productService.findById(productId);
+        assertEquals(expirations + 1, productCache.stats().getExpirations());
+
+        long evictions = productCache.stats().getEvictions();
+        List<Product> many = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            many.add(product("Bulk " + i, "Misc"));
+        }
+        for (Product saved : productRepository.saveAll(many)) {
+            productService.findById(saved.getProductId());
+        }
+        assertTrue(productCache.stats().getSize() <= 100);
+        assertTrue(productCache.stats().getEvictions() >= evictions + 50);
+    }
+
+    // Not a pass/fail check: logs the same skewed read load through the memory cache and through none.
+    // Opt-in: mvn test -Dtest=ProductCacheTest -Dproduct.cache.benchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "product.cache.benchmark", matches = "true")
+    void memoryCacheVersusNone() {
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            catalog.add(product("Catalog item " + i, "Bench"));
+        }
+        List<Long> ids = productRepository.saveAll(catalog).stream().map(Product::getProductId).toList();
+        ProductCache none = new NoProductCache();
+
+        for (ProductCache cache : List.of(none, productCache)) {
+            ProductCacheStats before = cache.stats();
+            Random random = new Random(42);
+            long start = System.nanoTime();
+            for (int i = 0; i < 20_000; i++) {
+                // Most page views hit a small set of popular products
+                Long id = ids.get(random.nextInt(10) < 8 ? random.nextInt(50) : random.nextInt(ids.size()));
+                cache.getProduct(id, () -> productRepository.findById(id));
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            ProductCacheStats after = cache.stats();
+            log.info("product cache {}: 20000 reads in {} ms, {} loads",
+                    after.getType(), millis, after.getLoads() - before.getLoads());
+        }
+    }
+
+    // --- Helper Methods ---
+
+    private List<Product> search(String name) {
+        return productService.search(new ProductSearchQuery(name, null, ProductSearchQuery.Mode.SUBSTRING, 100));
+    }
+
+    private Product product(String name, String category) {
+        return new Product(null, name, category, BigDecimal.ONE, null);
+    }
+}
@@ -0,0 +1,132 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductImportError;
+import com.bazaar.inventory_system.dto.ProductImportResult;
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Own context (and so its own database), so the benchmark's products don't reach the other tests
+@SpringBootTest(properties = "inventory.product-import.max-errors=100")
+@AutoConfigureMockMvc
+class ProductImportTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportTest.class);
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void csvRowsAreImportedAndBadRowsReported() throws Exception {
+        String csv = """
+                name,category,price,description
+                Widget,Import Tools,9.99,"Small, blue"
+                "Gadget ""Pro""\",Import Tools,,"Two
+                lines"
+                ,Import Tools,1.00,
+                Thing,Import Tools,abc,
+                Short,Import Tools
+                Huge,Import Tools,1e40,
+                "Broken"x,Import Tools,1,
+                Last,Import Tools,2.50,
+                """;
+
+        mockMvc.perform(post("/stores/1/products/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(8))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.rejected").value(5))
+                .andExpect(jsonPath("$.errors[*].line", contains(5, 6, 7, 8, 9)))
+                .andExpect(jsonPath("$.errors[0].message").value("Product name is mandatory"));
+
+        List<Product> imported = productService.search(
+                new ProductSearchQuery(null, "Import Tools", ProductSearchQuery.Mode.SUBSTRING, 10));
+        assertEquals(List.of("Gadget \"Pro\"", "Last", "Widget"),
+                imported.stream().map(Product::getName).sorted().toList());
+        Product gadget = imported.stream().filter(p -> p.getName().startsWith("Gadget")).findFirst().orElseThrow();
+        assertEquals("Two\nlines", gadget.getDescription());
+        assertNull(gadget.getPrice());
+    }
+
+    @Test
+    void ndjsonRowsAreImportedAndBadRowsReported() throws Exception {
+        String ndjson = "{\"name\":\"Json one\",\"category\":\"Import Json\",\"price\":3}\n"
+                + "{\"name\":\"Json two\",\n"
+                + "\n"
+                + "{\"name\":\"" + "x".repeat(101) + "\",\"category\":\"Import Json\"}\n"
+                + "{\"productId\":1,\"name\":\"Json three\",\"category\":\"Import Json\"}\n";
+
+        ProductImportResult result = productImportService.importProducts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                ProductImportService.Format.NDJSON, StandardCharsets.UTF_8);
+
+        assertEquals(4, result.getRows());
+        assertEquals(2, result.getImported());
+        assertEquals(List.of(2L, 4L), result.getErrors().stream().map(ProductImportError::getLine).toList());
+        assertEquals(2, productService.search(
+                new ProductSearchQuery("json", "Import Json", ProductSearchQuery.Mode.PREFIX, 10)).size());
+    }
+
+    @Test
+    void unknownCsvColumnIsRejectedUpFront() throws Exception {
+        mockMvc.perform(post("/stores/1/products/import").contentType("text/csv").content("name,colour\nA,red\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Not a pass/fail check: logs rows/s for a generated file of the given size.
+    // Opt-in: mvn test -Dtest=ProductImportTest -Dimport.benchmark.rows=1000000
+    @Test
+    @EnabledIfSystemProperty(named = "import.benchmark.rows", matches = "\\d+")
+    void importThroughput() throws Exception {
+        int rows = Integer.getInteger("import.benchmark.rows");
+        Path file = Files.createTempFile("products", ".csv");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(file)) {
+                out.write("name,category,price,description\n");
+                for (int i = 0; i < rows; i++) {
+                    out.write("Bulk item " + i + ",Category " + (i % 50) + "," + (i % 1000) + ".99,"
+                            + "\"Imported, row " + i + "\"\n");
+                }
+            }
+
+            ProductImportResult result;
+            try (InputStream in = Files.newInputStream(file)) {
+                result = productImportService.importProducts(in, ProductImportService.Format.CSV,
+                        StandardCharsets.UTF_8);
+            }
+
+            assertEquals(rows, result.getImported());
+            log.info("product import: {} rows ({} MB) in {} ms, {} rows/s", rows,
+                    Files.size(file) >> 20, result.getElapsedMillis(), result.getRowsPerSecond());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
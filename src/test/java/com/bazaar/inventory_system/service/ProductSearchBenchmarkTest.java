@@ -0,0 +1,121 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/*
+The timings are not pass/fail checks: they log trigram index lookups next to the LOWER(name)
+LIKE '%x%' query they replace, and are opt-in:
+  mvn test -Dtest=ProductSearchBenchmarkTest -Dproduct.search.benchmark=true
+  mvn test -Dtest=ProductSearchBenchmarkTest -Dproduct.search.benchmark.large=true (1M, needs a bigger heap)
+The normal build only checks that the index finds what LIKE finds on a generated catalog.
+ */
+@SpringBootTest(properties = "inventory.product-cache.type=none") // own context and database
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // drops the seeded database
+class ProductSearchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchBenchmarkTest.class);
+
+    private static final String[] ADJECTIVES = {"organic", "green", "black", "classic", "premium", "mini",
+            "large", "smoked", "spicy", "sweet", "fresh", "dried", "frozen", "roasted", "whole", "light"};
+    private static final String[] NOUNS = {"tea", "coffee", "rice", "lentils", "almonds", "honey", "soap",
+            "shampoo", "biscuits", "noodles", "chili", "ginger", "pepper", "yogurt", "butter", "paneer"};
+    private static final String[] QUERIES = {"tea", "pan", "honey", "ed alm", "ginger 5", "oast", "soap 100"};
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void indexFindsWhatLikeFinds() {
+        seed(5_000);
+        searchIndex.rebuild();
+        for (String query : QUERIES) {
+            List<Long> expected = productRepository.findByNameContainingIgnoreCase(query).stream()
+                    .map(Product::getProductId).sorted().toList();
+            List<Long> found = searchIndex.search(
+                    new ProductSearchQuery(query, null, ProductSearchQuery.Mode.SUBSTRING, 5_000)).stream()
+                    .sorted().toList();
+            assertEquals(expected, found, query);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "product.search.benchmark", matches = "true")
+    void hundredThousandProducts() {
+        run(100_000);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "product.search.benchmark.large", matches = "true")
+    void oneMillionProducts() {
+        run(1_000_000);
+    }
+
+    private void run(int products) {
+        seed(products);
+        long start = System.nanoTime();
+        searchIndex.rebuild();
+        log.info("{} products: index built in {} ms", products, (System.nanoTime() - start) / 1_000_000);
+
+        for (String query : QUERIES) {
+            ProductSearchQuery substring = new ProductSearchQuery(query, null, ProductSearchQuery.Mode.SUBSTRING, 100);
+            ProductSearchQuery prefix = new ProductSearchQuery(query, null, ProductSearchQuery.Mode.PREFIX, 100);
+            searchIndex.search(substring); // warm-up
+            productRepository.findByNameContainingIgnoreCase(query);
+
+            long like = time(() -> productRepository.findByNameContainingIgnoreCase(query).size());
+            long indexed = time(() -> searchIndex.search(substring).size());
+            long prefixed = time(() -> searchIndex.search(prefix).size());
+            log.info("{} products, '{}': LIKE {} us, index substring {} us, index prefix {} us",
+                    products, query, like / 1_000, indexed / 1_000, prefixed / 1_000);
+        }
+    }
+
+    // Median of a few runs, in nanoseconds
+    private long time(Runnable work) {
+        long[] runs = new long[5];
+        for (int i = 0; i < runs.length; i++) {
+            long start = System.nanoTime();
+            work.run();
+            runs[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(runs);
+        return runs[runs.length / 2];
+    }
+
+    private void seed(int products) {
+        Random random = new Random(1);
+        List<Object[]> rows = new ArrayList<>(10_000);
+        for (int i = 0; i < products; i++) {
+            String name = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                    + NOUNS[random.nextInt(NOUNS.length)] + " " + (50 * (1 + random.nextInt(20))) + "g";
+            rows.add(new Object[]{name, "Category " + random.nextInt(40)});
+            if (rows.size() == 10_000 || i == products - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO product (name, category, price) VALUES (?, ?, 1)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
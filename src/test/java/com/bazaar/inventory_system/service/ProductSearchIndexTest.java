@@ -0,0 +1,97 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ProductSearchQuery;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.bazaar.inventory_system.dto.ProductSearchQuery.Mode.PREFIX;
+import static com.bazaar.inventory_system.dto.ProductSearchQuery.Mode.SUBSTRING;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ProductSearchIndexTest {
+
+    private static final String[] WORDS = {"green", "tea", "steamer", "organic", "teapot", "mug", "ceramic",
+            "black", "oolong", "kettle", "glass", "set", "x2", "Ça"};
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    // Same results as the LIKE query it replaces, for every substring of the generated names
+    @Test
+    void substringSearchMatchesLikeQuery() {
+        String category = "like-" + System.nanoTime();
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            int words = 1 + random.nextInt(3);
+            StringBuilder name = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                name.append(w > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            productService.create(new Product(null, name.toString(), category, BigDecimal.ONE, null));
+        }
+
+        for (String part : List.of("t", "te", "tea", "TEA", "eam", "green tea", "pot", "x2", "ça", "zzz", "a s")) {
+            Set<Long> expected = productRepository.findByNameContainingIgnoreCaseAndCategory(part, category).stream()
+                    .map(Product::getProductId).collect(Collectors.toSet());
+            Set<Long> actual = new HashSet<>(searchIndex.search(new ProductSearchQuery(part, category, SUBSTRING, 1000)));
+            assertEquals(expected, actual, () -> "query '" + part + "'");
+        }
+    }
+
+    @Test
+    void prefixSearchRanksExactThenPrefixThenWordStart() {
+        String category = "rank-" + System.nanoTime();
+        Long steamer = create("Steamer", category);
+        Long greenTea = create("Green Tea", category);
+        Long teaPot = create("Tea Pot", category);
+        Long tea = create("Tea", category);
+
+        assertEquals(List.of(tea, teaPot, greenTea), ids("tea", category, PREFIX, 10));
+        assertEquals(List.of(tea, teaPot, greenTea, steamer), ids("tea", category, SUBSTRING, 10));
+        assertEquals(List.of(tea, teaPot), ids("t", category, PREFIX, 2));
+        assertEquals(List.of(greenTea), ids("gr", category, PREFIX, 10));
+    }
+
+    @Test
+    void updatesAndDeletesAreVisibleImmediately() {
+        String category = "live-" + System.nanoTime();
+        Long productId = create("Walnut desk", category);
+        assertEquals(List.of(productId), ids("walnut", category, SUBSTRING, 10));
+
+        productService.update(productId, new Product(null, "Oak desk", category, BigDecimal.ONE, null));
+        assertTrue(ids("walnut", category, SUBSTRING, 10).isEmpty());
+        assertEquals(List.of(productId), ids("oak", category, PREFIX, 10));
+
+        productService.delete(productId);
+        assertTrue(ids("desk", category, SUBSTRING, 10).isEmpty());
+        assertTrue(ids(null, category, SUBSTRING, 10).isEmpty());
+    }
+
+    // --- Helper Methods ---
+
+    private List<Long> ids(String name, String category, ProductSearchQuery.Mode mode, int limit) {
+        return productService.search(new ProductSearchQuery(name, category, mode, limit)).stream()
+                .map(Product::getProductId).toList();
+    }
+
+    private Long create(String name, String category) {
+        return productService.create(new Product(null, name, category, BigDecimal.ONE, null)).getProductId();
+    }
+}
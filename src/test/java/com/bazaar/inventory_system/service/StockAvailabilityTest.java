@@ -0,0 +1,189 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockBatchLine;
+import com.bazaar.inventory_system.dto.StockLevel;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.bazaar.inventory_system.model.StockOperation.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StockAvailabilityTest {
+
+    @Autowired
+    private StockAvailability stockAvailability;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void committedChangesAreReflectedAndRolledBackOnesAreNot() {
+        Long first = newStore("first");
+        Long second = newStore("second");
+        Long third = newStore("third");
+        Long productId = newProduct();
+
+        stockService.addStock(first, productId, 10);
+        stockService.addStock(second, productId, 5);
+        stockService.sellProduct(first, productId, 10);
+        stockService.applyBatch(third, List.of(
+                new StockBatchLine(STOCK_IN, productId, 7),
+                new StockBatchLine(SALE, productId, 2)));
+        // Fails on the second line, so the whole batch is rolled back
+        stockService.applyBatch(second, List.of(
+                new StockBatchLine(SALE, productId, 1),
+                new StockBatchLine(SALE, productId, 100)));
+        assertThrows(InsufficientStockException.class, () -> stockService.removeStock(second, productId, 6));
+
+        assertEquals(10, stockAvailability.totalQuantity(productId));
+        assertEquals(List.of(second, third),
+                stockAvailability.storesWithStock(productId).stream().map(StockLevel::getStoreId).toList());
+        assertEquals(List.of(5, 5),
+                stockAvailability.storesWithStock(productId).stream().map(StockLevel::getQuantity).toList());
+    }
+
+    @Test
+    void concurrentChangesMatchTheStockTable() throws Exception {
+        List<Long> stores = List.of(newStore("a"), newStore("b"), newStore("c"), newStore("d"));
+        Long productId = newProduct();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Long storeId = stores.get(t % stores.size());
+            boolean seller = t >= stores.size();
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    if (seller) {
+                        try {
+                            stockService.sellProduct(storeId, productId, 1);
+                        } catch (RuntimeException e) {
+                            // nothing to sell yet, or no row yet
+                        }
+                    } else {
+                        stockService.addStock(storeId, productId, 2);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        int inTable = 0;
+        for (Long storeId : stores) {
+            int quantity = stockRepository.findQuantity(storeId, productId).orElseThrow();
+            inTable += quantity;
+            int inMemory = stockAvailability.storesWithStock(productId).stream()
+                    .filter(level -> level.getStoreId().equals(storeId))
+                    .mapToInt(StockLevel::getQuantity).sum();
+            assertEquals(quantity, inMemory);
+        }
+        assertEquals(inTable, stockAvailability.totalQuantity(productId));
+    }
+
+    @Test
+    void olderQuantityCommittedLastIsDropped() throws Exception {
+        Long storeId = newStore("order");
+        Long productId = newProduct();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Reported first (as if under the row lock), but committed after the newer report
+        transactionTemplate.executeWithoutResult(status -> {
+            stockAvailability.recordQuantity(storeId, productId, 5);
+            try {
+                executor.submit(() -> transactionTemplate.executeWithoutResult(inner ->
+                        stockAvailability.recordQuantity(storeId, productId, 3))).get(1, TimeUnit.MINUTES);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            assertEquals(3, stockAvailability.quantity(storeId, productId));
+        });
+        executor.shutdown();
+
+        assertEquals(3, stockAvailability.quantity(storeId, productId));
+        assertEquals(3, stockAvailability.totalQuantity(productId));
+    }
+
+    @Test
+    void rebuildFromTableGivesTheSameAnswer() {
+        Long storeId = newStore("rebuild");
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 4);
+        long total = stockAvailability.totalQuantity(productId);
+        List<StockLevel> stores = stockAvailability.storesWithStock(productId);
+
+        stockAvailability.load();
+
+        assertEquals(total, stockAvailability.totalQuantity(productId));
+        assertEquals(stores.size(), stockAvailability.storesWithStock(productId).size());
+    }
+
+    @Test
+    void endpointAnswersFromTheAggregate() throws Exception {
+        Long storeId = newStore("endpoint");
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 3);
+
+        mockMvc.perform(get("/products/{productId}/availability", productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalQuantity").value(3))
+                .andExpect(jsonPath("$.stores[0].storeId").value(storeId))
+                .andExpect(jsonPath("$.stores[0].quantity").value(3));
+        mockMvc.perform(get("/products/{productId}/availability", productId).param("stores", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stores").doesNotExist());
+        mockMvc.perform(get("/products/{productId}/availability", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    // --- Helper Methods ---
+
+    private Long newStore(String prefix) {
+        return storeRepository.save(new Store(prefix + "-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private Long newProduct() {
+        return productRepository.save(new Product(null, "Item", "Test", BigDecimal.ONE, null)).getProductId();
+    }
+}
@@ -0,0 +1,155 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockBatchLine;
+import com.bazaar.inventory_system.dto.StockBatchLineResult;
+import com.bazaar.inventory_system.dto.StockBatchResult;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bazaar.inventory_system.model.StockOperation.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockBatchTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockBatchTest.class);
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void mixedBatchIsAppliedInLineOrder() {
+        Long storeId = newStore("mixed");
+        List<Long> products = newProducts(2);
+
+        StockBatchResult result = stockService.applyBatch(storeId, List.of(
+                new StockBatchLine(STOCK_IN, products.get(0), 10),
+                new StockBatchLine(STOCK_IN, products.get(1), 5),
+                new StockBatchLine(SALE, products.get(0), 4),
+                new StockBatchLine(STOCK_IN, products.get(0), 1),
+                new StockBatchLine(REMOVAL, products.get(1), 5)));
+
+        assertTrue(result.isCommitted());
+        assertTrue(result.getLines().stream().allMatch(l -> l.getStatus() == StockBatchLineResult.Status.APPLIED));
+        assertEquals(7, stockRepository.findQuantity(storeId, products.get(0)).orElseThrow());
+        assertEquals(0, stockRepository.findQuantity(storeId, products.get(1)).orElseThrow());
+        assertEquals(5, stockMovementRepository.findByStoreId(storeId).size());
+    }
+
+    @Test
+    void failingLineRollsBackWholeBatch() {
+        Long storeId = newStore("rollback");
+        List<Long> products = newProducts(3);
+        stockService.addStock(storeId, products.get(0), 2);
+
+        StockBatchResult result = stockService.applyBatch(storeId, List.of(
+                new StockBatchLine(SALE, products.get(0), 1),
+                new StockBatchLine(SALE, products.get(0), 5),
+                new StockBatchLine(SALE, products.get(1), 1),
+                new StockBatchLine(STOCK_IN, products.get(2), 3)));
+
+        assertFalse(result.isCommitted());
+        assertEquals(StockBatchLineResult.Status.ROLLED_BACK, result.getLines().get(0).getStatus());
+        assertEquals(StockBatchLineResult.Status.INSUFFICIENT, result.getLines().get(1).getStatus());
+        assertEquals(StockBatchLineResult.Status.NOT_FOUND, result.getLines().get(2).getStatus());
+        assertEquals(StockBatchLineResult.Status.ROLLED_BACK, result.getLines().get(3).getStatus());
+        assertEquals(2, stockRepository.findQuantity(storeId, products.get(0)).orElseThrow());
+        assertTrue(stockRepository.findQuantity(storeId, products.get(2)).isEmpty());
+        assertEquals(1, stockMovementRepository.findByStoreId(storeId).size());
+    }
+
+    @Test
+    void stockInForUnknownProductIsReportedPerLine() {
+        Long storeId = newStore("unknown");
+        List<Long> products = newProducts(1);
+
+        StockBatchResult result = stockService.applyBatch(storeId, List.of(
+                new StockBatchLine(STOCK_IN, products.get(0), 4),
+                new StockBatchLine(STOCK_IN, Long.MAX_VALUE, 2)));
+
+        assertFalse(result.isCommitted());
+        assertEquals(StockBatchLineResult.Status.ROLLED_BACK, result.getLines().get(0).getStatus());
+        assertEquals(StockBatchLineResult.Status.NOT_FOUND, result.getLines().get(1).getStatus());
+        assertTrue(stockRepository.findQuantity(storeId, products.get(0)).isEmpty());
+    }
+
+    // Not a pass/fail check: logs a 1,000-line basket against 1,000 single-line calls.
+    // Opt-in: mvn test -Dtest=StockBatchTest -Dstock.batch.benchmark=true
+    @Test
+    @EnabledIfSystemProperty(named = "stock.batch.benchmark", matches = "true")
+    void thousandLineBasketVersusSingleLineCalls() {
+        int lines = 1000;
+        Long singleStore = newStore("single");
+        Long batchStore = newStore("batch");
+        List<Long> products = newProducts(lines);
+
+        List<StockBatchLine> delivery = new ArrayList<>();
+        List<StockBatchLine> basket = new ArrayList<>();
+        for (Long productId : products) {
+            delivery.add(new StockBatchLine(STOCK_IN, productId, 10));
+            basket.add(new StockBatchLine(SALE, productId, 1));
+        }
+
+        long start = System.nanoTime();
+        for (Long productId : products) {
+            stockService.addStock(singleStore, productId, 10);
+        }
+        long singleStockInMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        for (Long productId : products) {
+            stockService.sellProduct(singleStore, productId, 1);
+        }
+        long singleSaleMs = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        assertTrue(stockService.applyBatch(batchStore, delivery).isCommitted());
+        long batchStockInMs = (System.nanoTime() - start) / 1_000_000;
+        start = System.nanoTime();
+        assertTrue(stockService.applyBatch(batchStore, basket).isCommitted());
+        long batchSaleMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(2 * lines, stockMovementRepository.findByStoreId(batchStore).size());
+        log.info("1000 lines stock-in: single-line {} ms, batch {} ms", singleStockInMs, batchStockInMs);
+        log.info("1000 lines sale:     single-line {} ms, batch {} ms", singleSaleMs, batchSaleMs);
+    }
+
+    // --- Helper Methods ---
+
+    private Long newStore(String prefix) {
+        return storeRepository.save(new Store(prefix + "-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private List<Long> newProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product(null, "Item " + i, "Test", BigDecimal.ONE, null));
+        }
+        return productRepository.saveAll(products).stream().map(Product::getProductId).toList();
+    }
+}
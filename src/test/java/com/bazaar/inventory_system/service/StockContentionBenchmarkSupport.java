@@ -0,0 +1,151 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockConcurrencyStats;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.exception.StockContentionException;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/*
+16 threads selling (85%) and restocking (15%) one unit at a time, for a few seconds per scenario:
+  hot SKU    every thread on the same product, stock low enough to sell out and refill
+  long tail  500 products, picked with a strong skew towards the first ones
+Logs changes/s, rejected sales and the strategy's conflicts, retries, lock timeouts and lock
+waits (pessimistic only). The subclasses only differ in inventory.stock-concurrency.strategy.
+
+The numbers are not a pass/fail check; what is checked is that no strategy oversells: every
+product ends at initial + restocked - sold, never below zero, and its movements add up to that.
+The subclasses only run with -Dstock.contention.benchmark=true.
+  -Dstock.contention.seconds=2   measured seconds per scenario (default)
+ */
+abstract class StockContentionBenchmarkSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(StockContentionBenchmarkSupport.class);
+
+    private static final int THREADS = 16;
+    private static final int LONG_TAIL_PRODUCTS = 500;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockUpdateStrategy stockUpdates;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void hotSku() throws Exception {
+        run("hot SKU", 1, 200);
+    }
+
+    @Test
+    void longTail() throws Exception {
+        run("long tail", LONG_TAIL_PRODUCTS, 20);
+    }
+
+    // --- Helper Methods ---
+
+    private void run(String scenario, int productCount, int initialQuantity) throws Exception {
+        int seconds = Integer.getInteger("stock.contention.seconds", 2);
+        Long storeId = storeRepository.save(new Store("contention-" + System.nanoTime(), "Test")).getStoreId();
+        List<Long> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            Long productId = productRepository.save(new Product(null, "Contended " + i + " " + System.nanoTime(),
+                    "Test", BigDecimal.ONE, null)).getProductId();
+            stockService.addStock(storeId, productId, initialQuantity);
+            products.add(productId);
+        }
+
+        AtomicIntegerArray sold = new AtomicIntegerArray(productCount);
+        AtomicIntegerArray restocked = new AtomicIntegerArray(productCount);
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong gaveUp = new AtomicLong();
+        StockConcurrencyStats before = stockUpdates.stats();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                workers.add(pool.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        double skew = random.nextDouble();
+                        int index = (int) (productCount * skew * skew * skew);
+                        Long productId = products.get(index);
+                        try {
+                            if (random.nextInt(100) < 15) {
+                                stockService.addStock(storeId, productId, 1);
+                                restocked.incrementAndGet(index);
+                            } else {
+                                stockService.sellProduct(storeId, productId, 1);
+                                sold.incrementAndGet(index);
+                            }
+                        } catch (InsufficientStockException e) {
+                            rejected.incrementAndGet();
+                        } catch (StockContentionException e) {
+                            gaveUp.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        StockConcurrencyStats after = stockUpdates.stats();
+
+        long changes = 0;
+        for (int i = 0; i < productCount; i++) {
+            Long productId = products.get(i);
+            int expected = initialQuantity + restocked.get(i) - sold.get(i);
+            int actual = stockRepository.findQuantity(storeId, productId).orElseThrow();
+            assertTrue(actual >= 0, "product " + productId + " oversold: " + actual);
+            assertEquals(expected, actual, "product " + productId);
+            assertEquals(expected, stockMovementRepository.findByStoreIdAndProductId(storeId, productId).stream()
+                    .mapToInt(StockMovement::getQuantityChange).sum(), "movements of product " + productId);
+            changes += restocked.get(i) + sold.get(i);
+        }
+        long lockWaits = after.getLockWaits() - before.getLockWaits();
+        log.info("{} {}: {} changes/s, {} rejected sales, {} given up, conflicts {}, retries {}, lock timeouts {}, " +
+                        "avg lock wait {} us", after.getStrategy(), scenario, Math.round(changes / elapsedSeconds),
+                rejected.get(), gaveUp.get(), after.getConflicts() - before.getConflicts(),
+                after.getRetries() - before.getRetries(), after.getLockTimeouts() - before.getLockTimeouts(),
+                lockWaits == 0 ? 0 : (after.getLockWaitNanos() - before.getLockWaitNanos()) / 1000 / lockWaits);
+        assertTrue(changes > 0);
+    }
+}
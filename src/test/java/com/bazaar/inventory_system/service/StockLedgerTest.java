@@ -0,0 +1,173 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.StockBatchLine;
+import com.bazaar.inventory_system.dto.StockBatchResult;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockOperation;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.ledger.enabled=true",
+        "inventory.ledger.flush-interval-ms=50"
+})
+class StockLedgerTest {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentSalesNeverOversellAndAreWrittenBehind() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 300);
+
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    try {
+                        stockService.sellProduct(storeId, productId, 1);
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        // expected once the 300 units are gone
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertEquals(300, sold.get());
+        assertEquals(0, stockLedger.quantity(storeId, productId).orElseThrow());
+        assertEquals(301, stockMovementRepository.findByStoreIdAndProductId(storeId, productId).size());
+
+        // Within the flush interval the table catches up without any explicit flush
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (stockRepository.findQuantity(storeId, productId).orElseThrow() != 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, stockRepository.findQuantity(storeId, productId).orElseThrow());
+        assertEquals(0, stockLedger.getDirtyCount());
+    }
+
+    @Test
+    void changesOfRolledBackTransactionsAreUndone() {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        Long newProductId = newProduct();
+        stockService.addStock(storeId, productId, 10);
+
+        // The changes join an outer transaction whose commit then fails, after the in-memory CAS
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            stockService.sellProduct(storeId, productId, 4);
+            stockService.addStock(storeId, newProductId, 5);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    throw new IllegalStateException("commit failed");
+                }
+            });
+        }));
+        assertEquals(10, stockLedger.quantity(storeId, productId).orElseThrow());
+        assertEquals(0, stockLedger.quantity(storeId, newProductId).orElse(0));
+        assertEquals(1, stockMovementRepository.findByStoreIdAndProductId(storeId, productId).size());
+
+        // A batch with a failing line rolls back, which undoes the lines before it
+        StockBatchResult result = stockService.applyBatch(storeId, List.of(
+                new StockBatchLine(StockOperation.SALE, productId, 3),
+                new StockBatchLine(StockOperation.SALE, productId, 30)));
+        assertFalse(result.isCommitted());
+        assertEquals(10, stockLedger.quantity(storeId, productId).orElseThrow());
+        assertEquals(7, stockService.sellProduct(storeId, productId, 3).getQuantity());
+    }
+
+    @Test
+    void uncommittedStockInCanNotBeSoldElsewhere() throws Exception {
+        Long storeId = newStore();
+        Long productId = newProduct();
+        Long newProductId = newProduct();
+        stockService.addStock(storeId, productId, 2);
+
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            // While the stock-in is open, another request sees only the committed 2 units
+            transactionTemplate.executeWithoutResult(status -> {
+                assertEquals(7, stockService.addStock(storeId, productId, 5).getQuantity());
+                assertEquals(3, stockService.addStock(storeId, newProductId, 3).getQuantity());
+                Future<?> sale = other.submit(() -> stockService.sellProduct(storeId, productId, 3));
+                ExecutionException ex = assertThrows(ExecutionException.class, () -> sale.get(10, TimeUnit.SECONDS));
+                assertInstanceOf(InsufficientStockException.class, ex.getCause());
+                status.setRollbackOnly();
+            });
+        } finally {
+            other.shutdown();
+        }
+        assertEquals(2, stockLedger.quantity(storeId, productId).orElseThrow());
+        assertTrue(stockLedger.quantity(storeId, newProductId).isEmpty());
+
+        // Within one transaction, a stock-in can be sold right away
+        StockBatchResult result = stockService.applyBatch(storeId, List.of(
+                new StockBatchLine(StockOperation.STOCK_IN, newProductId, 4),
+                new StockBatchLine(StockOperation.SALE, newProductId, 3),
+                new StockBatchLine(StockOperation.SALE, productId, 2)));
+        assertTrue(result.isCommitted());
+        assertEquals(1, stockLedger.quantity(storeId, newProductId).orElseThrow());
+        assertEquals(0, stockLedger.quantity(storeId, productId).orElseThrow());
+    }
+
+    // --- Helper Methods ---
+
+    private Long newStore() {
+        return storeRepository.save(new Store("ledger-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private Long newProduct() {
+        return productRepository.save(new Product(null, "Item", "Test", BigDecimal.ONE, null)).getProductId();
+    }
+}
@@ -0,0 +1,134 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.exception.JournalUnavailableException;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "inventory.journal.enabled=true",
+        "inventory.journal.max-wait-ms=20"
+})
+class StockMovementJournalTest {
+
+    @Autowired
+    private StockMovementJournal journal;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentAppendsShareGroupCommits() throws Exception {
+        Long storeId = newStore();
+        long batchesBefore = journal.getBatchCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<CompletableFuture<StockMovement>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> journal.append(movement(storeId)), executor)
+                    .thenCompose(f -> f));
+        }
+        for (CompletableFuture<StockMovement> future : futures) {
+            assertNotNull(future.get(30, TimeUnit.SECONDS).getStockMovementId());
+        }
+        executor.shutdown();
+
+        assertEquals(400, stockMovementRepository.findByStoreId(storeId).size());
+        assertTrue(journal.getBatchCount() - batchesBefore < 400, "movements should be grouped");
+        assertEquals(0, journal.getQueueDepth());
+    }
+
+    @Test
+    void rolledBackStockChangeLeavesNoMovement() throws Exception {
+        Long storeId = newStore();
+        Long productId = productRepository.save(new Product(null, "Item", "Test", BigDecimal.ONE, null)).getProductId();
+        stockService.addStock(storeId, productId, 1);
+
+        assertThrows(InsufficientStockException.class, () -> stockService.sellProduct(storeId, productId, 5));
+        stockService.sellProduct(storeId, productId, 1);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (journal.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        List<StockMovement> movements = stockMovementRepository.findByStoreIdAndProductId(storeId, productId);
+        assertEquals(2, movements.size());
+        assertEquals(0, movements.stream().mapToInt(StockMovement::getQuantityChange).sum());
+    }
+
+    @Test
+    void failedWritesAreRetriedUntilWrittenAndBlockNewChanges() throws Exception {
+        Long storeId = newStore();
+        Long productId = productRepository.save(new Product(null, "Item", "Test", BigDecimal.ONE, null)).getProductId();
+        long missingProductId = 1_000_000_000L + System.nanoTime() % 1_000_000;
+
+        // Fails on the product foreign key until the product row shows up
+        StockMovement orphan = movement(storeId);
+        orphan.setProductId(missingProductId);
+        CompletableFuture<StockMovement> pending = journal.append(orphan);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (journal.getUnwrittenCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, journal.getUnwrittenCount());
+        assertThrows(JournalUnavailableException.class, () -> stockService.addStock(storeId, productId, 1));
+        assertFalse(pending.isDone());
+
+        jdbcTemplate.update("INSERT INTO product (product_id, name, category, price) VALUES (?, 'Late', 'Test', 1)",
+                missingProductId);
+        assertNotNull(pending.get(30, TimeUnit.SECONDS).getStockMovementId());
+        deadline = System.currentTimeMillis() + 5_000;
+        while (journal.getUnwrittenCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, journal.getUnwrittenCount());
+        assertEquals(1, stockService.addStock(storeId, productId, 1).getQuantity());
+    }
+
+    // --- Helper Methods ---
+
+    private StockMovement movement(Long storeId) {
+        StockMovement movement = new StockMovement();
+        movement.setStoreId(storeId);
+        movement.setQuantityChange(1);
+        movement.setMovementType("Stock-In");
+        movement.setTimestamp(LocalDateTime.now());
+        return movement;
+    }
+
+    private Long newStore() {
+        return storeRepository.save(new Store("journal-" + System.nanoTime(), "Test")).getStoreId();
+    }
+}
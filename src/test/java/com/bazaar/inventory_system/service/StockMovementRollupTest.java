@@ -0,0 +1,158 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.RollupGranularity;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.StockMovementRollup;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class StockMovementRollupTest {
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockMovementRollupService rollupService;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void writesThroughStockServiceUpdateBothGranularities() {
+        Long storeId = newStore("live");
+        Long productId = newProduct();
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+
+        stockService.addStock(storeId, productId, 10);
+        stockService.sellProduct(storeId, productId, 3);
+        stockService.sellProduct(storeId, productId, 2);
+        stockService.removeStock(storeId, productId, 1);
+
+        // A test straddling the hour or midnight splits a type over two buckets, so compare sums
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            assertEquals(10, sum(storeId, productId, granularity, start, "Stock-In"));
+            assertEquals(-5, sum(storeId, productId, granularity, start, "SALE"));
+            assertEquals(-1, sum(storeId, productId, granularity, start, "Removal"));
+        }
+    }
+
+    @Test
+    void onlyCommittedMovementsReachTheRollups() {
+        Long storeId = newStore("rolled-back");
+        Long productId = newProduct();
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        stockService.addStock(storeId, productId, 10);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            stockService.sellProduct(storeId, productId, 4);
+            status.setRollbackOnly();
+        });
+        stockService.sellProduct(storeId, productId, 1);
+
+        assertEquals(-1, sum(storeId, productId, RollupGranularity.HOUR, start, "SALE"));
+        rollupService.flush();
+        assertEquals(0, rollupService.getPendingCount());
+    }
+
+    @Test
+    void deletedMovementIsTakenOut() {
+        Long storeId = newStore("delete");
+        Long productId = newProduct();
+        StockMovement movement = new StockMovement();
+        movement.setStoreId(storeId);
+        movement.setProductId(productId);
+        movement.setQuantityChange(-4);
+        movement.setMovementType("SALE");
+        movement.setTimestamp(LocalDateTime.of(2023, 6, 10, 9, 30));
+
+        StockMovement saved = stockService.createMovement(movement);
+        assertEquals(1, summary(storeId, RollupGranularity.HOUR, 2023, 6).size());
+
+        stockService.deleteMovement(saved);
+        assertTrue(summary(storeId, RollupGranularity.HOUR, 2023, 6).isEmpty());
+    }
+
+    @Test
+    void backfillRebuildsHistoryWrittenWithoutRollups() {
+        Long storeId = newStore("backfill");
+        List<Long> products = List.of(newProduct(), newProduct());
+        // Raw inserts bypass the rollups, like history that predates them
+        List<StockMovement> history = new ArrayList<>();
+        LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0);
+        for (int i = 0; i < 2_000; i++) {
+            StockMovement movement = new StockMovement();
+            movement.setStoreId(storeId);
+            movement.setProductId(products.get(i % 2));
+            movement.setQuantityChange(-1);
+            movement.setMovementType("SALE");
+            movement.setTimestamp(start.plusHours(i * 3L)); // about 8 months
+            history.add(movement);
+        }
+        stockMovementRepository.saveAll(history);
+        assertTrue(summary(storeId, RollupGranularity.DAY, 2022, 1).isEmpty());
+
+        Map<Integer, Integer> written = rollupService.backfill(202201, 202212);
+
+        assertTrue(written.size() >= 8, () -> "months rebuilt: " + written.keySet());
+        List<StockMovementRollup> days = rollupService.summarize(storeId, null, RollupGranularity.DAY,
+                start, start.plusYears(1));
+        assertEquals(2_000, days.stream().mapToLong(StockMovementRollup::getMovementCount).sum());
+        assertEquals(-2_000, days.stream().mapToLong(StockMovementRollup::getQuantityChange).sum());
+        // 8 sales a day, alternating between the two products
+        StockMovementRollup firstDay = days.get(0);
+        assertEquals(LocalDateTime.of(2022, 1, 1, 0, 0), firstDay.getBucketStart());
+        assertEquals(4, firstDay.getMovementCount());
+
+        // Rebuilding again replaces the buckets instead of adding to them
+        rollupService.backfill(202201, 202212);
+        assertEquals(2_000, rollupService.summarize(storeId, null, RollupGranularity.DAY, start, start.plusYears(1))
+                .stream().mapToLong(StockMovementRollup::getMovementCount).sum());
+    }
+
+    // --- Helper Methods ---
+
+    private long sum(Long storeId, Long productId, RollupGranularity granularity, LocalDateTime start, String type) {
+        return rollupService.summarize(storeId, productId, granularity, start, LocalDateTime.now()).stream()
+                .filter(r -> r.getMovementType().equals(type))
+                .mapToLong(StockMovementRollup::getQuantityChange)
+                .sum();
+    }
+
+    private List<StockMovementRollup> summary(Long storeId, RollupGranularity granularity, int year, int month) {
+        LocalDateTime from = LocalDateTime.of(year, month, 1, 0, 0);
+        return rollupService.summarize(storeId, null, granularity, from, from.plusMonths(1).minusNanos(1));
+    }
+
+    private Long newStore(String prefix) {
+        return storeRepository.save(new Store(prefix + "-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private Long newProduct() {
+        return productRepository.save(new Product(null, "Item", "Test", BigDecimal.ONE, null)).getProductId();
+    }
+}
@@ -0,0 +1,208 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.ReconciliationReport;
+import com.bazaar.inventory_system.dto.StockDrift;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.StockMovement;
+import com.bazaar.inventory_system.model.StockOperation;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StockMovementRepository;
+import com.bazaar.inventory_system.repository.StockRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Own context (and so its own database): the other tests leave drift behind on purpose
+@SpringBootTest(properties = "inventory.reconciliation.max-reported=5000")
+@AutoConfigureMockMvc
+class StockReconciliationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StockReconciliationTest.class);
+
+    @Autowired
+    private StockReconciliationService reconciliationService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockAvailability stockAvailability;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void driftIsReportedThenRepaired() {
+        Long storeId = newStore("drift");
+        List<Long> products = newProducts(5);
+        Long negative = products.get(0), deleted = products.get(1), posted = products.get(2),
+                noRow = products.get(3), consistent = products.get(4);
+        stockService.addStock(storeId, negative, 10);
+        stockService.sellProduct(storeId, negative, 3);
+        stockService.addStock(storeId, deleted, 10);
+        stockService.addStock(storeId, posted, 5);
+        stockService.addStock(storeId, consistent, 8);
+
+        stockService.deleteMovement(stockInOf(storeId, negative)); // movements now sum to -3
+        stockService.deleteMovement(stockInOf(storeId, deleted));  // stock 10, movements 0
+        stockService.createMovement(movement(storeId, posted, 4));  // stock 5, movements 9
+        stockService.createMovement(movement(storeId, noRow, 6));   // no stock row, movements 6
+
+        List<StockDrift> found = driftsOf(reconciliationService.run(false), storeId);
+        assertEquals(List.of(negative, deleted, posted, noRow), found.stream().map(StockDrift::getProductId).toList());
+        assertEquals(List.of(-3L, 0L, 9L, 6L), found.stream().map(StockDrift::getExpected).toList());
+        assertNull(found.get(3).getQuantity());
+        assertTrue(found.stream().noneMatch(StockDrift::isRepaired));
+
+        long availableBefore = stockAvailability.totalQuantity(posted);
+        ReconciliationReport repair = reconciliationService.run(true);
+        assertEquals(ReconciliationReport.State.COMPLETED, repair.getState());
+        assertEquals(List.of(false, true, true, true),
+                driftsOf(repair, storeId).stream().map(StockDrift::isRepaired).toList());
+        assertEquals(0, stockRepository.findQuantity(storeId, deleted).orElseThrow());
+        assertEquals(9, stockRepository.findQuantity(storeId, posted).orElseThrow());
+        assertEquals(6, stockRepository.findQuantity(storeId, noRow).orElseThrow());
+        assertEquals(availableBefore + 4, stockAvailability.totalQuantity(posted));
+
+        // Only the negative one is left, and it stays until someone fixes the history
+        assertEquals(List.of(negative),
+                driftsOf(reconciliationService.run(false), storeId).stream().map(StockDrift::getProductId).toList());
+    }
+
+    @Test
+    void backgroundRunReportsProgressUntilDone() throws Exception {
+        newStore("background");
+        mockMvc.perform(post("/admin/stock-reconciliation")).andExpect(status().isAccepted());
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (reconciliationService.lastReport().getState() == ReconciliationReport.State.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "reconciliation did not finish");
+            Thread.sleep(50);
+        }
+        ReconciliationReport report = reconciliationService.lastReport();
+        assertEquals(ReconciliationReport.State.COMPLETED, report.getState());
+        assertEquals(report.getStoresTotal(), report.getStoresDone());
+        mockMvc.perform(get("/admin/stock-reconciliation")).andExpect(status().isOk());
+    }
+
+    // Not a pass/fail check. Opt-in: mvn test -Dtest=StockReconciliationTest -Dreconciliation.benchmark=true,
+    // plus -Dreconciliation.benchmark.movements=N for a bigger log
+    @Test
+    @EnabledIfSystemProperty(named = "reconciliation.benchmark", matches = "true")
+    void reconciliationThroughput() {
+        int movements = Integer.getInteger("reconciliation.benchmark.movements", 200_000);
+        int stores = 20;
+        int productsPerStore = 1000;
+        List<Long> storeIds = new ArrayList<>();
+        for (int i = 0; i < stores; i++) {
+            storeIds.add(newStore("bench"));
+        }
+        List<Long> products = newProducts(productsPerStore);
+
+        // Movements straight through JDBC, stock rows set to their sums, then 1 row in 100 knocked off
+        LocalDateTime timestamp = LocalDateTime.now().minusDays(1);
+        List<Object[]> batch = new ArrayList<>();
+        long[][] sums = new long[stores][productsPerStore];
+        for (int i = 0; i < movements; i++) {
+            int store = i % stores;
+            int product = (i / stores) % productsPerStore;
+            int change = i % 3 == 0 ? -1 : 2;
+            sums[store][product] += change;
+            batch.add(new Object[]{storeIds.get(store), products.get(product), change,
+                    change > 0 ? "Stock-In" : "Sale", Timestamp.valueOf(timestamp), StockMovement.monthBucket(timestamp)});
+            if (batch.size() == 10_000 || i == movements - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO stock_movement (stock_movement_id, store_id, product_id, " +
+                        "quantity_change, movement_type, timestamp, movement_month) " +
+                        "VALUES (NEXT VALUE FOR stock_movement_seq, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        for (int store = 0; store < stores; store++) {
+            for (int product = 0; product < productsPerStore; product++) {
+                long quantity = Math.max(0, sums[store][product]) + (product % 100 == 0 ? 1 : 0);
+                batch.add(new Object[]{storeIds.get(store), products.get(product), quantity});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO stock (store_id, product_id, quantity) VALUES (?, ?, ?)", batch);
+
+        ReconciliationReport report = reconciliationService.run(false);
+
+        long benchDrifts = report.getDrifts().stream().filter(d -> storeIds.contains(d.getStoreId())).count();
+        assertEquals(stores * (productsPerStore / 100), benchDrifts);
+        log.info("reconciliation: {} movements, {} stores, {} mismatches in {} ms ({} movements/s)",
+                movements, report.getStoresTotal(), report.getMismatches(), report.getElapsedMillis(),
+                Math.round(movements / Math.max(report.getElapsedMillis() / 1000.0, 0.001)));
+    }
+
+    // --- Helper Methods ---
+
+    private List<StockDrift> driftsOf(ReconciliationReport report, Long storeId) {
+        return report.getDrifts().stream()
+                .filter(drift -> drift.getStoreId().equals(storeId))
+                .sorted(Comparator.comparing(StockDrift::getProductId))
+                .collect(Collectors.toList());
+    }
+
+    private StockMovement stockInOf(Long storeId, Long productId) {
+        return stockMovementRepository.findByStoreIdAndProductId(storeId, productId).stream()
+                .filter(m -> m.getQuantityChange() > 0)
+                .findFirst().orElseThrow();
+    }
+
+    private StockMovement movement(Long storeId, Long productId, int quantity) {
+        StockMovement movement = new StockMovement();
+        movement.setStoreId(storeId);
+        movement.setProductId(productId);
+        movement.setQuantityChange(quantity);
+        movement.setMovementType(StockOperation.STOCK_IN.getMovementType());
+        movement.setTimestamp(LocalDateTime.now());
+        return movement;
+    }
+
+    private Long newStore(String prefix) {
+        return storeRepository.save(new Store(prefix + "-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private List<Long> newProducts(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product(null, "Item " + i, "Test", BigDecimal.ONE, null));
+        }
+        return productRepository.saveAll(products).stream().map(Product::getProductId).toList();
+    }
+}
@@ -0,0 +1,185 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.dto.LowStockAlert;
+import com.bazaar.inventory_system.dto.StockBatchLine;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.bazaar.inventory_system.model.StockOperation.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StockThresholdsTest {
+
+    // Every alert delivered by the outbox
+    static final LinkedBlockingQueue<LowStockAlert> delivered = new LinkedBlockingQueue<>();
+
+    @TestConfiguration
+    static class Listener {
+        @Bean
+        LowStockListener recordingListener() {
+            return delivered::add;
+        }
+    }
+
+    @Autowired
+    private StockThresholds stockThresholds;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockAvailability stockAvailability;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void crossingBelowAlertsOnceAndRearmsAfterRestock() throws Exception {
+        Long storeId = newStore("edge");
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 10);
+        stockThresholds.setThreshold(storeId, productId, 5);
+
+        stockService.sellProduct(storeId, productId, 5);  // 5: not below yet
+        stockService.sellProduct(storeId, productId, 1);  // 4: crosses
+        stockService.removeStock(storeId, productId, 1);  // 3: still low, no second alert
+        assertEquals(List.of(4), alertQuantities(storeId, productId, 1));
+        assertEquals(3, stockThresholds.lowStock(storeId).get(0).getQuantity());
+
+        stockService.addStock(storeId, productId, 10);    // 13: cleared
+        assertTrue(stockThresholds.lowStock(storeId).isEmpty());
+        stockService.applyBatch(storeId, List.of(new StockBatchLine(SALE, productId, 10))); // 3: crosses again
+        assertEquals(List.of(3), alertQuantities(storeId, productId, 1));
+        assertEquals(1, stockThresholds.lowStock(storeId).size());
+    }
+
+    @Test
+    void thresholdAboveCurrentQuantityAlertsAndRemovalClearsIt() throws Exception {
+        Long storeId = newStore("set");
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 2);
+
+        stockThresholds.setThreshold(storeId, productId, 3);
+        assertEquals(List.of(2), alertQuantities(storeId, productId, 1));
+        stockThresholds.setThreshold(storeId, productId, 1); // raised above the threshold again
+        assertTrue(stockThresholds.lowStock(storeId).isEmpty());
+        stockThresholds.setThreshold(storeId, productId, 3);
+        assertEquals(List.of(2), alertQuantities(storeId, productId, 1));
+
+        assertTrue(stockThresholds.removeThreshold(storeId, productId));
+        assertTrue(stockThresholds.lowStock(storeId).isEmpty());
+        stockService.sellProduct(storeId, productId, 2);
+        assertTrue(alertQuantities(storeId, productId, 0).isEmpty());
+    }
+
+    @Test
+    void changesCommittedOutOfOrderRaiseNoFalseAlert() throws Exception {
+        Long storeId = newStore("order");
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 6);
+        stockThresholds.setThreshold(storeId, productId, 5);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // A stock-in to 16 and then a sale of 8 on the same row, whose commits finish the other way round:
+        // as deltas the sale alone would have dipped the row to -2
+        transactionTemplate.executeWithoutResult(status -> {
+            stockAvailability.recordQuantity(storeId, productId, 16);
+            try {
+                executor.submit(() -> transactionTemplate.executeWithoutResult(inner ->
+                        stockAvailability.recordQuantity(storeId, productId, 8))).get(1, TimeUnit.MINUTES);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        executor.shutdown();
+
+        assertTrue(alertQuantities(storeId, productId, 0).isEmpty());
+        assertTrue(stockThresholds.lowStock(storeId).isEmpty());
+        assertEquals(8, stockAvailability.quantity(storeId, productId));
+    }
+
+    @Test
+    void thresholdEndpoints() throws Exception {
+        Long storeId = newStore("endpoint");
+        Long productId = newProduct();
+        stockService.addStock(storeId, productId, 1);
+
+        mockMvc.perform(put("/stores/{storeId}/stock/{productId}/threshold", storeId, productId)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"threshold\":0}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/stores/{storeId}/stock/{productId}/threshold", storeId, productId)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"threshold\":5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.threshold").value(5));
+        mockMvc.perform(get("/stores/{storeId}/low-stock", storeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(productId))
+                .andExpect(jsonPath("$[0].quantity").value(1))
+                .andExpect(jsonPath("$[0].threshold").value(5));
+        mockMvc.perform(delete("/stores/{storeId}/stock/{productId}/threshold", storeId, productId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/stores/{storeId}/stock/{productId}/threshold", storeId, productId))
+                .andExpect(status().isNotFound());
+    }
+
+    // --- Helper Methods ---
+
+    // Waits for the expected number of alerts for this row, then a little longer for unexpected ones
+    private List<Integer> alertQuantities(Long storeId, Long productId, int expected) throws InterruptedException {
+        List<Integer> quantities = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + (expected == 0 ? 300 : 5000);
+        while (System.currentTimeMillis() < deadline) {
+            LowStockAlert alert = delivered.poll(50, TimeUnit.MILLISECONDS);
+            if (alert != null && alert.getStoreId().equals(storeId) && alert.getProductId().equals(productId)) {
+                quantities.add(alert.getQuantity());
+                if (quantities.size() == expected) {
+                    deadline = Math.min(deadline, System.currentTimeMillis() + 300);
+                }
+            }
+        }
+        return quantities;
+    }
+
+    private Long newStore(String prefix) {
+        return storeRepository.save(new Store(prefix + "-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private Long newProduct() {
+        return productRepository.save(new Product(null, "Item", "Test", BigDecimal.ONE, null)).getProductId();
+    }
+}
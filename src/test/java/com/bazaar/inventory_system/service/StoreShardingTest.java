@@ -0,0 +1,257 @@
+package com.bazaar.inventory_system.service;
+
+import com.bazaar.inventory_system.config.StoreShards;
+import com.bazaar.inventory_system.dto.StoreMoveReport;
+import com.bazaar.inventory_system.exception.InsufficientStockException;
+import com.bazaar.inventory_system.model.Product;
+import com.bazaar.inventory_system.model.Store;
+import com.bazaar.inventory_system.repository.ProductRepository;
+import com.bazaar.inventory_system.repository.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Three file-backed H2 shards in a temp directory; the home shard's schema is created by Hibernate,
+// the others by StoreShards at startup
+@SpringBootTest(properties = {
+        "inventory.sharding.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "inventory.sharding.move-chunk=100"
+})
+@AutoConfigureMockMvc
+class StoreShardingTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreShardingTest.class);
+
+    private static final int SHARDS = 3;
+    private static final Path DIRECTORY = tempDirectory();
+
+    @DynamicPropertySource
+    static void shards(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> url(0));
+        List<String> urls = new ArrayList<>();
+        for (int shard = 1; shard < SHARDS; shard++) {
+            urls.add(url(shard));
+        }
+        registry.add("inventory.sharding.urls", () -> String.join(",", urls));
+    }
+
+    @Autowired
+    private StoreShards storeShards;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StoreMoveService storeMoveService;
+
+    @Autowired
+    private StoreRepository storeRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void storesAreSpreadOverShardsAndRowsLandOnTheirShard() {
+        Product product = newProduct();
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            Long storeId = newStore("spread");
+            int shard = storeShards.shardOf(storeId);
+            used.add(shard);
+            stockService.addStock(storeId, product.getProductId(), 5);
+
+            for (int other = 0; other < SHARDS; other++) {
+                assertEquals(other == shard ? 1 : 0, countRows(other, "stock", storeId), "stock on shard " + other);
+                assertEquals(other == shard ? 1 : 0, countRows(other, "stock_movement", storeId));
+            }
+        }
+        assertEquals(SHARDS, used.size());
+    }
+
+    @Test
+    void storesAndProductsAreCopiedToEveryShard() {
+        Long storeId = newStore("shared");
+        Product product = newProduct();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals(1, storeShards.jdbc(shard).queryForObject(
+                    "SELECT COUNT(*) FROM store WHERE store_id = ?", Integer.class, storeId));
+            assertEquals(1, storeShards.jdbc(shard).queryForObject(
+                    "SELECT COUNT(*) FROM product WHERE product_id = ?", Integer.class, product.getProductId()));
+        }
+
+        storeRepository.deleteById(storeId);
+        for (int shard = 0; shard < SHARDS; shard++) {
+            assertEquals(0, storeShards.jdbc(shard).queryForObject(
+                    "SELECT COUNT(*) FROM store WHERE store_id = ?", Integer.class, storeId));
+        }
+    }
+
+    @Test
+    void staleCopiesAreResyncedByContent() {
+        Product product = newProduct();
+        // As if the after-commit copy of a rename had failed: same row count, old content
+        storeShards.jdbc(1).update("UPDATE product SET name = 'Stale' WHERE product_id = ?", product.getProductId());
+
+        assertTrue(storeShards.syncSharedTables() >= 1);
+        assertEquals(product.getName(), storeShards.jdbc(1).queryForObject(
+                "SELECT name FROM product WHERE product_id = ?", String.class, product.getProductId()));
+        assertEquals(0, storeShards.syncSharedTables());
+    }
+
+    @Test
+    void requestsAreRoutedByStoreId() throws Exception {
+        Product product = newProduct();
+        Long storeId = newStoreNotOn(StoreShards.HOME);
+        mockMvc.perform(post("/stores/{storeId}/stock-in", storeId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\": " + product.getProductId() + ", \"quantity\": 7}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/stores/{storeId}/stock/{productId}", storeId, product.getProductId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quantity").value(7));
+        mockMvc.perform(get("/stores/{storeId}/stock-movements", storeId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertEquals(1, countRows(storeShards.shardOf(storeId), "stock", storeId));
+        assertEquals(0, countRows(StoreShards.HOME, "stock", storeId));
+    }
+
+    @Test
+    void storeMovesWhileItKeepsSelling() throws Exception {
+        Long storeId = newStore("move");
+        List<Long> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            products.add(newProduct().getProductId());
+            stockService.addStock(storeId, products.get(i), 1_000);
+        }
+        for (int i = 0; i < 500; i++) {
+            stockService.sellProduct(storeId, products.get(i % products.size()), 1);
+        }
+        int from = storeShards.shardOf(storeId);
+        int to = (from + 1) % SHARDS;
+
+        AtomicBoolean selling = new AtomicBoolean(true);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger missed = new AtomicInteger();
+        ExecutorService sellers = Executors.newFixedThreadPool(6);
+        List<Future<?>> tasks = new ArrayList<>();
+        // Reads go through the gate too: neither the old shard after the switch nor the new one mid-copy
+        for (int t = 0; t < 2; t++) {
+            tasks.add(sellers.submit(() -> {
+                for (int i = 0; selling.get(); i++) {
+                    if (stockService.findStock(storeId, products.get(i % products.size())).isEmpty()) {
+                        missed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            tasks.add(sellers.submit(() -> {
+                for (int i = offset; selling.get(); i += 4) {
+                    try {
+                        stockService.sellProduct(storeId, products.get(i % products.size()), 1);
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        return;
+                    }
+                }
+            }));
+        }
+        Thread.sleep(50);
+        StoreMoveReport report = storeMoveService.move(storeId, to);
+        Thread.sleep(50);
+        selling.set(false);
+        for (Future<?> task : tasks) {
+            task.get(30, TimeUnit.SECONDS);
+        }
+        sellers.shutdown();
+
+        assertEquals(to, storeShards.shardOf(storeId));
+        assertEquals(from, report.getFromShard());
+        assertEquals(0, missed.get());
+        assertEquals(0, storeShards.getGateCount());
+        assertEquals(0, countRows(from, "stock", storeId));
+        assertEquals(0, countRows(from, "stock_movement", storeId));
+        assertEquals(products.size(), countRows(to, "stock", storeId));
+        // Every sale made before, during and after the move is on the new shard, once
+        int sales = 500 + sold.get();
+        assertEquals(products.size() + sales, countRows(to, "stock_movement", storeId));
+        long left = storeShards.jdbc(to).queryForObject(
+                "SELECT SUM(quantity) FROM stock WHERE store_id = ?", Long.class, storeId);
+        assertEquals(products.size() * 1_000L - sales, left);
+        log.info("Moved a store with {} movements, frozen {} ms of {} ms, {} sales during the test",
+                report.getMovements(), report.getFrozenMillis(), report.getElapsedMillis(), sold.get());
+    }
+
+    // --- Helper Methods ---
+
+    private long countRows(int shard, String table, Long storeId) {
+        return storeShards.jdbc(shard).queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE store_id = ?", Long.class, storeId);
+    }
+
+    private Long newStore(String prefix) {
+        return storeRepository.save(new Store(prefix + "-" + System.nanoTime(), "Test")).getStoreId();
+    }
+
+    private Long newStoreNotOn(int shard) {
+        Long storeId;
+        do {
+            storeId = newStore("routed");
+        } while (storeShards.shardOf(storeId) == shard);
+        return storeId;
+    }
+
+    private Product newProduct() {
+        return productRepository.save(new Product(null, "Sharded " + System.nanoTime(), "Test", BigDecimal.ONE, null));
+    }
+
+    private static String url(int shard) {
+        return "jdbc:h2:file:" + DIRECTORY.resolve("shard-" + shard).toAbsolutePath();
+    }
+
+    private static Path tempDirectory() {
+        try {
+            Path directory = Files.createTempDirectory("store-shards");
+            directory.toFile().deleteOnExit();
+            return directory;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}